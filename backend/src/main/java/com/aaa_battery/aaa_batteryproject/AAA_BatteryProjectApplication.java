@@ -25,7 +25,9 @@ import io.github.cdimascio.dotenv.Dotenv;
     "com.aaa_battery.aaa_batteryproject.item.model",
     "com.aaa_battery.aaa_batteryproject.requests.model",
     "com.aaa_battery.aaa_batteryproject.security.model",
-    "com.aaa_battery.aaa_batteryproject.reviews.model"
+    "com.aaa_battery.aaa_batteryproject.reviews.model",
+    "com.aaa_battery.aaa_batteryproject.idempotency.model",
+    "com.aaa_battery.aaa_batteryproject.jobs.model"
 
 })
 @EnableJpaRepositories(basePackages = {
@@ -35,7 +37,9 @@ import io.github.cdimascio.dotenv.Dotenv;
     "com.aaa_battery.aaa_batteryproject.borrows.repository",
     "com.aaa_battery.aaa_batteryproject.requests.repository",
     "com.aaa_battery.aaa_batteryproject.fines.repository",
-    "com.aaa_battery.aaa_batteryproject.reviews.repository"
+    "com.aaa_battery.aaa_batteryproject.reviews.repository",
+    "com.aaa_battery.aaa_batteryproject.idempotency.repository",
+    "com.aaa_battery.aaa_batteryproject.jobs.repository"
 })
 @EnableWebMvc
 public class AAA_BatteryProjectApplication {
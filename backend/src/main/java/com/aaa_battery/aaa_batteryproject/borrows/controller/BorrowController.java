@@ -2,20 +2,23 @@ package com.aaa_battery.aaa_batteryproject.borrows.controller;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import com.aaa_battery.aaa_batteryproject.borrows.dto.BorrowHistoryDTO;
+import com.aaa_battery.aaa_batteryproject.borrows.dto.BorrowReceiptDTO;
+import com.aaa_battery.aaa_batteryproject.borrows.dto.CheckoutLineDTO;
 import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
 import  com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
 import com.aaa_battery.aaa_batteryproject.item.model.ItemEntity;
 import com.aaa_battery.aaa_batteryproject.item.service.ItemService;
 import com.aaa_battery.aaa_batteryproject.user.services.BorrowerService;
 import com.aaa_battery.aaa_batteryproject.borrows.service.BorrowService;
-import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.AudiobookDescription;
-import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.DVDDescription;
-import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.BookDescription;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -27,6 +30,10 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/borrower")
 public class BorrowController {
 
+    // Upper bound on one kiosk checkout
+    private static final int MAX_CHECKOUT_ITEMS = 25;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final ItemService itemService;
     private final BorrowerService borrowerService;
     private final BorrowService borrowService;
@@ -52,55 +59,66 @@ public class BorrowController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Borrower not found");
             }
 
-            // Fetch available item
-            Optional<ItemEntity> optionalItem = itemService.findAvailableItemByDescription(itemDescriptionId);
-            if (optionalItem.isEmpty()) {
+            // Claim a free copy and record the borrow in one transaction
+            Optional<BorrowEntity> optionalBorrow = borrowService.createBorrow(borrower, itemDescriptionId.intValue());
+            if (optionalBorrow.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                         .body("No available item found for description ID: " + itemDescriptionId);
             }
+            BorrowEntity borrow = optionalBorrow.get();
 
-            // Retrieve the item and mark it as unavailable
-            ItemEntity item = optionalItem.get();
-            item.setAvailability(false);
-
-            // Create borrow request
-            BorrowEntity borrow = new BorrowEntity();
-            borrow.setBorrower(borrower);
-            borrow.setItem(item);
-
-            // Add borrow to borrower
-            borrower.addBorrowedItem(borrow);
-
-            // Save borrow request (cascades to item and borrower if configured)
-            borrowService.saveBorrowRequest(borrow);
-
-            // Prepare response
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", borrow.getId());
-            response.put("borrower", Map.of("id", borrower.getId(), "name", borrower.getFullName(), "email", borrower.getEmail()));
-            response.put("item", Map.of(
-                    "id", item.getItemId(),
-                    "title", item.getDescription().getItemName(),
-                    "creator", item.getDescription().getItemType().equalsIgnoreCase("book")
-                            ? ((BookDescription) item.getDescription()).getAuthorName()
-                            : item.getDescription().getItemType().equalsIgnoreCase("audiobook")
-                            ? ((AudiobookDescription) item.getDescription()).getAuthorName()
-                            : item.getDescription().getItemType().equalsIgnoreCase("dvd")
-                            ? ((DVDDescription) item.getDescription()).getProducer()
-                            : "Unknown", // Fallback for an unknown type
-                    "type", item.getDescription().getItemType()
-            ));
-            response.put("borrowStatus", borrow.getStatus());
-            response.put("borrowDate", borrow.getBorrowDate());
-            response.put("returnDate", borrow.getReturnDate());
-
-            return ResponseEntity.ok(Map.of("data", response));
+            return ResponseEntity.ok(Map.of("data", BorrowReceiptDTO.of(borrow)));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Failed to submit borrow: " + e.getMessage());
         }
     }
 
+    @PostMapping("/borrows/batch")
+    public ResponseEntity<?> submitBatchBorrowRequest(@RequestBody Map<String, Object> borrowData) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            BorrowerEntity currentBorrower = (BorrowerEntity) authentication.getPrincipal();
+            Long userId = ((Number) currentBorrower.getId()).longValue();
+
+            if (!(borrowData.get("itemIds") instanceof List<?> rawIds) || rawIds.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("itemIds must be a non-empty list");
+            }
+            if (rawIds.size() > MAX_CHECKOUT_ITEMS) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body("A checkout can hold at most " + MAX_CHECKOUT_ITEMS + " items");
+            }
+            List<Integer> itemDescriptionIds = new ArrayList<>(rawIds.size());
+            for (Object rawId : rawIds) {
+                if (!(rawId instanceof Number number)) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid item ID: " + rawId);
+                }
+                itemDescriptionIds.add(number.intValue());
+            }
+
+            // Fetch borrower once for the whole cart
+            BorrowerEntity borrower = borrowerService.findBorrowerById(userId);
+            if (borrower == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Borrower not found");
+            }
+
+            // Every line is claimed and recorded in one transaction; lines with nothing on the shelf are reported, not fatal
+            List<Optional<BorrowEntity>> borrows = borrowService.createBorrows(borrower, itemDescriptionIds);
+            List<CheckoutLineDTO> lines = new ArrayList<>(borrows.size());
+            for (int i = 0; i < borrows.size(); i++) {
+                Integer itemId = itemDescriptionIds.get(i);
+                lines.add(borrows.get(i)
+                        .map(borrow -> CheckoutLineDTO.borrowed(itemId, BorrowReceiptDTO.of(borrow)))
+                        .orElseGet(() -> CheckoutLineDTO.unavailable(itemId)));
+            }
+
+            return ResponseEntity.ok(Map.of("data", lines));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to submit borrows: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/my-borrows")
     public ResponseEntity<?> getMyBorrows() {
         try {
@@ -113,13 +131,51 @@ public class BorrowController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Borrower not found");
             }
 
-            return ResponseEntity.ok(currentBorrower.getBorrowedItems());
+            // Read through the repository: the borrower's own collection is lazy
+            return ResponseEntity.ok(borrowService.findByBorrowerId(userId));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Failed to retrieve borrows: " + e.getMessage());
         }
     }
 
+    @GetMapping("/my-borrows/history")
+    public ResponseEntity<?> getMyBorrowHistory(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String status) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            BorrowerEntity currentBorrower = (BorrowerEntity) authentication.getPrincipal();
+
+            if (page < 0 || size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body("page must be 0 or more and size between 1 and " + MAX_HISTORY_PAGE_SIZE);
+            }
+            BorrowEntity.BorrowStatus borrowStatus = null;
+            if (status != null && !status.isBlank()) {
+                try {
+                    borrowStatus = BorrowEntity.BorrowStatus.valueOf(status.trim().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body("Invalid status. Valid values: BORROWED, RETURNED");
+                }
+            }
+
+            Page<BorrowHistoryDTO> history = borrowService.getBorrowHistory(currentBorrower.getId(), borrowStatus, page, size);
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("data", history.getContent());
+            response.put("page", history.getNumber());
+            response.put("size", history.getSize());
+            response.put("totalElements", history.getTotalElements());
+            response.put("totalPages", history.getTotalPages());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to retrieve borrow history: " + e.getMessage());
+        }
+    }
+
     @PostMapping("/return")
     public ResponseEntity<?> returnBorrow(@RequestParam Long id) { // Changed from @PathVariable to @RequestParam
         try {
@@ -142,6 +198,10 @@ public class BorrowController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You do not have permission to return this item");
             }
 
+            if (borrow.getStatus() == BorrowEntity.BorrowStatus.RETURNED) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("This item has already been returned");
+            }
+
             // Mark the item as available again
             ItemEntity item = borrow.getItem();
             item.setAvailability(true);
@@ -154,6 +214,9 @@ public class BorrowController {
             borrowService.saveReturn(borrow, item);
 
             return ResponseEntity.ok(Map.of("message", "Item returned successfully"));
+        } catch (IllegalStateException e) {
+            // Lost a race with another return of the same borrow
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Failed to return borrow: " + e.getMessage());
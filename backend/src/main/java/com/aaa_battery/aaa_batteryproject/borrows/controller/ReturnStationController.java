@@ -0,0 +1,83 @@
+package com.aaa_battery.aaa_batteryproject.borrows.controller;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.aaa_battery.aaa_batteryproject.borrows.dto.ReturnOutcome;
+import com.aaa_battery.aaa_batteryproject.borrows.service.BorrowService;
+
+// Scan station for librarians emptying the drop box
+@RestController
+@RequestMapping("/api/librarian")
+public class ReturnStationController {
+
+    // Upper bound on ids in one request; the service commits them in smaller chunks
+    private static final int MAX_RETURNS = 2_000;
+
+    private final BorrowService borrowService;
+    @Autowired
+    public ReturnStationController(BorrowService borrowService) {
+        this.borrowService = borrowService;
+    }
+
+    // Body: {"borrowIds": [...]} and/or {"itemIds": [...]} (scanned copy ids)
+    @PostMapping("/returns")
+    public ResponseEntity<?> bulkReturn(@RequestBody Map<String, Object> returnData) {
+        try {
+            List<Integer> borrowIds = new ArrayList<>();
+            List<Integer> itemIds = new ArrayList<>();
+            String invalid = readIds(returnData.get("borrowIds"), borrowIds);
+            if (invalid == null) {
+                invalid = readIds(returnData.get("itemIds"), itemIds);
+            }
+            if (invalid != null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(invalid);
+            }
+            if (borrowIds.isEmpty() && itemIds.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Provide borrowIds or itemIds");
+            }
+            if (borrowIds.size() + itemIds.size() > MAX_RETURNS) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body("At most " + MAX_RETURNS + " ids can be returned at once");
+            }
+
+            Map<Integer, ReturnOutcome> borrows = borrowIds.isEmpty() ? Map.of() : borrowService.returnBorrows(borrowIds);
+            Map<Integer, ReturnOutcome> items = itemIds.isEmpty() ? Map.of() : borrowService.returnItems(itemIds);
+            long returned = borrows.values().stream().filter(outcome -> outcome == ReturnOutcome.RETURNED).count()
+                    + items.values().stream().filter(outcome -> outcome == ReturnOutcome.RETURNED).count();
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("returned", returned);
+            response.put("borrows", borrows);
+            response.put("items", items);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to process returns: " + e.getMessage());
+        }
+    }
+
+    // Copies a JSON array of ids into the target list; returns an error message, or null when valid
+    private static String readIds(Object raw, List<Integer> target) {
+        if (raw == null) {
+            return null;
+        }
+        if (!(raw instanceof List<?> values)) {
+            return "Ids must be given as a list";
+        }
+        for (Object value : values) {
+            if (!(value instanceof Number number)) {
+                return "Invalid id: " + value;
+            }
+            target.add(number.intValue());
+        }
+        return null;
+    }
+}
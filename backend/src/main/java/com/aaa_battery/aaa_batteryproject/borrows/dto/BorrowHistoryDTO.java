@@ -0,0 +1,61 @@
+package com.aaa_battery.aaa_batteryproject.borrows.dto;
+
+import java.util.Date;
+
+import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity.BorrowStatus;
+import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
+
+// One row of a borrower's history, read straight from the database without loading entities
+public class BorrowHistoryDTO {
+    private Integer borrowId;
+    private Date borrowDate;
+    private Date returnDate;
+    private Date returnedOn;
+    private BorrowStatus status;
+    private Integer descriptionId;
+    private String title;
+    private ItemType type;
+    private String imageUrl;
+
+    public BorrowHistoryDTO(Integer borrowId, Date borrowDate, Date returnDate, Date returnedOn, BorrowStatus status,
+                            Integer descriptionId, String title, ItemType type, String imageUrl) {
+        this.borrowId = borrowId;
+        this.borrowDate = borrowDate;
+        this.returnDate = returnDate;
+        this.returnedOn = returnedOn;
+        this.status = status;
+        this.descriptionId = descriptionId;
+        this.title = title;
+        this.type = type;
+        this.imageUrl = imageUrl;
+    }
+
+    // Getters and setters
+
+    public Integer getBorrowId() { return borrowId; }
+    public void setBorrowId(Integer borrowId) { this.borrowId = borrowId; }
+
+    public Date getBorrowDate() { return borrowDate; }
+    public void setBorrowDate(Date borrowDate) { this.borrowDate = borrowDate; }
+
+    public Date getReturnDate() { return returnDate; }
+    public void setReturnDate(Date returnDate) { this.returnDate = returnDate; }
+
+    public Date getReturnedOn() { return returnedOn; }
+    public void setReturnedOn(Date returnedOn) { this.returnedOn = returnedOn; }
+
+    public BorrowStatus getStatus() { return status; }
+    public void setStatus(BorrowStatus status) { this.status = status; }
+
+    public Integer getDescriptionId() { return descriptionId; }
+    public void setDescriptionId(Integer descriptionId) { this.descriptionId = descriptionId; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public ItemType getType() { return type; }
+    public void setType(ItemType type) { this.type = type; }
+
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+}
@@ -0,0 +1,53 @@
+package com.aaa_battery.aaa_batteryproject.borrows.dto;
+
+import java.util.Date;
+
+import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.AudiobookDescription;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.BookDescription;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.DVDDescription;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.aaa_battery.aaa_batteryproject.item.model.ItemEntity;
+import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
+import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
+
+// Returned when a borrow is submitted
+public record BorrowReceiptDTO(Integer id, BorrowerSummary borrower, ItemSummary item,
+                               BorrowEntity.BorrowStatus borrowStatus, Date borrowDate, Date returnDate) {
+
+    public record BorrowerSummary(Integer id, String name, String email) {
+    }
+
+    public record ItemSummary(Integer id, String title, String creator, ItemType type) {
+    }
+
+    public static BorrowReceiptDTO of(BorrowEntity borrow) {
+        BorrowerEntity borrower = borrow.getBorrower();
+        ItemEntity item = borrow.getItem();
+        ItemDescriptionEntity description = item.getDescription();
+        if (description.getItemType() == null) {
+            throw new IllegalStateException("Item description has no type: " + description.getItemName());
+        }
+        return new BorrowReceiptDTO(
+            borrow.getId(),
+            new BorrowerSummary(borrower.getId(), borrower.getFullName(), borrower.getEmail()),
+            new ItemSummary(item.getItemId(), description.getItemName(), creatorOf(description), description.getItemType()),
+            borrow.getStatus(),
+            borrow.getBorrowDate(),
+            borrow.getReturnDate());
+    }
+
+    // Authors for books and audiobooks, the producer for DVDs
+    private static String creatorOf(ItemDescriptionEntity description) {
+        if (description instanceof BookDescription book) {
+            return book.getAuthorName();
+        }
+        if (description instanceof AudiobookDescription audiobook) {
+            return audiobook.getAuthorName();
+        }
+        if (description instanceof DVDDescription dvd) {
+            return dvd.getProducer();
+        }
+        return "Unknown";
+    }
+}
@@ -0,0 +1,13 @@
+package com.aaa_battery.aaa_batteryproject.borrows.dto;
+
+// One line of a batch checkout: the receipt when a copy was borrowed, otherwise the reason it was not
+public record CheckoutLineDTO(Integer itemId, boolean borrowed, BorrowReceiptDTO receipt, String message) {
+
+    public static CheckoutLineDTO borrowed(Integer itemId, BorrowReceiptDTO receipt) {
+        return new CheckoutLineDTO(itemId, true, receipt, null);
+    }
+
+    public static CheckoutLineDTO unavailable(Integer itemId) {
+        return new CheckoutLineDTO(itemId, false, null, "No available item found for description ID: " + itemId);
+    }
+}
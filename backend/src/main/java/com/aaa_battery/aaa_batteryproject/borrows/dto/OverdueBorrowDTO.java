@@ -0,0 +1,27 @@
+package com.aaa_battery.aaa_batteryproject.borrows.dto;
+
+import java.util.Date;
+
+// An open borrow and its due date, with just what the fine scan and accrual need
+public class OverdueBorrowDTO {
+    private Integer borrowId;
+    private Integer borrowerId;
+    private Date returnDate;
+
+    public OverdueBorrowDTO(Integer borrowId, Integer borrowerId, Date returnDate) {
+        this.borrowId = borrowId;
+        this.borrowerId = borrowerId;
+        this.returnDate = returnDate;
+    }
+
+    // Getters and setters
+
+    public Integer getBorrowId() { return borrowId; }
+    public void setBorrowId(Integer borrowId) { this.borrowId = borrowId; }
+
+    public Integer getBorrowerId() { return borrowerId; }
+    public void setBorrowerId(Integer borrowerId) { this.borrowerId = borrowerId; }
+
+    public Date getReturnDate() { return returnDate; }
+    public void setReturnDate(Date returnDate) { this.returnDate = returnDate; }
+}
@@ -0,0 +1,32 @@
+package com.aaa_battery.aaa_batteryproject.borrows.dto;
+
+import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity.BorrowStatus;
+
+// A borrow considered by a bulk return, with just the ids needed to close it
+public class ReturnCandidateDTO {
+    private Integer borrowId;
+    private Integer itemId;
+    private Integer descriptionId;
+    private BorrowStatus status;
+
+    public ReturnCandidateDTO(Integer borrowId, Integer itemId, Integer descriptionId, BorrowStatus status) {
+        this.borrowId = borrowId;
+        this.itemId = itemId;
+        this.descriptionId = descriptionId;
+        this.status = status;
+    }
+
+    // Getters and setters
+
+    public Integer getBorrowId() { return borrowId; }
+    public void setBorrowId(Integer borrowId) { this.borrowId = borrowId; }
+
+    public Integer getItemId() { return itemId; }
+    public void setItemId(Integer itemId) { this.itemId = itemId; }
+
+    public Integer getDescriptionId() { return descriptionId; }
+    public void setDescriptionId(Integer descriptionId) { this.descriptionId = descriptionId; }
+
+    public BorrowStatus getStatus() { return status; }
+    public void setStatus(BorrowStatus status) { this.status = status; }
+}
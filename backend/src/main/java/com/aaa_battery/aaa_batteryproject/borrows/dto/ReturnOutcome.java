@@ -0,0 +1,9 @@
+package com.aaa_battery.aaa_batteryproject.borrows.dto;
+
+// Per-id result of a bulk return
+public enum ReturnOutcome {
+    RETURNED,
+    ALREADY_RETURNED, // The borrow was closed before this scan
+    NOT_BORROWED,     // The scanned copy has no open borrow
+    NOT_FOUND
+}
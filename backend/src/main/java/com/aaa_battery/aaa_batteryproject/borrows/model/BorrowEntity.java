@@ -3,11 +3,18 @@ package com.aaa_battery.aaa_batteryproject.borrows.model;
 import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.aaa_battery.aaa_batteryproject.item.model.ItemEntity;
+import org.hibernate.annotations.ColumnDefault;
+
 import jakarta.persistence.*;
 import java.util.Date;
 
 @Entity
-@Table(name = "borrows")
+@Table(name = "borrows", indexes = {
+    // Serves the paged borrow history, newest first
+    @Index(name = "idx_borrows_borrower_date", columnList = "borrower_id, borrow_date"),
+    // Serves the nightly overdue scan, which pages through open borrows by id
+    @Index(name = "idx_borrows_status_id", columnList = "status, id")
+})
 public class BorrowEntity {
 
     @Id
@@ -32,6 +39,12 @@ public class BorrowEntity {
 
     private BorrowStatus status;
 
+    // Optimistic lock, so two returns of the same borrow cannot both succeed
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    private long version;
+
     public BorrowEntity() {
         this.status = BorrowStatus.BORROWED; // Default status when a borrow request is created
         this.borrowDate = new Date(); // Set current date as borrow date
@@ -39,6 +52,10 @@ public class BorrowEntity {
         this.returnedOn = null; // Initially, the item is not returned
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     // Getter for id
     public Integer getId() {
         return id;
@@ -1,17 +1,78 @@
 package com.aaa_battery.aaa_batteryproject.borrows.repository;
 
 
+import com.aaa_battery.aaa_batteryproject.borrows.dto.BorrowHistoryDTO;
+import com.aaa_battery.aaa_batteryproject.borrows.dto.OverdueBorrowDTO;
+import com.aaa_battery.aaa_batteryproject.borrows.dto.ReturnCandidateDTO;
 import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BorrowRepository extends JpaRepository<BorrowEntity, Long> {
+public interface BorrowRepository extends JpaRepository<BorrowEntity, Long>, BorrowReturnRepository {
+    // Copies and descriptions come in the same query instead of one select per borrow
+    @EntityGraph(attributePaths = {"item", "item.description"})
     List<BorrowEntity> findByBorrowerId(Long borrowerId);
     Optional<BorrowEntity> findById(Long id);
     Optional<BorrowEntity> findById(Integer borrowId);
-}
 
+    // One page of a borrower's history, newest first; a null status means every borrow
+    @Query(value = "SELECT new com.aaa_battery.aaa_batteryproject.borrows.dto.BorrowHistoryDTO(b.id, b.borrowDate, " +
+                   "b.returnDate, b.returnedOn, b.status, d.descriptionId, d.itemName, d.itemType, d.imageUrl) " +
+                   "FROM BorrowEntity b JOIN b.item i JOIN i.description d " +
+                   "WHERE b.borrower.id = :borrowerId AND (:status IS NULL OR b.status = :status) " +
+                   "ORDER BY b.borrowDate DESC, b.id DESC",
+           countQuery = "SELECT COUNT(b) FROM BorrowEntity b " +
+                        "WHERE b.borrower.id = :borrowerId AND (:status IS NULL OR b.status = :status)")
+    Page<BorrowHistoryDTO> findHistory(@Param("borrowerId") Integer borrowerId,
+                                       @Param("status") BorrowEntity.BorrowStatus status,
+                                       Pageable pageable);
+
+    // Bulk returns read ids and status only; no borrow, item or borrower entities are loaded
+    @Query("SELECT new com.aaa_battery.aaa_batteryproject.borrows.dto.ReturnCandidateDTO(b.id, i.itemId, " +
+           "i.description.descriptionId, b.status) FROM BorrowEntity b JOIN b.item i WHERE b.id IN :borrowIds")
+    List<ReturnCandidateDTO> findReturnCandidates(@Param("borrowIds") Collection<Integer> borrowIds);
+
+    // The open borrow of each scanned copy, if it has one
+    @Query("SELECT new com.aaa_battery.aaa_batteryproject.borrows.dto.ReturnCandidateDTO(b.id, i.itemId, " +
+           "i.description.descriptionId, b.status) FROM BorrowEntity b JOIN b.item i " +
+           "WHERE i.itemId IN :itemIds AND b.status = com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity.BorrowStatus.BORROWED")
+    List<ReturnCandidateDTO> findOpenReturnCandidatesByItem(@Param("itemIds") Collection<Integer> itemIds);
+
+    // One keyset page of open borrows past due, in id order; pass the last id seen to get the next page
+    @Query("SELECT new com.aaa_battery.aaa_batteryproject.borrows.dto.OverdueBorrowDTO(b.id, b.borrower.id, b.returnDate) " +
+           "FROM BorrowEntity b WHERE b.status = com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity.BorrowStatus.BORROWED " +
+           "AND b.returnedOn IS NULL AND b.returnDate < :now AND b.id > :afterId AND b.id <= :lastId ORDER BY b.id")
+    List<OverdueBorrowDTO> findOverdueAfter(@Param("now") Date now, @Param("afterId") int afterId,
+                                            @Param("lastId") int lastId, Pageable pageable);
 
+    // The given borrows that are still open and past due
+    @Query("SELECT new com.aaa_battery.aaa_batteryproject.borrows.dto.OverdueBorrowDTO(b.id, b.borrower.id, b.returnDate) " +
+           "FROM BorrowEntity b WHERE b.id IN :borrowIds " +
+           "AND b.status = com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity.BorrowStatus.BORROWED " +
+           "AND b.returnedOn IS NULL AND b.returnDate < :now")
+    List<OverdueBorrowDTO> findOverdueByIds(@Param("now") Date now, @Param("borrowIds") Collection<Integer> borrowIds);
+
+    // One keyset page of the open borrows with a due date whose id falls in the given shard, in id order
+    @Query("SELECT new com.aaa_battery.aaa_batteryproject.borrows.dto.OverdueBorrowDTO(b.id, b.borrower.id, b.returnDate) " +
+           "FROM BorrowEntity b WHERE b.status = com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity.BorrowStatus.BORROWED " +
+           "AND b.returnDate IS NOT NULL AND b.id > :afterId AND MOD(b.id, :shardCount) = :shardIndex ORDER BY b.id")
+    List<OverdueBorrowDTO> findOpenInShardAfter(@Param("afterId") int afterId, @Param("shardCount") int shardCount,
+                                                @Param("shardIndex") int shardIndex, Pageable pageable);
+
+    // Id bounds of the open borrows, for splitting the overdue scan into partitions
+    @Query("SELECT MIN(b.id) FROM BorrowEntity b WHERE b.status = com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity.BorrowStatus.BORROWED")
+    Integer findMinOpenBorrowId();
+
+    @Query("SELECT MAX(b.id) FROM BorrowEntity b WHERE b.status = com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity.BorrowStatus.BORROWED")
+    Integer findMaxOpenBorrowId();
+}
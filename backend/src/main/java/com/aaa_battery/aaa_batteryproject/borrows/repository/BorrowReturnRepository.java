@@ -0,0 +1,13 @@
+package com.aaa_battery.aaa_batteryproject.borrows.repository;
+
+import java.util.Date;
+import java.util.List;
+
+public interface BorrowReturnRepository {
+
+    /**
+     * Marks the borrows returned in one JDBC batch. Each row is only changed while still
+     * borrowed, so the result holds, per id, whether this call was the one that closed it.
+     */
+    boolean[] closeBorrows(List<Integer> borrowIds, Date returnedOn);
+}
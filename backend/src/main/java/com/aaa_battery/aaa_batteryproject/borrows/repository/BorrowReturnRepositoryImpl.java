@@ -0,0 +1,69 @@
+package com.aaa_battery.aaa_batteryproject.borrows.repository;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity.BorrowStatus;
+
+public class BorrowReturnRepositoryImpl implements BorrowReturnRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BorrowReturnRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean[] closeBorrows(List<Integer> borrowIds, Date returnedOn) {
+        Timestamp stamp = new Timestamp(returnedOn.getTime());
+        // Status is stored by ordinal. The version is bumped so a single return holding the old row conflicts.
+        int[][] counts = jdbcTemplate.batchUpdate(
+            "UPDATE borrows SET status = ?, returned_on = ?, version = version + 1 WHERE id = ? AND status = ?",
+            borrowIds, borrowIds.size(), (statement, borrowId) -> {
+                statement.setInt(1, BorrowStatus.RETURNED.ordinal());
+                statement.setTimestamp(2, stamp);
+                statement.setInt(3, borrowId);
+                statement.setInt(4, BorrowStatus.BORROWED.ordinal());
+            });
+
+        boolean[] closed = new boolean[borrowIds.size()];
+        List<Integer> unreported = new ArrayList<>();
+        for (int i = 0; i < closed.length; i++) {
+            closed[i] = counts[0][i] > 0;
+            if (counts[0][i] == Statement.SUCCESS_NO_INFO) {
+                unreported.add(borrowIds.get(i));
+            }
+        }
+        if (unreported.isEmpty()) {
+            return closed;
+        }
+        // SUCCESS_NO_INFO means the driver could not say. Assuming success would release a copy twice
+        // for a borrow that was already returned, so those rows are read back by this return's stamp.
+        Set<Integer> stamped = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT id FROM borrows WHERE status = ? AND returned_on = ? AND id IN ("
+                + String.join(", ", Collections.nCopies(unreported.size(), "?")) + ")",
+            Integer.class, readBackArgs(stamp, unreported)));
+        for (int i = 0; i < closed.length; i++) {
+            if (counts[0][i] == Statement.SUCCESS_NO_INFO) {
+                closed[i] = stamped.contains(borrowIds.get(i));
+            }
+        }
+        return closed;
+    }
+
+    private static Object[] readBackArgs(Timestamp stamp, List<Integer> borrowIds) {
+        List<Object> args = new ArrayList<>(borrowIds.size() + 2);
+        args.add(BorrowStatus.RETURNED.ordinal());
+        args.add(stamp);
+        args.addAll(borrowIds);
+        return args.toArray();
+    }
+}
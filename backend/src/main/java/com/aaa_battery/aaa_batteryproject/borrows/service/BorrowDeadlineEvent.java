@@ -0,0 +1,23 @@
+package com.aaa_battery.aaa_batteryproject.borrows.service;
+
+import java.util.Date;
+
+// Published when a borrow is opened or closed, so whatever tracks due dates can follow along
+public class BorrowDeadlineEvent {
+    private final int borrowId;
+    private final Date returnDate;
+
+    public BorrowDeadlineEvent(int borrowId, Date returnDate) {
+        this.borrowId = borrowId;
+        this.returnDate = returnDate;
+    }
+
+    public static BorrowDeadlineEvent closed(int borrowId) {
+        return new BorrowDeadlineEvent(borrowId, null);
+    }
+
+    public int getBorrowId() { return borrowId; }
+
+    // When the borrow falls due; null once it has been returned
+    public Date getReturnDate() { return returnDate; }
+}
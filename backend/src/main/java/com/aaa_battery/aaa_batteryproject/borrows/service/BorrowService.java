@@ -1,41 +1,266 @@
 package com.aaa_battery.aaa_batteryproject.borrows.service;
 
+import com.aaa_battery.aaa_batteryproject.borrows.dto.BorrowHistoryDTO;
+import com.aaa_battery.aaa_batteryproject.borrows.dto.ReturnCandidateDTO;
+import com.aaa_battery.aaa_batteryproject.borrows.dto.ReturnOutcome;
 import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
 import com.aaa_battery.aaa_batteryproject.borrows.repository.BorrowRepository;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.service.ItemDescriptionService;
 import com.aaa_battery.aaa_batteryproject.item.model.ItemEntity;
+import com.aaa_battery.aaa_batteryproject.item.service.ItemService;
+import com.aaa_battery.aaa_batteryproject.retry.ConflictRetryExecutor;
+import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class BorrowService
 {
+    private static final Logger logger = LoggerFactory.getLogger(BorrowService.class);
+
+    // Bulk returns commit in chunks of this many ids, so one long scan never holds a huge transaction
+    static final int RETURN_CHUNK_SIZE = 200;
+
     private final BorrowRepository borrowRepository;
+    private final ItemDescriptionService itemDescriptionService;
+    private final ItemService itemService;
+    private final ConflictRetryExecutor conflictRetryExecutor;
+
     @Autowired
-    public BorrowService(BorrowRepository borrowRepository) {
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public BorrowService(BorrowRepository borrowRepository, ItemDescriptionService itemDescriptionService,
+                         ItemService itemService, ConflictRetryExecutor conflictRetryExecutor) {
         this.borrowRepository = borrowRepository;
+        this.itemDescriptionService = itemDescriptionService;
+        this.itemService = itemService;
+        this.conflictRetryExecutor = conflictRetryExecutor;
+    }
+
+    /**
+     * Borrows one copy of the description, or returns empty when none is free. The copy is
+     * claimed atomically, so two borrowers never get the same one. The counter update comes
+     * last: it locks the description row, and this way only for the commit itself.
+     * Runs in its own transaction and is retried if a versioned row changed underneath it.
+     */
+    public Optional<BorrowEntity> createBorrow(BorrowerEntity borrower, Integer descriptionId) {
+        return conflictRetryExecutor.inTransaction("borrow", descriptionId, () -> borrowOnce(borrower, descriptionId));
+    }
+
+    /**
+     * Borrows one copy for each description id, in a single transaction. Counters are read in
+     * one query and the borrows are inserted as one batch. The result lines up with the ids given:
+     * an empty entry means nothing was on the shelf for that line, and the other lines still go ahead.
+     */
+    public List<Optional<BorrowEntity>> createBorrows(BorrowerEntity borrower, List<Integer> descriptionIds) {
+        return conflictRetryExecutor.inTransaction("checkout", null, () -> checkoutOnce(borrower, descriptionIds));
+    }
+
+    private List<Optional<BorrowEntity>> checkoutOnce(BorrowerEntity borrower, List<Integer> descriptionIds) {
+        // A cart may hold the same title twice, so the shelf counts are used up as lines claim copies
+        Map<Integer, Integer> onShelf = new HashMap<>(itemDescriptionService.getAvailableCopies(new HashSet<>(descriptionIds)));
+
+        List<Optional<BorrowEntity>> results = new ArrayList<>(descriptionIds.size());
+        List<BorrowEntity> borrows = new ArrayList<>();
+        for (Integer descriptionId : descriptionIds) {
+            Optional<ItemEntity> copy = Optional.empty();
+            if (onShelf.getOrDefault(descriptionId, 0) > 0) {
+                copy = itemService.claimAvailableCopy(descriptionId);
+            }
+            if (copy.isEmpty()) {
+                results.add(Optional.empty());
+                continue;
+            }
+            onShelf.merge(descriptionId, -1, Integer::sum);
+
+            BorrowEntity borrow = new BorrowEntity();
+            borrow.setItem(copy.get());
+            borrow.setBorrower(borrower);
+            borrows.add(borrow);
+            results.add(Optional.of(borrow));
+        }
+        borrowRepository.saveAll(borrows);
+        borrows.forEach(borrow -> eventPublisher.publishEvent(new BorrowDeadlineEvent(borrow.getId(), borrow.getReturnDate())));
+
+        for (BorrowEntity borrow : borrows) {
+            int descriptionId = borrow.getItem().getDescription().getDescriptionId();
+            if (!itemDescriptionService.reserveAvailableCopy(descriptionId)) {
+                logger.warn("Available counter for description {} was already zero when copy {} was borrowed",
+                    descriptionId, borrow.getItem().getItemId());
+            }
+        }
+        return results;
     }
 
-    public void saveBorrowRequest(BorrowEntity borrow) {
+    private Optional<BorrowEntity> borrowOnce(BorrowerEntity borrower, Integer descriptionId) {
+        // The counter answers "is anything on the shelf" without touching the copy rows
+        if (itemDescriptionService.getAvailableCopies(descriptionId) <= 0) {
+            return Optional.empty();
+        }
+        Optional<ItemEntity> copy = itemService.claimAvailableCopy(descriptionId);
+        if (copy.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Only the owning side is set, so a retried attempt leaves nothing behind on the borrower
+        BorrowEntity borrow = new BorrowEntity();
+        borrow.setItem(copy.get());
+        borrow.setBorrower(borrower);
         borrowRepository.save(borrow);
+        eventPublisher.publishEvent(new BorrowDeadlineEvent(borrow.getId(), borrow.getReturnDate()));
+
+        // The claimed copy is authoritative; a counter already at zero is drift the reconciler repairs
+        if (!itemDescriptionService.reserveAvailableCopy(descriptionId)) {
+            logger.warn("Available counter for description {} was already zero when copy {} was borrowed",
+                descriptionId, copy.get().getItemId());
+        }
+        return Optional.of(borrow);
+    }
+
+    /**
+     * Closes a batch of borrows by id with set-based updates, one transaction per chunk.
+     * Returns an outcome for every distinct id, in the order given.
+     */
+    public Map<Integer, ReturnOutcome> returnBorrows(List<Integer> borrowIds) {
+        Map<Integer, ReturnOutcome> outcomes = new LinkedHashMap<>();
+        for (List<Integer> chunk : chunks(borrowIds)) {
+            outcomes.putAll(conflictRetryExecutor.inTransaction("bulk-return", null, () -> {
+                Map<Integer, ReturnOutcome> result = new LinkedHashMap<>();
+                chunk.forEach(borrowId -> result.put(borrowId, ReturnOutcome.NOT_FOUND));
+                List<ReturnCandidateDTO> open = new ArrayList<>();
+                for (ReturnCandidateDTO candidate : borrowRepository.findReturnCandidates(chunk)) {
+                    if (candidate.getStatus() == BorrowEntity.BorrowStatus.RETURNED) {
+                        result.put(candidate.getBorrowId(), ReturnOutcome.ALREADY_RETURNED);
+                    } else {
+                        open.add(candidate);
+                    }
+                }
+                Set<Integer> closed = closeReturns(open);
+                // Open when read but closed by someone else before the update reached it
+                open.forEach(candidate -> result.put(candidate.getBorrowId(),
+                    closed.contains(candidate.getBorrowId()) ? ReturnOutcome.RETURNED : ReturnOutcome.ALREADY_RETURNED));
+                return result;
+            }));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Closes the open borrow of each scanned copy, as returnBorrows does for borrow ids.
+     * Copies without an open borrow are reported as not borrowed.
+     */
+    public Map<Integer, ReturnOutcome> returnItems(List<Integer> itemIds) {
+        Map<Integer, ReturnOutcome> outcomes = new LinkedHashMap<>();
+        for (List<Integer> chunk : chunks(itemIds)) {
+            outcomes.putAll(conflictRetryExecutor.inTransaction("bulk-return", null, () -> {
+                Map<Integer, ReturnOutcome> result = new LinkedHashMap<>();
+                chunk.forEach(itemId -> result.put(itemId, ReturnOutcome.NOT_BORROWED));
+                List<ReturnCandidateDTO> open = borrowRepository.findOpenReturnCandidatesByItem(chunk);
+                Set<Integer> closed = closeReturns(open);
+                open.stream()
+                    .filter(candidate -> closed.contains(candidate.getBorrowId()))
+                    .forEach(candidate -> result.put(candidate.getItemId(), ReturnOutcome.RETURNED));
+                return result;
+            }));
+        }
+        return outcomes;
+    }
+
+    // Closes the borrows, frees their copies and moves each description's counter once; returns the borrow ids closed
+    private Set<Integer> closeReturns(List<ReturnCandidateDTO> open) {
+        if (open.isEmpty()) {
+            return Set.of();
+        }
+        List<Integer> borrowIds = open.stream().map(ReturnCandidateDTO::getBorrowId).toList();
+        boolean[] closedFlags = borrowRepository.closeBorrows(borrowIds, new Date());
+
+        Set<Integer> closed = new HashSet<>();
+        List<Integer> itemIds = new ArrayList<>();
+        Map<Integer, Integer> returnedPerDescription = new HashMap<>();
+        for (int i = 0; i < closedFlags.length; i++) {
+            if (closedFlags[i]) {
+                ReturnCandidateDTO candidate = open.get(i);
+                closed.add(candidate.getBorrowId());
+                eventPublisher.publishEvent(BorrowDeadlineEvent.closed(candidate.getBorrowId()));
+                itemIds.add(candidate.getItemId());
+                returnedPerDescription.merge(candidate.getDescriptionId(), 1, Integer::sum);
+            }
+        }
+
+        itemService.releaseCopies(itemIds);
+        returnedPerDescription.forEach(itemDescriptionService::releaseAvailableCopies);
+        return closed;
+    }
+
+    private static List<List<Integer>> chunks(List<Integer> ids) {
+        List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += RETURN_CHUNK_SIZE) {
+            chunks.add(distinct.subList(from, Math.min(from + RETURN_CHUNK_SIZE, distinct.size())));
+        }
+        return chunks;
     }
 
     public Optional<BorrowEntity> findById(Long id) {
         return borrowRepository.findById(id); // Find borrow request by ID
     }
 
+    public Page<BorrowHistoryDTO> getBorrowHistory(Integer borrowerId, BorrowEntity.BorrowStatus status, int page, int size) {
+        return borrowRepository.findHistory(borrowerId, status, PageRequest.of(page, size));
+    }
+
     public List<BorrowEntity> findByBorrowerId(Long borrowerId) {
         return borrowRepository.findByBorrowerId(borrowerId); // Get borrow records for a borrower
     }
 
+    /**
+     * Stores a return the caller has already applied to the borrow and its copy. If another
+     * request changed the borrow first, the return is replayed on the stored row, and refused
+     * when that request was itself a return.
+     */
     public void saveReturn(BorrowEntity borrow, ItemEntity item) {
-        borrow.setItem(item); // Set the item for the borrow record
-        borrowRepository.save(borrow); // Save the updated borrow record
+        int descriptionId = item.getDescription().getDescriptionId();
+        AtomicBoolean firstAttempt = new AtomicBoolean(true);
+        conflictRetryExecutor.inTransaction("return", descriptionId, () -> {
+            BorrowEntity target = borrow;
+            if (firstAttempt.getAndSet(false)) {
+                borrow.setItem(item); // Set the item for the borrow record
+            } else {
+                target = borrowRepository.findById(borrow.getId())
+                    .orElseThrow(() -> new IllegalStateException("Borrow record not found"));
+                if (target.getStatus() == BorrowEntity.BorrowStatus.RETURNED) {
+                    throw new IllegalStateException("This item has already been returned");
+                }
+                target.setStatus(BorrowEntity.BorrowStatus.RETURNED);
+                target.setReturnedOn(borrow.getReturnedOn());
+                target.getItem().setAvailability(true);
+            }
+            borrowRepository.save(target); // Save the updated borrow record
+            eventPublisher.publishEvent(BorrowDeadlineEvent.closed(target.getId()));
+            itemDescriptionService.releaseAvailableCopy(descriptionId); // Back on the shelf
+            return null;
+        });
     }
 
 
 }
-
@@ -0,0 +1,28 @@
+package com.aaa_battery.aaa_batteryproject.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * @EnableWebMvc builds its own JSON converter rather than using Boot's ObjectMapper, so the
+ * tuning is applied to that converter directly. Blackbird replaces reflective getter and
+ * record accessor calls with generated lambdas when serializing response DTOs.
+ */
+@Configuration
+public class JacksonConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter instanceof MappingJackson2HttpMessageConverter jsonConverter) {
+                jsonConverter.getObjectMapper().registerModule(new BlackbirdModule());
+            }
+        }
+    }
+}
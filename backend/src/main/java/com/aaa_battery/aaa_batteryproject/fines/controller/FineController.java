@@ -2,19 +2,28 @@ package com.aaa_battery.aaa_batteryproject.fines.controller;
 
 import com.aaa_battery.aaa_batteryproject.fines.dto.FineInfoDTO;
 import com.aaa_battery.aaa_batteryproject.fines.dto.BorrowerFineDTO;
+import com.aaa_battery.aaa_batteryproject.fines.dto.FineBalanceSummary;
 import com.aaa_battery.aaa_batteryproject.fines.model.FineEntity;
 import com.aaa_battery.aaa_batteryproject.fines.repository.FineRepository;
+import com.aaa_battery.aaa_batteryproject.fines.service.FineLedgerService;
+import com.aaa_battery.aaa_batteryproject.fines.service.FineService;
 import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
 import com.aaa_battery.aaa_batteryproject.user.repositories.BorrowerRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Date;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/fines")
@@ -22,24 +31,52 @@ public class FineController {
 
     private final FineRepository fineRepository;
     private final BorrowerRepository borrowerRepository;
+    private final FineService fineService;
+    private final FineLedgerService fineLedgerService;
 
-    public FineController(FineRepository fineRepository, BorrowerRepository borrowerRepository) {
+    private static final int MAX_FINES_PAGE_SIZE = 200;
+
+    public FineController(FineRepository fineRepository, BorrowerRepository borrowerRepository, FineService fineService,
+                          FineLedgerService fineLedgerService) {
         this.fineRepository = fineRepository;
         this.borrowerRepository = borrowerRepository;
+        this.fineService = fineService;
+        this.fineLedgerService = fineLedgerService;
     }
 
+    // One page of fines, newest first; paid, borrowerId and the issued date range (from/to, inclusive) narrow it down
     @GetMapping("/librarian/view-fines")
-    public List<FineInfoDTO> getAllFines() {
-        List<FineEntity> fines = fineRepository.findAll();
-        return fines.stream().map(fine -> new FineInfoDTO(
-                fine.getId(),
-                fine.getBorrower() != null ? fine.getBorrower().getFullName() : "Unknown",
-                fine.getBorrow() != null && fine.getBorrow().getItem() != null ? fine.getBorrow().getItem().getDescription().getItemName() : "Unknown",
-                fine.getAmount(),
-                fine.getPaid()
-        )).collect(Collectors.toList());
+    public ResponseEntity<?> getAllFines(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) Boolean paid,
+            @RequestParam(required = false) Integer borrowerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            if (page < 0 || size < 1 || size > MAX_FINES_PAGE_SIZE) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body("page must be 0 or more and size between 1 and " + MAX_FINES_PAGE_SIZE);
+            }
+            if (from != null && to != null && from.isAfter(to)) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("from must not be after to");
+            }
+
+            Page<FineInfoDTO> fines = fineService.getFines(paid, borrowerId, startOfDay(from),
+                to != null ? startOfDay(to.plusDays(1)) : null, page, size);
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("data", fines.getContent());
+            response.put("page", fines.getNumber());
+            response.put("size", fines.getSize());
+            response.put("totalElements", fines.getTotalElements());
+            response.put("totalPages", fines.getTotalPages());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to retrieve fines: " + e.getMessage());
+        }
     }
-    
+
     @GetMapping("/borrower/my-fines")
     public ResponseEntity<List<BorrowerFineDTO>> getBorrowerFines() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication(); 
@@ -52,36 +89,85 @@ public class FineController {
             return ResponseEntity.badRequest().build();
         }
         
-        List<FineEntity> borrowerFines = fineRepository.findByBorrowerId(borrower.getId());
+        // Amounts and days late are worked out together, so they agree
+        List<BorrowerFineDTO> fineDTOs = fineService.getBorrowerFines(borrower.getId());
         
-        List<BorrowerFineDTO> fineDTOs = borrowerFines.stream().map(fine -> {
-            BorrowerFineDTO dto = new BorrowerFineDTO();
-            dto.setFineId(fine.getId());
-            dto.setAmount(fine.getAmount());
-            dto.setPaid(fine.getPaid());
-            dto.setIssuedDate(fine.getIssuedDate());
-            
-            if (fine.getBorrow() != null) {
-                dto.setItemId(fine.getBorrow().getItem() != null ? fine.getBorrow().getItem().getItemId() : null);
-                dto.setItemName(fine.getBorrow().getItem() != null ? fine.getBorrow().getItem().getDescription().getItemName() : "Unknown");
-                dto.setBorrowDate(fine.getBorrow().getBorrowDate());
-                dto.setReturnDate(fine.getBorrow().getReturnDate());
-                
-                // Calculate days passed since return date
-                Date returnDate = fine.getBorrow().getReturnDate();
-                Date currentDate = new Date();
-                if (returnDate == null || returnDate.after(currentDate)) {
-                    dto.setDaysLate(0L);
-                } else {
-                    long diffInMillies = currentDate.getTime() - returnDate.getTime();
-                    long daysPassed = TimeUnit.DAYS.convert(diffInMillies, TimeUnit.MILLISECONDS);
-                    dto.setDaysLate(daysPassed > 0 ? daysPassed : 0);
+        return ResponseEntity.ok(fineDTOs);
+    }
+
+    // What the signed-in borrower owes, read from their running balance
+    @GetMapping("/borrower/balance")
+    public ResponseEntity<?> getMyBalance() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        BorrowerEntity borrower = borrowerRepository.findByEmail(authentication.getName()).orElse(null);
+        if (borrower == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(fineLedgerService.getBalance(borrower.getId()));
+    }
+
+    @GetMapping("/librarian/balances/{borrowerId}")
+    public ResponseEntity<?> getBalance(@PathVariable Integer borrowerId) {
+        if (!borrowerRepository.existsById(borrowerId.longValue())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Borrower not found");
+        }
+        return ResponseEntity.ok(fineLedgerService.getBalance(borrowerId));
+    }
+
+    // The running balance next to the same figures replayed from the ledger
+    @GetMapping("/librarian/balances/{borrowerId}/replay")
+    public ResponseEntity<?> replayBalance(@PathVariable Integer borrowerId) {
+        if (!borrowerRepository.existsById(borrowerId.longValue())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Borrower not found");
+        }
+        FineBalanceSummary stored = fineLedgerService.getBalance(borrowerId);
+        FineBalanceSummary replayed = fineLedgerService.replay(borrowerId);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("stored", stored);
+        response.put("replayed", replayed);
+        response.put("consistent", Math.abs(stored.balance() - replayed.balance()) < 0.005);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/librarian/{fineId}/waive")
+    public ResponseEntity<?> waiveFine(@PathVariable Integer fineId) {
+        try {
+            Optional<FineEntity> waived = fineService.waiveFine(fineId);
+            if (waived.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Fine not found");
+            }
+            return ResponseEntity.ok(Map.of("fineId", waived.get().getId(), "amount", waived.get().getAmount(), "waived", true));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    // Borrowers pay their own fines; librarians can settle anyone's at the desk
+    @PostMapping("/{fineId}/pay")
+    public ResponseEntity<?> payFine(@PathVariable Integer fineId) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            boolean librarian = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_LIBRARIAN".equals(authority.getAuthority()));
+            if (!librarian) {
+                Optional<FineEntity> fine = fineRepository.findById(fineId);
+                if (fine.isPresent() && (fine.get().getBorrower() == null
+                        || !authentication.getName().equals(fine.get().getBorrower().getEmail()))) {
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You can only pay your own fines");
                 }
             }
-            
-            return dto;
-        }).collect(Collectors.toList());
-        
-        return ResponseEntity.ok(fineDTOs);
+
+            Optional<FineEntity> paid = fineService.payFine(fineId);
+            if (paid.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Fine not found");
+            }
+            return ResponseEntity.ok(Map.of("fineId", paid.get().getId(), "amount", paid.get().getAmount(), "paid", true));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    private static Date startOfDay(LocalDate day) {
+        return day != null ? Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant()) : null;
     }
-}
\ No newline at end of file
+}
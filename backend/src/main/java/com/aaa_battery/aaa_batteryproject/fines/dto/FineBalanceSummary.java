@@ -0,0 +1,5 @@
+package com.aaa_battery.aaa_batteryproject.fines.dto;
+
+// What a borrower owes (balance) and how it came about: accrued less paid and waived
+public record FineBalanceSummary(Integer borrowerId, double balance, double accrued, double paid, double waived) {
+}
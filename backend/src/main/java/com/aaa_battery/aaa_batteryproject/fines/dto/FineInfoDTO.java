@@ -1,11 +1,17 @@
 package com.aaa_battery.aaa_batteryproject.fines.dto;
 
+import java.util.Date;
+
 public class FineInfoDTO {
     private Integer fineId;
+    private Integer borrowerId;
     private String borrowerName;
     private String itemName;
     private Double amount;
     private Boolean paid;
+    private Date issuedDate;
+    private Date returnDate;
+    private Date returnedOn;
 
     public FineInfoDTO(Integer fineId, String borrowerName, String itemName, Double amount, Boolean paid) {
         this.fineId = fineId;
@@ -15,11 +21,24 @@ public class FineInfoDTO {
         this.paid = paid;
     }
 
+    // Built straight from the librarian listing query, so no fine, borrow or borrower is loaded
+    public FineInfoDTO(Integer fineId, Integer borrowerId, String borrowerName, String itemName, Double amount,
+                       Boolean paid, Date issuedDate, Date returnDate, Date returnedOn) {
+        this(fineId, borrowerName, itemName, amount, paid);
+        this.borrowerId = borrowerId;
+        this.issuedDate = issuedDate;
+        this.returnDate = returnDate;
+        this.returnedOn = returnedOn;
+    }
+
     // Getters and setters
 
     public Integer getFineId() { return fineId; }
     public void setFineId(Integer fineId) { this.fineId = fineId; }
 
+    public Integer getBorrowerId() { return borrowerId; }
+    public void setBorrowerId(Integer borrowerId) { this.borrowerId = borrowerId; }
+
     public String getBorrowerName() { return borrowerName; }
     public void setBorrowerName(String borrowerName) { this.borrowerName = borrowerName; }
 
@@ -31,4 +50,13 @@ public class FineInfoDTO {
 
     public Boolean getPaid() { return paid; }
     public void setPaid(Boolean paid) { this.paid = paid; }
-}
\ No newline at end of file
+
+    public Date getIssuedDate() { return issuedDate; }
+    public void setIssuedDate(Date issuedDate) { this.issuedDate = issuedDate; }
+
+    public Date getReturnDate() { return returnDate; }
+    public void setReturnDate(Date returnDate) { this.returnDate = returnDate; }
+
+    public Date getReturnedOn() { return returnedOn; }
+    public void setReturnedOn(Date returnedOn) { this.returnedOn = returnedOn; }
+}
@@ -0,0 +1,5 @@
+package com.aaa_battery.aaa_batteryproject.fines.dto;
+
+// What one overdue scan did
+public record FineScanSummary(int scanned, int created, int updated, long elapsedMs) {
+}
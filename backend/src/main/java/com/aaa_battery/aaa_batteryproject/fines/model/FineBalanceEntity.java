@@ -0,0 +1,53 @@
+package com.aaa_battery.aaa_batteryproject.fines.model;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Running totals of a borrower's ledger, moved in the same transaction as every entry
+@Entity
+@Table(name = "fine_balances")
+public class FineBalanceEntity {
+
+    @Id
+    @Column(name = "borrower_id")
+    private Integer borrowerId;
+
+    // What is still owed: accrued less paid and waived
+    @Column(nullable = false)
+    private double balance;
+
+    @Column(nullable = false)
+    private double accrued;
+
+    @Column(nullable = false)
+    private double paid;
+
+    @Column(nullable = false)
+    private double waived;
+
+    @Column(name = "updated_at")
+    private Date updatedAt;
+
+    // Getters and setters
+    public Integer getBorrowerId() { return borrowerId; }
+    public void setBorrowerId(Integer borrowerId) { this.borrowerId = borrowerId; }
+
+    public double getBalance() { return balance; }
+    public void setBalance(double balance) { this.balance = balance; }
+
+    public double getAccrued() { return accrued; }
+    public void setAccrued(double accrued) { this.accrued = accrued; }
+
+    public double getPaid() { return paid; }
+    public void setPaid(double paid) { this.paid = paid; }
+
+    public double getWaived() { return waived; }
+    public void setWaived(double waived) { this.waived = waived; }
+
+    public Date getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Date updatedAt) { this.updatedAt = updatedAt; }
+}
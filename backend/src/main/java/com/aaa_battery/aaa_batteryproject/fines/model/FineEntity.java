@@ -9,17 +9,28 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
-@Table(name = "fines")
+// One fine per borrow; the nightly scan upserts on borrow_id
+@Table(name = "fines", uniqueConstraints = @UniqueConstraint(name = "uk_fines_borrow", columnNames = "borrow_id"), indexes = {
+    // Serve the librarian listing and its count: by paid state, or by borrower, newest first
+    @Index(name = "idx_fines_paid_issued", columnList = "paid, issued_date"),
+    @Index(name = "idx_fines_borrower_issued", columnList = "borrower_id, issued_date")
+})
 public class FineEntity {
 
+    // One id per call: the upsert in FineUpsertRepositoryImpl draws from the same sequence with
+    // nextval, so Hibernate must not hold a pooled block of ids that those inserts could also get
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fines_seq")
+    @SequenceGenerator(name = "fines_seq", sequenceName = "fines_seq", allocationSize = 1)
     private Integer id;
 
     @ManyToOne
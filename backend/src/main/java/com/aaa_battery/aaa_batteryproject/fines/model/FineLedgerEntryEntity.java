@@ -0,0 +1,80 @@
+package com.aaa_battery.aaa_batteryproject.fines.model;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// One change to what a borrower owes. Entries are only ever added; replaying them gives the balance
+@Entity
+@Table(name = "fine_ledger", indexes = {
+    @Index(name = "idx_fine_ledger_borrower", columnList = "borrower_id, id"),
+    @Index(name = "idx_fine_ledger_fine", columnList = "fine_id")
+})
+public class FineLedgerEntryEntity {
+
+    public enum EntryType {
+        ACCRUAL,
+        PAYMENT,
+        WAIVER
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    @Column(name = "borrower_id", nullable = false)
+    private Integer borrowerId;
+
+    @Column(name = "fine_id")
+    private Integer fineId;
+
+    @Column(name = "borrow_id")
+    private Integer borrowId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 20)
+    private EntryType type;
+
+    // Signed: accruals add to the balance, payments and waivers take away from it
+    @Column(nullable = false)
+    private Double amount;
+
+    @Column(name = "recorded_at", nullable = false)
+    private Date recordedAt;
+
+    public FineLedgerEntryEntity() {
+    }
+
+    public FineLedgerEntryEntity(Integer borrowerId, Integer fineId, Integer borrowId, EntryType type,
+                                 Double amount, Date recordedAt) {
+        this.borrowerId = borrowerId;
+        this.fineId = fineId;
+        this.borrowId = borrowId;
+        this.type = type;
+        this.amount = amount;
+        this.recordedAt = recordedAt;
+    }
+
+    // Getters only; an entry is never changed once written
+    public Long getId() { return id; }
+
+    public Integer getBorrowerId() { return borrowerId; }
+
+    public Integer getFineId() { return fineId; }
+
+    public Integer getBorrowId() { return borrowId; }
+
+    public EntryType getType() { return type; }
+
+    public Double getAmount() { return amount; }
+
+    public Date getRecordedAt() { return recordedAt; }
+}
@@ -0,0 +1,21 @@
+package com.aaa_battery.aaa_batteryproject.fines.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.aaa_battery.aaa_batteryproject.fines.model.FineBalanceEntity;
+
+import jakarta.persistence.LockModeType;
+
+public interface FineBalanceRepository extends JpaRepository<FineBalanceEntity, Integer>, FineBalanceSeedRepository {
+
+    // Every write to a borrower's fines holds this lock; taken in id order so two writers cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM FineBalanceEntity b WHERE b.borrowerId IN :borrowerIds ORDER BY b.borrowerId")
+    List<FineBalanceEntity> lockByBorrowerIds(@Param("borrowerIds") Collection<Integer> borrowerIds);
+}
@@ -0,0 +1,12 @@
+package com.aaa_battery.aaa_batteryproject.fines.repository;
+
+import java.util.Collection;
+
+public interface FineBalanceSeedRepository {
+
+    /**
+     * Adds an empty, not yet opened balance row for each borrower that has none. A row another
+     * transaction is adding at the same time is left to it.
+     */
+    void createMissingBalances(Collection<Integer> borrowerIds);
+}
@@ -0,0 +1,43 @@
+package com.aaa_battery.aaa_batteryproject.fines.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class FineBalanceSeedRepositoryImpl implements FineBalanceSeedRepository {
+
+    private static final String POSTGRES_INSERT =
+        "INSERT INTO fine_balances (borrower_id, balance, accrued, paid, waived) VALUES (?, 0, 0, 0, 0) " +
+        "ON CONFLICT (borrower_id) DO NOTHING";
+
+    private static final String MERGE_INSERT =
+        "MERGE INTO fine_balances b USING (VALUES (CAST(? AS INTEGER))) AS s (borrower_id) " +
+        "ON b.borrower_id = s.borrower_id " +
+        "WHEN NOT MATCHED THEN INSERT (borrower_id, balance, accrued, paid, waived) VALUES (s.borrower_id, 0, 0, 0, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public FineBalanceSeedRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void createMissingBalances(Collection<Integer> borrowerIds) {
+        if (borrowerIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(isPostgres() ? POSTGRES_INSERT : MERGE_INSERT, new ArrayList<>(borrowerIds),
+            borrowerIds.size(), (statement, borrowerId) -> statement.setInt(1, borrowerId));
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres"));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,16 @@
+package com.aaa_battery.aaa_batteryproject.fines.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.aaa_battery.aaa_batteryproject.fines.model.FineLedgerEntryEntity;
+
+public interface FineLedgerRepository extends JpaRepository<FineLedgerEntryEntity, Long> {
+
+    // Replays a borrower's ledger as one signed total per entry type
+    @Query("SELECT e.type, SUM(e.amount) FROM FineLedgerEntryEntity e WHERE e.borrowerId = :borrowerId GROUP BY e.type")
+    List<Object[]> sumByType(@Param("borrowerId") Integer borrowerId);
+}
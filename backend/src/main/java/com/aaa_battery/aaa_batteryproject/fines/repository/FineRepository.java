@@ -1,12 +1,39 @@
 package com.aaa_battery.aaa_batteryproject.fines.repository;
 
+import com.aaa_battery.aaa_batteryproject.fines.dto.FineInfoDTO;
 import com.aaa_battery.aaa_batteryproject.fines.model.FineEntity;
 
+import java.util.Date;
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface FineRepository extends JpaRepository<FineEntity, Integer> {
+public interface FineRepository extends JpaRepository<FineEntity, Integer>, FineUpsertRepository {
     FineEntity findByBorrow_Id(Integer borrowId);
     List<FineEntity> findByBorrowerId(Integer borrowerId);
+
+    // The librarian listing in one statement, newest first; null filters match every fine.
+    // The count reads the fines table alone, through the paid/issued and borrower indexes.
+    @Query(value = "SELECT new com.aaa_battery.aaa_batteryproject.fines.dto.FineInfoDTO(f.id, br.id, " +
+                   "COALESCE(br.fullName, 'Unknown'), COALESCE(d.itemName, 'Unknown'), f.amount, f.paid, " +
+                   "f.issuedDate, b.returnDate, b.returnedOn) " +
+                   "FROM FineEntity f LEFT JOIN f.borrower br LEFT JOIN f.borrow b " +
+                   "LEFT JOIN b.item i LEFT JOIN i.description d " +
+                   "WHERE (:paid IS NULL OR f.paid = :paid) AND (:borrowerId IS NULL OR f.borrower.id = :borrowerId) " +
+                   "AND (:issuedFrom IS NULL OR f.issuedDate >= :issuedFrom) " +
+                   "AND (:issuedBefore IS NULL OR f.issuedDate < :issuedBefore) " +
+                   "ORDER BY f.issuedDate DESC, f.id DESC",
+           countQuery = "SELECT COUNT(f) FROM FineEntity f " +
+                        "WHERE (:paid IS NULL OR f.paid = :paid) AND (:borrowerId IS NULL OR f.borrower.id = :borrowerId) " +
+                        "AND (:issuedFrom IS NULL OR f.issuedDate >= :issuedFrom) " +
+                        "AND (:issuedBefore IS NULL OR f.issuedDate < :issuedBefore)")
+    Page<FineInfoDTO> findFineInfo(@Param("paid") Boolean paid,
+                                   @Param("borrowerId") Integer borrowerId,
+                                   @Param("issuedFrom") Date issuedFrom,
+                                   @Param("issuedBefore") Date issuedBefore,
+                                   Pageable pageable);
 }
\ No newline at end of file
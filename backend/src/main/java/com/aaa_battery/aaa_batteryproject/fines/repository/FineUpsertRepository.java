@@ -0,0 +1,27 @@
+package com.aaa_battery.aaa_batteryproject.fines.repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+public interface FineUpsertRepository {
+
+    // The fine a borrow should carry after a scan
+    record FineUpsert(Integer borrowId, Integer borrowerId, double amount) {}
+
+    // What is on record for a fine; a null paid flag counts as unpaid
+    record FineState(Integer fineId, Integer borrowId, Integer borrowerId, double amount, boolean paid) {}
+
+    // The fine on record per borrow, for the borrows that already have one
+    Map<Integer, FineState> findStatesByBorrowIds(Collection<Integer> borrowIds);
+
+    // Every fine the borrowers carry, paid or not
+    List<FineState> findStatesByBorrowerIds(Collection<Integer> borrowerIds);
+
+    /**
+     * Creates or updates the fines, keyed on borrow_id, in at most two JDBC batches. New fines
+     * are issued on the given date and unpaid; existing ones only have their amount changed.
+     */
+    void upsertFines(List<FineUpsert> fines, Date issuedDate);
+}
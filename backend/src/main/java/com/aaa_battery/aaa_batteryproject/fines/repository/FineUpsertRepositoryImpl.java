@@ -0,0 +1,123 @@
+package com.aaa_battery.aaa_batteryproject.fines.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class FineUpsertRepositoryImpl implements FineUpsertRepository {
+
+    private static final String UPDATE_AMOUNT = "UPDATE fines SET amount = ? WHERE borrow_id = ?";
+
+    // Postgres resolves the race with a second writer on the unique borrow_id through ON CONFLICT
+    private static final String POSTGRES_UPSERT =
+        "INSERT INTO fines (id, borrow_id, borrower_id, amount, issued_date, paid) " +
+        "VALUES (nextval('fines_seq'), ?, ?, ?, ?, false) " +
+        "ON CONFLICT (borrow_id) DO UPDATE SET amount = EXCLUDED.amount";
+
+    // Standard MERGE for everything else, H2 included
+    private static final String MERGE_UPSERT =
+        "MERGE INTO fines f USING (VALUES (CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS DOUBLE PRECISION), CAST(? AS TIMESTAMP))) " +
+        "AS s (borrow_id, borrower_id, amount, issued_date) ON f.borrow_id = s.borrow_id " +
+        "WHEN MATCHED THEN UPDATE SET amount = s.amount " +
+        "WHEN NOT MATCHED THEN INSERT (id, borrow_id, borrower_id, amount, issued_date, paid) " +
+        "VALUES (NEXT VALUE FOR fines_seq, s.borrow_id, s.borrower_id, s.amount, s.issued_date, FALSE)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private volatile Boolean postgres;
+
+    public FineUpsertRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public Map<Integer, FineState> findStatesByBorrowIds(Collection<Integer> borrowIds) {
+        Map<Integer, FineState> states = new HashMap<>();
+        if (borrowIds.isEmpty()) {
+            return states;
+        }
+        namedParameterJdbcTemplate.query(
+            "SELECT id, borrow_id, borrower_id, amount, paid FROM fines WHERE borrow_id IN (:borrowIds)",
+            Map.of("borrowIds", borrowIds),
+            row -> {
+                FineState state = toState(row);
+                states.put(state.borrowId(), state);
+            });
+        return states;
+    }
+
+    @Override
+    public List<FineState> findStatesByBorrowerIds(Collection<Integer> borrowerIds) {
+        if (borrowerIds.isEmpty()) {
+            return List.of();
+        }
+        return namedParameterJdbcTemplate.query(
+            "SELECT id, borrow_id, borrower_id, amount, paid FROM fines WHERE borrower_id IN (:borrowerIds) ORDER BY id",
+            Map.of("borrowerIds", borrowerIds),
+            (row, rowNum) -> toState(row));
+    }
+
+    /**
+     * Postgres takes nextval for every row an INSERT ... ON CONFLICT attempts, conflicting or not,
+     * so rows that already have a fine are updated on their own first and only the rest go through
+     * the upsert. The upsert still covers a fine another writer created in between.
+     */
+    @Override
+    public void upsertFines(List<FineUpsert> fines, Date issuedDate) {
+        if (fines.isEmpty()) {
+            return;
+        }
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_AMOUNT, fines, fines.size(), (statement, fine) -> {
+            statement.setDouble(1, fine.amount());
+            statement.setInt(2, fine.borrowId());
+        });
+        List<FineUpsert> created = new ArrayList<>();
+        for (int i = 0; i < fines.size(); i++) {
+            // SUCCESS_NO_INFO means the driver could not say; upserting such a row is still correct
+            if (updated[0][i] == 0) {
+                created.add(fines.get(i));
+            }
+        }
+        if (created.isEmpty()) {
+            return;
+        }
+        Timestamp issued = new Timestamp(issuedDate.getTime());
+        jdbcTemplate.batchUpdate(isPostgres() ? POSTGRES_UPSERT : MERGE_UPSERT, created, created.size(), (statement, fine) -> {
+            statement.setInt(1, fine.borrowId());
+            if (fine.borrowerId() != null) {
+                statement.setInt(2, fine.borrowerId());
+            } else {
+                statement.setNull(2, Types.INTEGER);
+            }
+            statement.setDouble(3, fine.amount());
+            statement.setTimestamp(4, issued);
+        });
+    }
+
+    private static FineState toState(ResultSet row) throws SQLException {
+        Double amount = row.getObject("amount", Double.class);
+        return new FineState(row.getInt("id"), row.getObject("borrow_id", Integer.class),
+            row.getObject("borrower_id", Integer.class), amount != null ? amount : 0,
+            Boolean.TRUE.equals(row.getObject("paid", Boolean.class)));
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres"));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,18 @@
+package com.aaa_battery.aaa_batteryproject.fines.service;
+
+import java.util.Locale;
+
+// How fine amounts are kept up to date; set with fines.accrual.mode
+public enum FineAccrualMode {
+    // Each borrow is fined as it falls due, from the due-date wheel, with the nightly scan as a backstop
+    WHEEL,
+    // Only the 1am scan writes fines
+    NIGHTLY,
+    // Amounts of open fines are computed when read; rows are written when a borrow first goes
+    // overdue, is returned or is paid
+    ON_READ;
+
+    public static FineAccrualMode of(String value) {
+        return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
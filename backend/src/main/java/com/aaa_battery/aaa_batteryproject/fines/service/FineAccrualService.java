@@ -0,0 +1,179 @@
+package com.aaa_battery.aaa_batteryproject.fines.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.aaa_battery.aaa_batteryproject.borrows.dto.OverdueBorrowDTO;
+import com.aaa_battery.aaa_batteryproject.borrows.repository.BorrowRepository;
+import com.aaa_battery.aaa_batteryproject.borrows.service.BorrowDeadlineEvent;
+import com.aaa_battery.aaa_batteryproject.jobs.service.ClusterMembership;
+import com.aaa_battery.aaa_batteryproject.jobs.service.Shard;
+
+/**
+ * Accrues fines as each borrow falls due rather than all at 1am. Every open borrow sits in a
+ * timing wheel at its next deadline: the due date, then each further day overdue. When deadlines
+ * pass, the borrows concerned are fined in one batch and put back a day later while still open.
+ * Each instance keeps only the borrows of its shard, taken from its ClusterMembership lease, so a
+ * borrow is fined by one instance rather than all of them. The wheel is loaded from the database
+ * when the shard is taken or changes, and each tick picks up borrows other instances have opened.
+ */
+@Service
+public class FineAccrualService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FineAccrualService.class);
+
+    // One-minute ticks; levels of an hour, a day and 64 days cover the loan period several times over
+    private static final int[] WHEEL_LEVELS = {60, 24, 64};
+    private static final int LOAD_PAGE_SIZE = 1000;
+    // A membership lease outlives a few missed ticks before the instance's shard is handed on
+    private static final int LEASE_TICKS = 5;
+    // Catch-up rereads this many ids below the highest seen, for borrows that committed out of id order
+    private static final int CATCH_UP_OVERLAP = 100;
+
+    private final BorrowRepository borrowRepository;
+    private final FineScheduler fineScheduler;
+    private final ClusterMembership clusterMembership;
+    private final boolean enabled;
+    private final long tickMs;
+    private final Duration lease;
+
+    private volatile TimingWheel<Integer> wheel;
+    private volatile Shard shard = Shard.ALL;
+    // Highest open borrow id loaded into the wheel; only touched from load and tick
+    private int highestLoadedId;
+
+    public FineAccrualService(BorrowRepository borrowRepository, FineScheduler fineScheduler,
+                              ClusterMembership clusterMembership,
+                              @Value("${fines.accrual.mode:wheel}") String mode,
+                              @Value("${fines.accrual.tick-ms:60000}") long tickMs) {
+        this.borrowRepository = borrowRepository;
+        this.fineScheduler = fineScheduler;
+        this.clusterMembership = clusterMembership;
+        this.enabled = FineAccrualMode.of(mode) == FineAccrualMode.WHEEL;
+        this.tickMs = tickMs;
+        this.lease = Duration.ofMillis(tickMs * LEASE_TICKS);
+        this.wheel = new TimingWheel<>(tickMs, WHEEL_LEVELS, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        shard = clusterMembership.renew(lease);
+        // A fresh wheel, so borrows of a shard given up are dropped along with it
+        wheel = new TimingWheel<>(tickMs, WHEEL_LEVELS, System.currentTimeMillis());
+        highestLoadedId = 0;
+        int loaded = load(0);
+        logger.info("Due-date wheel loaded with {} open borrows for shard {} of {}", loaded, shard.index(), shard.count());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBorrowDeadline(BorrowDeadlineEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.getReturnDate() == null) {
+            wheel.cancel(event.getBorrowId());
+        } else if (shard.owns(event.getBorrowId())) {
+            wheel.schedule(event.getBorrowId(), event.getReturnDate().getTime());
+        }
+        // A borrow of another shard is picked up by its owner's next catch-up
+    }
+
+    @Scheduled(fixedDelayString = "${fines.accrual.tick-ms:60000}")
+    public synchronized void tick() {
+        if (!enabled) {
+            return;
+        }
+        Shard renewed = clusterMembership.renew(lease);
+        if (!renewed.equals(shard)) {
+            logger.info("Shard moved from {} of {} to {} of {}; reloading the due-date wheel",
+                shard.index(), shard.count(), renewed.index(), renewed.count());
+            rebuild();
+        } else {
+            load(Math.max(0, highestLoadedId - CATCH_UP_OVERLAP));
+        }
+        advanceTo(Instant.now());
+    }
+
+    /**
+     * Fines every borrow whose deadline has passed by the given time and schedules its next
+     * day of accrual. Returns how many borrows were fined.
+     */
+    public int advanceTo(Instant now) {
+        TimingWheel<Integer> wheel = this.wheel;
+        List<Integer> due = wheel.advance(now.toEpochMilli());
+        if (due.isEmpty()) {
+            return 0;
+        }
+        List<OverdueBorrowDTO> fined;
+        try {
+            fined = fineScheduler.accrueFines(Date.from(now), due);
+        } catch (RuntimeException e) {
+            // Put them back to try on a later tick instead of dropping them
+            due.forEach(borrowId -> wheel.schedule(borrowId, now.toEpochMilli()));
+            throw e;
+        }
+        List<Integer> stillOpen = new ArrayList<>(fined.size());
+        for (OverdueBorrowDTO borrow : fined) {
+            wheel.schedule(borrow.getBorrowId(), nextDeadline(borrow.getReturnDate().getTime(), now.toEpochMilli()));
+            stillOpen.add(borrow.getBorrowId());
+        }
+        logger.debug("Accrued fines for {} of {} borrows coming due", stillOpen.size(), due.size());
+        return stillOpen.size();
+    }
+
+    public int getScheduledCount() {
+        return wheel.size();
+    }
+
+    public boolean isScheduled(int borrowId) {
+        return wheel.contains(borrowId);
+    }
+
+    // Schedules the shard's open borrows above the given id that the wheel does not hold yet
+    private int load(int afterId) {
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        List<OverdueBorrowDTO> page;
+        do {
+            page = borrowRepository.findOpenInShardAfter(afterId, shard.count(), shard.index(), PageRequest.ofSize(LOAD_PAGE_SIZE));
+            for (OverdueBorrowDTO borrow : page) {
+                if (!wheel.contains(borrow.getBorrowId())) {
+                    // Borrows already overdue come due straight away, which catches up on time spent down
+                    wheel.schedule(borrow.getBorrowId(), Math.min(borrow.getReturnDate().getTime(), now));
+                    loaded++;
+                }
+                highestLoadedId = Math.max(highestLoadedId, borrow.getBorrowId());
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getBorrowId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        return loaded;
+    }
+
+    // The due date itself, or the next whole day overdue after now
+    private static long nextDeadline(long returnDate, long now) {
+        if (returnDate > now) {
+            return returnDate;
+        }
+        long daysOverdue = (now - returnDate) / FineCalculator.DAY_MS;
+        return returnDate + (daysOverdue + 1) * FineCalculator.DAY_MS;
+    }
+}
@@ -0,0 +1,26 @@
+package com.aaa_battery.aaa_batteryproject.fines.service;
+
+import java.util.Date;
+
+// The fine rule in one place, so stored amounts, computed amounts and days late always agree
+public final class FineCalculator {
+
+    public static final double DAILY_FINE = 100.0; // Rs100 per day
+    public static final long DAY_MS = 1000L * 60 * 60 * 24;
+
+    private FineCalculator() {
+    }
+
+    // Whole days between the due date and the return, or now while the item is still out
+    public static long daysLate(Date returnDate, Date returnedOn, Date now) {
+        if (returnDate == null) {
+            return 0;
+        }
+        Date end = returnedOn != null ? returnedOn : now;
+        return end.after(returnDate) ? (end.getTime() - returnDate.getTime()) / DAY_MS : 0;
+    }
+
+    public static double amount(long daysLate) {
+        return daysLate * DAILY_FINE;
+    }
+}
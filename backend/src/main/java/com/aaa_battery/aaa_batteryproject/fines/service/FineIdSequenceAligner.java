@@ -0,0 +1,44 @@
+package com.aaa_battery.aaa_batteryproject.fines.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * fines_seq was created for Hibernate's pooled optimizer and steps by 50. Fine ids are now taken
+ * one at a time, so on an existing database drop the step to 1 rather than skip 49 ids per fine.
+ * Only needed on Postgres; other databases here are always created from scratch.
+ */
+@Component
+public class FineIdSequenceAligner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FineIdSequenceAligner.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FineIdSequenceAligner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alignFineIdSequence() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(database)) {
+            return;
+        }
+        // Ids already handed out stay as they are; only the step changes, so this is safe with other nodes running
+        List<Long> steps = jdbcTemplate.queryForList(
+            "SELECT increment_by FROM pg_sequences WHERE sequencename = 'fines_seq'", Long.class);
+        if (!steps.isEmpty() && steps.get(0) != 1) {
+            jdbcTemplate.execute("ALTER SEQUENCE fines_seq INCREMENT BY 1");
+            logger.info("fines_seq now steps by 1 instead of {}", steps.get(0));
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.aaa_battery.aaa_batteryproject.fines.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aaa_battery.aaa_batteryproject.fines.dto.FineBalanceSummary;
+import com.aaa_battery.aaa_batteryproject.fines.model.FineBalanceEntity;
+import com.aaa_battery.aaa_batteryproject.fines.model.FineEntity;
+import com.aaa_battery.aaa_batteryproject.fines.model.FineLedgerEntryEntity;
+import com.aaa_battery.aaa_batteryproject.fines.model.FineLedgerEntryEntity.EntryType;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineBalanceRepository;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineLedgerRepository;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineRepository;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineUpsertRepository.FineState;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineUpsertRepository.FineUpsert;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Writes fines together with their ledger entries and the borrowers' running balances, in one
+ * transaction. Each write first locks the balance rows of the borrowers involved, so writers
+ * of one borrower's fines take turns and every amount change is recorded exactly once.
+ * A borrower's balance is opened from the fines they already carry the first time it is needed.
+ */
+@Service
+public class FineLedgerService {
+
+    // What one accrual pass wrote
+    public record Accrued(int created, int updated) {}
+
+    private final FineRepository fineRepository;
+    private final FineLedgerRepository fineLedgerRepository;
+    private final FineBalanceRepository fineBalanceRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public FineLedgerService(FineRepository fineRepository, FineLedgerRepository fineLedgerRepository,
+                             FineBalanceRepository fineBalanceRepository) {
+        this.fineRepository = fineRepository;
+        this.fineLedgerRepository = fineLedgerRepository;
+        this.fineBalanceRepository = fineBalanceRepository;
+    }
+
+    /**
+     * Brings each fine up to its new amount, creating the ones that are missing, and records the
+     * difference as an accrual. Paid fines are left as they are; with createOnly, so are any fines
+     * already on record.
+     */
+    @Transactional
+    public Accrued accrue(List<FineUpsert> fines, Date now, boolean createOnly) {
+        if (fines.isEmpty()) {
+            return new Accrued(0, 0);
+        }
+        List<FineLedgerEntryEntity> entries = new ArrayList<>();
+        Map<Integer, FineBalanceEntity> balances = lockBalances(fines.stream().map(FineUpsert::borrowerId).toList(),
+            now, entries);
+        Map<Integer, FineState> existing = fineRepository.findStatesByBorrowIds(
+            fines.stream().map(FineUpsert::borrowId).toList());
+
+        int created = 0;
+        int updated = 0;
+        List<FineUpsert> changes = new ArrayList<>();
+        Map<Integer, Double> changedBy = new HashMap<>();
+        for (FineUpsert fine : fines) {
+            FineState current = existing.get(fine.borrowId());
+            if (current == null) {
+                created++;
+            } else if (current.paid() || createOnly || current.amount() == fine.amount()) {
+                continue;
+            } else {
+                updated++;
+            }
+            changes.add(fine);
+            double change = fine.amount() - (current != null ? current.amount() : 0);
+            if (change != 0) {
+                changedBy.put(fine.borrowId(), change);
+            }
+        }
+        fineRepository.upsertFines(changes, now);
+
+        // New fines only get their id from the upsert, so the entries read it back
+        if (!changedBy.isEmpty()) {
+            for (FineState fine : fineRepository.findStatesByBorrowIds(changedBy.keySet()).values()) {
+                FineBalanceEntity balance = balances.get(fine.borrowerId());
+                if (balance != null) {
+                    post(balance, new FineLedgerEntryEntity(fine.borrowerId(), fine.fineId(), fine.borrowId(),
+                        EntryType.ACCRUAL, changedBy.get(fine.borrowId()), now), entries);
+                }
+            }
+        }
+        fineLedgerRepository.saveAll(entries);
+        return new Accrued(created, updated);
+    }
+
+    /**
+     * Closes the fine as paid or waived at the amount the pricing gives for it, recording any
+     * last accrual first. Returns empty when there is no such fine.
+     */
+    @Transactional
+    public Optional<FineEntity> settle(Integer fineId, EntryType type, ToDoubleFunction<FineEntity> pricing, Date now) {
+        Optional<FineEntity> found = fineRepository.findById(fineId);
+        if (found.isEmpty()) {
+            return found;
+        }
+        FineEntity fine = found.get();
+        Integer borrowerId = fine.getBorrower() != null ? fine.getBorrower().getId() : null;
+        List<FineLedgerEntryEntity> entries = new ArrayList<>();
+        FineBalanceEntity balance = borrowerId != null
+            ? lockBalances(List.of(borrowerId), now, entries).get(borrowerId)
+            : null;
+        // Read again under the borrower's lock, so the amount and paid flag are current
+        entityManager.refresh(fine);
+        if (Boolean.TRUE.equals(fine.getPaid())) {
+            throw new IllegalStateException("This fine has already been " + (type == EntryType.WAIVER ? "settled" : "paid"));
+        }
+
+        double stored = fine.getAmount() != null ? fine.getAmount() : 0;
+        double amount = pricing.applyAsDouble(fine);
+        Integer borrowId = fine.getBorrow() != null ? fine.getBorrow().getId() : null;
+        if (balance != null) {
+            if (amount != stored) {
+                post(balance, new FineLedgerEntryEntity(borrowerId, fineId, borrowId, EntryType.ACCRUAL,
+                    amount - stored, now), entries);
+            }
+            if (amount != 0) {
+                post(balance, new FineLedgerEntryEntity(borrowerId, fineId, borrowId, type, -amount, now), entries);
+            }
+        }
+        fine.setAmount(amount);
+        fine.setPaid(true);
+        fineRepository.save(fine);
+        fineLedgerRepository.saveAll(entries);
+        return Optional.of(fine);
+    }
+
+    /**
+     * What the borrower owes, from their balance row. With fines computed on read, open fines
+     * count at the amount last stored for them.
+     */
+    @Transactional
+    public FineBalanceSummary getBalance(Integer borrowerId) {
+        FineBalanceEntity balance = fineBalanceRepository.findById(borrowerId)
+            .filter(FineLedgerService::isOpened)
+            .orElse(null);
+        if (balance == null) {
+            List<FineLedgerEntryEntity> entries = new ArrayList<>();
+            balance = lockBalances(List.of(borrowerId), new Date(), entries).get(borrowerId);
+            fineLedgerRepository.saveAll(entries);
+        }
+        return new FineBalanceSummary(borrowerId, balance.getBalance(), balance.getAccrued(),
+            balance.getPaid(), balance.getWaived());
+    }
+
+    // The balance worked out again from the ledger alone, to check the running totals against
+    @Transactional(readOnly = true)
+    public FineBalanceSummary replay(Integer borrowerId) {
+        double accrued = 0;
+        double paid = 0;
+        double waived = 0;
+        for (Object[] row : fineLedgerRepository.sumByType(borrowerId)) {
+            double total = ((Number) row[1]).doubleValue();
+            switch ((EntryType) row[0]) {
+                case ACCRUAL -> accrued = total;
+                case PAYMENT -> paid = -total;
+                case WAIVER -> waived = -total;
+            }
+        }
+        return new FineBalanceSummary(borrowerId, accrued - paid - waived, accrued, paid, waived);
+    }
+
+    // Locks the borrowers' balances, adding any that are missing and opening them from the fines on record
+    private Map<Integer, FineBalanceEntity> lockBalances(Collection<Integer> borrowerIds, Date now,
+                                                        List<FineLedgerEntryEntity> entries) {
+        List<Integer> ids = borrowerIds.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        Map<Integer, FineBalanceEntity> balances = new HashMap<>();
+        if (ids.isEmpty()) {
+            return balances;
+        }
+        fineBalanceRepository.createMissingBalances(ids);
+        List<Integer> unopened = new ArrayList<>();
+        for (FineBalanceEntity balance : fineBalanceRepository.lockByBorrowerIds(ids)) {
+            balances.put(balance.getBorrowerId(), balance);
+            if (!isOpened(balance)) {
+                unopened.add(balance.getBorrowerId());
+            }
+        }
+        for (FineState fine : fineRepository.findStatesByBorrowerIds(unopened)) {
+            FineBalanceEntity balance = balances.get(fine.borrowerId());
+            if (fine.amount() != 0) {
+                post(balance, new FineLedgerEntryEntity(fine.borrowerId(), fine.fineId(), fine.borrowId(),
+                    EntryType.ACCRUAL, fine.amount(), now), entries);
+                if (fine.paid()) {
+                    post(balance, new FineLedgerEntryEntity(fine.borrowerId(), fine.fineId(), fine.borrowId(),
+                        EntryType.PAYMENT, -fine.amount(), now), entries);
+                }
+            }
+        }
+        unopened.forEach(borrowerId -> balances.get(borrowerId).setUpdatedAt(now));
+        return balances;
+    }
+
+    private static boolean isOpened(FineBalanceEntity balance) {
+        return balance.getUpdatedAt() != null;
+    }
+
+    private static void post(FineBalanceEntity balance, FineLedgerEntryEntity entry, List<FineLedgerEntryEntity> entries) {
+        switch (entry.getType()) {
+            case ACCRUAL -> balance.setAccrued(balance.getAccrued() + entry.getAmount());
+            case PAYMENT -> balance.setPaid(balance.getPaid() - entry.getAmount());
+            case WAIVER -> balance.setWaived(balance.getWaived() - entry.getAmount());
+        }
+        balance.setBalance(balance.getBalance() + entry.getAmount());
+        balance.setUpdatedAt(entry.getRecordedAt());
+        entries.add(entry);
+    }
+}
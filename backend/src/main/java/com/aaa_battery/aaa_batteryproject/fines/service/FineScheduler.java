@@ -1,49 +1,142 @@
 package com.aaa_battery.aaa_batteryproject.fines.service;
 
-import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
+import com.aaa_battery.aaa_batteryproject.borrows.dto.OverdueBorrowDTO;
 import com.aaa_battery.aaa_batteryproject.borrows.repository.BorrowRepository;
-import com.aaa_battery.aaa_batteryproject.fines.model.FineEntity;
-import com.aaa_battery.aaa_batteryproject.fines.repository.FineRepository;
+import com.aaa_battery.aaa_batteryproject.fines.dto.FineScanSummary;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineUpsertRepository.FineUpsert;
+import com.aaa_battery.aaa_batteryproject.jobs.service.IdRange;
+import com.aaa_battery.aaa_batteryproject.jobs.service.JobCoordinator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class FineScheduler {
 
+    private static final Logger logger = LoggerFactory.getLogger(FineScheduler.class);
+
     private final BorrowRepository borrowRepository;
-    private final FineRepository fineRepository;
-    private static final double DAILY_FINE = 100.0; // Rs100 per day
+    private final FineLedgerService fineLedgerService;
+    private final MeterRegistry meterRegistry;
+    private final JobCoordinator jobCoordinator;
+    private final int chunkSize;
+    private final int partitions;
+    private final FineAccrualMode mode;
 
-    public FineScheduler(BorrowRepository borrowRepository, FineRepository fineRepository) {
+    public FineScheduler(BorrowRepository borrowRepository, FineLedgerService fineLedgerService, MeterRegistry meterRegistry,
+                         JobCoordinator jobCoordinator,
+                         @Value("${fines.scan.chunk-size:500}") int chunkSize,
+                         @Value("${fines.scan.partitions:1}") int partitions,
+                         @Value("${fines.accrual.mode:wheel}") String mode) {
         this.borrowRepository = borrowRepository;
-        this.fineRepository = fineRepository;
+        this.fineLedgerService = fineLedgerService;
+        this.meterRegistry = meterRegistry;
+        this.jobCoordinator = jobCoordinator;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.partitions = Math.max(1, partitions);
+        this.mode = FineAccrualMode.of(mode);
     }
 
-    // Runs every day at 1am
+    // Runs every day at 1am; every instance fires, and the coordinator makes it one run per day
+    // with the borrow id range shared out among them. With the due-date wheel on, fines are already
+    // current and this pass only writes what the wheels missed. When fines are computed on read,
+    // it only records borrows that went overdue since the last run.
     @Scheduled(cron = "0 0 1 * * *")
     public void checkAndApplyFines() {
-        List<BorrowEntity> borrows = borrowRepository.findAll();
-        Date today = new Date();
-
-        for (BorrowEntity borrow : borrows) {
-            if (borrow.getReturnedOn() == null && borrow.getReturnDate() != null && today.after(borrow.getReturnDate())) {
-                long overdueDays = (today.getTime() - borrow.getReturnDate().getTime()) / (1000 * 60 * 60 * 24);
-                double fineAmount = overdueDays * DAILY_FINE;
-
-                FineEntity fine = fineRepository.findByBorrow_Id(borrow.getId());
-                if (fine == null) {
-                    fine = new FineEntity();
-                    fine.setBorrow(borrow);
-                    fine.setBorrower(borrow.getBorrower());
-                    fine.setIssuedDate(today);
-                    fine.setPaid(false);
-                }
-                fine.setAmount(fineAmount);
-                fineRepository.save(fine);
+        jobCoordinator.runPartitioned("fine-scan", LocalDate.now().toString(), partitions, this::openBorrowIds,
+            (runStartedAt, range) -> scanOverdueBorrows(Date.from(runStartedAt), range).toString());
+    }
+
+    public FineScanSummary scanOverdueBorrows(Date now) {
+        return scanOverdueBorrows(now, IdRange.ALL);
+    }
+
+    /**
+     * Brings the fine of every open, overdue borrow up to date as of the given time. Only open
+     * borrows past due are read, a keyset page at a time, and each page costs one lookup of the
+     * existing fines plus one batched upsert of those that are new or changed.
+     * Only borrow ids within the range are looked at.
+     */
+    public FineScanSummary scanOverdueBorrows(Date now, IdRange range) {
+        long started = System.nanoTime();
+        int scanned = 0;
+        int created = 0;
+        int updated = 0;
+        int afterId = (int) Math.max(0, Math.min(Integer.MAX_VALUE, range.low() - 1));
+        int lastId = (int) Math.min(Integer.MAX_VALUE, range.high());
+
+        List<OverdueBorrowDTO> page;
+        do {
+            page = borrowRepository.findOverdueAfter(now, afterId, lastId, PageRequest.ofSize(chunkSize));
+            if (page.isEmpty()) {
+                break;
             }
+            scanned += page.size();
+            afterId = page.get(page.size() - 1).getBorrowId();
+
+            FineLedgerService.Accrued written = applyFines(now, page);
+            created += written.created();
+            updated += written.updated();
+        } while (page.size() == chunkSize);
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        meterRegistry.counter("fines.scan.scanned").increment(scanned);
+        meterRegistry.counter("fines.scan.created").increment(created);
+        meterRegistry.counter("fines.scan.updated").increment(updated);
+        meterRegistry.timer("fines.scan").record(elapsedMs, TimeUnit.MILLISECONDS);
+        logger.info("Overdue scan finished in {} ms: {} overdue borrows scanned, {} fines created, {} updated",
+            elapsedMs, scanned, created, updated);
+        return new FineScanSummary(scanned, created, updated, elapsedMs);
+    }
+
+    /**
+     * Brings the fines of the given borrows up to date, skipping any that were returned or are
+     * not yet due. Returns the borrows that were fined, which keep accruing.
+     */
+    public List<OverdueBorrowDTO> accrueFines(Date now, Collection<Integer> borrowIds) {
+        List<Integer> ids = new ArrayList<>(borrowIds);
+        List<OverdueBorrowDTO> fined = new ArrayList<>();
+        int created = 0;
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<OverdueBorrowDTO> page = borrowRepository.findOverdueByIds(now,
+                ids.subList(from, Math.min(from + chunkSize, ids.size())));
+            FineLedgerService.Accrued written = applyFines(now, page);
+            created += written.created();
+            updated += written.updated();
+            fined.addAll(page);
         }
+        meterRegistry.counter("fines.accrual.created").increment(created);
+        meterRegistry.counter("fines.accrual.updated").increment(updated);
+        return fined;
+    }
+
+    // One lookup of the existing fines and one batched upsert, recorded in the ledger in the same transaction
+    private FineLedgerService.Accrued applyFines(Date now, List<OverdueBorrowDTO> page) {
+        List<FineUpsert> fines = page.stream()
+            .map(borrow -> new FineUpsert(borrow.getBorrowId(), borrow.getBorrowerId(),
+                FineCalculator.amount(FineCalculator.daysLate(borrow.getReturnDate(), null, now))))
+            .toList();
+        // Once a fine is on record, on-read mode prices it when it is read rather than here
+        return fineLedgerService.accrue(fines, now, mode == FineAccrualMode.ON_READ);
+    }
+
+    private IdRange openBorrowIds() {
+        Integer low = borrowRepository.findMinOpenBorrowId();
+        Integer high = borrowRepository.findMaxOpenBorrowId();
+        return low != null && high != null ? new IdRange(low, high) : IdRange.ALL;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,168 @@
+package com.aaa_battery.aaa_batteryproject.fines.service;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
+import com.aaa_battery.aaa_batteryproject.borrows.repository.BorrowRepository;
+import com.aaa_battery.aaa_batteryproject.borrows.service.BorrowDeadlineEvent;
+import com.aaa_battery.aaa_batteryproject.fines.dto.BorrowerFineDTO;
+import com.aaa_battery.aaa_batteryproject.fines.dto.FineInfoDTO;
+import com.aaa_battery.aaa_batteryproject.fines.model.FineEntity;
+import com.aaa_battery.aaa_batteryproject.fines.model.FineLedgerEntryEntity.EntryType;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineRepository;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineUpsertRepository.FineUpsert;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Reads fines with amounts and days late worked out from the same clock. When fines are computed
+ * on read, an unpaid fine on a borrow still out is priced from its due date at read time, and the
+ * stored amount is only settled when the borrow is returned or the fine is paid.
+ * Each borrower's fines are cached briefly; changes made here evict them.
+ */
+@Service
+public class FineService {
+
+    private final FineRepository fineRepository;
+    private final BorrowRepository borrowRepository;
+    private final FineLedgerService fineLedgerService;
+    private final FineAccrualMode mode;
+    private final Cache<Integer, List<BorrowerFineDTO>> borrowerFines;
+
+    public FineService(FineRepository fineRepository, BorrowRepository borrowRepository,
+                       FineLedgerService fineLedgerService,
+                       @Value("${fines.accrual.mode:wheel}") String mode,
+                       @Value("${fines.read-cache-ttl:30s}") Duration readCacheTtl) {
+        this.fineRepository = fineRepository;
+        this.borrowRepository = borrowRepository;
+        this.fineLedgerService = fineLedgerService;
+        this.mode = FineAccrualMode.of(mode);
+        this.borrowerFines = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(readCacheTtl)
+            .build();
+    }
+
+    public FineAccrualMode getMode() {
+        return mode;
+    }
+
+    // What the fine comes to as of now: the stored amount unless it is still growing and computed on read
+    public Double currentAmount(FineEntity fine, Date now) {
+        BorrowEntity borrow = fine.getBorrow();
+        if (borrow == null) {
+            return fine.getAmount();
+        }
+        return currentAmount(fine.getAmount(), fine.getPaid(), borrow.getReturnDate(), borrow.getReturnedOn(), now);
+    }
+
+    private Double currentAmount(Double stored, Boolean paid, Date returnDate, Date returnedOn, Date now) {
+        if (mode != FineAccrualMode.ON_READ || Boolean.TRUE.equals(paid) || returnDate == null || returnedOn != null) {
+            return stored;
+        }
+        return FineCalculator.amount(FineCalculator.daysLate(returnDate, null, now));
+    }
+
+    /**
+     * One page of every borrower's fines for the librarian, newest first. Each filter is optional;
+     * the issued range takes fines from issuedFrom up to but not including issuedBefore.
+     */
+    public Page<FineInfoDTO> getFines(Boolean paid, Integer borrowerId, Date issuedFrom, Date issuedBefore,
+                                      int page, int size) {
+        Date now = new Date();
+        Page<FineInfoDTO> fines = fineRepository.findFineInfo(paid, borrowerId, issuedFrom, issuedBefore,
+            PageRequest.of(page, size));
+        fines.forEach(fine -> fine.setAmount(currentAmount(fine.getAmount(), fine.getPaid(),
+            fine.getReturnDate(), fine.getReturnedOn(), now)));
+        return fines;
+    }
+
+    public List<BorrowerFineDTO> getBorrowerFines(Integer borrowerId) {
+        return borrowerFines.get(borrowerId, id -> {
+            Date now = new Date();
+            return fineRepository.findByBorrowerId(id).stream().map(fine -> toBorrowerFine(fine, now)).toList();
+        });
+    }
+
+    /**
+     * Marks the fine paid, settling its amount first when it was being computed on read.
+     * Returns empty when there is no such fine.
+     */
+    @Transactional
+    public Optional<FineEntity> payFine(Integer fineId) {
+        return settle(fineId, EntryType.PAYMENT);
+    }
+
+    // Closes the fine without payment; the ledger records it as waived
+    @Transactional
+    public Optional<FineEntity> waiveFine(Integer fineId) {
+        return settle(fineId, EntryType.WAIVER);
+    }
+
+    // A late return fixes the fine for good; with amounts computed on read this is where it is stored
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onBorrowDeadline(BorrowDeadlineEvent event) {
+        // In the other modes stored amounts are already what is shown, and the cache TTL covers the lag
+        if (mode != FineAccrualMode.ON_READ || event.getReturnDate() != null) {
+            return;
+        }
+        Optional<BorrowEntity> found = borrowRepository.findById(event.getBorrowId());
+        if (found.isEmpty() || found.get().getBorrower() == null) {
+            return;
+        }
+        BorrowEntity borrow = found.get();
+        Date returnedOn = borrow.getReturnedOn() != null ? borrow.getReturnedOn() : new Date();
+        long daysLate = FineCalculator.daysLate(borrow.getReturnDate(), returnedOn, returnedOn);
+        FineEntity existing = fineRepository.findByBorrow_Id(borrow.getId());
+        if (existing != null || daysLate > 0) {
+            fineLedgerService.accrue(List.of(new FineUpsert(borrow.getId(), borrow.getBorrower().getId(),
+                FineCalculator.amount(daysLate))), returnedOn, false);
+        }
+        borrowerFines.invalidate(borrow.getBorrower().getId());
+    }
+
+    private Optional<FineEntity> settle(Integer fineId, EntryType type) {
+        Date now = new Date();
+        Optional<FineEntity> settled = fineLedgerService.settle(fineId, type, fine -> currentAmount(fine, now), now);
+        settled.ifPresent(this::evict);
+        return settled;
+    }
+
+    private void evict(FineEntity fine) {
+        if (fine.getBorrower() != null) {
+            borrowerFines.invalidate(fine.getBorrower().getId());
+        }
+    }
+
+    private BorrowerFineDTO toBorrowerFine(FineEntity fine, Date now) {
+        BorrowerFineDTO dto = new BorrowerFineDTO();
+        dto.setFineId(fine.getId());
+        dto.setAmount(currentAmount(fine, now));
+        dto.setPaid(fine.getPaid());
+        dto.setIssuedDate(fine.getIssuedDate());
+
+        BorrowEntity borrow = fine.getBorrow();
+        if (borrow != null) {
+            dto.setItemId(borrow.getItem() != null ? borrow.getItem().getItemId() : null);
+            dto.setItemName(borrow.getItem() != null ? borrow.getItem().getDescription().getItemName() : "Unknown");
+            dto.setBorrowDate(borrow.getBorrowDate());
+            dto.setReturnDate(borrow.getReturnDate());
+            // Counted to the return once there is one, so it matches the amount
+            dto.setDaysLate(FineCalculator.daysLate(borrow.getReturnDate(), borrow.getReturnedOn(), now));
+        }
+        return dto;
+    }
+}
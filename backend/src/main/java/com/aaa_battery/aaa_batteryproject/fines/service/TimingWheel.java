@@ -0,0 +1,165 @@
+package com.aaa_battery.aaa_batteryproject.fines.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Hierarchical timing wheel of keyed deadlines. Level 0 has one slot per tick; each level above
+ * has slots as wide as a full turn of the level below, and its entries drop down a level when
+ * their slot comes round. Scheduling, rescheduling and cancelling are O(1); advancing costs one
+ * step per elapsed tick plus the entries it moves. Deadlines past the top level wait in an
+ * ordered overflow until they come within range. A deadline fires on the first tick at or after it.
+ * Thread-safe.
+ */
+public class TimingWheel<K> {
+
+    private final long tickMs;
+    private final int[] slots;
+    // Ticks per slot and per full turn, for each level
+    private final long[] unitTicks;
+    private final long[] turnTicks;
+    private final List<List<Set<K>>> levels = new ArrayList<>();
+    private final TreeMap<Long, Set<K>> overflow = new TreeMap<>();
+    private final Map<K, Timer> timers = new HashMap<>();
+    private final Set<K> due = new LinkedHashSet<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMs, int[] slotsPerLevel, long startMs) {
+        this.tickMs = tickMs;
+        this.slots = slotsPerLevel.clone();
+        this.unitTicks = new long[slots.length];
+        this.turnTicks = new long[slots.length];
+        long unit = 1;
+        for (int level = 0; level < slots.length; level++) {
+            unitTicks[level] = unit;
+            unit *= slots[level];
+            turnTicks[level] = unit;
+            List<Set<K>> wheel = new ArrayList<>(slots[level]);
+            for (int slot = 0; slot < slots[level]; slot++) {
+                wheel.add(new LinkedHashSet<>());
+            }
+            levels.add(wheel);
+        }
+        this.currentTick = startMs / tickMs;
+    }
+
+    // Sets the key's deadline, replacing any it had
+    public synchronized void schedule(K key, long deadlineMs) {
+        cancelLocked(key);
+        place(key, Math.floorDiv(deadlineMs + tickMs - 1, tickMs));
+    }
+
+    public synchronized void cancel(K key) {
+        cancelLocked(key);
+    }
+
+    public synchronized boolean contains(K key) {
+        return timers.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    /**
+     * Moves the wheel up to the given time and returns the keys whose deadlines have passed,
+     * roughly in deadline order. Fired keys are no longer scheduled.
+     */
+    public synchronized List<K> advance(long nowMs) {
+        long targetTick = nowMs / tickMs;
+        if (timers.isEmpty()) {
+            currentTick = Math.max(currentTick, targetTick);
+            return List.of();
+        }
+        while (currentTick < targetTick) {
+            currentTick++;
+            pullFromOverflow();
+            // Higher levels first, so their entries can fall all the way down within this tick
+            for (int level = slots.length - 1; level >= 1; level--) {
+                if (currentTick % unitTicks[level] == 0) {
+                    cascade(level, slotOf(level, currentTick));
+                }
+            }
+            cascade(0, slotOf(0, currentTick));
+            if (timers.isEmpty()) {
+                currentTick = targetTick;
+            }
+        }
+        List<K> fired = new ArrayList<>(due);
+        due.clear();
+        fired.forEach(timers::remove);
+        return fired;
+    }
+
+    private void cascade(int level, int slot) {
+        Set<K> entries = levels.get(level).get(slot);
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<K> moving = new ArrayList<>(entries);
+        entries.clear();
+        for (K key : moving) {
+            place(key, timers.remove(key).expiryTick);
+        }
+    }
+
+    private void pullFromOverflow() {
+        long horizon = currentTick + turnTicks[slots.length - 1];
+        while (!overflow.isEmpty() && overflow.firstKey() < horizon) {
+            Map.Entry<Long, Set<K>> entry = overflow.pollFirstEntry();
+            for (K key : entry.getValue()) {
+                timers.remove(key);
+                place(key, entry.getKey());
+            }
+        }
+    }
+
+    private void place(K key, long expiryTick) {
+        long delta = expiryTick - currentTick;
+        if (delta <= 0) {
+            due.add(key);
+            timers.put(key, new Timer(expiryTick, -1, -1));
+            return;
+        }
+        for (int level = 0; level < slots.length; level++) {
+            if (delta < turnTicks[level]) {
+                int slot = slotOf(level, expiryTick);
+                levels.get(level).get(slot).add(key);
+                timers.put(key, new Timer(expiryTick, level, slot));
+                return;
+            }
+        }
+        overflow.computeIfAbsent(expiryTick, tick -> new LinkedHashSet<>()).add(key);
+        timers.put(key, new Timer(expiryTick, slots.length, -1));
+    }
+
+    private void cancelLocked(K key) {
+        Timer timer = timers.remove(key);
+        if (timer == null) {
+            return;
+        }
+        if (timer.level < 0) {
+            due.remove(key);
+        } else if (timer.level == slots.length) {
+            Set<K> keys = overflow.get(timer.expiryTick);
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                overflow.remove(timer.expiryTick);
+            }
+        } else {
+            levels.get(timer.level).get(timer.slot).remove(key);
+        }
+    }
+
+    private int slotOf(int level, long tick) {
+        return (int) ((tick / unitTicks[level]) % slots[level]);
+    }
+
+    // Where a key sits: a wheel level and slot, the overflow (level == number of levels), or due (level -1)
+    private record Timer(long expiryTick, int level, int slot) {}
+}
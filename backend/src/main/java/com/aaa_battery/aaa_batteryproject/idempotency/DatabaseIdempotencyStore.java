@@ -0,0 +1,79 @@
+package com.aaa_battery.aaa_batteryproject.idempotency;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.aaa_battery.aaa_batteryproject.idempotency.model.IdempotencyRecordEntity;
+import com.aaa_battery.aaa_batteryproject.idempotency.repository.IdempotencyRecordRepository;
+
+/**
+ * Store shared by every node through the idempotency_keys table. The primary key decides which
+ * request wins a key; expired rows are skipped on read and purged on a schedule.
+ */
+@Component
+@ConditionalOnProperty(name = "idempotency.store", havingValue = "database")
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseIdempotencyStore.class);
+
+    private final IdempotencyRecordRepository repository;
+    private final Duration ttl;
+
+    public DatabaseIdempotencyStore(IdempotencyRecordRepository repository,
+                                    @Value("${idempotency.ttl:24h}") Duration ttl) {
+        this.repository = repository;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> reserve(String key, String fingerprint) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Instant now = Instant.now();
+            try {
+                repository.insertPending(key, fingerprint, now.plus(PENDING_TTL));
+                return Optional.empty();
+            } catch (DataIntegrityViolationException e) {
+                Optional<IdempotencyRecordEntity> existing = repository.findById(key);
+                if (existing.isPresent() && existing.get().getExpiresAt().isAfter(now)) {
+                    return existing.map(DatabaseIdempotencyStore::toRecord);
+                }
+                // The holder expired or went away between the insert and the read; try once more
+                repository.deleteIfExpired(key, now);
+            }
+        }
+        // Lost the race twice in a row: report the key as in flight so the caller retries later
+        return Optional.of(IdempotencyRecord.pending(fingerprint, Instant.now().plus(PENDING_TTL)));
+    }
+
+    @Override
+    public void complete(String key, String fingerprint, int status, String contentType, byte[] body) {
+        repository.complete(key, fingerprint, status, contentType, body, Instant.now().plus(ttl));
+    }
+
+    @Override
+    public void release(String key) {
+        repository.deleteKey(key);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = repository.purgeExpired(Instant.now());
+        if (purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private static IdempotencyRecord toRecord(IdempotencyRecordEntity entity) {
+        return new IdempotencyRecord(entity.getFingerprint(), entity.isCompleted(), entity.getStatus(),
+            entity.getContentType(), entity.getBody() != null ? entity.getBody() : new byte[0], entity.getExpiresAt());
+    }
+}
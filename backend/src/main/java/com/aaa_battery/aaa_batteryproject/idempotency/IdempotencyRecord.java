@@ -0,0 +1,16 @@
+package com.aaa_battery.aaa_batteryproject.idempotency;
+
+import java.time.Instant;
+
+/**
+ * What is kept for one Idempotency-Key: a fingerprint of the request that first used it and,
+ * once that request has finished, the response to replay. A record that is not completed
+ * marks a request still in flight.
+ */
+public record IdempotencyRecord(String fingerprint, boolean completed, int status, String contentType,
+                                byte[] body, Instant expiresAt) {
+
+    public static IdempotencyRecord pending(String fingerprint, Instant expiresAt) {
+        return new IdempotencyRecord(fingerprint, false, 0, null, new byte[0], expiresAt);
+    }
+}
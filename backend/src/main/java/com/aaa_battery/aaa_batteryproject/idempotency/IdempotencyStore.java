@@ -0,0 +1,23 @@
+package com.aaa_battery.aaa_batteryproject.idempotency;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Key -> response store behind IdempotencyFilter; keys arrive already hashed and scoped to the caller
+public interface IdempotencyStore {
+
+    // How long an in-flight reservation holds its key if the request never finishes (a crashed node)
+    Duration PENDING_TTL = Duration.ofMinutes(1);
+
+    /**
+     * Claims the key for a request about to run. Returns empty when the claim succeeded,
+     * otherwise the record already held under the key, finished or still in flight.
+     */
+    Optional<IdempotencyRecord> reserve(String key, String fingerprint);
+
+    // Stores the finished response so retries replay it until the TTL runs out
+    void complete(String key, String fingerprint, int status, String contentType, byte[] body);
+
+    // Drops a reservation whose request should be allowed to run again
+    void release(String key);
+}
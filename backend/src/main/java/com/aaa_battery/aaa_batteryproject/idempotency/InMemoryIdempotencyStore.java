@@ -0,0 +1,72 @@
+package com.aaa_battery.aaa_batteryproject.idempotency;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Single-node store. Each entry expires at its own time, so reservations lapse after a minute
+ * and finished responses after the configured TTL. Bounded by the bytes of stored responses.
+ */
+@Component
+@ConditionalOnProperty(name = "idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private static final long MAX_STORED_BYTES = 32L * 1024 * 1024;
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final Duration ttl;
+    private final Cache<String, IdempotencyRecord> records;
+
+    public InMemoryIdempotencyStore(@Value("${idempotency.ttl:24h}") Duration ttl) {
+        this.ttl = ttl;
+        this.records = Caffeine.newBuilder()
+            .maximumWeight(MAX_STORED_BYTES)
+            .weigher((String key, IdempotencyRecord record) -> ENTRY_OVERHEAD_BYTES + record.body().length)
+            .expireAfter(new Expiry<String, IdempotencyRecord>() {
+                @Override
+                public long expireAfterCreate(String key, IdempotencyRecord record, long currentTime) {
+                    return nanosUntil(record.expiresAt());
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, IdempotencyRecord record, long currentTime, long currentDuration) {
+                    return nanosUntil(record.expiresAt());
+                }
+
+                @Override
+                public long expireAfterRead(String key, IdempotencyRecord record, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> reserve(String key, String fingerprint) {
+        IdempotencyRecord pending = IdempotencyRecord.pending(fingerprint, Instant.now().plus(PENDING_TTL));
+        return Optional.ofNullable(records.asMap().putIfAbsent(key, pending));
+    }
+
+    @Override
+    public void complete(String key, String fingerprint, int status, String contentType, byte[] body) {
+        records.put(key, new IdempotencyRecord(fingerprint, true, status, contentType, body, Instant.now().plus(ttl)));
+    }
+
+    @Override
+    public void release(String key) {
+        records.invalidate(key);
+    }
+
+    private static long nanosUntil(Instant expiresAt) {
+        return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+    }
+}
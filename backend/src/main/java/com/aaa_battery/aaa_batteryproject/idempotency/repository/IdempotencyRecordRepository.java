@@ -0,0 +1,43 @@
+package com.aaa_battery.aaa_batteryproject.idempotency.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aaa_battery.aaa_batteryproject.idempotency.model.IdempotencyRecordEntity;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecordEntity, String> {
+
+    // Plain insert so a second node claiming the same key fails on the primary key instead of merging
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_keys (id, fingerprint, completed, status, expires_at) " +
+                   "VALUES (:id, :fingerprint, false, 0, :expiresAt)", nativeQuery = true)
+    int insertPending(@Param("id") String id, @Param("fingerprint") String fingerprint, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecordEntity r SET r.completed = true, r.status = :status, r.contentType = :contentType, " +
+           "r.body = :body, r.expiresAt = :expiresAt WHERE r.id = :id AND r.fingerprint = :fingerprint")
+    int complete(@Param("id") String id, @Param("fingerprint") String fingerprint, @Param("status") int status,
+                 @Param("contentType") String contentType, @Param("body") byte[] body, @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecordEntity r WHERE r.id = :id")
+    int deleteKey(@Param("id") String id);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecordEntity r WHERE r.id = :id AND r.expiresAt <= :now")
+    int deleteIfExpired(@Param("id") String id, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecordEntity r WHERE r.expiresAt <= :now")
+    int purgeExpired(@Param("now") Instant now);
+}
@@ -4,16 +4,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import com.aaa_battery.aaa_batteryproject.item.dto.CatalogCursor;
+import com.aaa_battery.aaa_batteryproject.item.dto.CatalogEntryDTO;
+import com.aaa_battery.aaa_batteryproject.item.dto.CatalogFilter;
+import com.aaa_battery.aaa_batteryproject.item.dto.CatalogPageDTO;
+import com.aaa_battery.aaa_batteryproject.item.dto.ItemCopyDTO;
+import com.aaa_battery.aaa_batteryproject.item.model.CatalogSort;
 import com.aaa_battery.aaa_batteryproject.item.model.ItemEntity;
 import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
+import com.aaa_battery.aaa_batteryproject.item.service.CatalogFacetIndex;
+import com.aaa_battery.aaa_batteryproject.item.service.CatalogService;
+import com.aaa_battery.aaa_batteryproject.item.service.CatalogSuggestIndex;
 import com.aaa_battery.aaa_batteryproject.item.service.ItemService;
 import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.AudiobookDescription;
 import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.BookDescription;
 import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.DVDDescription;
 import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
 import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.service.ItemDescriptionService;
+import com.aaa_battery.aaa_batteryproject.retry.ConflictRetryExecutor;
+import com.aaa_battery.aaa_batteryproject.retry.DescriptionContentionDTO;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -22,13 +32,26 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/items/")
 public class ItemController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+
     private final ItemService itemService;
     private final ItemDescriptionService itemDescriptionService; // Service to handle description
+    private final CatalogService catalogService; // Cached catalog reads
+    private final CatalogSuggestIndex catalogSuggestIndex; // In-memory typeahead
+    private final CatalogFacetIndex catalogFacetIndex; // In-memory facet counts
+    private final ConflictRetryExecutor conflictRetryExecutor; // Retries edits that lose an optimistic lock
 
     @Autowired
-    public ItemController(ItemService itemService, ItemDescriptionService itemDescriptionService) {
+    public ItemController(ItemService itemService, ItemDescriptionService itemDescriptionService,
+                          CatalogService catalogService, CatalogSuggestIndex catalogSuggestIndex,
+                          CatalogFacetIndex catalogFacetIndex, ConflictRetryExecutor conflictRetryExecutor) {
         this.itemService = itemService;
         this.itemDescriptionService = itemDescriptionService;
+        this.catalogService = catalogService;
+        this.catalogSuggestIndex = catalogSuggestIndex;
+        this.catalogFacetIndex = catalogFacetIndex;
+        this.conflictRetryExecutor = conflictRetryExecutor;
     }
 
     @PostMapping("/librarian/add-item")
@@ -100,8 +123,9 @@ public class ItemController {
                 }
             }
             
-            // Check if description already exists
-            ItemDescriptionEntity existingDescription = itemDescriptionService.findByNameAndItemType(itemName, itemType);
+            // Check if description already exists; the cache holds only its id, so load a fresh copy
+            Integer existingId = itemDescriptionService.findIdByNameAndItemType(itemName, itemType);
+            ItemDescriptionEntity existingDescription = existingId != null ? itemDescriptionService.findByIdForUpdate(existingId) : null;
 
             ItemDescriptionEntity description;
             if (existingDescription != null)
@@ -115,16 +139,8 @@ public class ItemController {
                 itemDescriptionService.saveDescription(description); // Save to DB
             }
 
-            // Create multiple items based on totalCopies
-            for (int i = 0; i < totalCopies; i++) {
-                // Create item and set properties
-                ItemEntity item = new ItemEntity();
-                item.setAvailability(true); // Default availability is true
-                item.setDescription(description);
-
-                // Save item in the database
-                itemService.addItem(item);
-            }
+            // Create multiple items based on totalCopies; the description's counters move with them
+            itemService.addCopies(description, totalCopies);
 
             return ResponseEntity.ok(totalCopies + " copies of the item added successfully!");
         } catch (Exception e) {
@@ -149,215 +165,241 @@ public class ItemController {
                     .body("Invalid descriptionId format");
             }
             
-            // Check if the description exists
-            ItemDescriptionEntity existingDescription = itemDescriptionService.findById(descriptionId);
-            if (existingDescription == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body("Item description not found with ID: " + descriptionId);
+            // Conflicting edits, borrows or reviews on the same description are retried from a fresh read
+            return conflictRetryExecutor.inTransaction("edit-item", descriptionId,
+                () -> applyEdit(descriptionId, requestData));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Failed to update item: " + e.getMessage());
+        }
+    }
+
+    // One attempt at an edit; runs inside the retry executor's transaction
+    private ResponseEntity<String> applyEdit(Integer descriptionId, Map<String, Object> requestData) {
+        // Check if the description exists; edits always start from the database, never the cache
+        ItemDescriptionEntity existingDescription = itemDescriptionService.findByIdForUpdate(descriptionId);
+        if (existingDescription == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body("Item description not found with ID: " + descriptionId);
+        }
+        
+        // Validate the copies count before any field changes, so a rejected edit changes nothing
+        Integer requestedCopies = null;
+        List<ItemEntity> currentItems = null;
+        if (requestData.containsKey("totalCopies")) {
+            try {
+                requestedCopies = Integer.parseInt(requestData.get("totalCopies").toString());
+            } catch (NumberFormatException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Invalid totalCopies format");
             }
-            
-            // Update the basic fields if provided
-            if (requestData.containsKey("itemName") && requestData.get("itemName") != null) {
-                existingDescription.setItemName((String) requestData.get("itemName"));
+            // Only copies on the shelf can be removed
+            currentItems = itemService.getItemsByDescriptionId(descriptionId);
+            int copiesToRemove = currentItems.size() - requestedCopies;
+            long availableCopies = currentItems.stream().filter(ItemEntity::isAvailability).count();
+            if (copiesToRemove > availableCopies) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Cannot remove copies that are currently checked out");
             }
-            if (requestData.containsKey("genre") && requestData.get("genre") != null) {
-                existingDescription.setGenre((String) requestData.get("genre"));
+        }
+        
+        // Update the basic fields if provided
+        if (requestData.containsKey("itemName") && requestData.get("itemName") != null) {
+            existingDescription.setItemName((String) requestData.get("itemName"));
+        }
+        if (requestData.containsKey("genre") && requestData.get("genre") != null) {
+            existingDescription.setGenre((String) requestData.get("genre"));
+        }
+        if (requestData.containsKey("blurb") && requestData.get("blurb") != null) {
+            existingDescription.setBlurb((String) requestData.get("blurb"));
+        }
+        if (requestData.containsKey("date") && requestData.get("date") != null) {
+            existingDescription.setDate(java.time.LocalDateTime.parse((String) requestData.get("date")));
+        }
+        if (requestData.containsKey("imageUrl") && requestData.get("imageUrl") != null) {
+            existingDescription.setImageUrl((String) requestData.get("imageUrl"));
+        }
+        
+        // Update type-specific fields
+        if (existingDescription instanceof BookDescription) {
+            BookDescription bookDesc = (BookDescription) existingDescription;
+            if (requestData.containsKey("authorName") && requestData.get("authorName") != null) {
+                bookDesc.setAuthorName((String) requestData.get("authorName"));
             }
-            if (requestData.containsKey("blurb") && requestData.get("blurb") != null) {
-                existingDescription.setBlurb((String) requestData.get("blurb"));
+            if (requestData.containsKey("publisher") && requestData.get("publisher") != null) {
+                bookDesc.setPublisher((String) requestData.get("publisher"));
             }
-            if (requestData.containsKey("date") && requestData.get("date") != null) {
-                existingDescription.setDate(java.time.LocalDateTime.parse((String) requestData.get("date")));
+        } else if (existingDescription instanceof AudiobookDescription) {
+            AudiobookDescription audioDesc = (AudiobookDescription) existingDescription;
+            if (requestData.containsKey("authorName") && requestData.get("authorName") != null) {
+                audioDesc.setAuthorName((String) requestData.get("authorName"));
             }
-            if (requestData.containsKey("imageUrl") && requestData.get("imageUrl") != null) {
-                existingDescription.setImageUrl((String) requestData.get("imageUrl"));
+            if (requestData.containsKey("publisher") && requestData.get("publisher") != null) {
+                audioDesc.setPublisher((String) requestData.get("publisher"));
             }
-            
-            // Update type-specific fields
-            if (existingDescription instanceof BookDescription) {
-                BookDescription bookDesc = (BookDescription) existingDescription;
-                if (requestData.containsKey("authorName") && requestData.get("authorName") != null) {
-                    bookDesc.setAuthorName((String) requestData.get("authorName"));
-                }
-                if (requestData.containsKey("publisher") && requestData.get("publisher") != null) {
-                    bookDesc.setPublisher((String) requestData.get("publisher"));
-                }
-            } else if (existingDescription instanceof AudiobookDescription) {
-                AudiobookDescription audioDesc = (AudiobookDescription) existingDescription;
-                if (requestData.containsKey("authorName") && requestData.get("authorName") != null) {
-                    audioDesc.setAuthorName((String) requestData.get("authorName"));
-                }
-                if (requestData.containsKey("publisher") && requestData.get("publisher") != null) {
-                    audioDesc.setPublisher((String) requestData.get("publisher"));
-                }
-                if (requestData.containsKey("narrator") && requestData.get("narrator") != null) {
-                    audioDesc.setNarratedBy((String) requestData.get("narrator"));
-                }
-                if (requestData.containsKey("duration") && requestData.get("duration") != null) {
-                    audioDesc.setDuration(ItemDescriptionEntity.parseDuration((String) requestData.get("duration")));
-                }
-            } else if (existingDescription instanceof DVDDescription) {
-                DVDDescription dvdDesc = (DVDDescription) existingDescription;
-                if (requestData.containsKey("producer") && requestData.get("producer") != null) {
-                    dvdDesc.setProducer((String) requestData.get("producer"));
-                }
-                if (requestData.containsKey("director") && requestData.get("director") != null) {
-                    dvdDesc.setDirector((String) requestData.get("director"));
-                }
-                if (requestData.containsKey("duration") && requestData.get("duration") != null) {
-                    dvdDesc.setDuration(ItemDescriptionEntity.parseDuration((String) requestData.get("duration")));
-                }
+            if (requestData.containsKey("narrator") && requestData.get("narrator") != null) {
+                audioDesc.setNarratedBy((String) requestData.get("narrator"));
             }
-            
-            // Update copies count if needed
-            if (requestData.containsKey("totalCopies")) {
+            if (requestData.containsKey("duration") && requestData.get("duration") != null) {
+                audioDesc.setDuration(ItemDescriptionEntity.parseDuration((String) requestData.get("duration")));
+            }
+        } else if (existingDescription instanceof DVDDescription) {
+            DVDDescription dvdDesc = (DVDDescription) existingDescription;
+            if (requestData.containsKey("producer") && requestData.get("producer") != null) {
+                dvdDesc.setProducer((String) requestData.get("producer"));
+            }
+            if (requestData.containsKey("director") && requestData.get("director") != null) {
+                dvdDesc.setDirector((String) requestData.get("director"));
+            }
+            if (requestData.containsKey("duration") && requestData.get("duration") != null) {
+                dvdDesc.setDuration(ItemDescriptionEntity.parseDuration((String) requestData.get("duration")));
+            }
+        }
+        
+        // Update copies count if needed
+        if (requestedCopies != null) {
+            int currentCopies = currentItems.size();
+            if (requestedCopies > currentCopies) {
+                // Add more copies
+                itemService.addCopies(existingDescription, requestedCopies - currentCopies);
+            } else if (requestedCopies < currentCopies) {
+                itemService.removeAvailableCopies(descriptionId, currentCopies - requestedCopies);
+            }
+        }
+        
+        // Save the updated description
+        itemDescriptionService.saveDescription(existingDescription);
+        
+        return ResponseEntity.ok("Item updated successfully");
+    }
+
+    // Descriptions whose updates most often collided, for spotting hot titles
+    @GetMapping("/librarian/contention")
+    public ResponseEntity<List<DescriptionContentionDTO>> viewContention(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(conflictRetryExecutor.getContention(Math.min(Math.max(limit, 1), MAX_PAGE_SIZE)));
+    }
+
+    @GetMapping("/users/view-items")
+    public ResponseEntity<List<CatalogEntryDTO>> viewItems() {
+        try {
+            return ResponseEntity.ok(catalogService.getCatalog());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(null);
+        }
+    }
+
+    @GetMapping("/users/view-items/page")
+    public ResponseEntity<?> viewItemsPage(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String genre,
+            @RequestParam(defaultValue = "false") boolean availableOnly,
+            @RequestParam(required = false) Integer minRating) {
+        try {
+            if (!CatalogSort.isValidSort(sort)) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Invalid sort. Valid values: name, date, rating");
+            }
+            if (type != null && !type.isBlank() && !ItemType.isValidType(type)) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Invalid type. Valid values: book, audiobook, dvd");
+            }
+            if (minRating != null && (minRating < 0 || minRating > CatalogFilter.MAX_RATING)) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Invalid minRating. Must be between 0 and " + CatalogFilter.MAX_RATING);
+            }
+            CatalogFilter filter = new CatalogFilter(
+                type != null && !type.isBlank() ? ItemType.valueOf(type.trim().toUpperCase()) : null,
+                genre, availableOnly, minRating);
+            CatalogSort catalogSort = CatalogSort.valueOf(sort.trim().toUpperCase());
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+            CatalogCursor cursor = null;
+            if (after != null && !after.isBlank()) {
                 try {
-                    int requestedCopies = Integer.parseInt(requestData.get("totalCopies").toString());
-                    
-                    // Get current copies
-                    List<ItemEntity> currentItems = itemService.getItemsByDescriptionId(descriptionId);
-                    int currentCopies = currentItems.size();
-                    
-                    if (requestedCopies > currentCopies) {
-                        // Add more copies
-                        int copiesToAdd = requestedCopies - currentCopies;
-                        for (int i = 0; i < copiesToAdd; i++) {
-                            ItemEntity newItem = new ItemEntity();
-                            newItem.setAvailability(true);
-                            newItem.setDescription(existingDescription);
-                            itemService.addItem(newItem);
-                        }
-                    } else if (requestedCopies < currentCopies) {
-                        // Remove some copies - prioritize removing available copies first
-                        int copiesToRemove = currentCopies - requestedCopies;
-                        if (copiesToRemove > 0) {
-                            // First, get all available items
-                            List<ItemEntity> availableItems = currentItems.stream()
-                                .filter(ItemEntity::isAvailability)
-                                .collect(Collectors.toList());
-                            
-                            // If we have enough available items, remove those first
-                            int availableToRemove = Math.min(copiesToRemove, availableItems.size());
-                            for (int i = 0; i < availableToRemove; i++) {
-                                itemService.deleteItem(availableItems.get(i).getItemId());
-                            }
-                            
-                            // If we still need to remove more, remove from checked-out items
-                            if (availableToRemove < copiesToRemove) {
-                                int checkedOutToRemove = copiesToRemove - availableToRemove;
-                                if (checkedOutToRemove > 0) {
-                                    // Check if there are any checked-out items that would need to be removed
-                                    boolean hasCheckedOutItems = currentItems.stream()
-                                        .anyMatch(item -> !item.isAvailability());
-                                    // Consider implementing a more sophisticated logic here
-                                    // for handling checked-out items that need to be removed
-                                    if (hasCheckedOutItems) {
-                                        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                                            .body("Cannot remove copies that are currently checked out");
-                                    } else {
-                                        // This case should not be reached if we're in this branch,
-                                        // but added for completeness
-                                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                            .body("Error processing item removal");
-                                    }
-                                }
-                            }
-                        }
-                    }
-                } catch (NumberFormatException e) {
+                    cursor = CatalogCursor.decode(after);
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor");
+                }
+                if (cursor.getSort() != catalogSort) {
                     return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body("Invalid totalCopies format");
+                        .body("Cursor was issued for sort: " + cursor.getSort().name().toLowerCase());
                 }
             }
-            
-            // Save the updated description
-            itemDescriptionService.saveDescription(existingDescription);
-            
-            return ResponseEntity.ok("Item updated successfully");
+
+            // Fetch one extra row to know whether another page exists
+            List<ItemDescriptionEntity> descriptions = itemDescriptionService.findCatalogPage(catalogSort, filter, cursor, pageSize + 1);
+            boolean hasMore = descriptions.size() > pageSize;
+            if (hasMore) {
+                descriptions = descriptions.subList(0, pageSize);
+            }
+
+            // Copy counts are read straight off the description row
+            List<CatalogEntryDTO> items = descriptions.stream()
+                .map(desc -> catalogService.toCatalogEntry(desc, desc.getTotalCopies(), desc.getAvailableCopies()))
+                .collect(Collectors.toList());
+
+            String nextCursor = hasMore
+                ? CatalogCursor.after(catalogSort, descriptions.get(descriptions.size() - 1)).encode()
+                : null;
+
+            // Facet counts come from the in-memory bitmaps, not from extra queries
+            return ResponseEntity.ok(new CatalogPageDTO(items, nextCursor, hasMore, catalogFacetIndex.count(filter)));
         } catch (Exception e) {
+            e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body("Failed to update item: " + e.getMessage());
+                    .body("Failed to load catalog page: " + e.getMessage());
         }
     }
 
-    @GetMapping("/users/view-items")
-    public ResponseEntity<List<Map<String, Object>>> viewItems() {
+    @GetMapping("/users/search")
+    public ResponseEntity<?> searchItems(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "20") int limit) {
         try {
-            List<ItemEntity> items = itemService.getAllItems();
-            
-            if (items.isEmpty()) {
-                return ResponseEntity.ok(List.of());
+            if (q == null || q.isBlank()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Missing search query: q");
             }
-            
-            // Group items by description ID
-            Map<Integer, List<ItemEntity>> groupedItems = items.stream()
-                .collect(Collectors.groupingBy(item -> item.getDescription().getDescriptionId()));
-            
-            // Create one entry per unique description with total and available copies
-            List<Map<String, Object>> uniqueItemList = groupedItems.entrySet().stream().map(entry -> {
-                Integer descriptionId = entry.getKey();
-                List<ItemEntity> itemsWithSameDesc = entry.getValue();
-                ItemDescriptionEntity desc = itemsWithSameDesc.get(0).getDescription();
-                
-                Map<String, Object> itemMap = new HashMap<>();
-                
-                // Count total copies and available copies
-                int totalCopies = itemsWithSameDesc.size();
-                int availableCopies = (int) itemsWithSameDesc.stream()
-                        .filter(ItemEntity::isAvailability)
-                        .count();
-                
-                itemMap.put("totalCopies", totalCopies);
-                itemMap.put("availableCopies", availableCopies);
-                
-                // Add description info
-                if (desc != null) {
-                    Map<String, Object> descMap = new HashMap<>();
-                    descMap.put("descriptionId", desc.getDescriptionId());
-                    descMap.put("itemName", desc.getItemName());
-                    descMap.put("type", desc.getItemType());
-                    descMap.put("genre", desc.getGenre());
-                    descMap.put("blurb", desc.getBlurb());
-                    descMap.put("imageUrl", desc.getImageUrl());
-                    descMap.put("averageRating", desc.getAverageRating());
-                    descMap.put("reviewsCount", desc.getReviews().size());
-                    
-                    // Add type-specific fields
-                    if (desc instanceof BookDescription) {
-                        BookDescription bookDesc = (BookDescription) desc;
-                        descMap.put("authorName", bookDesc.getAuthorName());
-                        descMap.put("publisher", bookDesc.getPublisher());
-                    } else if (desc instanceof DVDDescription) {
-                        DVDDescription dvdDesc = (DVDDescription) desc;
-                        descMap.put("producer", dvdDesc.getProducer());
-                        descMap.put("director", dvdDesc.getDirector());
-                        descMap.put("duration", ItemDescriptionEntity.formatDuration(dvdDesc.getDuration()));
-                    } else if (desc instanceof AudiobookDescription) {
-                        AudiobookDescription audioDesc = (AudiobookDescription) desc;
-                        descMap.put("authorName", audioDesc.getAuthorName());
-                        descMap.put("publisher", audioDesc.getPublisher());
-                        descMap.put("narratorName", audioDesc.getNarratedBy());
-                        descMap.put("duration", ItemDescriptionEntity.formatDuration(audioDesc.getDuration()));
-                    }
-                    
-                    itemMap.put("description", descMap);
-                }
-                
-                return itemMap;
-            }).collect(Collectors.toList());
-            
-            return ResponseEntity.ok(uniqueItemList);
+            int maxResults = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+            // Ranked ids first, then one load for the matching descriptions
+            List<Integer> ids = itemDescriptionService.searchDescriptionIds(q.trim(), maxResults);
+            Map<Integer, ItemDescriptionEntity> descriptions = itemDescriptionService.findAllById(ids).stream()
+                .collect(Collectors.toMap(ItemDescriptionEntity::getDescriptionId, desc -> desc));
+
+            List<CatalogEntryDTO> results = ids.stream()
+                .map(descriptions::get)
+                .filter(desc -> desc != null)
+                .map(desc -> catalogService.toCatalogEntry(desc, desc.getTotalCopies(), desc.getAvailableCopies()))
+                .collect(Collectors.toList());
+
+            return ResponseEntity.ok(results);
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(null);
+                    .body("Failed to search items: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/users/suggest")
+    public ResponseEntity<?> suggestItems(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        if (q == null || q.isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Missing search query: q");
         }
+        // Served from memory, no database access
+        return ResponseEntity.ok(catalogSuggestIndex.suggest(q, Math.max(1, Math.min(limit, MAX_SUGGESTIONS))));
     }
 
     @GetMapping("/users/view-item")
-    public ResponseEntity<List<ItemEntity>> viewItem(@RequestParam Integer descriptionId) {
+    public ResponseEntity<List<ItemCopyDTO>> viewItem(@RequestParam Integer descriptionId) {
         try {
-            List<ItemEntity> items = itemService.getItemsByDescriptionId(descriptionId);
+            List<ItemCopyDTO> items = catalogService.getCopies(descriptionId);
             return ResponseEntity.ok(items);
         } catch (Exception e) {
             e.printStackTrace();
@@ -0,0 +1,68 @@
+package com.aaa_battery.aaa_batteryproject.item.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.aaa_battery.aaa_batteryproject.item.model.CatalogSort;
+
+/**
+ * Opaque keyset cursor for the paged catalog: the sort key and descriptionId of the
+ * last entry on a page. Encoded as url-safe base64 of "SORT|descriptionId|sortValue";
+ * the value part is omitted when the sort key of that entry is null.
+ */
+public class CatalogCursor {
+    private final CatalogSort sort;
+    private final int descriptionId;
+    private final Object sortValue;
+
+    public CatalogCursor(CatalogSort sort, int descriptionId, Object sortValue) {
+        this.sort = sort;
+        this.descriptionId = descriptionId;
+        this.sortValue = sortValue;
+    }
+
+    public static CatalogCursor after(CatalogSort sort, ItemDescriptionEntity last) {
+        Object value = switch (sort) {
+            case NAME -> last.getItemName();
+            case DATE -> last.getDate();
+            case RATING -> last.getAverageRating();
+        };
+        return new CatalogCursor(sort, last.getDescriptionId(), value);
+    }
+
+    public String encode() {
+        String raw = sort.name() + "|" + descriptionId + (sortValue != null ? "|" + sortValue : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CatalogCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length < 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            CatalogSort sort = CatalogSort.valueOf(parts[0]);
+            int descriptionId = Integer.parseInt(parts[1]);
+            Object value = null;
+            if (parts.length == 3) {
+                value = switch (sort) {
+                    case NAME -> parts[2];
+                    case DATE -> LocalDateTime.parse(parts[2]);
+                    case RATING -> Double.valueOf(parts[2]);
+                };
+            }
+            return new CatalogCursor(sort, descriptionId, value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public CatalogSort getSort() { return sort; }
+
+    public int getDescriptionId() { return descriptionId; }
+
+    public Object getSortValue() { return sortValue; }
+}
@@ -0,0 +1,58 @@
+package com.aaa_battery.aaa_batteryproject.item.dto;
+
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.AudiobookDescription;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.BookDescription;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.DVDDescription;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
+
+/**
+ * Description part of a catalog entry, one record per item type. Component names are the JSON
+ * keys the catalog has always returned, so the frontend sees the same shape as before.
+ */
+public sealed interface CatalogDescriptionDTO {
+
+    Integer descriptionId();
+
+    String itemName();
+
+    ItemType type();
+
+    static CatalogDescriptionDTO of(ItemDescriptionEntity desc) {
+        // Counter is null only on rows the startup backfill has not reached yet
+        int reviewsCount = desc.getReviewCount() != null ? desc.getReviewCount()
+            : desc.getReviews() != null ? desc.getReviews().size() : 0;
+        if (desc instanceof BookDescription book) {
+            return new Book(book.getDescriptionId(), book.getItemName(), book.getItemType(), book.getGenre(),
+                book.getBlurb(), book.getImageUrl(), book.getAverageRating(), reviewsCount,
+                book.getAuthorName(), book.getPublisher());
+        }
+        if (desc instanceof AudiobookDescription audiobook) {
+            return new Audiobook(audiobook.getDescriptionId(), audiobook.getItemName(), audiobook.getItemType(),
+                audiobook.getGenre(), audiobook.getBlurb(), audiobook.getImageUrl(), audiobook.getAverageRating(),
+                reviewsCount, audiobook.getAuthorName(), audiobook.getPublisher(), audiobook.getNarratedBy(),
+                ItemDescriptionEntity.formatDuration(audiobook.getDuration()));
+        }
+        if (desc instanceof DVDDescription dvd) {
+            return new Dvd(dvd.getDescriptionId(), dvd.getItemName(), dvd.getItemType(), dvd.getGenre(),
+                dvd.getBlurb(), dvd.getImageUrl(), dvd.getAverageRating(), reviewsCount,
+                dvd.getProducer(), dvd.getDirector(), ItemDescriptionEntity.formatDuration(dvd.getDuration()));
+        }
+        throw new IllegalArgumentException("Unsupported description type: " + desc.getClass().getSimpleName());
+    }
+
+    record Book(Integer descriptionId, String itemName, ItemType type, String genre, String blurb,
+                String imageUrl, Double averageRating, int reviewsCount,
+                String authorName, String publisher) implements CatalogDescriptionDTO {
+    }
+
+    record Audiobook(Integer descriptionId, String itemName, ItemType type, String genre, String blurb,
+                     String imageUrl, Double averageRating, int reviewsCount,
+                     String authorName, String publisher, String narratorName, String duration) implements CatalogDescriptionDTO {
+    }
+
+    record Dvd(Integer descriptionId, String itemName, ItemType type, String genre, String blurb,
+               String imageUrl, Double averageRating, int reviewsCount,
+               String producer, String director, String duration) implements CatalogDescriptionDTO {
+    }
+}
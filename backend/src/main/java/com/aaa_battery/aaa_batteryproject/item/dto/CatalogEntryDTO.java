@@ -0,0 +1,11 @@
+package com.aaa_battery.aaa_batteryproject.item.dto;
+
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+
+// One catalog row: a description with its copy counts
+public record CatalogEntryDTO(int totalCopies, int availableCopies, CatalogDescriptionDTO description) {
+
+    public static CatalogEntryDTO of(ItemDescriptionEntity desc, int totalCopies, int availableCopies) {
+        return new CatalogEntryDTO(totalCopies, availableCopies, desc != null ? CatalogDescriptionDTO.of(desc) : null);
+    }
+}
@@ -0,0 +1,42 @@
+package com.aaa_battery.aaa_batteryproject.item.dto;
+
+import java.util.Map;
+
+/**
+ * Facet counts for a filtered catalog. Each dimension is counted with every other filter
+ * applied but not its own, so the counts show what picking another value would return.
+ */
+public class CatalogFacetsDTO {
+    private int total;
+    private Map<String, Integer> type;
+    private Map<String, Integer> genre;
+    private Map<String, Integer> availability;
+    private Map<String, Integer> rating;
+
+    public CatalogFacetsDTO(int total, Map<String, Integer> type, Map<String, Integer> genre,
+                            Map<String, Integer> availability, Map<String, Integer> rating) {
+        this.total = total;
+        this.type = type;
+        this.genre = genre;
+        this.availability = availability;
+        this.rating = rating;
+    }
+
+    // Getters and setters
+
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+
+    public Map<String, Integer> getType() { return type; }
+    public void setType(Map<String, Integer> type) { this.type = type; }
+
+    public Map<String, Integer> getGenre() { return genre; }
+    public void setGenre(Map<String, Integer> genre) { this.genre = genre; }
+
+    public Map<String, Integer> getAvailability() { return availability; }
+    public void setAvailability(Map<String, Integer> availability) { this.availability = availability; }
+
+    // Keyed by minimum whole-star rating: "4" counts descriptions rated 4.0 or higher
+    public Map<String, Integer> getRating() { return rating; }
+    public void setRating(Map<String, Integer> rating) { this.rating = rating; }
+}
@@ -0,0 +1,39 @@
+package com.aaa_battery.aaa_batteryproject.item.dto;
+
+import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
+
+// Optional catalog filters; a null field means "any"
+public class CatalogFilter {
+    public static final int MAX_RATING = 5;
+
+    private ItemType type;
+    private String genre;
+    private boolean availableOnly;
+    private Integer minRating;
+
+    public CatalogFilter(ItemType type, String genre, boolean availableOnly, Integer minRating) {
+        this.type = type;
+        this.genre = genre != null && !genre.isBlank() ? genre.trim() : null;
+        this.availableOnly = availableOnly;
+        this.minRating = minRating != null && minRating > 0 ? minRating : null;
+    }
+
+    public static CatalogFilter none() {
+        return new CatalogFilter(null, null, false, null);
+    }
+
+    // Getters and setters
+
+    public ItemType getType() { return type; }
+    public void setType(ItemType type) { this.type = type; }
+
+    public String getGenre() { return genre; }
+    public void setGenre(String genre) { this.genre = genre; }
+
+    public boolean isAvailableOnly() { return availableOnly; }
+    public void setAvailableOnly(boolean availableOnly) { this.availableOnly = availableOnly; }
+
+    // Whole-star band: averageRating >= minRating
+    public Integer getMinRating() { return minRating; }
+    public void setMinRating(Integer minRating) { this.minRating = minRating; }
+}
@@ -0,0 +1,35 @@
+package com.aaa_battery.aaa_batteryproject.item.dto;
+
+import java.util.List;
+
+public class CatalogPageDTO {
+    private List<CatalogEntryDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private CatalogFacetsDTO facets;
+
+    public CatalogPageDTO(List<CatalogEntryDTO> items, String nextCursor, boolean hasMore) {
+        this(items, nextCursor, hasMore, null);
+    }
+
+    public CatalogPageDTO(List<CatalogEntryDTO> items, String nextCursor, boolean hasMore, CatalogFacetsDTO facets) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.facets = facets;
+    }
+
+    // Getters and setters
+
+    public List<CatalogEntryDTO> getItems() { return items; }
+    public void setItems(List<CatalogEntryDTO> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public CatalogFacetsDTO getFacets() { return facets; }
+    public void setFacets(CatalogFacetsDTO facets) { this.facets = facets; }
+}
@@ -0,0 +1,25 @@
+package com.aaa_battery.aaa_batteryproject.item.dto;
+
+// One row per item description with its copy counts, aggregated in the database
+public class CopyCountDTO {
+    private Integer descriptionId;
+    private Long totalCopies;
+    private Long availableCopies;
+
+    public CopyCountDTO(Integer descriptionId, Long totalCopies, Long availableCopies) {
+        this.descriptionId = descriptionId;
+        this.totalCopies = totalCopies;
+        this.availableCopies = availableCopies != null ? availableCopies : 0L;
+    }
+
+    // Getters and setters
+
+    public Integer getDescriptionId() { return descriptionId; }
+    public void setDescriptionId(Integer descriptionId) { this.descriptionId = descriptionId; }
+
+    public Long getTotalCopies() { return totalCopies; }
+    public void setTotalCopies(Long totalCopies) { this.totalCopies = totalCopies; }
+
+    public Long getAvailableCopies() { return availableCopies; }
+    public void setAvailableCopies(Long availableCopies) { this.availableCopies = availableCopies; }
+}
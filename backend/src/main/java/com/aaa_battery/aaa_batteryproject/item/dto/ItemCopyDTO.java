@@ -0,0 +1,5 @@
+package com.aaa_battery.aaa_batteryproject.item.dto;
+
+// One copy on the item detail; the copies of a title share a single description snapshot
+public record ItemCopyDTO(int itemId, boolean availability, ItemDetailDTO description) {
+}
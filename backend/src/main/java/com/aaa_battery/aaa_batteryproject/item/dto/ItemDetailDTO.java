@@ -0,0 +1,72 @@
+package com.aaa_battery.aaa_batteryproject.item.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.AudiobookDescription;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.BookDescription;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.DVDDescription;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
+
+/**
+ * Immutable snapshot of a description for the item detail, one record per item type. Safe to
+ * keep in a cache and hand to any thread; component names are the JSON keys the description
+ * entity was served with, so the frontend sees the same shape as before.
+ */
+public sealed interface ItemDetailDTO {
+
+    int descriptionId();
+
+    ItemType itemType();
+
+    String itemName();
+
+    int totalCopies();
+
+    int availableCopies();
+
+    static ItemDetailDTO of(ItemDescriptionEntity desc) {
+        Map<Integer, Integer> histogram = Collections.unmodifiableMap(new LinkedHashMap<>(desc.getRatingHistogram()));
+        if (desc instanceof BookDescription book) {
+            return new Book(book.getDescriptionId(), book.getItemType(), book.getItemName(), book.getGenre(),
+                book.getBlurb(), book.getDate(), book.getImageUrl(), book.getTotalCopies(), book.getAvailableCopies(),
+                book.getAverageRating(), book.getReviewCount(), book.getAuthorName(), book.getPublisher(), histogram);
+        }
+        if (desc instanceof AudiobookDescription audiobook) {
+            return new Audiobook(audiobook.getDescriptionId(), audiobook.getItemType(), audiobook.getItemName(),
+                audiobook.getGenre(), audiobook.getBlurb(), audiobook.getDate(), audiobook.getImageUrl(),
+                audiobook.getTotalCopies(), audiobook.getAvailableCopies(), audiobook.getAverageRating(),
+                audiobook.getReviewCount(), audiobook.getNarratedBy(), audiobook.getDuration(),
+                audiobook.getAuthorName(), audiobook.getPublisher(), histogram);
+        }
+        if (desc instanceof DVDDescription dvd) {
+            return new Dvd(dvd.getDescriptionId(), dvd.getItemType(), dvd.getItemName(), dvd.getGenre(),
+                dvd.getBlurb(), dvd.getDate(), dvd.getImageUrl(), dvd.getTotalCopies(), dvd.getAvailableCopies(),
+                dvd.getAverageRating(), dvd.getReviewCount(), dvd.getProducer(), dvd.getDirector(),
+                dvd.getDuration(), histogram);
+        }
+        throw new IllegalArgumentException("Unsupported description type: " + desc.getClass().getSimpleName());
+    }
+
+    record Book(int descriptionId, ItemType itemType, String itemName, String genre, String blurb,
+                LocalDateTime date, String imageUrl, int totalCopies, int availableCopies,
+                Double averageRating, Integer reviewCount, String authorName, String publisher,
+                Map<Integer, Integer> ratingHistogram) implements ItemDetailDTO {
+    }
+
+    record Audiobook(int descriptionId, ItemType itemType, String itemName, String genre, String blurb,
+                     LocalDateTime date, String imageUrl, int totalCopies, int availableCopies,
+                     Double averageRating, Integer reviewCount, String narratedBy, Duration duration,
+                     String authorName, String publisher, Map<Integer, Integer> ratingHistogram) implements ItemDetailDTO {
+    }
+
+    record Dvd(int descriptionId, ItemType itemType, String itemName, String genre, String blurb,
+               LocalDateTime date, String imageUrl, int totalCopies, int availableCopies,
+               Double averageRating, Integer reviewCount, String producer, String director, Duration duration,
+               Map<Integer, Integer> ratingHistogram) implements ItemDetailDTO {
+    }
+}
@@ -0,0 +1,43 @@
+package com.aaa_battery.aaa_batteryproject.item.dto;
+
+import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
+
+// One typeahead suggestion: the description plus the field and text the prefix matched
+public class SuggestionDTO {
+    private Integer descriptionId;
+    private String itemName;
+    private ItemType type;
+    private String matchedField;
+    private String matchedText;
+    private Double averageRating;
+
+    public SuggestionDTO(Integer descriptionId, String itemName, ItemType type,
+                         String matchedField, String matchedText, Double averageRating) {
+        this.descriptionId = descriptionId;
+        this.itemName = itemName;
+        this.type = type;
+        this.matchedField = matchedField;
+        this.matchedText = matchedText;
+        this.averageRating = averageRating;
+    }
+
+    // Getters and setters
+
+    public Integer getDescriptionId() { return descriptionId; }
+    public void setDescriptionId(Integer descriptionId) { this.descriptionId = descriptionId; }
+
+    public String getItemName() { return itemName; }
+    public void setItemName(String itemName) { this.itemName = itemName; }
+
+    public ItemType getType() { return type; }
+    public void setType(ItemType type) { this.type = type; }
+
+    public String getMatchedField() { return matchedField; }
+    public void setMatchedField(String matchedField) { this.matchedField = matchedField; }
+
+    public String getMatchedText() { return matchedText; }
+    public void setMatchedText(String matchedText) { this.matchedText = matchedText; }
+
+    public Double getAverageRating() { return averageRating; }
+    public void setAverageRating(Double averageRating) { this.averageRating = averageRating; }
+}
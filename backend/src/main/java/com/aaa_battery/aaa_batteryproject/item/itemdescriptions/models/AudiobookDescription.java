@@ -1,6 +1,7 @@
 package com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models;
 
 import java.time.Duration;
+import java.util.List;
 
 import jakarta.persistence.*;
 
@@ -51,4 +52,13 @@ public class AudiobookDescription extends ItemDescriptionEntity
     {
         return duration;
     }
-}
\ No newline at end of file
+
+    @Override
+    protected List<String> searchableFields() {
+        List<String> fields = super.searchableFields();
+        fields.add(authorName);
+        fields.add(publisher);
+        fields.add(narratedBy);
+        return fields;
+    }
+}
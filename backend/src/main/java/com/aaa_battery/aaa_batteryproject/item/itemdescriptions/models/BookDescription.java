@@ -1,5 +1,7 @@
 package com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models;
 
+import java.util.List;
+
 import jakarta.persistence.*;
 @Entity
 @Table(name = "book_description")
@@ -24,4 +26,12 @@ public class BookDescription extends ItemDescriptionEntity {
     public void setPublisher(String publisher) {
         this.publisher = publisher;
     }
+
+    @Override
+    protected List<String> searchableFields() {
+        List<String> fields = super.searchableFields();
+        fields.add(authorName);
+        fields.add(publisher);
+        return fields;
+    }
 }
@@ -1,6 +1,7 @@
 package com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models;
 
 import java.time.Duration;
+import java.util.List;
 
 import jakarta.persistence.*;
 
@@ -38,4 +39,12 @@ public class DVDDescription extends ItemDescriptionEntity {
     {
         return duration;
     }
+
+    @Override
+    protected List<String> searchableFields() {
+        List<String> fields = super.searchableFields();
+        fields.add(producer);
+        fields.add(director);
+        return fields;
+    }
 }
@@ -5,17 +5,27 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
 import com.aaa_battery.aaa_batteryproject.reviews.model.ReviewEntity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "item_description")
+@Table(name = "item_description", indexes = {
+    // Keyset indexes for the paged catalog (sort key, tie-breaker); descending orders read them backwards
+    @Index(name = "idx_item_description_name_id", columnList = "item_name, description_id"),
+    @Index(name = "idx_item_description_date_id", columnList = "date, description_id"),
+    @Index(name = "idx_item_description_rating_id", columnList = "average_rating, description_id")
+})
 @Inheritance(strategy = InheritanceType.JOINED)
 public class ItemDescriptionEntity {
 
@@ -30,12 +40,75 @@ public class ItemDescriptionEntity {
     private String genre;
     private String blurb;
     private LocalDateTime date;
-    private int totalCopies;
     private String imageUrl;
 
-    // Add cached average rating field
+    // Copy counters, maintained with relative updates by ItemService and BorrowService.
+    // Never written from the entity so a stale instance cannot overwrite them on save.
+    @Column(updatable = false)
+    @ColumnDefault("0")
+    private int totalCopies;
+
+    @Column(updatable = false)
+    @ColumnDefault("0")
+    private int availableCopies;
+
+    // Cached average rating, derived from the review counters below in the same statement that
+    // moves them; not written from the entity, so saving an edit cannot put back a stale average
+    @Column(updatable = false)
     private Double averageRating = 0.0;
 
+    // Review counters, so listings never load the reviews collection. Written only by ReviewService
+    // through direct updates. Null on rows saved before they existed, until the startup backfill runs.
+    // The review count takes every review; the rating count and sum only those that gave a rating,
+    // so the average is over the ratings given.
+    @Column(updatable = false)
+    private Integer reviewCount = 0;
+
+    @JsonIgnore
+    @Column(updatable = false)
+    private Integer ratingCount = 0;
+
+    @JsonIgnore
+    @Column(updatable = false)
+    private Long ratingSum = 0L;
+
+    // How many reviews gave each star rating, kept with the counters above and served as ratingHistogram
+    @JsonIgnore
+    @Column(updatable = false)
+    private Integer oneStarCount = 0;
+
+    @JsonIgnore
+    @Column(updatable = false)
+    private Integer twoStarCount = 0;
+
+    @JsonIgnore
+    @Column(updatable = false)
+    private Integer threeStarCount = 0;
+
+    @JsonIgnore
+    @Column(updatable = false)
+    private Integer fourStarCount = 0;
+
+    @JsonIgnore
+    @Column(updatable = false)
+    private Integer fiveStarCount = 0;
+
+    // Lower-cased text the catalog search matches against; Postgres indexes it as a tsvector
+    @JsonIgnore
+    @Column(length = 4000)
+    private String searchText;
+
+    // Optimistic lock for edits and rating updates; the direct counter updates above leave it alone
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    private long version;
+
+    // Name as read from the database, so a rename can invalidate lookups under the old name
+    @Transient
+    @JsonIgnore
+    private String loadedItemName;
+
     @OneToMany(mappedBy = "itemDescription", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
     private List<ReviewEntity> reviews = new ArrayList<>();
@@ -65,6 +138,40 @@ public class ItemDescriptionEntity {
         this.itemName = itemName;
     }
 
+    public String getSearchText() {
+        return searchText;
+    }
+
+    // Fields included in the search text; subclasses add their creator fields
+    protected List<String> searchableFields() {
+        List<String> fields = new ArrayList<>();
+        fields.add(itemName);
+        fields.add(genre);
+        fields.add(blurb);
+        return fields;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void refreshSearchText() {
+        String text = searchableFields().stream()
+            .filter(field -> field != null && !field.isBlank())
+            .map(String::trim)
+            .collect(Collectors.joining(" "))
+            .toLowerCase(Locale.ROOT);
+        this.searchText = text.length() > 4000 ? text.substring(0, 4000) : text;
+    }
+
+    public String getLoadedItemName() {
+        return loadedItemName;
+    }
+
+    @PostLoad
+    @PostPersist
+    private void rememberLoadedItemName() {
+        this.loadedItemName = itemName;
+    }
+
     public String getGenre() {
         return genre;
     }
@@ -97,6 +204,14 @@ public class ItemDescriptionEntity {
         this.totalCopies = totalCopies;
     }
 
+    public int getAvailableCopies() {
+        return availableCopies;
+    }
+
+    public void setAvailableCopies(int availableCopies) {
+        this.availableCopies = availableCopies;
+    }
+
     public String getImageUrl() {
         return imageUrl;
     }
@@ -105,6 +220,48 @@ public class ItemDescriptionEntity {
         this.imageUrl = imageUrl;
     }
 
+    public Integer getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(Integer reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public Integer getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(Integer ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public Long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(Long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    // Review count per star, 1 to 5; a count still waiting for the backfill reads as 0
+    public Map<Integer, Integer> getRatingHistogram() {
+        return ratingHistogram(oneStarCount, twoStarCount, threeStarCount, fourStarCount, fiveStarCount);
+    }
+
+    public static Map<Integer, Integer> ratingHistogram(Integer... starCounts) {
+        Map<Integer, Integer> histogram = new LinkedHashMap<>();
+        for (int star = 1; star <= starCounts.length; star++) {
+            Integer count = starCounts[star - 1];
+            histogram.put(star, count != null ? count : 0);
+        }
+        return histogram;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
     public List<ReviewEntity> getReviews() {
         return reviews;
     }
@@ -212,14 +369,7 @@ public class ItemDescriptionEntity {
         if (dateStr != null) {
             description.setDate(LocalDateTime.parse(dateStr));
         }
-        Object totalCopiesObj = requestData.get("totalCopies");
-        if (totalCopiesObj instanceof Integer) {
-            description.setTotalCopies((Integer) totalCopiesObj);
-        } else if (totalCopiesObj instanceof String) {
-            description.setTotalCopies(Integer.parseInt((String) totalCopiesObj));
-        } else {
-            description.setTotalCopies(1);
-        }
+        // Copy counters start at zero and are raised as the copies are created
         description.setImageUrl((String) requestData.getOrDefault("imageUrl", ""));
         description.setItemType((String) requestData.get("type"));
     }
@@ -239,11 +389,18 @@ public class ItemDescriptionEntity {
             return null;
         }
         
-        long hours = duration.toHours();
-        long minutes = duration.toMinutesPart();
-        long seconds = duration.toSecondsPart();
-        
-        return String.format("%02d:%02d:%02d", hours, minutes, seconds);
+        // Built by hand: String.format parses the pattern on every call and this runs per catalog row
+        StringBuilder formatted = new StringBuilder(8);
+        appendTwoDigits(formatted, duration.toHours()).append(':');
+        appendTwoDigits(formatted, duration.toMinutesPart()).append(':');
+        return appendTwoDigits(formatted, duration.toSecondsPart()).toString();
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder builder, long value) {
+        if (value >= 0 && value < 10) {
+            builder.append('0');
+        }
+        return builder.append(value);
     }
 
     public void setDescriptionId(Integer itemDescriptionId) {
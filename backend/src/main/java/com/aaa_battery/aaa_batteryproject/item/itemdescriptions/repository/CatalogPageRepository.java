@@ -0,0 +1,18 @@
+package com.aaa_battery.aaa_batteryproject.item.itemdescriptions.repository;
+
+import java.util.List;
+
+import com.aaa_battery.aaa_batteryproject.item.dto.CatalogCursor;
+import com.aaa_battery.aaa_batteryproject.item.dto.CatalogFilter;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.aaa_battery.aaa_batteryproject.item.model.CatalogSort;
+
+public interface CatalogPageRepository {
+
+    /**
+     * Keyset page of descriptions matching the filter in the given sort order, starting strictly
+     * after the cursor (or at the beginning when cursor is null). Entries without a sort key
+     * come last. Never uses OFFSET.
+     */
+    List<ItemDescriptionEntity> findCatalogPage(CatalogSort sort, CatalogFilter filter, CatalogCursor after, int limit);
+}
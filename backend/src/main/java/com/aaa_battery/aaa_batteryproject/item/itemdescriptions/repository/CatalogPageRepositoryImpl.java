@@ -0,0 +1,88 @@
+package com.aaa_battery.aaa_batteryproject.item.itemdescriptions.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.aaa_battery.aaa_batteryproject.item.dto.CatalogCursor;
+import com.aaa_battery.aaa_batteryproject.item.dto.CatalogFilter;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.aaa_battery.aaa_batteryproject.item.model.CatalogSort;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+public class CatalogPageRepositoryImpl implements CatalogPageRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Entries with a sort key come first, then those without it. Each part is its own query so
+     * that both are a single range scan of the (key, description_id) index: the keyed part
+     * continues from the cursor with a row-value comparison, and the id runs in the key's
+     * direction so the index is read forwards or backwards as it stands.
+     */
+    @Override
+    public List<ItemDescriptionEntity> findCatalogPage(CatalogSort sort, CatalogFilter filter, CatalogCursor after, int limit) {
+        String key = switch (sort) {
+            case NAME -> "d.itemName";
+            case DATE -> "d.date";
+            case RATING -> "d.averageRating";
+        };
+        String direction = sort.isDescending() ? "DESC" : "ASC";
+        String beyond = sort.isDescending() ? "<" : ">";
+
+        List<ItemDescriptionEntity> page = new ArrayList<>();
+        boolean cursorInKeyless = after != null && after.getSortValue() == null;
+        if (!cursorInKeyless) {
+            Map<String, Object> params = new HashMap<>();
+            StringBuilder where = new StringBuilder(key + " IS NOT NULL");
+            if (after != null) {
+                where.append(" AND (").append(key).append(", d.descriptionId) ").append(beyond).append(" (:afterValue, :afterId)");
+                params.put("afterValue", after.getSortValue());
+                params.put("afterId", after.getDescriptionId());
+            }
+            page.addAll(select(where, filter, params, "ORDER BY " + key + " " + direction + ", d.descriptionId " + direction, limit));
+        }
+        if (page.size() < limit) {
+            Map<String, Object> params = new HashMap<>();
+            StringBuilder where = new StringBuilder(key + " IS NULL");
+            if (cursorInKeyless) {
+                where.append(" AND d.descriptionId ").append(beyond).append(" :afterId");
+                params.put("afterId", after.getDescriptionId());
+            }
+            page.addAll(select(where, filter, params, "ORDER BY d.descriptionId " + direction, limit - page.size()));
+        }
+        return page;
+    }
+
+    private List<ItemDescriptionEntity> select(StringBuilder where, CatalogFilter filter, Map<String, Object> params,
+                                               String orderBy, int limit) {
+        if (filter != null) {
+            if (filter.getType() != null) {
+                where.append(" AND d.itemType = :type");
+                params.put("type", filter.getType());
+            }
+            if (filter.getGenre() != null) {
+                where.append(" AND LOWER(TRIM(d.genre)) = :genre");
+                params.put("genre", filter.getGenre().toLowerCase(Locale.ROOT));
+            }
+            if (filter.isAvailableOnly()) {
+                // Reads the materialized counter rather than counting copies
+                where.append(" AND d.availableCopies > 0");
+            }
+            if (filter.getMinRating() != null) {
+                where.append(" AND d.averageRating >= :minRating");
+                params.put("minRating", filter.getMinRating().doubleValue());
+            }
+        }
+        TypedQuery<ItemDescriptionEntity> query = entityManager.createQuery(
+            "SELECT d FROM ItemDescriptionEntity d WHERE " + where + " " + orderBy, ItemDescriptionEntity.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
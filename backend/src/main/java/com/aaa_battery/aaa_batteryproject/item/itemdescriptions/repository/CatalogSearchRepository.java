@@ -0,0 +1,15 @@
+package com.aaa_battery.aaa_batteryproject.item.itemdescriptions.repository;
+
+import java.util.List;
+
+public interface CatalogSearchRepository {
+
+    // Text search configuration used for both the generated tsvector column and the queries
+    String TEXT_SEARCH_CONFIG = "english";
+
+    /**
+     * Ids of the descriptions matching the query, best match first. Uses the tsvector index
+     * on Postgres and falls back to substring matching on the search text elsewhere.
+     */
+    List<Integer> searchDescriptionIds(String query, int limit);
+}
@@ -0,0 +1,86 @@
+package com.aaa_battery.aaa_batteryproject.item.itemdescriptions.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+public class CatalogSearchRepositoryImpl implements CatalogSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Integer> searchDescriptionIds(String query, int limit) {
+        return isPostgres() ? searchTsvector(query, limit) : searchSubstring(query, limit);
+    }
+
+    private boolean isPostgres() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Integer> searchTsvector(String query, int limit) {
+        // websearch_to_tsquery accepts free user input ("quoted phrases", -exclusions, or) without syntax errors
+        List<Number> ids = entityManager.createNativeQuery(
+                "SELECT d.description_id FROM item_description d, " +
+                "websearch_to_tsquery('" + TEXT_SEARCH_CONFIG + "', :query) q " +
+                "WHERE d.search_vector @@ q " +
+                "ORDER BY ts_rank(d.search_vector, q) DESC, d.description_id " +
+                "LIMIT :limit")
+            .setParameter("query", query)
+            .setParameter("limit", limit)
+            .getResultList();
+        return ids.stream().map(Number::intValue).toList();
+    }
+
+    // H2 has no text search: every term has to appear somewhere in the search text
+    private List<Integer> searchSubstring(String query, int limit) {
+        List<String> terms = Arrays.stream(query.toLowerCase(Locale.ROOT).split("\\s+"))
+            .filter(term -> !term.isBlank())
+            .toList();
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> criteria = cb.createQuery(Integer.class);
+        Root<ItemDescriptionEntity> description = criteria.from(ItemDescriptionEntity.class);
+        Path<String> searchText = description.get("searchText");
+        Path<String> itemName = description.get("itemName");
+
+        List<Predicate> predicates = new ArrayList<>();
+        for (String term : terms) {
+            predicates.add(cb.like(searchText, "%" + escapeLike(term) + "%", '\\'));
+        }
+
+        // Titles that contain the whole query rank above matches in other fields
+        String phrase = "%" + escapeLike(String.join(" ", terms)) + "%";
+        criteria.select(description.get("descriptionId"))
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(
+                cb.asc(cb.selectCase().when(cb.like(cb.lower(itemName), phrase, '\\'), 0).otherwise(1)),
+                cb.asc(itemName),
+                cb.asc(description.get("descriptionId")));
+
+        return entityManager.createQuery(criteria).setMaxResults(limit).getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
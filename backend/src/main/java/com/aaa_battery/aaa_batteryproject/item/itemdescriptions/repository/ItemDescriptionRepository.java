@@ -1,9 +1,148 @@
 package com.aaa_battery.aaa_batteryproject.item.itemdescriptions.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.aaa_battery.aaa_batteryproject.item.dto.CopyCountDTO;
 import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
 import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
+import com.aaa_battery.aaa_batteryproject.reviews.dto.RatingSummaryDTO;
 
-public interface ItemDescriptionRepository extends JpaRepository<ItemDescriptionEntity, Integer> {
+public interface ItemDescriptionRepository extends JpaRepository<ItemDescriptionEntity, Integer>, CatalogPageRepository,
+        CatalogSearchRepository {
     ItemDescriptionEntity findByItemNameAndItemType(String itemName, ItemType itemType);
+
+    @Query("SELECT d.descriptionId FROM ItemDescriptionEntity d WHERE d.itemName = :itemName AND d.itemType = :itemType")
+    Integer findIdByItemNameAndItemType(@Param("itemName") String itemName, @Param("itemType") ItemType itemType);
+
+    List<ItemDescriptionEntity> findBySearchTextIsNull();
+
+    // Copy counters are only ever changed with relative updates so concurrent writers never lose each other's changes.
+    // Native so the update hits the base table alone instead of going through the joined-inheritance temp table.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE item_description SET total_copies = total_copies + :totalDelta, " +
+                   "available_copies = available_copies + :availableDelta WHERE description_id = :descriptionId",
+           nativeQuery = true)
+    int adjustCopyCounters(@Param("descriptionId") int descriptionId,
+                           @Param("totalDelta") int totalDelta,
+                           @Param("availableDelta") int availableDelta);
+
+    // Takes one copy off the shelf; matches no row when none are left
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE item_description SET available_copies = available_copies - 1 " +
+                   "WHERE description_id = :descriptionId AND available_copies > 0",
+           nativeQuery = true)
+    int reserveAvailableCopy(@Param("descriptionId") int descriptionId);
+
+    // Puts one copy back; never raises available above total
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE item_description SET available_copies = available_copies + 1 " +
+                   "WHERE description_id = :descriptionId AND available_copies < total_copies",
+           nativeQuery = true)
+    int releaseAvailableCopy(@Param("descriptionId") int descriptionId);
+
+    // Several returns of one title at once, capped the same way as a single release
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE item_description SET available_copies = LEAST(available_copies + :count, total_copies) " +
+                   "WHERE description_id = :descriptionId",
+           nativeQuery = true)
+    int releaseAvailableCopies(@Param("descriptionId") int descriptionId, @Param("count") int count);
+
+    @Query("SELECT d.availableCopies FROM ItemDescriptionEntity d WHERE d.descriptionId = :descriptionId")
+    Integer findAvailableCopies(@Param("descriptionId") int descriptionId);
+
+    // Stored counters for a set of descriptions, one round trip for a whole checkout
+    @Query("SELECT new com.aaa_battery.aaa_batteryproject.item.dto.CopyCountDTO(d.descriptionId, " +
+           "CAST(d.totalCopies AS Long), CAST(d.availableCopies AS Long)) " +
+           "FROM ItemDescriptionEntity d WHERE d.descriptionId IN :descriptionIds")
+    List<CopyCountDTO> findCopyCounters(@Param("descriptionIds") Collection<Integer> descriptionIds);
+
+    // Stored counters for every description, in the same shape as the copy aggregate
+    @Query("SELECT new com.aaa_battery.aaa_batteryproject.item.dto.CopyCountDTO(d.descriptionId, " +
+           "CAST(d.totalCopies AS Long), CAST(d.availableCopies AS Long)) " +
+           "FROM ItemDescriptionEntity d ORDER BY d.descriptionId")
+    List<CopyCountDTO> findStoredCopyCounters();
+
+    // Compare-and-set repair: only applies if the counters still hold the values the check read
+    @Modifying
+    @Query(value = "UPDATE item_description SET total_copies = :actualTotal, available_copies = :actualAvailable " +
+                   "WHERE description_id = :descriptionId AND total_copies = :expectedTotal AND available_copies = :expectedAvailable",
+           nativeQuery = true)
+    int repairCopyCounters(@Param("descriptionId") int descriptionId,
+                           @Param("expectedTotal") int expectedTotal,
+                           @Param("expectedAvailable") int expectedAvailable,
+                           @Param("actualTotal") int actualTotal,
+                           @Param("actualAvailable") int actualAvailable);
+
+    // Moves the review counters by one review's change and derives the average from the ratings
+    // among them, all in one statement; rows still waiting for the backfill keep their nulls and
+    // their average. The star a review leaves and the star it lands on (0 for none) move the
+    // histogram by one each.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE item_description SET review_count = review_count + :countDelta, " +
+                   "rating_count = rating_count + :ratedDelta, " +
+                   "rating_sum = rating_sum + :sumDelta, " +
+                   "average_rating = CASE WHEN rating_count IS NULL OR rating_sum IS NULL THEN average_rating " +
+                   "WHEN rating_count + :ratedDelta > 0 " +
+                   "THEN CAST(rating_sum + :sumDelta AS DOUBLE PRECISION) / (rating_count + :ratedDelta) " +
+                   "ELSE 0 END, " +
+                   "one_star_count = one_star_count + (CASE WHEN :addedStar = 1 THEN 1 ELSE 0 END) - (CASE WHEN :removedStar = 1 THEN 1 ELSE 0 END), " +
+                   "two_star_count = two_star_count + (CASE WHEN :addedStar = 2 THEN 1 ELSE 0 END) - (CASE WHEN :removedStar = 2 THEN 1 ELSE 0 END), " +
+                   "three_star_count = three_star_count + (CASE WHEN :addedStar = 3 THEN 1 ELSE 0 END) - (CASE WHEN :removedStar = 3 THEN 1 ELSE 0 END), " +
+                   "four_star_count = four_star_count + (CASE WHEN :addedStar = 4 THEN 1 ELSE 0 END) - (CASE WHEN :removedStar = 4 THEN 1 ELSE 0 END), " +
+                   "five_star_count = five_star_count + (CASE WHEN :addedStar = 5 THEN 1 ELSE 0 END) - (CASE WHEN :removedStar = 5 THEN 1 ELSE 0 END) " +
+                   "WHERE description_id = :descriptionId",
+           nativeQuery = true)
+    int adjustReviewCounters(@Param("descriptionId") int descriptionId,
+                             @Param("countDelta") int countDelta,
+                             @Param("ratedDelta") int ratedDelta,
+                             @Param("sumDelta") long sumDelta,
+                             @Param("removedStar") int removedStar,
+                             @Param("addedStar") int addedStar);
+
+    // Rows missing their counters or, from before they were kept, their rating count or star counts
+    @Query("SELECT d.descriptionId FROM ItemDescriptionEntity d WHERE d.reviewCount IS NULL OR d.ratingCount IS NULL " +
+           "OR d.oneStarCount IS NULL " +
+           "ORDER BY d.descriptionId")
+    List<Integer> findIdsWithoutReviewCounters(Pageable pageable);
+
+    // Locks the rows about to be backfilled, in id order. A review write moves the same row, so one
+    // in flight finishes first and one that comes later waits until the backfill has committed.
+    @Query(value = "SELECT description_id FROM item_description WHERE description_id IN (:descriptionIds) " +
+                   "ORDER BY description_id FOR UPDATE",
+           nativeQuery = true)
+    List<Integer> lockForReviewCounters(@Param("descriptionIds") Collection<Integer> descriptionIds);
+
+    // Backfill write: counts the reviews in the statement that writes the counters, so it sees every
+    // review committed by the time the rows are locked. Only ratings of one to five stars count as
+    // ratings, as in ReviewService. Rows whose counters are all kept are left alone.
+    @Modifying
+    @Query(value = "UPDATE item_description SET " +
+                   "review_count = (SELECT COUNT(*) FROM reviews r WHERE r.item_description_id = item_description.description_id), " +
+                   "rating_count = (SELECT COUNT(*) FROM reviews r WHERE r.item_description_id = item_description.description_id " +
+                   "AND r.rating BETWEEN 1 AND 5), " +
+                   "rating_sum = (SELECT COALESCE(SUM(r.rating), 0) FROM reviews r WHERE r.item_description_id = item_description.description_id " +
+                   "AND r.rating BETWEEN 1 AND 5), " +
+                   "average_rating = COALESCE((SELECT AVG(CAST(r.rating AS DOUBLE PRECISION)) FROM reviews r " +
+                   "WHERE r.item_description_id = item_description.description_id AND r.rating BETWEEN 1 AND 5), 0), " +
+                   "one_star_count = (SELECT COUNT(*) FROM reviews r WHERE r.item_description_id = item_description.description_id AND r.rating = 1), " +
+                   "two_star_count = (SELECT COUNT(*) FROM reviews r WHERE r.item_description_id = item_description.description_id AND r.rating = 2), " +
+                   "three_star_count = (SELECT COUNT(*) FROM reviews r WHERE r.item_description_id = item_description.description_id AND r.rating = 3), " +
+                   "four_star_count = (SELECT COUNT(*) FROM reviews r WHERE r.item_description_id = item_description.description_id AND r.rating = 4), " +
+                   "five_star_count = (SELECT COUNT(*) FROM reviews r WHERE r.item_description_id = item_description.description_id AND r.rating = 5) " +
+                   "WHERE description_id IN (:descriptionIds) " +
+                   "AND (review_count IS NULL OR rating_count IS NULL OR one_star_count IS NULL)",
+           nativeQuery = true)
+    int backfillReviewCounters(@Param("descriptionIds") Collection<Integer> descriptionIds);
+
+    // Average, count and star histogram for many descriptions in one query, for catalog cards
+    @Query("SELECT new com.aaa_battery.aaa_batteryproject.reviews.dto.RatingSummaryDTO(d.descriptionId, d.averageRating, " +
+           "d.reviewCount, d.oneStarCount, d.twoStarCount, d.threeStarCount, d.fourStarCount, d.fiveStarCount) " +
+           "FROM ItemDescriptionEntity d WHERE d.descriptionId IN :descriptionIds ORDER BY d.descriptionId")
+    List<RatingSummaryDTO> findRatingSummaries(@Param("descriptionIds") Collection<Integer> descriptionIds);
 }
@@ -0,0 +1,50 @@
+package com.aaa_battery.aaa_batteryproject.item.itemdescriptions.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.repository.CatalogSearchRepository;
+
+/**
+ * Sets up catalog search at startup. On Postgres it adds the generated tsvector column and its
+ * GIN index, which ddl-auto cannot express. It then fills in the search text for descriptions
+ * saved before the column existed.
+ */
+@Component
+public class CatalogSearchIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSearchIndexInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemDescriptionService itemDescriptionService;
+
+    public CatalogSearchIndexInitializer(JdbcTemplate jdbcTemplate, ItemDescriptionService itemDescriptionService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.itemDescriptionService = itemDescriptionService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeSearch() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equalsIgnoreCase(database)) {
+            // Postgres keeps the vector in step with search_text on every insert and update
+            jdbcTemplate.execute(
+                "ALTER TABLE item_description ADD COLUMN IF NOT EXISTS search_vector tsvector " +
+                "GENERATED ALWAYS AS (to_tsvector('" + CatalogSearchRepository.TEXT_SEARCH_CONFIG +
+                "', coalesce(search_text, ''))) STORED");
+            jdbcTemplate.execute(
+                "CREATE INDEX IF NOT EXISTS idx_item_description_search ON item_description USING GIN (search_vector)");
+        }
+
+        int backfilled = itemDescriptionService.backfillSearchText();
+        if (backfilled > 0) {
+            logger.info("Filled in search text for {} item descriptions", backfilled);
+        }
+    }
+}
@@ -1,10 +1,25 @@
 package com.aaa_battery.aaa_batteryproject.item.itemdescriptions.service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import com.aaa_battery.aaa_batteryproject.item.dto.CatalogCursor;
+import com.aaa_battery.aaa_batteryproject.item.dto.CatalogFilter;
+import com.aaa_battery.aaa_batteryproject.item.dto.CopyCountDTO;
+import com.aaa_battery.aaa_batteryproject.item.dto.ItemDetailDTO;
 import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
 import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.repository.ItemDescriptionRepository;
+import com.aaa_battery.aaa_batteryproject.item.model.CatalogSort;
 import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
+import com.aaa_battery.aaa_batteryproject.item.service.CatalogCacheConfiguration;
+import com.aaa_battery.aaa_batteryproject.item.service.CatalogChangedEvent;
 
 @Service
 public class ItemDescriptionService {
@@ -12,15 +27,126 @@ public class ItemDescriptionService {
     @Autowired
     private ItemDescriptionRepository itemDescriptionRepository;
 
-    public ItemDescriptionEntity findByNameAndItemType(String name, ItemType itemType) {
-        return itemDescriptionRepository.findByItemNameAndItemType(name, itemType);
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Caches only the id; callers load the entity itself in their own session
+    @Cacheable(value = CatalogCacheConfiguration.DESCRIPTIONS_BY_NAME,
+               key = "T(com.aaa_battery.aaa_batteryproject.item.service.CatalogCacheConfiguration).nameKey(#name, #itemType)",
+               sync = true)
+    public Integer findIdByNameAndItemType(String name, ItemType itemType) {
+        return itemDescriptionRepository.findIdByItemNameAndItemType(name, itemType);
     }
 
+    @Transactional
     public void saveDescription(ItemDescriptionEntity description) {
         itemDescriptionRepository.save(description);
+        // Both the name it was loaded with and the current one, in case it was renamed
+        List<String> names = description.getLoadedItemName() == null
+            || description.getLoadedItemName().equals(description.getItemName())
+                ? List.of(description.getItemName())
+                : List.of(description.getLoadedItemName(), description.getItemName());
+        eventPublisher.publishEvent(new CatalogChangedEvent(description.getDescriptionId(), description.getItemType(), names));
+    }
+
+    // Cached as a snapshot, never as an entity that belongs to the session that loaded it
+    @Cacheable(value = CatalogCacheConfiguration.DESCRIPTIONS, key = "#descriptionId", sync = true)
+    @Transactional(readOnly = true)
+    public ItemDetailDTO findDetailById(Integer descriptionId) {
+        return itemDescriptionRepository.findById(descriptionId).map(ItemDetailDTO::of).orElse(null);
     }
 
-    public ItemDescriptionEntity findById(Integer descriptionId) {
+    // Uncached load for callers that are going to modify and save the description
+    public ItemDescriptionEntity findByIdForUpdate(Integer descriptionId) {
         return itemDescriptionRepository.findById(descriptionId).orElse(null);
     }
+
+    public List<ItemDescriptionEntity> findAll() {
+        return itemDescriptionRepository.findAll();
+    }
+
+    public List<ItemDescriptionEntity> findAllById(Collection<Integer> descriptionIds) {
+        return itemDescriptionRepository.findAllById(descriptionIds);
+    }
+
+    public int getAvailableCopies(Integer descriptionId) {
+        Integer available = itemDescriptionRepository.findAvailableCopies(descriptionId);
+        return available != null ? available : 0;
+    }
+
+    // Available counters by description id; unknown ids are left out
+    public Map<Integer, Integer> getAvailableCopies(Collection<Integer> descriptionIds) {
+        if (descriptionIds.isEmpty()) {
+            return Map.of();
+        }
+        return itemDescriptionRepository.findCopyCounters(descriptionIds).stream()
+            .collect(Collectors.toMap(CopyCountDTO::getDescriptionId, count -> count.getAvailableCopies().intValue()));
+    }
+
+    @Transactional
+    public void adjustCopyCounters(int descriptionId, int totalDelta, int availableDelta) {
+        itemDescriptionRepository.adjustCopyCounters(descriptionId, totalDelta, availableDelta);
+        eventPublisher.publishEvent(new CatalogChangedEvent(descriptionId));
+    }
+
+    /**
+     * Decrements the available counter for a borrow.
+     * Returns false when the description has no copies left on the shelf.
+     */
+    @Transactional
+    public boolean reserveAvailableCopy(int descriptionId) {
+        boolean reserved = itemDescriptionRepository.reserveAvailableCopy(descriptionId) == 1;
+        if (reserved) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(descriptionId));
+        }
+        return reserved;
+    }
+
+    @Transactional
+    public void releaseAvailableCopy(int descriptionId) {
+        itemDescriptionRepository.releaseAvailableCopy(descriptionId);
+        eventPublisher.publishEvent(new CatalogChangedEvent(descriptionId));
+    }
+
+    // One counter update and one change event for a batch of returns of the same description
+    @Transactional
+    public void releaseAvailableCopies(int descriptionId, int count) {
+        itemDescriptionRepository.releaseAvailableCopies(descriptionId, count);
+        eventPublisher.publishEvent(new CatalogChangedEvent(descriptionId));
+    }
+
+    public List<CopyCountDTO> findStoredCopyCounters() {
+        return itemDescriptionRepository.findStoredCopyCounters();
+    }
+
+    /**
+     * Overwrites a description's counters only if they still hold the expected values.
+     * Returns false when a concurrent borrow, return or copy change got there first.
+     */
+    @Transactional
+    public boolean repairCopyCounters(CopyCountDTO expected, CopyCountDTO actual) {
+        boolean repaired = itemDescriptionRepository.repairCopyCounters(expected.getDescriptionId(),
+                expected.getTotalCopies().intValue(), expected.getAvailableCopies().intValue(),
+                actual.getTotalCopies().intValue(), actual.getAvailableCopies().intValue()) == 1;
+        if (repaired) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(expected.getDescriptionId()));
+        }
+        return repaired;
+    }
+
+    public List<Integer> searchDescriptionIds(String query, int limit) {
+        return itemDescriptionRepository.searchDescriptionIds(query, limit);
+    }
+
+    // Computes the search text for rows written before it was maintained; the save happens on flush
+    @Transactional
+    public int backfillSearchText() {
+        List<ItemDescriptionEntity> descriptions = itemDescriptionRepository.findBySearchTextIsNull();
+        descriptions.forEach(ItemDescriptionEntity::refreshSearchText);
+        return descriptions.size();
+    }
+
+    public List<ItemDescriptionEntity> findCatalogPage(CatalogSort sort, CatalogFilter filter, CatalogCursor after, int limit) {
+        return itemDescriptionRepository.findCatalogPage(sort, filter, after, limit);
+    }
 }
@@ -0,0 +1,24 @@
+package com.aaa_battery.aaa_batteryproject.item.model;
+
+// Sort orders supported by the paged catalog; ties are broken by descriptionId in the same direction
+public enum CatalogSort {
+    NAME,   // itemName ascending
+    DATE,   // newest first
+    RATING; // highest averageRating first
+
+    public boolean isDescending() {
+        return this != NAME;
+    }
+
+    public static boolean isValidSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return false;
+        }
+        try {
+            CatalogSort.valueOf(sort.trim().toUpperCase());
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -2,18 +2,31 @@ package com.aaa_battery.aaa_batteryproject.item.model;
 
 import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
 
+import org.hibernate.annotations.ColumnDefault;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.*;
 
 @Entity
 @Table(name = "aaa_item")
 public class ItemEntity {
 
+    // Pooled sequence instead of IDENTITY so copies can be inserted in JDBC batches;
+    // Hibernate reserves 50 ids per round trip to the sequence
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "aaa_item_seq")
+    @SequenceGenerator(name = "aaa_item_seq", sequenceName = "aaa_item_seq", allocationSize = 50)
     private int itemId;
 
     private boolean availability;
 
+    // Optimistic lock; the atomic claim in ItemRepository does not bump it
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    private long version;
+
     @ManyToOne
     @JoinColumn(name = "description_id", referencedColumnName = "descriptionId", nullable = false, unique = false)
     private ItemDescriptionEntity description;
@@ -25,6 +38,10 @@ public class ItemEntity {
         return itemId;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public boolean isAvailability() {
         return availability;
     }
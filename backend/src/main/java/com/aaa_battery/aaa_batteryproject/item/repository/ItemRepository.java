@@ -1,12 +1,22 @@
 package com.aaa_battery.aaa_batteryproject.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import com.aaa_battery.aaa_batteryproject.item.dto.CopyCountDTO;
 import com.aaa_battery.aaa_batteryproject.item.model.ItemEntity;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 public interface ItemRepository extends JpaRepository<ItemEntity, Long>
 {
     @Query("SELECT i FROM ItemEntity i WHERE i.description.id = :descriptionId AND i.availability = true ORDER BY i.itemId ASC")
@@ -14,5 +24,35 @@ public interface ItemRepository extends JpaRepository<ItemEntity, Long>
 
     List<ItemEntity> findByDescriptionDescriptionId(Integer descriptionId);
 
-}
+    Optional<ItemEntity> findFirstByDescriptionDescriptionIdAndAvailabilityTrueOrderByItemIdAsc(Integer descriptionId);
+
+    // Free copies locked for a borrow. Rows another transaction holds are skipped instead of
+    // waited on (FOR UPDATE SKIP LOCKED), so concurrent borrowers spread over different copies.
+    // A lock timeout of -2 is Hibernate's value for skipping locked rows.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT i FROM ItemEntity i WHERE i.description.descriptionId = :descriptionId AND i.availability = true ORDER BY i.itemId ASC")
+    List<ItemEntity> findAvailableCopiesForClaim(@Param("descriptionId") Integer descriptionId, Pageable pageable);
+
+    // Takes the copy only if it is still on the shelf; 0 means another borrower got there first
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE aaa_item SET availability = false WHERE item_id = :itemId AND availability = true", nativeQuery = true)
+    int claimCopy(@Param("itemId") int itemId);
 
+    // Puts returned copies back on the shelf in one statement; like the claim, leaves the version alone
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE aaa_item SET availability = true WHERE item_id IN (:itemIds)", nativeQuery = true)
+    int releaseCopies(@Param("itemIds") Collection<Integer> itemIds);
+
+    // Total and available copies per description, counted by the database so copy rows are never loaded
+    @Query("SELECT new com.aaa_battery.aaa_batteryproject.item.dto.CopyCountDTO(i.description.descriptionId, COUNT(i), " +
+           "SUM(CASE WHEN i.availability = true THEN 1L ELSE 0L END)) " +
+           "FROM ItemEntity i GROUP BY i.description.descriptionId ORDER BY i.description.descriptionId")
+    List<CopyCountDTO> countCopiesByDescription();
+
+    @Query("SELECT new com.aaa_battery.aaa_batteryproject.item.dto.CopyCountDTO(i.description.descriptionId, COUNT(i), " +
+           "SUM(CASE WHEN i.availability = true THEN 1L ELSE 0L END)) " +
+           "FROM ItemEntity i WHERE i.description.descriptionId IN :descriptionIds GROUP BY i.description.descriptionId")
+    List<CopyCountDTO> countCopiesByDescriptionIds(@Param("descriptionIds") Collection<Integer> descriptionIds);
+
+}
@@ -0,0 +1,69 @@
+package com.aaa_battery.aaa_batteryproject.item.service;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Configuration
+@EnableCaching
+@ConditionalOnProperty(name = "catalog.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogCacheConfiguration {
+
+    public static final String CATALOG = "catalog";
+    public static final String ITEM_COPIES = "itemCopies";
+    public static final String DESCRIPTIONS = "itemDescriptions";
+    public static final String DESCRIPTIONS_BY_NAME = "itemDescriptionsByName";
+
+    // Writes on this node evict straight away; the TTL only bounds how long another node can lag behind
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    @Bean
+    public CacheManager cacheManager() {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+            // The whole catalog listing lives under a single key
+            new CaffeineCache(CATALOG, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(TIME_TO_LIVE)
+                .recordStats()
+                .build()),
+            // Weighed by copy count so a few titles with many copies cannot crowd everything else out
+            new CaffeineCache(ITEM_COPIES, Caffeine.newBuilder()
+                .maximumWeight(50_000)
+                .weigher((Object key, Object copies) -> Math.max(1, ((List<?>) copies).size()))
+                .expireAfterWrite(TIME_TO_LIVE)
+                .recordStats()
+                .build()),
+            new CaffeineCache(DESCRIPTIONS, Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(TIME_TO_LIVE)
+                .recordStats()
+                .build()),
+            new CaffeineCache(DESCRIPTIONS_BY_NAME, Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(TIME_TO_LIVE)
+                .recordStats()
+                .build())
+        ));
+        return cacheManager;
+    }
+
+    @Bean
+    public CatalogCacheInvalidator catalogCacheInvalidator(CacheManager cacheManager) {
+        return new CatalogCacheInvalidator(cacheManager);
+    }
+
+    public static String nameKey(String itemName, ItemType itemType) {
+        return itemName + "|" + itemType;
+    }
+}
@@ -0,0 +1,41 @@
+package com.aaa_battery.aaa_batteryproject.item.service;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Drops cached catalog reads for a description once the change that touched it has committed.
+ * Loads run with sync=true, so an eviction waits for any load of the same key already in flight
+ * and no read that started before the commit can put its stale result back afterwards.
+ */
+public class CatalogCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    public CatalogCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    // fallbackExecution covers changes published outside a transaction
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        evict(CatalogCacheConfiguration.CATALOG, CatalogService.CATALOG_KEY);
+        evict(CatalogCacheConfiguration.ITEM_COPIES, event.getDescriptionId());
+        evict(CatalogCacheConfiguration.DESCRIPTIONS, event.getDescriptionId());
+        if (event.getItemType() != null) {
+            for (String itemName : event.getItemNames()) {
+                evict(CatalogCacheConfiguration.DESCRIPTIONS_BY_NAME,
+                    CatalogCacheConfiguration.nameKey(itemName, event.getItemType()));
+            }
+        }
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
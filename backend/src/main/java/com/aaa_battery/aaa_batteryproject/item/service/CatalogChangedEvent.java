@@ -0,0 +1,28 @@
+package com.aaa_battery.aaa_batteryproject.item.service;
+
+import java.util.List;
+
+import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
+
+// Published whenever a description, its copies or its rating change, so cached catalog reads can be dropped
+public class CatalogChangedEvent {
+    private final int descriptionId;
+    private final ItemType itemType;
+    private final List<String> itemNames;
+
+    public CatalogChangedEvent(int descriptionId) {
+        this(descriptionId, null, List.of());
+    }
+
+    public CatalogChangedEvent(int descriptionId, ItemType itemType, List<String> itemNames) {
+        this.descriptionId = descriptionId;
+        this.itemType = itemType;
+        this.itemNames = itemNames;
+    }
+
+    public int getDescriptionId() { return descriptionId; }
+
+    // Type and names (old and new on a rename) whose name lookups must be dropped as well
+    public ItemType getItemType() { return itemType; }
+    public List<String> getItemNames() { return itemNames; }
+}
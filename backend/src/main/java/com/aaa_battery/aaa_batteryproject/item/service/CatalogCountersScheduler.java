@@ -0,0 +1,82 @@
+package com.aaa_battery.aaa_batteryproject.item.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.aaa_battery.aaa_batteryproject.item.dto.CopyCountDTO;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.service.ItemDescriptionService;
+import com.aaa_battery.aaa_batteryproject.jobs.service.JobCoordinator;
+
+// Verifies the materialized copy counters against the copy rows and repairs any drift
+@Service
+public class CatalogCountersScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCountersScheduler.class);
+
+    private final ItemService itemService;
+    private final ItemDescriptionService itemDescriptionService;
+    private final JobCoordinator jobCoordinator;
+
+    public CatalogCountersScheduler(ItemService itemService, ItemDescriptionService itemDescriptionService,
+                                    JobCoordinator jobCoordinator) {
+        this.itemService = itemService;
+        this.itemDescriptionService = itemDescriptionService;
+        this.jobCoordinator = jobCoordinator;
+    }
+
+    // Backfills counters for rows written before they existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcileCopyCounters();
+    }
+
+    // Runs every hour at half past, on one instance of the cluster
+    @Scheduled(cron = "${catalog.counters.reconcile-cron:0 30 * * * *}")
+    public void scheduledReconcile() {
+        String runKey = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).toString();
+        jobCoordinator.run("catalog-counters", runKey, () -> "repaired " + reconcileCopyCounters());
+    }
+
+    // Returns how many descriptions had their counters repaired
+    public int reconcileCopyCounters() {
+        // Read the stored counters before counting copies: a borrow that commits in between
+        // changes the stored values too, so its compare-and-set below simply misses
+        List<CopyCountDTO> stored = itemDescriptionService.findStoredCopyCounters();
+        Map<Integer, CopyCountDTO> actual = itemService.getCopyCounts().stream()
+            .collect(Collectors.toMap(CopyCountDTO::getDescriptionId, counts -> counts));
+
+        int repaired = 0;
+        int skipped = 0;
+        for (CopyCountDTO expected : stored) {
+            CopyCountDTO counted = actual.getOrDefault(expected.getDescriptionId(),
+                new CopyCountDTO(expected.getDescriptionId(), 0L, 0L));
+            if (counted.getTotalCopies().equals(expected.getTotalCopies())
+                    && counted.getAvailableCopies().equals(expected.getAvailableCopies())) {
+                continue;
+            }
+            if (itemDescriptionService.repairCopyCounters(expected, counted)) {
+                repaired++;
+                logger.warn("Repaired copy counters for description {}: total {} -> {}, available {} -> {}",
+                    expected.getDescriptionId(), expected.getTotalCopies(), counted.getTotalCopies(),
+                    expected.getAvailableCopies(), counted.getAvailableCopies());
+            } else {
+                // Changed underneath us; the next run will look at it again
+                skipped++;
+            }
+        }
+        if (repaired > 0 || skipped > 0) {
+            logger.info("Copy counter check finished: {} repaired, {} changed concurrently", repaired, skipped);
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,247 @@
+package com.aaa_battery.aaa_batteryproject.item.service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.aaa_battery.aaa_batteryproject.item.dto.CatalogFacetsDTO;
+import com.aaa_battery.aaa_batteryproject.item.dto.CatalogFilter;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.service.ItemDescriptionService;
+import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
+
+/**
+ * In-memory facet counts for the catalog. Each facet value holds a bitmap of description ids,
+ * so a count is the cardinality of an AND rather than a GROUP BY per dimension.
+ * Loaded at startup and kept current from CatalogChangedEvents, which copy, borrow and
+ * review writes all publish.
+ */
+@Component
+public class CatalogFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogFacetIndex.class);
+
+    private final ItemDescriptionService itemDescriptionService;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<ItemType, RoaringBitmap> byType = new EnumMap<>(ItemType.class);
+    // Keyed by lower-cased genre; labels keep the spelling first seen for display
+    private final Map<String, RoaringBitmap> byGenre = new HashMap<>();
+    private final Map<String, String> genreLabels = new HashMap<>();
+    private final RoaringBitmap available = new RoaringBitmap();
+    // ratingAtLeast[n] holds descriptions with an average rating of n or more
+    private final RoaringBitmap[] ratingAtLeast = new RoaringBitmap[CatalogFilter.MAX_RATING + 1];
+    private final Map<Integer, Facets> indexed = new HashMap<>();
+
+    public CatalogFacetIndex(ItemDescriptionService itemDescriptionService) {
+        this.itemDescriptionService = itemDescriptionService;
+        for (ItemType type : ItemType.values()) {
+            byType.put(type, new RoaringBitmap());
+        }
+        for (int rating = 1; rating <= CatalogFilter.MAX_RATING; rating++) {
+            ratingAtLeast[rating] = new RoaringBitmap();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<ItemDescriptionEntity> descriptions = itemDescriptionService.findAll();
+        descriptions.forEach(this::index);
+        logger.info("Facet index loaded with {} descriptions", size());
+    }
+
+    // Re-reads the description once the change is committed; covers copy counts and rating changes.
+    // Runs in its own transaction: the committing one may still hold the entity from before a
+    // native counter update, and that stale copy would be indexed instead.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        ItemDescriptionEntity description = itemDescriptionService.findByIdForUpdate(event.getDescriptionId());
+        if (description == null) {
+            remove(event.getDescriptionId());
+        } else {
+            index(description);
+        }
+    }
+
+    public void index(ItemDescriptionEntity description) {
+        Facets facets = toFacets(description);
+        int id = description.getDescriptionId();
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            indexed.put(id, facets);
+            all.add(id);
+            if (facets.type != null) {
+                byType.get(facets.type).add(id);
+            }
+            if (facets.genreKey != null) {
+                byGenre.computeIfAbsent(facets.genreKey, key -> new RoaringBitmap()).add(id);
+                genreLabels.putIfAbsent(facets.genreKey, facets.genreLabel);
+            }
+            if (facets.available) {
+                available.add(id);
+            }
+            for (int rating = 1; rating <= facets.ratingBand; rating++) {
+                ratingAtLeast[rating].add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int descriptionId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(descriptionId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts for every facet value under the given filter. A dimension's counts apply all the
+     * other filters but not its own, so selecting a genre still shows how many match each
+     * of the other genres.
+     */
+    public CatalogFacetsDTO count(CatalogFilter filter) {
+        CatalogFilter effective = filter != null ? filter : CatalogFilter.none();
+        lock.readLock().lock();
+        try {
+            RoaringBitmap typeSet = effective.getType() != null ? byType.get(effective.getType()) : null;
+            RoaringBitmap genreSet = effective.getGenre() != null
+                ? byGenre.getOrDefault(genreKey(effective.getGenre()), new RoaringBitmap())
+                : null;
+            RoaringBitmap availableSet = effective.isAvailableOnly() ? available : null;
+            RoaringBitmap ratingSet = effective.getMinRating() != null
+                ? ratingAtLeast[Math.min(effective.getMinRating(), CatalogFilter.MAX_RATING)]
+                : null;
+
+            Map<String, Integer> types = new LinkedHashMap<>();
+            RoaringBitmap withoutType = intersect(genreSet, availableSet, ratingSet);
+            for (ItemType type : ItemType.values()) {
+                types.put(type.name().toLowerCase(Locale.ROOT), RoaringBitmap.andCardinality(withoutType, byType.get(type)));
+            }
+
+            Map<String, Integer> genres = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            RoaringBitmap withoutGenre = intersect(typeSet, availableSet, ratingSet);
+            for (Map.Entry<String, RoaringBitmap> genre : byGenre.entrySet()) {
+                int count = RoaringBitmap.andCardinality(withoutGenre, genre.getValue());
+                if (count > 0) {
+                    genres.put(genreLabels.get(genre.getKey()), count);
+                }
+            }
+
+            Map<String, Integer> availability = new LinkedHashMap<>();
+            RoaringBitmap withoutAvailability = intersect(typeSet, genreSet, ratingSet);
+            availability.put("available", RoaringBitmap.andCardinality(withoutAvailability, available));
+            availability.put("all", withoutAvailability.getCardinality());
+
+            Map<String, Integer> ratings = new LinkedHashMap<>();
+            RoaringBitmap withoutRating = intersect(typeSet, genreSet, availableSet);
+            for (int rating = CatalogFilter.MAX_RATING; rating >= 1; rating--) {
+                ratings.put(String.valueOf(rating), RoaringBitmap.andCardinality(withoutRating, ratingAtLeast[rating]));
+            }
+
+            int total = ratingSet != null
+                ? RoaringBitmap.andCardinality(withoutRating, ratingSet)
+                : withoutRating.getCardinality();
+            return new CatalogFacetsDTO(total, types, genres, availability, ratings);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return all.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // AND of the selected sets; a null set means that dimension is not filtered
+    private RoaringBitmap intersect(RoaringBitmap... sets) {
+        RoaringBitmap result = all.clone();
+        for (RoaringBitmap set : sets) {
+            if (set != null) {
+                result.and(set);
+            }
+        }
+        return result;
+    }
+
+    private void removeLocked(int descriptionId) {
+        Facets previous = indexed.remove(descriptionId);
+        if (previous == null) {
+            return;
+        }
+        all.remove(descriptionId);
+        if (previous.type != null) {
+            byType.get(previous.type).remove(descriptionId);
+        }
+        if (previous.genreKey != null) {
+            RoaringBitmap ids = byGenre.get(previous.genreKey);
+            if (ids != null) {
+                ids.remove(descriptionId);
+                if (ids.isEmpty()) {
+                    byGenre.remove(previous.genreKey);
+                    genreLabels.remove(previous.genreKey);
+                }
+            }
+        }
+        available.remove(descriptionId);
+        for (int rating = 1; rating <= previous.ratingBand; rating++) {
+            ratingAtLeast[rating].remove(descriptionId);
+        }
+    }
+
+    private static Facets toFacets(ItemDescriptionEntity description) {
+        String genre = description.getGenre() != null && !description.getGenre().isBlank()
+            ? description.getGenre().trim()
+            : null;
+        Double rating = description.getAverageRating();
+        int band = rating != null ? (int) Math.min(Math.floor(rating), CatalogFilter.MAX_RATING) : 0;
+        return new Facets(description.getItemType(),
+            genre != null ? genreKey(genre) : null, genre,
+            description.getAvailableCopies() > 0, band);
+    }
+
+    private static String genreKey(String genre) {
+        return genre.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Facets {
+        final ItemType type;
+        final String genreKey;
+        final String genreLabel;
+        final boolean available;
+        final int ratingBand;
+
+        Facets(ItemType type, String genreKey, String genreLabel, boolean available, int ratingBand) {
+            this.type = type;
+            this.genreKey = genreKey;
+            this.genreLabel = genreLabel;
+            this.available = available;
+            this.ratingBand = ratingBand;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.aaa_battery.aaa_batteryproject.item.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aaa_battery.aaa_batteryproject.item.dto.CatalogEntryDTO;
+import com.aaa_battery.aaa_batteryproject.item.dto.CopyCountDTO;
+import com.aaa_battery.aaa_batteryproject.item.dto.ItemCopyDTO;
+import com.aaa_battery.aaa_batteryproject.item.dto.ItemDetailDTO;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.service.ItemDescriptionService;
+import com.aaa_battery.aaa_batteryproject.item.model.ItemEntity;
+
+// Read side of the catalog; results are cached as immutable DTOs and dropped by CatalogCacheInvalidator
+@Service
+public class CatalogService {
+
+    static final String CATALOG_KEY = "all";
+
+    private final ItemService itemService;
+    private final ItemDescriptionService itemDescriptionService;
+
+    public CatalogService(ItemService itemService, ItemDescriptionService itemDescriptionService) {
+        this.itemService = itemService;
+        this.itemDescriptionService = itemDescriptionService;
+    }
+
+    // Built inside its own read-only transaction so the cached value never depends on an open session
+    @Cacheable(value = CatalogCacheConfiguration.CATALOG, key = "'" + CATALOG_KEY + "'", sync = true)
+    @Transactional(readOnly = true)
+    public List<CatalogEntryDTO> getCatalog() {
+        // One aggregated row per description; individual copies are never loaded
+        List<CopyCountDTO> copyCounts = itemService.getCopyCounts();
+        
+        if (copyCounts.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Integer, ItemDescriptionEntity> descriptions = itemDescriptionService.findAllById(
+                copyCounts.stream().map(CopyCountDTO::getDescriptionId).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(ItemDescriptionEntity::getDescriptionId, desc -> desc));
+        
+        // Create one entry per unique description with total and available copies
+        return copyCounts.stream()
+            .map(counts -> toCatalogEntry(descriptions.get(counts.getDescriptionId()),
+                    counts.getTotalCopies().intValue(), counts.getAvailableCopies().intValue()))
+            .collect(Collectors.toUnmodifiableList());
+    }
+
+    @Cacheable(value = CatalogCacheConfiguration.ITEM_COPIES, key = "#descriptionId", sync = true)
+    @Transactional(readOnly = true)
+    public List<ItemCopyDTO> getCopies(Integer descriptionId) {
+        List<ItemEntity> items = itemService.getItemsByDescriptionId(descriptionId);
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        // Copies of one title share a description; its snapshot comes from the cached detail read
+        ItemDetailDTO description = itemDescriptionService.findDetailById(descriptionId);
+        return items.stream()
+            .map(item -> new ItemCopyDTO(item.getItemId(), item.isAvailability(), description))
+            .collect(Collectors.toUnmodifiableList());
+    }
+
+    public CatalogEntryDTO toCatalogEntry(ItemDescriptionEntity desc, int totalCopies, int availableCopies) {
+        return CatalogEntryDTO.of(desc, totalCopies, availableCopies);
+    }
+}
@@ -0,0 +1,263 @@
+package com.aaa_battery.aaa_batteryproject.item.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.aaa_battery.aaa_batteryproject.item.dto.SuggestionDTO;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.AudiobookDescription;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.BookDescription;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.DVDDescription;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.service.ItemDescriptionService;
+import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
+
+/**
+ * In-memory typeahead over titles and creators. Words are kept in a sorted map of
+ * word -> description ids, so a prefix is a range scan rather than a database query.
+ * Loaded at startup and kept current from CatalogChangedEvents.
+ */
+@Component
+public class CatalogSuggestIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSuggestIndex.class);
+
+    // Memory bounds: how many descriptions are indexed and how many words each contributes
+    private static final int MAX_DESCRIPTIONS = 200_000;
+    private static final int MAX_WORDS_PER_DESCRIPTION = 48;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Comparator<Entry> RANKING = Comparator
+        .comparingDouble((Entry entry) -> entry.averageRating).reversed()
+        .thenComparing(entry -> entry.itemName, String.CASE_INSENSITIVE_ORDER)
+        .thenComparingInt(entry -> entry.descriptionId);
+
+    private final ItemDescriptionService itemDescriptionService;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Set<Integer>> postings = new TreeMap<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    public CatalogSuggestIndex(ItemDescriptionService itemDescriptionService) {
+        this.itemDescriptionService = itemDescriptionService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<ItemDescriptionEntity> descriptions = itemDescriptionService.findAll();
+        descriptions.forEach(this::index);
+        logger.info("Suggest index loaded with {} descriptions and {} words", size(), wordCount());
+    }
+
+    // Re-reads the description once the change is committed; covers edits, renames and rating changes.
+    // Runs in its own transaction: the committing one may still hold the entity from before a
+    // native counter update, and that stale copy would be indexed instead.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        ItemDescriptionEntity description = itemDescriptionService.findByIdForUpdate(event.getDescriptionId());
+        if (description == null) {
+            remove(event.getDescriptionId());
+        } else {
+            index(description);
+        }
+    }
+
+    public void index(ItemDescriptionEntity description) {
+        Entry entry = toEntry(description);
+        lock.writeLock().lock();
+        try {
+            removeLocked(entry.descriptionId);
+            if (entries.size() >= MAX_DESCRIPTIONS) {
+                logger.warn("Suggest index is full; description {} not indexed", entry.descriptionId);
+                return;
+            }
+            entries.put(entry.descriptionId, entry);
+            for (String word : entry.words) {
+                postings.computeIfAbsent(word, key -> new HashSet<>()).add(entry.descriptionId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int descriptionId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(descriptionId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Top suggestions for what has been typed so far. Every earlier word must match a whole word
+     * and the last one is treated as a prefix, so "ursula le g" still narrows to Le Guin.
+     * Results are ranked by average rating, then title. Every match of the prefix is considered;
+     * only the best {@code limit} are held while scanning.
+     */
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        List<String> words = words(query);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String prefix = words.get(words.size() - 1);
+        List<String> wholeWords = words.subList(0, words.size() - 1);
+
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Entry> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            Set<Integer> seen = new HashSet<>();
+            for (Set<Integer> ids : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                for (Integer id : ids) {
+                    if (!seen.add(id)) {
+                        continue;
+                    }
+                    Entry entry = entries.get(id);
+                    if (!entry.words.containsAll(wholeWords)) {
+                        continue;
+                    }
+                    top.add(entry);
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+
+            List<Entry> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING);
+            return ranked.stream().map(entry -> toSuggestion(entry, prefix)).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int wordCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(int descriptionId) {
+        Entry previous = entries.remove(descriptionId);
+        if (previous == null) {
+            return;
+        }
+        for (String word : previous.words) {
+            Set<Integer> ids = postings.get(word);
+            if (ids != null) {
+                ids.remove(descriptionId);
+                if (ids.isEmpty()) {
+                    postings.remove(word);
+                }
+            }
+        }
+    }
+
+    private SuggestionDTO toSuggestion(Entry entry, String prefix) {
+        // Report the first field, in display order, that has a word starting with the prefix
+        for (Map.Entry<String, String> field : entry.fields.entrySet()) {
+            if (words(field.getValue()).stream().anyMatch(word -> word.startsWith(prefix))) {
+                return new SuggestionDTO(entry.descriptionId, entry.itemName, entry.type,
+                    field.getKey(), field.getValue(), entry.averageRating);
+            }
+        }
+        return new SuggestionDTO(entry.descriptionId, entry.itemName, entry.type, "itemName", entry.itemName, entry.averageRating);
+    }
+
+    private static Entry toEntry(ItemDescriptionEntity description) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("itemName", description.getItemName());
+        if (description instanceof BookDescription book) {
+            fields.put("authorName", book.getAuthorName());
+        } else if (description instanceof AudiobookDescription audiobook) {
+            fields.put("authorName", audiobook.getAuthorName());
+            fields.put("narrator", audiobook.getNarratedBy());
+        } else if (description instanceof DVDDescription dvd) {
+            fields.put("director", dvd.getDirector());
+            fields.put("producer", dvd.getProducer());
+        }
+        fields.values().removeIf(value -> value == null || value.isBlank());
+
+        Set<String> words = new LinkedHashSet<>();
+        for (String value : fields.values()) {
+            for (String word : words(value)) {
+                if (words.size() >= MAX_WORDS_PER_DESCRIPTION) {
+                    break;
+                }
+                words.add(word);
+            }
+        }
+
+        Double rating = description.getAverageRating();
+        return new Entry(description.getDescriptionId(),
+            description.getItemName() != null ? description.getItemName() : "",
+            description.getItemType(), rating != null ? rating : 0.0, fields, words);
+    }
+
+    // Lower-cased, accent-free words so "Márquez" is found by "marq"
+    static List<String> words(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        return Arrays.stream(NON_WORD.split(folded)).filter(word -> !word.isEmpty()).toList();
+    }
+
+    private static final class Entry {
+        final int descriptionId;
+        final String itemName;
+        final ItemType type;
+        final double averageRating;
+        final Map<String, String> fields;
+        final Set<String> words;
+
+        Entry(int descriptionId, String itemName, ItemType type, double averageRating,
+              Map<String, String> fields, Set<String> words) {
+            this.descriptionId = descriptionId;
+            this.itemName = itemName;
+            this.type = type;
+            this.averageRating = averageRating;
+            this.fields = fields;
+            this.words = words;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.aaa_battery.aaa_batteryproject.item.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Copy ids used to come from an IDENTITY column. The aaa_item_seq sequence that replaced it
+ * starts at 1 on an existing database, so move it past the highest id already handed out.
+ * Only needed on Postgres; other databases here are always created from scratch.
+ */
+@Component
+public class ItemIdSequenceAligner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemIdSequenceAligner.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ItemIdSequenceAligner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alignItemIdSequence() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(database)) {
+            return;
+        }
+        // Only moves the sequence when existing ids are ahead of it, so once aligned this is a no-op
+        // and can never pull the sequence back under another node. With the pooled optimizer the
+        // next block of ids starts right after the value set here.
+        List<Long> aligned = jdbcTemplate.queryForList(
+            "SELECT setval('aaa_item_seq', ids.max_id) " +
+            "FROM (SELECT COALESCE(MAX(item_id), 0) AS max_id FROM aaa_item) ids, aaa_item_seq seq " +
+            "WHERE ids.max_id > seq.last_value",
+            Long.class);
+        if (!aligned.isEmpty()) {
+            logger.info("aaa_item_seq moved to {} past existing copy ids", aligned.get(0));
+        }
+    }
+}
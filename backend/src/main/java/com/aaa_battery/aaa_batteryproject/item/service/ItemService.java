@@ -1,10 +1,17 @@
 package com.aaa_battery.aaa_batteryproject.item.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import com.aaa_battery.aaa_batteryproject.item.dto.CopyCountDTO;
 import com.aaa_battery.aaa_batteryproject.item.model.ItemEntity;
 import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
 import com.aaa_battery.aaa_batteryproject.item.repository.ItemRepository;
@@ -13,6 +20,9 @@ import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.service.ItemDesc
 
 @Service
 public class ItemService {
+    // Each failed claim means another borrower took that copy, so this only bounds a pathological loop
+    private static final int MAX_CLAIM_ATTEMPTS = 20;
+
     private final ItemRepository itemRepository;
     private final ItemDescriptionService itemDescriptionService;
 
@@ -34,15 +44,93 @@ public class ItemService {
         return itemRepository.findAll();
     }
 
+    public List<CopyCountDTO> getCopyCounts() {
+        return itemRepository.countCopiesByDescription();
+    }
+
+    public Map<Integer, CopyCountDTO> getCopyCounts(Collection<Integer> descriptionIds) {
+        if (descriptionIds.isEmpty()) {
+            return Map.of();
+        }
+        return itemRepository.countCopiesByDescriptionIds(descriptionIds).stream()
+            .collect(Collectors.toMap(CopyCountDTO::getDescriptionId, counts -> counts));
+    }
+
     public Optional<ItemEntity> findAvailableItemByDescription(Long descriptionId) {
-        List<ItemEntity> items = itemRepository.findAvailableItemsByDescription(descriptionId);
-        return items.isEmpty() ? Optional.empty() : Optional.of(items.get(0)); // Get first item
+        // The counter answers "is anything on the shelf" without touching the copy rows
+        if (itemDescriptionService.getAvailableCopies(descriptionId.intValue()) <= 0) {
+            return Optional.empty();
+        }
+        return itemRepository.findFirstByDescriptionDescriptionIdAndAvailabilityTrueOrderByItemIdAsc(descriptionId.intValue());
+    }
+
+    /**
+     * Claims one free copy of the description inside the caller's transaction. Candidates are
+     * read with FOR UPDATE SKIP LOCKED so concurrent callers land on different copies instead of
+     * queuing on the first one. The conditional update keeps the claim safe on databases that
+     * cannot skip locked rows: a lost race just moves on to the next copy.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<ItemEntity> claimAvailableCopy(Integer descriptionId) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            List<ItemEntity> candidates = itemRepository.findAvailableCopiesForClaim(descriptionId, PageRequest.of(0, 1));
+            if (candidates.isEmpty()) {
+                return Optional.empty();
+            }
+            ItemEntity copy = candidates.get(0);
+            if (itemRepository.claimCopy(copy.getItemId()) == 1) {
+                copy.setAvailability(false); // Match the row that was just updated
+                return Optional.of(copy);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Creates the given number of available copies and raises the description's
+     * total and available counters in the same transaction.
+     */
+    @Transactional
+    public List<ItemEntity> addCopies(ItemDescriptionEntity description, int count) {
+        List<ItemEntity> copies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ItemEntity item = new ItemEntity();
+            item.setAvailability(true); // Default availability is true
+            item.setDescription(description);
+            copies.add(item);
+        }
+        List<ItemEntity> saved = itemRepository.saveAll(copies);
+        itemDescriptionService.adjustCopyCounters(description.getDescriptionId(), count, count);
+        return saved;
+    }
+
+    /**
+     * Deletes the given number of copies that are on the shelf. Checked-out copies are
+     * never removed; if there are not enough available copies nothing is deleted.
+     */
+    @Transactional
+    public void removeAvailableCopies(Integer descriptionId, int count) {
+        List<ItemEntity> available = itemRepository.findAvailableItemsByDescription(descriptionId.longValue());
+        if (available.size() < count) {
+            throw new IllegalStateException("Cannot remove copies that are currently checked out");
+        }
+        itemRepository.deleteAll(available.subList(0, count));
+        itemDescriptionService.adjustCopyCounters(descriptionId, -count, -count);
+    }
+
+    // Puts copies back on the shelf in one statement; the caller adjusts the description counters
+    @Transactional
+    public void releaseCopies(Collection<Integer> itemIds) {
+        if (!itemIds.isEmpty()) {
+            itemRepository.releaseCopies(itemIds);
+        }
     }
 
     public List<ItemEntity> getItemsByDescriptionId(Integer descriptionId) {
         return itemRepository.findByDescriptionDescriptionId(descriptionId);
     }
 
+    @Transactional
     public ItemDescriptionEntity addItemFromRequest(Map<String, Object> requestData) {
         String itemName = (String) requestData.get("itemName" );
         Object typeObj = requestData.get("type");
@@ -56,8 +144,9 @@ public class ItemService {
         }
         int totalCopies = (int) requestData.getOrDefault("totalCopies", 1);
     
-        // Check if description already exists
-        ItemDescriptionEntity existingDescription = itemDescriptionService.findByNameAndItemType(itemName, type);
+        // Check if description already exists; the cached lookup gives its id, loaded here into this transaction
+        Integer existingId = itemDescriptionService.findIdByNameAndItemType(itemName, type);
+        ItemDescriptionEntity existingDescription = existingId != null ? itemDescriptionService.findByIdForUpdate(existingId) : null;
     
         ItemDescriptionEntity description;
         if (existingDescription != null) {
@@ -71,17 +160,18 @@ public class ItemService {
         }
     
         // Create multiple items based on totalCopies
-        for (int i = 0; i < totalCopies; i++) {
-            ItemEntity item = new ItemEntity();
-            item.setAvailability(true); // Default availability is true
-            item.setDescription(description);
-            itemRepository.save(item); // Save item in the database
-        }
+        addCopies(description, totalCopies);
     
         return description;
     }
 
+    @Transactional
     public void deleteItem(int itemId) {
-        itemRepository.deleteById((long) itemId);
+        ItemEntity item = itemRepository.findById((long) itemId).orElse(null);
+        if (item == null) {
+            return;
+        }
+        itemRepository.delete(item);
+        itemDescriptionService.adjustCopyCounters(item.getDescription().getDescriptionId(), -1, item.isAvailability() ? -1 : 0);
     }
 }
@@ -0,0 +1,37 @@
+package com.aaa_battery.aaa_batteryproject.jobs.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// A running instance, there for as long as it keeps renewing its lease
+@Entity
+@Table(name = "cluster_members")
+public class ClusterMemberEntity {
+
+    @Id
+    @Column(name = "instance_id", length = 200)
+    private String instanceId;
+
+    @Column(name = "lease_until", nullable = false)
+    private Instant leaseUntil;
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public Instant getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(Instant leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+}
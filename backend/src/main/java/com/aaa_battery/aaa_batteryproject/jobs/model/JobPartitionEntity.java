@@ -0,0 +1,102 @@
+package com.aaa_battery.aaa_batteryproject.jobs.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// An id range of one job run, leased by whichever instance claims it first
+@Entity
+@Table(name = "job_partitions", indexes = @Index(name = "idx_job_partitions_run_status", columnList = "run_id, status"))
+public class JobPartitionEntity {
+
+    public enum PartitionStatus {
+        PENDING,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Integer id;
+
+    @Column(name = "run_id", nullable = false)
+    private Integer runId;
+
+    @Column(name = "partition_no", nullable = false)
+    private int partitionNo;
+
+    // Inclusive bounds of the ids this partition covers
+    @Column(name = "low_id", nullable = false)
+    private long lowId;
+
+    @Column(name = "high_id", nullable = false)
+    private long highId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PartitionStatus status;
+
+    @Column(length = 200)
+    private String owner;
+
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Column(length = 500)
+    private String result;
+
+    // Getters and setters
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public Integer getRunId() { return runId; }
+    public void setRunId(Integer runId) { this.runId = runId; }
+
+    public int getPartitionNo() { return partitionNo; }
+    public void setPartitionNo(int partitionNo) { this.partitionNo = partitionNo; }
+
+    public long getLowId() { return lowId; }
+    public void setLowId(long lowId) { this.lowId = lowId; }
+
+    public long getHighId() { return highId; }
+    public void setHighId(long highId) { this.highId = highId; }
+
+    public PartitionStatus getStatus() { return status; }
+    public void setStatus(PartitionStatus status) { this.status = status; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public Instant getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(Instant leaseUntil) { this.leaseUntil = leaseUntil; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+
+    public String getResult() { return result; }
+    public void setResult(String result) { this.result = result; }
+}
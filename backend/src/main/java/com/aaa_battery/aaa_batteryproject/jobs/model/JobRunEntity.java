@@ -0,0 +1,76 @@
+package com.aaa_battery.aaa_batteryproject.jobs.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+// One run of a scheduled job across the cluster; the unique run key makes every instance agree on it
+@Entity
+@Table(name = "job_runs", uniqueConstraints = @UniqueConstraint(name = "uk_job_runs_job_key", columnNames = {"job_name", "run_key"}))
+public class JobRunEntity {
+
+    public enum JobRunStatus {
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Integer id;
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @Column(name = "run_key", nullable = false, length = 100)
+    private String runKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobRunStatus status;
+
+    @Column(name = "partition_count", nullable = false)
+    private int partitionCount;
+
+    @Column(name = "started_by", length = 200)
+    private String startedBy;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    // Getters and setters
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public String getJobName() { return jobName; }
+    public void setJobName(String jobName) { this.jobName = jobName; }
+
+    public String getRunKey() { return runKey; }
+    public void setRunKey(String runKey) { this.runKey = runKey; }
+
+    public JobRunStatus getStatus() { return status; }
+    public void setStatus(JobRunStatus status) { this.status = status; }
+
+    public int getPartitionCount() { return partitionCount; }
+    public void setPartitionCount(int partitionCount) { this.partitionCount = partitionCount; }
+
+    public String getStartedBy() { return startedBy; }
+    public void setStartedBy(String startedBy) { this.startedBy = startedBy; }
+
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+}
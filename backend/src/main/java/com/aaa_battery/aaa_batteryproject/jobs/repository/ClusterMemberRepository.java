@@ -0,0 +1,29 @@
+package com.aaa_battery.aaa_batteryproject.jobs.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aaa_battery.aaa_batteryproject.jobs.model.ClusterMemberEntity;
+
+public interface ClusterMemberRepository extends JpaRepository<ClusterMemberEntity, String> {
+
+    // Extends the instance's lease; 0 when it has not joined yet
+    @Modifying
+    @Transactional
+    @Query("UPDATE ClusterMemberEntity m SET m.leaseUntil = :leaseUntil WHERE m.instanceId = :instanceId")
+    int renew(@Param("instanceId") String instanceId, @Param("leaseUntil") Instant leaseUntil);
+
+    @Query("SELECT m.instanceId FROM ClusterMemberEntity m WHERE m.leaseUntil > :now ORDER BY m.instanceId")
+    List<String> findLiveInstanceIds(@Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ClusterMemberEntity m WHERE m.leaseUntil < :before")
+    int deleteExpired(@Param("before") Instant before);
+}
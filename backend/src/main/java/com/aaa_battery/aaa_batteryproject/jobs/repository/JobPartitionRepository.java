@@ -0,0 +1,48 @@
+package com.aaa_battery.aaa_batteryproject.jobs.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aaa_battery.aaa_batteryproject.jobs.model.JobPartitionEntity;
+import com.aaa_battery.aaa_batteryproject.jobs.model.JobPartitionEntity.PartitionStatus;
+
+public interface JobPartitionRepository extends JpaRepository<JobPartitionEntity, Integer> {
+
+    List<JobPartitionEntity> findByRunIdOrderByPartitionNo(Integer runId);
+
+    long countByRunIdAndStatusIn(Integer runId, List<PartitionStatus> statuses);
+
+    // Partitions nobody holds: never started, or leased by an instance whose lease ran out
+    @Query("SELECT p.id FROM JobPartitionEntity p WHERE p.runId = :runId " +
+           "AND (p.status = com.aaa_battery.aaa_batteryproject.jobs.model.JobPartitionEntity.PartitionStatus.PENDING " +
+           "OR (p.status = com.aaa_battery.aaa_batteryproject.jobs.model.JobPartitionEntity.PartitionStatus.RUNNING " +
+           "AND p.leaseUntil < :now)) ORDER BY p.partitionNo")
+    List<Integer> findClaimable(@Param("runId") Integer runId, @Param("now") Instant now, Pageable pageable);
+
+    // Compare-and-set on the partition row, so exactly one instance wins each claim
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobPartitionEntity p SET p.status = com.aaa_battery.aaa_batteryproject.jobs.model.JobPartitionEntity.PartitionStatus.RUNNING, " +
+           "p.owner = :owner, p.leaseUntil = :leaseUntil, p.startedAt = :now, p.attempts = p.attempts + 1 " +
+           "WHERE p.id = :id AND (p.status = com.aaa_battery.aaa_batteryproject.jobs.model.JobPartitionEntity.PartitionStatus.PENDING " +
+           "OR (p.status = com.aaa_battery.aaa_batteryproject.jobs.model.JobPartitionEntity.PartitionStatus.RUNNING " +
+           "AND p.leaseUntil < :now))")
+    int claim(@Param("id") Integer id, @Param("owner") String owner, @Param("now") Instant now,
+              @Param("leaseUntil") Instant leaseUntil);
+
+    // Settles a partition this instance still holds; a lost lease leaves the row to its new owner
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobPartitionEntity p SET p.status = :status, p.result = :result, p.finishedAt = :now, p.leaseUntil = null " +
+           "WHERE p.id = :id AND p.owner = :owner " +
+           "AND p.status = com.aaa_battery.aaa_batteryproject.jobs.model.JobPartitionEntity.PartitionStatus.RUNNING")
+    int settle(@Param("id") Integer id, @Param("owner") String owner, @Param("status") PartitionStatus status,
+               @Param("result") String result, @Param("now") Instant now);
+}
@@ -0,0 +1,39 @@
+package com.aaa_battery.aaa_batteryproject.jobs.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aaa_battery.aaa_batteryproject.jobs.model.JobRunEntity;
+import com.aaa_battery.aaa_batteryproject.jobs.model.JobRunEntity.JobRunStatus;
+
+public interface JobRunRepository extends JpaRepository<JobRunEntity, Integer> {
+
+    Optional<JobRunEntity> findByJobNameAndRunKey(String jobName, String runKey);
+
+    List<JobRunEntity> findTop20ByJobNameOrderByStartedAtDesc(String jobName);
+
+    // Only the first instance to see the last partition settle records the outcome
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobRunEntity r SET r.status = :status, r.finishedAt = :now " +
+           "WHERE r.id = :id AND r.status = com.aaa_battery.aaa_batteryproject.jobs.model.JobRunEntity.JobRunStatus.RUNNING")
+    int finish(@Param("id") Integer id, @Param("status") JobRunStatus status, @Param("now") Instant now);
+
+    // Earlier runs of the job left running by an instance that went away, with no live lease left
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobRunEntity r SET r.status = com.aaa_battery.aaa_batteryproject.jobs.model.JobRunEntity.JobRunStatus.FAILED, " +
+           "r.finishedAt = :now WHERE r.jobName = :jobName AND r.id <> :runId " +
+           "AND r.status = com.aaa_battery.aaa_batteryproject.jobs.model.JobRunEntity.JobRunStatus.RUNNING " +
+           "AND NOT EXISTS (SELECT p.id FROM JobPartitionEntity p WHERE p.runId = r.id " +
+           "AND p.status = com.aaa_battery.aaa_batteryproject.jobs.model.JobPartitionEntity.PartitionStatus.RUNNING " +
+           "AND p.leaseUntil > :now)")
+    int abandonStaleRuns(@Param("jobName") String jobName, @Param("runId") Integer runId, @Param("now") Instant now);
+}
@@ -0,0 +1,46 @@
+package com.aaa_battery.aaa_batteryproject.jobs.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.aaa_battery.aaa_batteryproject.jobs.model.ClusterMemberEntity;
+import com.aaa_battery.aaa_batteryproject.jobs.repository.ClusterMemberRepository;
+
+/**
+ * The live instances of the cluster, each holding a lease row it keeps renewing. Every instance
+ * numbers the live ids in the same order, so work kept in memory can be split by id modulo the
+ * member count with no further coordination. While an instance joins or its lease runs out, two
+ * members can briefly disagree on the count, so work split this way must be safe to repeat.
+ */
+@Service
+public class ClusterMembership {
+
+    private final ClusterMemberRepository clusterMemberRepository;
+    private final String instanceId;
+
+    public ClusterMembership(ClusterMemberRepository clusterMemberRepository, JobCoordinator jobCoordinator) {
+        this.clusterMemberRepository = clusterMemberRepository;
+        this.instanceId = jobCoordinator.getInstanceId();
+    }
+
+    // Joins or stays in the cluster for another lease and returns this instance's shard
+    public Shard renew(Duration lease) {
+        return renew(instanceId, Instant.now(), lease);
+    }
+
+    public Shard renew(String instanceId, Instant now, Duration lease) {
+        if (clusterMemberRepository.renew(instanceId, now.plus(lease)) == 0) {
+            ClusterMemberEntity member = new ClusterMemberEntity();
+            member.setInstanceId(instanceId);
+            member.setLeaseUntil(now.plus(lease));
+            clusterMemberRepository.save(member);
+        }
+        // Rows of instances gone for a whole lease are only clutter
+        clusterMemberRepository.deleteExpired(now.minus(lease));
+        List<String> live = clusterMemberRepository.findLiveInstanceIds(now);
+        return new Shard(live.indexOf(instanceId), live.size());
+    }
+}
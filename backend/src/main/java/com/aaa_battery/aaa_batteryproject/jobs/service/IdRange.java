@@ -0,0 +1,30 @@
+package com.aaa_battery.aaa_batteryproject.jobs.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Inclusive range of row ids a job, or one partition of it, works through
+public record IdRange(long low, long high) {
+
+    public static final IdRange ALL = new IdRange(0, Long.MAX_VALUE);
+
+    // Contiguous, non-overlapping slices covering the range; never more slices than ids
+    public List<IdRange> split(int parts) {
+        long size = high - low + 1;
+        // An unbounded range overflows to a negative size and stays whole
+        if (parts <= 1 || size <= 1) {
+            return List.of(this);
+        }
+        int count = (int) Math.min(parts, size);
+        long step = size / count;
+        long extra = size % count;
+        List<IdRange> slices = new ArrayList<>(count);
+        long start = low;
+        for (int i = 0; i < count; i++) {
+            long end = start + step - 1 + (i < extra ? 1 : 0);
+            slices.add(new IdRange(start, end));
+            start = end + 1;
+        }
+        return slices;
+    }
+}
@@ -0,0 +1,191 @@
+package com.aaa_battery.aaa_batteryproject.jobs.service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aaa_battery.aaa_batteryproject.jobs.model.JobPartitionEntity;
+import com.aaa_battery.aaa_batteryproject.jobs.model.JobPartitionEntity.PartitionStatus;
+import com.aaa_battery.aaa_batteryproject.jobs.model.JobRunEntity;
+import com.aaa_battery.aaa_batteryproject.jobs.model.JobRunEntity.JobRunStatus;
+import com.aaa_battery.aaa_batteryproject.jobs.repository.JobPartitionRepository;
+import com.aaa_battery.aaa_batteryproject.jobs.repository.JobRunRepository;
+
+/**
+ * Runs scheduled jobs once per cluster. Every instance fires the same cron, and the first to insert
+ * the (job, run key) row plans the run's partitions in the same transaction; the rest see that row.
+ * Then every instance claims partitions through a leased compare-and-set until none are left, so a
+ * partitioned job is spread over the cluster and a plain job runs on exactly one instance.
+ * A partition whose lease runs out is taken over, so partition work must be safe to repeat.
+ */
+@Service
+public class JobCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobCoordinator.class);
+
+    private static final int MAX_RESULT_LENGTH = 500;
+
+    private final JobRunRepository jobRunRepository;
+    private final JobPartitionRepository jobPartitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId;
+    private final Duration leaseDuration;
+    private final int maxAttempts;
+
+    public JobCoordinator(JobRunRepository jobRunRepository, JobPartitionRepository jobPartitionRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${jobs.lease-duration:30m}") Duration leaseDuration,
+                          @Value("${jobs.partition-max-attempts:3}") int maxAttempts) {
+        this.jobRunRepository = jobRunRepository;
+        this.jobPartitionRepository = jobPartitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+        this.leaseDuration = leaseDuration;
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * Runs the job once for the run key, on whichever instance gets to it first.
+     */
+    public JobRunEntity run(String jobName, String runKey, Supplier<String> work) {
+        return runPartitioned(jobName, runKey, 1, () -> IdRange.ALL, (startedAt, range) -> work.get());
+    }
+
+    /**
+     * Runs the job once for the run key, split into up to the given number of id-range partitions
+     * that every instance calling this for the same key helps work through. The planner is only
+     * asked for the range by the instance that creates the run.
+     */
+    public JobRunEntity runPartitioned(String jobName, String runKey, int partitions,
+                                       Supplier<IdRange> planner, PartitionWork work) {
+        JobRunEntity run = findOrCreateRun(jobName, runKey, partitions, planner);
+        if (run.getStatus() != JobRunStatus.RUNNING) {
+            return run;
+        }
+
+        int processed = 0;
+        Optional<JobPartitionEntity> partition;
+        while ((partition = claimNext(run.getId())).isPresent()) {
+            execute(run, partition.get(), work);
+            processed++;
+        }
+        if (processed > 0) {
+            logger.info("Instance {} ran {} partition(s) of {} run {}", instanceId, processed, jobName, runKey);
+        }
+        finishIfSettled(run);
+        return jobRunRepository.findById(run.getId()).orElse(run);
+    }
+
+    public List<JobRunEntity> getRecentRuns(String jobName) {
+        return jobRunRepository.findTop20ByJobNameOrderByStartedAtDesc(jobName);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    private JobRunEntity findOrCreateRun(String jobName, String runKey, int partitions, Supplier<IdRange> planner) {
+        Optional<JobRunEntity> existing = jobRunRepository.findByJobNameAndRunKey(jobName, runKey);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        try {
+            JobRunEntity created = transactionTemplate.execute(status -> {
+                Instant now = Instant.now();
+                JobRunEntity run = new JobRunEntity();
+                run.setJobName(jobName);
+                run.setRunKey(runKey);
+                run.setStatus(JobRunStatus.RUNNING);
+                run.setStartedBy(instanceId);
+                run.setStartedAt(now);
+                // Claim the run key before planning, so only the winner pays for the planner
+                run = jobRunRepository.saveAndFlush(run);
+
+                IdRange range = planner.get();
+                List<IdRange> slices = range != null ? range.split(partitions) : List.of(IdRange.ALL);
+                run.setPartitionCount(slices.size());
+
+                for (int i = 0; i < slices.size(); i++) {
+                    JobPartitionEntity partition = new JobPartitionEntity();
+                    partition.setRunId(run.getId());
+                    partition.setPartitionNo(i);
+                    partition.setLowId(slices.get(i).low());
+                    partition.setHighId(slices.get(i).high());
+                    partition.setStatus(PartitionStatus.PENDING);
+                    jobPartitionRepository.save(partition);
+                }
+                return run;
+            });
+            int abandoned = jobRunRepository.abandonStaleRuns(jobName, created.getId(), Instant.now());
+            if (abandoned > 0) {
+                logger.warn("Marked {} unfinished earlier run(s) of {} as failed", abandoned, jobName);
+            }
+            return created;
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created this run first; its partitions were committed with it
+            return jobRunRepository.findByJobNameAndRunKey(jobName, runKey).orElseThrow(() -> e);
+        }
+    }
+
+    private Optional<JobPartitionEntity> claimNext(Integer runId) {
+        // Losing a claim to another instance only means trying the next candidate
+        while (true) {
+            Instant now = Instant.now();
+            List<Integer> candidates = jobPartitionRepository.findClaimable(runId, now, PageRequest.ofSize(8));
+            if (candidates.isEmpty()) {
+                return Optional.empty();
+            }
+            for (Integer id : candidates) {
+                if (jobPartitionRepository.claim(id, instanceId, now, now.plus(leaseDuration)) > 0) {
+                    return jobPartitionRepository.findById(id);
+                }
+            }
+        }
+    }
+
+    private void execute(JobRunEntity run, JobPartitionEntity partition, PartitionWork work) {
+        IdRange range = new IdRange(partition.getLowId(), partition.getHighId());
+        try {
+            String result = work.run(run.getStartedAt(), range);
+            settle(partition, PartitionStatus.DONE, result);
+        } catch (RuntimeException e) {
+            boolean retry = partition.getAttempts() < maxAttempts;
+            logger.error("Partition {} of {} run {} failed on attempt {}{}", partition.getPartitionNo(),
+                run.getJobName(), run.getRunKey(), partition.getAttempts(), retry ? "; will retry" : "", e);
+            settle(partition, retry ? PartitionStatus.PENDING : PartitionStatus.FAILED, e.toString());
+        }
+    }
+
+    private void settle(JobPartitionEntity partition, PartitionStatus status, String result) {
+        if (result != null && result.length() > MAX_RESULT_LENGTH) {
+            result = result.substring(0, MAX_RESULT_LENGTH);
+        }
+        if (jobPartitionRepository.settle(partition.getId(), instanceId, status, result, Instant.now()) == 0) {
+            logger.warn("Lease on partition {} was taken over before it finished", partition.getId());
+        }
+    }
+
+    private void finishIfSettled(JobRunEntity run) {
+        if (jobPartitionRepository.countByRunIdAndStatusIn(run.getId(),
+                List.of(PartitionStatus.PENDING, PartitionStatus.RUNNING)) > 0) {
+            return; // Other instances are still working, and the last of them records the outcome
+        }
+        boolean failed = jobPartitionRepository.countByRunIdAndStatusIn(run.getId(), List.of(PartitionStatus.FAILED)) > 0;
+        if (jobRunRepository.finish(run.getId(), failed ? JobRunStatus.FAILED : JobRunStatus.SUCCEEDED, Instant.now()) > 0) {
+            logger.info("{} run {} finished: {}", run.getJobName(), run.getRunKey(), failed ? "FAILED" : "SUCCEEDED");
+        }
+    }
+}
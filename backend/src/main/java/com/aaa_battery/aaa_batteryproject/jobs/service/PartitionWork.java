@@ -0,0 +1,10 @@
+package com.aaa_battery.aaa_batteryproject.jobs.service;
+
+import java.time.Instant;
+
+// The body of a coordinated job, run once per partition; the returned text is kept in the run history
+@FunctionalInterface
+public interface PartitionWork {
+
+    String run(Instant runStartedAt, IdRange range);
+}
@@ -0,0 +1,11 @@
+package com.aaa_battery.aaa_batteryproject.jobs.service;
+
+// This instance's place among the live members: it owns the ids that fall to its index modulo the count
+public record Shard(int index, int count) {
+
+    public static final Shard ALL = new Shard(0, 1);
+
+    public boolean owns(long id) {
+        return Math.floorMod(id, count) == index;
+    }
+}
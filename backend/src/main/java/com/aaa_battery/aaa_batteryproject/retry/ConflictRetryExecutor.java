@@ -0,0 +1,158 @@
+package com.aaa_battery.aaa_batteryproject.retry;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs a unit of work in its own transaction and retries it when a versioned row was changed
+ * underneath it. Each attempt starts from a cleared persistence context, so work handed in here
+ * must load what it changes by id rather than reuse entities from an earlier attempt.
+ * Retries back off exponentially with full jitter so colliding requests spread out.
+ */
+@Component
+public class ConflictRetryExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConflictRetryExecutor.class);
+
+    // Bounds the per-description statistics; past this, new descriptions are only counted in the totals
+    private static final int MAX_TRACKED_DESCRIPTIONS = 10_000;
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    private final Map<Integer, Contention> contention = new ConcurrentHashMap<>();
+
+    public ConflictRetryExecutor(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                 @Value("${conflict.retry.max-attempts:4}") int maxAttempts,
+                                 @Value("${conflict.retry.base-delay-ms:20}") long baseDelayMs,
+                                 @Value("${conflict.retry.max-delay-ms:500}") long maxDelayMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = Math.max(0, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+    }
+
+    /**
+     * Runs the work, retrying on optimistic lock conflicts. The description id only attributes
+     * conflicts for the contention report and may be null when it is not known up front.
+     * Inside an existing transaction the work runs once: the outer boundary owns the retry.
+     */
+    public <T> T inTransaction(String operation, Integer descriptionId, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                Integer attributedTo = descriptionId != null ? descriptionId : conflictingDescription(e);
+                meterRegistry.counter("conflict.retry.conflicts", "operation", operation).increment();
+                Contention stats = contentionFor(attributedTo);
+                if (stats != null) {
+                    stats.conflicts.increment();
+                }
+
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("conflict.retry.exhausted", "operation", operation).increment();
+                    if (stats != null) {
+                        stats.exhausted.increment();
+                    }
+                    logger.warn("Giving up on {} for description {} after {} conflicting attempts",
+                        operation, attributedTo, attempt);
+                    throw e;
+                }
+
+                meterRegistry.counter("conflict.retry.retries", "operation", operation).increment();
+                if (stats != null) {
+                    stats.retries.increment();
+                }
+                if (!backOff(attempt)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * The descriptions that saw the most conflicts, hottest first.
+     */
+    public List<DescriptionContentionDTO> getContention(int limit) {
+        return contention.entrySet().stream()
+            .map(entry -> new DescriptionContentionDTO(entry.getKey(),
+                entry.getValue().conflicts.sum(), entry.getValue().retries.sum(), entry.getValue().exhausted.sum()))
+            .sorted(Comparator.comparingLong(DescriptionContentionDTO::getConflicts).reversed()
+                .thenComparingInt(DescriptionContentionDTO::getDescriptionId))
+            .limit(Math.max(0, limit))
+            .toList();
+    }
+
+    // Full jitter: sleep anywhere up to the exponential ceiling for this attempt
+    private boolean backOff(int attempt) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Contention contentionFor(Integer descriptionId) {
+        if (descriptionId == null) {
+            return null;
+        }
+        Contention stats = contention.get(descriptionId);
+        if (stats == null && contention.size() < MAX_TRACKED_DESCRIPTIONS) {
+            stats = contention.computeIfAbsent(descriptionId, id -> new Contention());
+        }
+        return stats;
+    }
+
+    // Hibernate reports which row lost; when it is a description, that is the one to blame
+    private static Integer conflictingDescription(OptimisticLockingFailureException e) {
+        if (!(e instanceof ObjectOptimisticLockingFailureException failure)
+                || !(failure.getIdentifier() instanceof Integer id)) {
+            return null;
+        }
+        Class<?> entityClass = failure.getPersistentClass();
+        String entityName = failure.getPersistentClassName();
+        if (entityClass == null && entityName != null && ClassUtils.isPresent(entityName, ConflictRetryExecutor.class.getClassLoader())) {
+            entityClass = ClassUtils.resolveClassName(entityName, ConflictRetryExecutor.class.getClassLoader());
+        }
+        return entityClass != null && ItemDescriptionEntity.class.isAssignableFrom(entityClass) ? id : null;
+    }
+
+    private static final class Contention {
+        final LongAdder conflicts = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LongAdder exhausted = new LongAdder();
+    }
+}
@@ -0,0 +1,23 @@
+package com.aaa_battery.aaa_batteryproject.retry;
+
+// Optimistic lock conflicts seen on one description since startup
+public class DescriptionContentionDTO {
+
+    private final int descriptionId;
+    private final long conflicts;
+    private final long retries;
+    private final long exhausted;
+
+    public DescriptionContentionDTO(int descriptionId, long conflicts, long retries, long exhausted) {
+        this.descriptionId = descriptionId;
+        this.conflicts = conflicts;
+        this.retries = retries;
+        this.exhausted = exhausted;
+    }
+
+    // Getters
+    public int getDescriptionId() { return descriptionId; }
+    public long getConflicts() { return conflicts; }
+    public long getRetries() { return retries; }
+    public long getExhausted() { return exhausted; }
+}
@@ -14,11 +14,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.aaa_battery.aaa_batteryproject.reviews.dto.RatingSummaryDTO;
 import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewCreateRequestDTO;
+import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewCursor;
+import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewPageDTO;
 import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewResponseDTO;
 import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewUpdateRequestDTO;
+import com.aaa_battery.aaa_batteryproject.reviews.model.ReviewEntity;
+import com.aaa_battery.aaa_batteryproject.reviews.model.ReviewSort;
 import com.aaa_battery.aaa_batteryproject.reviews.service.ReviewService;
 import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
 import com.aaa_battery.aaa_batteryproject.user.services.UserService;
@@ -26,6 +32,9 @@ import com.aaa_battery.aaa_batteryproject.user.services.UserService;
 @RestController
 @RequestMapping("/api/reviews")
 public class ReviewController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SUMMARY_IDS = 200;
     
     @Autowired
     private ReviewService reviewService;
@@ -90,6 +99,9 @@ public class ReviewController {
             @PathVariable Long reviewId,
             @RequestBody ReviewUpdateRequestDTO reviewDTO) {
         
+        if (!ReviewEntity.isValidRating(reviewDTO.getRating())) {
+            return ResponseEntity.badRequest().build();
+        }
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         BorrowerEntity borrower = (BorrowerEntity) userService.loadUserByUsername(auth.getName());
         
@@ -132,4 +144,59 @@ public class ReviewController {
         List<ReviewResponseDTO> reviews = reviewService.getReviewsForItem(itemDescriptionId);
         return ResponseEntity.ok(reviews);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/users/all-reviews/{itemDescriptionId}/page")
+    public ResponseEntity<?> getReviewPageForItem(
+            @PathVariable Integer itemDescriptionId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "newest") String sort) {
+        try {
+            if (!ReviewSort.isValidSort(sort)) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Invalid sort. Valid values: newest, highest, lowest");
+            }
+            ReviewSort reviewSort = ReviewSort.valueOf(sort.trim().toUpperCase());
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+            ReviewCursor cursor = null;
+            if (after != null && !after.isBlank()) {
+                try {
+                    cursor = ReviewCursor.decode(after);
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor");
+                }
+                if (cursor.getSort() != reviewSort) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body("Cursor was issued for sort: " + cursor.getSort().name().toLowerCase());
+                }
+            }
+
+            // Fetch one extra review to know whether another page exists
+            List<ReviewResponseDTO> reviews = reviewService.getReviewPage(itemDescriptionId, reviewSort, cursor, pageSize + 1);
+            boolean hasMore = reviews.size() > pageSize;
+            if (hasMore) {
+                reviews = reviews.subList(0, pageSize);
+            }
+            String nextCursor = hasMore
+                ? ReviewCursor.after(reviewSort, reviews.get(reviews.size() - 1)).encode()
+                : null;
+            return ResponseEntity.ok(new ReviewPageDTO(reviews, nextCursor, hasMore));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Failed to load reviews: " + e.getMessage());
+        }
+    }
+
+    // Ratings of many descriptions at once, so catalog cards need no query of their own
+    @GetMapping("/users/ratings-summary")
+    public ResponseEntity<?> getRatingSummaries(@RequestParam List<Integer> descriptionIds) {
+        if (descriptionIds.size() > MAX_SUMMARY_IDS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body("At most " + MAX_SUMMARY_IDS + " description IDs per request");
+        }
+        List<RatingSummaryDTO> summaries = reviewService.getRatingSummaries(
+            descriptionIds.stream().filter(id -> id != null).distinct().toList());
+        return ResponseEntity.ok(summaries);
+    }
+}
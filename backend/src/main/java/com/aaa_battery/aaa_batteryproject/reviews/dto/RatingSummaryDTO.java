@@ -0,0 +1,35 @@
+package com.aaa_battery.aaa_batteryproject.reviews.dto;
+
+import java.util.Map;
+
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+
+// Average, review count and star histogram of one item description, read from its stored counters
+public class RatingSummaryDTO {
+    private Integer descriptionId;
+    private Double averageRating;
+    private Integer reviewCount;
+    private Map<Integer, Integer> ratingHistogram;
+
+    public RatingSummaryDTO(Integer descriptionId, Double averageRating, Integer reviewCount, Integer oneStar,
+                            Integer twoStar, Integer threeStar, Integer fourStar, Integer fiveStar) {
+        this.descriptionId = descriptionId;
+        this.averageRating = averageRating != null ? averageRating : 0.0;
+        this.reviewCount = reviewCount != null ? reviewCount : 0;
+        this.ratingHistogram = ItemDescriptionEntity.ratingHistogram(oneStar, twoStar, threeStar, fourStar, fiveStar);
+    }
+
+    // Getters and setters
+
+    public Integer getDescriptionId() { return descriptionId; }
+    public void setDescriptionId(Integer descriptionId) { this.descriptionId = descriptionId; }
+
+    public Double getAverageRating() { return averageRating; }
+    public void setAverageRating(Double averageRating) { this.averageRating = averageRating; }
+
+    public Integer getReviewCount() { return reviewCount; }
+    public void setReviewCount(Integer reviewCount) { this.reviewCount = reviewCount; }
+
+    public Map<Integer, Integer> getRatingHistogram() { return ratingHistogram; }
+    public void setRatingHistogram(Map<Integer, Integer> ratingHistogram) { this.ratingHistogram = ratingHistogram; }
+}
@@ -0,0 +1,66 @@
+package com.aaa_battery.aaa_batteryproject.reviews.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import com.aaa_battery.aaa_batteryproject.reviews.model.ReviewSort;
+
+/**
+ * Opaque keyset cursor for a paged review listing: the sort key and reviewId of the last
+ * review on a page. Encoded as url-safe base64 of "SORT|reviewId|sortValue", with createdAt
+ * as epoch millis; the value part is omitted when the sort key of that review is null.
+ */
+public class ReviewCursor {
+    private final ReviewSort sort;
+    private final long reviewId;
+    private final Object sortValue;
+
+    public ReviewCursor(ReviewSort sort, long reviewId, Object sortValue) {
+        this.sort = sort;
+        this.reviewId = reviewId;
+        this.sortValue = sortValue;
+    }
+
+    public static ReviewCursor after(ReviewSort sort, ReviewResponseDTO last) {
+        Object value = switch (sort) {
+            case NEWEST -> last.getCreatedAt();
+            case HIGHEST, LOWEST -> last.getRating();
+        };
+        return new ReviewCursor(sort, last.getReviewId(), value);
+    }
+
+    public String encode() {
+        String value = sortValue instanceof Date date ? String.valueOf(date.getTime()) : String.valueOf(sortValue);
+        String raw = sort.name() + "|" + reviewId + (sortValue != null ? "|" + value : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ReviewCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length < 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            ReviewSort sort = ReviewSort.valueOf(parts[0]);
+            long reviewId = Long.parseLong(parts[1]);
+            Object value = null;
+            if (parts.length == 3) {
+                value = switch (sort) {
+                    case NEWEST -> new Date(Long.parseLong(parts[2]));
+                    case HIGHEST, LOWEST -> Integer.valueOf(parts[2]);
+                };
+            }
+            return new ReviewCursor(sort, reviewId, value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public ReviewSort getSort() { return sort; }
+
+    public long getReviewId() { return reviewId; }
+
+    public Object getSortValue() { return sortValue; }
+}
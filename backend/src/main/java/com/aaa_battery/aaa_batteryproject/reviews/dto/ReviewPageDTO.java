@@ -0,0 +1,26 @@
+package com.aaa_battery.aaa_batteryproject.reviews.dto;
+
+import java.util.List;
+
+public class ReviewPageDTO {
+    private List<ReviewResponseDTO> reviews;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public ReviewPageDTO(List<ReviewResponseDTO> reviews, String nextCursor, boolean hasMore) {
+        this.reviews = reviews;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and setters
+
+    public List<ReviewResponseDTO> getReviews() { return reviews; }
+    public void setReviews(List<ReviewResponseDTO> reviews) { this.reviews = reviews; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
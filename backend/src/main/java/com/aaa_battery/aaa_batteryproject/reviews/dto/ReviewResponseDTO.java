@@ -13,6 +13,23 @@ public class ReviewResponseDTO {
     private String comment;
     private Date createdAt;
     private Date updatedAt;
+
+    public ReviewResponseDTO() {
+    }
+
+    // Used by the review listing's projection query
+    public ReviewResponseDTO(Long reviewId, Integer borrowId, Integer itemDescriptionId, String reviewerName,
+                             String itemName, Integer rating, String comment, Date createdAt, Date updatedAt) {
+        this.reviewId = reviewId;
+        this.borrowId = borrowId;
+        this.itemDescriptionId = itemDescriptionId;
+        this.reviewerName = reviewerName;
+        this.itemName = itemName;
+        this.rating = rating;
+        this.comment = comment;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
     
     // Getters and setters
     public Long getReviewId() {
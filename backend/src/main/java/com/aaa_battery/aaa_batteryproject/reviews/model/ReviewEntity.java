@@ -7,10 +7,12 @@ import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescr
 import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -18,7 +20,11 @@ import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+    // Serve the paged listing of one item's reviews, by date or by rating, tie-broken by id
+    @Index(name = "idx_reviews_description_created", columnList = "item_description_id, created_at, id"),
+    @Index(name = "idx_reviews_description_rating", columnList = "item_description_id, rating, id")
+})
 public class ReviewEntity {
 
     @Id
@@ -42,7 +48,9 @@ public class ReviewEntity {
 
     private String comment;
 
+    // Always set, so the newest-first listing needs no place for reviews without a date
     @Temporal(TemporalType.TIMESTAMP)
+    @Column(nullable = false)
     private Date createdAt;
 
     @Temporal(TemporalType.TIMESTAMP)
@@ -85,20 +93,9 @@ public class ReviewEntity {
         return itemDescription;
     }
 
+    // The description's rating is kept by ReviewService from counters, never by walking its reviews here
     public void setItemDescription(ItemDescriptionEntity itemDescription) {
-        // If there was a previous item description, recalculate its rating
-        if (this.itemDescription != null && this.itemDescription != itemDescription) {
-            ItemDescriptionEntity oldDescription = this.itemDescription;
-            this.itemDescription = null;
-            oldDescription.recalculateAverageRating(0);
-        }
-        
         this.itemDescription = itemDescription;
-        
-        // Recalculate the new item description's rating if it exists
-        if (itemDescription != null) {
-            itemDescription.recalculateAverageRating(0);
-        }
     }
 
     public BorrowEntity getBorrow() {
@@ -115,10 +112,11 @@ public class ReviewEntity {
 
     public void setRating(Integer rating) {
         this.rating = rating;
-        // Recalculate the average if the item description is set
-        if (this.itemDescription != null) {
-            this.itemDescription.recalculateAverageRating(rating);
-        }
+    }
+
+    // A rating is one to five stars; a review may also leave it out
+    public static boolean isValidRating(Integer rating) {
+        return rating == null || (rating >= 1 && rating <= 5);
     }
 
     public String getComment() {
@@ -0,0 +1,24 @@
+package com.aaa_battery.aaa_batteryproject.reviews.model;
+
+// Sort orders supported by the paged review listing; ties are broken by review id in the same direction
+public enum ReviewSort {
+    NEWEST,  // createdAt, newest first
+    HIGHEST, // highest rating first
+    LOWEST;  // lowest rating first
+
+    public boolean isDescending() {
+        return this != LOWEST;
+    }
+
+    public static boolean isValidSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return false;
+        }
+        try {
+            ReviewSort.valueOf(sort.trim().toUpperCase());
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
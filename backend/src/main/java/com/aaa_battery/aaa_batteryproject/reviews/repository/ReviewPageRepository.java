@@ -0,0 +1,18 @@
+package com.aaa_battery.aaa_batteryproject.reviews.repository;
+
+import java.util.List;
+
+import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewCursor;
+import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewResponseDTO;
+import com.aaa_battery.aaa_batteryproject.reviews.model.ReviewSort;
+
+public interface ReviewPageRepository {
+
+    /**
+     * Keyset page of one description's reviews in the given sort order, starting strictly after
+     * the cursor (or at the beginning when cursor is null). Reviews without a rating come last.
+     * Reviews come back as DTOs, reviewer name included, from a single query per page, and a
+     * second one only when a rating order's page runs on past its rated reviews. Never uses OFFSET.
+     */
+    List<ReviewResponseDTO> findReviewPage(Integer itemDescriptionId, ReviewSort sort, ReviewCursor after, int limit);
+}
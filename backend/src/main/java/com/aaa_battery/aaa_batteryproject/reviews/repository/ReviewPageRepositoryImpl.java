@@ -0,0 +1,72 @@
+package com.aaa_battery.aaa_batteryproject.reviews.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewCursor;
+import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewResponseDTO;
+import com.aaa_battery.aaa_batteryproject.reviews.model.ReviewSort;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+public class ReviewPageRepositoryImpl implements ReviewPageRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Reviews with a sort key come first, then those without it. Each part is its own query so
+     * that both are a single range scan of the (item_description_id, key, id) index: the keyed part
+     * continues from the cursor with a row-value comparison, and the id runs in the key's direction
+     * so the index is read forwards or backwards as it stands. The creation date is always set, so
+     * the newest-first order is only ever the keyed part.
+     */
+    @Override
+    public List<ReviewResponseDTO> findReviewPage(Integer itemDescriptionId, ReviewSort sort, ReviewCursor after, int limit) {
+        String key = switch (sort) {
+            case NEWEST -> "r.createdAt";
+            case HIGHEST, LOWEST -> "r.rating";
+        };
+        String direction = sort.isDescending() ? "DESC" : "ASC";
+        String beyond = sort.isDescending() ? "<" : ">";
+
+        List<ReviewResponseDTO> page = new ArrayList<>();
+        boolean cursorInKeyless = after != null && after.getSortValue() == null;
+        if (!cursorInKeyless) {
+            Map<String, Object> params = new HashMap<>();
+            StringBuilder where = new StringBuilder(key + " IS NOT NULL");
+            if (after != null) {
+                where.append(" AND (").append(key).append(", r.id) ").append(beyond).append(" (:afterValue, :afterId)");
+                params.put("afterValue", after.getSortValue());
+                params.put("afterId", after.getReviewId());
+            }
+            page.addAll(select(itemDescriptionId, where, params, "ORDER BY " + key + " " + direction + ", r.id " + direction, limit));
+        }
+        if (page.size() < limit && sort != ReviewSort.NEWEST) {
+            Map<String, Object> params = new HashMap<>();
+            StringBuilder where = new StringBuilder(key + " IS NULL");
+            if (cursorInKeyless) {
+                where.append(" AND r.id ").append(beyond).append(" :afterId");
+                params.put("afterId", after.getReviewId());
+            }
+            page.addAll(select(itemDescriptionId, where, params, "ORDER BY r.id " + direction, limit - page.size()));
+        }
+        return page;
+    }
+
+    private List<ReviewResponseDTO> select(Integer itemDescriptionId, StringBuilder where, Map<String, Object> params,
+                                           String orderBy, int limit) {
+        TypedQuery<ReviewResponseDTO> query = entityManager.createQuery(
+            "SELECT new com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewResponseDTO(r.id, r.borrow.id, " +
+            "d.descriptionId, reviewer.fullName, d.itemName, r.rating, r.comment, r.createdAt, r.updatedAt) " +
+            "FROM ReviewEntity r JOIN r.reviewer reviewer JOIN r.itemDescription d " +
+            "WHERE d.descriptionId = :descriptionId AND " + where + " " + orderBy, ReviewResponseDTO.class);
+        query.setParameter("descriptionId", itemDescriptionId);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
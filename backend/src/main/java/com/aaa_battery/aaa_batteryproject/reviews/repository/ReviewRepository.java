@@ -10,7 +10,7 @@ import com.aaa_battery.aaa_batteryproject.reviews.model.ReviewEntity;
 import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
 
 @Repository
-public interface ReviewRepository extends JpaRepository<ReviewEntity, Long> {
+public interface ReviewRepository extends JpaRepository<ReviewEntity, Long>, ReviewPageRepository {
     
     // Find reviews by item description
     List<ReviewEntity> findByItemDescription(ItemDescriptionEntity itemDescription);
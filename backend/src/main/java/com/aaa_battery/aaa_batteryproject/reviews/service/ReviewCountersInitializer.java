@@ -0,0 +1,39 @@
+package com.aaa_battery.aaa_batteryproject.reviews.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills in review counters on descriptions that predate them. Runs after startup in small
+ * batches, each in its own transaction, so the catalog stays writable while it works. A review
+ * written to a row of the batch meanwhile waits for that batch to commit and then counts on top.
+ * Once every row has counters this is a single empty query.
+ */
+@Component
+public class ReviewCountersInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewCountersInitializer.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ReviewService reviewService;
+
+    public ReviewCountersInitializer(ReviewService reviewService) {
+        this.reviewService = reviewService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillReviewCounters() {
+        int total = 0;
+        int batch;
+        while ((batch = reviewService.backfillReviewCounters(BATCH_SIZE)) > 0) {
+            total += batch;
+        }
+        if (total > 0) {
+            logger.info("Filled in review counters for {} item descriptions", total);
+        }
+    }
+}
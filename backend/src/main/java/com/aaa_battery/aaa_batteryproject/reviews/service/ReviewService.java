@@ -1,10 +1,16 @@
 package com.aaa_battery.aaa_batteryproject.reviews.service;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,10 +19,15 @@ import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity.BorrowStatu
 import com.aaa_battery.aaa_batteryproject.borrows.repository.BorrowRepository;
 import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
 import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.repository.ItemDescriptionRepository;
+import com.aaa_battery.aaa_batteryproject.item.service.CatalogChangedEvent;
+import com.aaa_battery.aaa_batteryproject.retry.ConflictRetryExecutor;
+import com.aaa_battery.aaa_batteryproject.reviews.dto.RatingSummaryDTO;
 import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewCreateRequestDTO;
+import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewCursor;
 import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewResponseDTO;
 import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewUpdateRequestDTO;
 import com.aaa_battery.aaa_batteryproject.reviews.model.ReviewEntity;
+import com.aaa_battery.aaa_batteryproject.reviews.model.ReviewSort;
 import com.aaa_battery.aaa_batteryproject.reviews.repository.ReviewRepository;
 import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
 
@@ -25,6 +36,11 @@ import jakarta.persistence.EntityNotFoundException;
 @Service
 public class ReviewService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReviewService.class);
+
+    // Passed as the star a review leaves or lands on when there is none
+    private static final int NO_STAR = 0;
+
     @Autowired
     private ReviewRepository reviewRepository;
     
@@ -33,92 +49,76 @@ public class ReviewService {
 
     @Autowired
     private ItemDescriptionRepository itemDescriptionRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Gives each review write its own transaction; the rating itself moves by atomic deltas
+    @Autowired
+    private ConflictRetryExecutor conflictRetryExecutor;
     
     /**
      * Create a new review
      */
-    @Transactional
     public ReviewResponseDTO createReview(BorrowerEntity borrower, ReviewCreateRequestDTO reviewDTO) {
-        try {
-            // Find the borrow entity first
-            BorrowEntity borrow = borrowRepository.findById(reviewDTO.getBorrowId())
-                    .orElseThrow(() -> new EntityNotFoundException("Borrow with ID " + reviewDTO.getBorrowId() + " not found"));
-            
-            // Validate that the borrow status is RETURNED
-            if (borrow.getStatus() != BorrowStatus.RETURNED) {
-                throw new IllegalArgumentException("You can only review items that have been returned");
-            }
+        requireValidRating(reviewDTO.getRating());
+        return conflictRetryExecutor.inTransaction("review", null, () -> createReviewOnce(borrower, reviewDTO));
+    }
+
+    private ReviewResponseDTO createReviewOnce(BorrowerEntity borrower, ReviewCreateRequestDTO reviewDTO) {
+        // Find the borrow entity first
+        BorrowEntity borrow = borrowRepository.findById(reviewDTO.getBorrowId())
+                .orElseThrow(() -> new EntityNotFoundException("Borrow with ID " + reviewDTO.getBorrowId() + " not found"));
         
-            // Get the correct itemDescriptionId from the borrow record
-            Integer itemDescriptionId = borrow.getItem().getDescription().getDescriptionId();
-            
-            // Check for duplicate review using the correct itemDescriptionId
-            if (hasReviewedItem(borrower.getId(), itemDescriptionId)) {
-                throw new IllegalArgumentException("You have already reviewed this item");
-            }
-            
-            // Validate that the borrower is the owner of the borrow record
-            if (!borrow.getBorrower().equals(borrower)) {
-                throw new IllegalArgumentException("You can only review items you have borrowed");
-            }
-            
-            // Get the item description
-            ItemDescriptionEntity itemDescription = borrow.getItem().getDescription();
-            
-            // Create the review entity with all required fields
-            ReviewEntity review = new ReviewEntity();
-            review.setReviewer(borrower);
-            review.setItemDescription(itemDescription); // Set itemDescription before saving
-            review.setBorrow(borrow);
-            review.setComment(reviewDTO.getComment());
-            review.setCreatedAt(new Date());
-            // Set rating to null initially to avoid automatic recalculation
-            review.setRating(null);
-            
-            // Save the review first time
-            ReviewEntity savedReview = reviewRepository.save(review);
-            
-            // Now set the rating (this will trigger recalculation in the entity)
-            savedReview.setRating(reviewDTO.getRating());
-            
-            // Save the review again
-            savedReview = reviewRepository.save(savedReview);
-            
-            // Perform manual recalculation to ensure accuracy
-            List<ReviewEntity> allReviews = reviewRepository.findByItemDescription(itemDescription);
-            double sum = 0;
-            int count = 0;
-            
-            for (ReviewEntity rev : allReviews) {
-                if (rev.getRating() != null) {
-                    sum += rev.getRating();
-                    count++;
-                }
-            }
-            
-            double average = count > 0 ? sum / count : 0;
-            System.out.println("Calculated new average rating: " + average + " (sum=" + sum + ", count=" + count + ")");
-            
-            // Update the average rating directly
-            itemDescription.setAverageRating(average);
-            
-            // Save the item description explicitly
-            itemDescriptionRepository.save(itemDescription);
-            
-            // Convert to DTO and return
-            return convertToDTO(savedReview);
-        } catch (Exception e) {
-            // Add this for better debugging
-            e.printStackTrace();
-            throw e; // Re-throw to let the controller handle it
+        // Validate that the borrow status is RETURNED
+        if (borrow.getStatus() != BorrowStatus.RETURNED) {
+            throw new IllegalArgumentException("You can only review items that have been returned");
+        }
+    
+        // Get the correct itemDescriptionId from the borrow record
+        Integer itemDescriptionId = borrow.getItem().getDescription().getDescriptionId();
+        
+        // Check for duplicate review using the correct itemDescriptionId
+        if (hasReviewedItem(borrower.getId(), itemDescriptionId)) {
+            throw new IllegalArgumentException("You have already reviewed this item");
         }
+        
+        // Validate that the borrower is the owner of the borrow record
+        if (!borrow.getBorrower().equals(borrower)) {
+            throw new IllegalArgumentException("You can only review items you have borrowed");
+        }
+        
+        // Get the item description
+        ItemDescriptionEntity itemDescription = borrow.getItem().getDescription();
+        
+        // Create the review entity with all required fields
+        ReviewEntity review = new ReviewEntity();
+        review.setReviewer(borrower);
+        review.setItemDescription(itemDescription);
+        review.setBorrow(borrow);
+        review.setComment(reviewDTO.getComment());
+        review.setCreatedAt(new Date());
+        review.setRating(reviewDTO.getRating());
+        ReviewEntity savedReview = reviewRepository.save(review);
+
+        // One more review and, unless it has none, one more rating; the average and the star histogram follow in the same statement
+        itemDescriptionRepository.adjustReviewCounters(itemDescription.getDescriptionId(), 1, ratedOf(savedReview.getRating()),
+                ratingOf(savedReview.getRating()), NO_STAR, starOf(savedReview.getRating()));
+        eventPublisher.publishEvent(new CatalogChangedEvent(itemDescription.getDescriptionId()));
+        
+        // Convert to DTO and return
+        return convertToDTO(savedReview);
     }
     
     /**
      * Update an existing review
      */
-    @Transactional
     public ReviewResponseDTO updateReview(BorrowerEntity borrower, Long reviewId, ReviewUpdateRequestDTO reviewDTO) {
+        requireValidRating(reviewDTO.getRating());
+        return conflictRetryExecutor.inTransaction("review", null, () -> updateReviewOnce(borrower, reviewId, reviewDTO));
+    }
+
+    private ReviewResponseDTO updateReviewOnce(BorrowerEntity borrower, Long reviewId, ReviewUpdateRequestDTO reviewDTO) {
         // Find the review
         ReviewEntity review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new EntityNotFoundException("Review with ID " + reviewId + " not found"));
@@ -128,8 +128,10 @@ public class ReviewService {
             throw new IllegalArgumentException("You can only update your own reviews");
         }
         
-        // Get the item description for recalculation later
         ItemDescriptionEntity itemDescription = review.getItemDescription();
+        int ratedChange = ratedOf(reviewDTO.getRating()) - ratedOf(review.getRating());
+        long ratingChange = ratingOf(reviewDTO.getRating()) - ratingOf(review.getRating());
+        int previousStar = starOf(review.getRating());
         
         // Update the review details
         review.setRating(reviewDTO.getRating());
@@ -139,27 +141,15 @@ public class ReviewService {
         // Save the updated review
         ReviewEntity updatedReview = reviewRepository.save(review);
         
-        // Recalculate average rating
-        List<ReviewEntity> allReviews = reviewRepository.findByItemDescription(itemDescription);
-        double sum = 0;
-        int count = 0;
-        
-        for (ReviewEntity rev : allReviews) {
-            if (rev.getRating() != null) {
-                sum += rev.getRating();
-                count++;
-            }
+        // Only the rating's change moves the counters; the review count stays as it is, the rating
+        // count moves only when a rating is added or taken away, and the review moves from its old
+        // star to its new one
+        if (ratedChange != 0 || ratingChange != 0) {
+            itemDescriptionRepository.adjustReviewCounters(itemDescription.getDescriptionId(), 0, ratedChange, ratingChange,
+                    previousStar, starOf(updatedReview.getRating()));
+            eventPublisher.publishEvent(new CatalogChangedEvent(itemDescription.getDescriptionId()));
         }
         
-        double average = count > 0 ? sum / count : 0;
-        System.out.println("Updated average rating: " + average + " (sum=" + sum + ", count=" + count + ")");
-        
-        // Update the average rating directly
-        itemDescription.setAverageRating(average);
-        
-        // Save the item description explicitly
-        itemDescriptionRepository.save(itemDescription);
-        
         // Convert to DTO and return
         return convertToDTO(updatedReview);
     }
@@ -181,6 +171,14 @@ public class ReviewService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * One page of an item description's reviews in the given order, read as DTOs in a single
+     * query; nothing is loaded lazily per review.
+     */
+    public List<ReviewResponseDTO> getReviewPage(Integer itemDescriptionId, ReviewSort sort, ReviewCursor after, int limit) {
+        return reviewRepository.findReviewPage(itemDescriptionId, sort, after, limit);
+    }
+    
     /**
      * Get reviews by a borrower
      */
@@ -195,8 +193,16 @@ public class ReviewService {
     /**
      * Delete a review
      */
-    @Transactional
     public boolean deleteReview(BorrowerEntity borrower, Long reviewId) {
+        try {
+            return conflictRetryExecutor.inTransaction("review", null, () -> deleteReviewOnce(borrower, reviewId));
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Review {} still conflicting after retries; not deleted", reviewId, e);
+            return false;
+        }
+    }
+
+    private boolean deleteReviewOnce(BorrowerEntity borrower, Long reviewId) {
         try {
             // Find the review
             ReviewEntity review = reviewRepository.findById(reviewId)
@@ -214,13 +220,68 @@ public class ReviewService {
             
             // Delete the review
             reviewRepository.delete(review);
+            if (review.getItemDescription() != null) {
+                itemDescriptionRepository.adjustReviewCounters(review.getItemDescription().getDescriptionId(),
+                        -1, -ratedOf(review.getRating()), -ratingOf(review.getRating()), starOf(review.getRating()), NO_STAR);
+                eventPublisher.publishEvent(new CatalogChangedEvent(review.getItemDescription().getDescriptionId()));
+            }
             return true; // Successfully deleted
+        } catch (OptimisticLockingFailureException e) {
+            throw e; // Left to the retry
         } catch (Exception e) {
             // Log the exception if needed
             return false; // Failed to delete due to some other error
         }
     }
     
+    /**
+     * Fill in review counters for descriptions saved before they were maintained. Handles one
+     * batch per call so each batch commits on its own; returns how many descriptions it covered.
+     * The batch's rows stay locked from the count to the commit, so no review write falls between.
+     */
+    @Transactional
+    public int backfillReviewCounters(int batchSize) {
+        List<Integer> descriptionIds = itemDescriptionRepository.findIdsWithoutReviewCounters(PageRequest.of(0, batchSize));
+        if (descriptionIds.isEmpty()) {
+            return 0;
+        }
+        itemDescriptionRepository.lockForReviewCounters(descriptionIds);
+        itemDescriptionRepository.backfillReviewCounters(descriptionIds);
+        return descriptionIds.size();
+    }
+
+    /**
+     * Average, review count and star histogram for each of the given descriptions, straight from
+     * their counters in one query. Unknown ids are left out.
+     */
+    public List<RatingSummaryDTO> getRatingSummaries(Collection<Integer> descriptionIds) {
+        if (descriptionIds.isEmpty()) {
+            return List.of();
+        }
+        return itemDescriptionRepository.findRatingSummaries(descriptionIds);
+    }
+
+    private static void requireValidRating(Integer rating) {
+        if (!ReviewEntity.isValidRating(rating)) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+    }
+
+    // The star a rating counts towards, or none for a review without one. The rating count, the
+    // rating sum and the histogram all go by it, as the backfill does, so they always agree.
+    private static int starOf(Integer rating) {
+        return rating != null && rating >= 1 && rating <= 5 ? rating : NO_STAR;
+    }
+
+    private static int ratedOf(Integer rating) {
+        return starOf(rating) != NO_STAR ? 1 : 0;
+    }
+
+    private static long ratingOf(Integer rating) {
+        int star = starOf(rating);
+        return star != NO_STAR ? star : 0;
+    }
+
     /**
      * Convert a review entity to a DTO
      */
@@ -242,9 +303,8 @@ public class ReviewService {
      * Check if a borrower has already reviewed an item
      */
     public boolean hasReviewedItem(Integer borrowerId, Integer itemDescriptionId) {
-        // Added logging to help debug
         boolean exists = reviewRepository.existsByReviewerIdAndItemDescriptionDescriptionId(borrowerId, itemDescriptionId);
-        System.out.println("Checking if borrower " + borrowerId + " has reviewed item " + itemDescriptionId + ": " + exists);
+        logger.debug("Borrower {} has reviewed item {}: {}", borrowerId, itemDescriptionId, exists);
         return exists;
     }
 }
\ No newline at end of file
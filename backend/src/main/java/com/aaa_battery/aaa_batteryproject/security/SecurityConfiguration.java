@@ -40,8 +40,8 @@ public class SecurityConfiguration {
                     "https://aaa-battery-spring-backend-894699792c03.herokuapp.com"
                 ));
                 config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE"));
-                config.setAllowedHeaders(List.of("Authorization", "Content-Type", "X-Requested-With"));
-                config.setExposedHeaders(List.of("Authorization")); // Expose headers if needed
+                config.setAllowedHeaders(List.of("Authorization", "Content-Type", "X-Requested-With", "Idempotency-Key"));
+                config.setExposedHeaders(List.of("Authorization", "Idempotent-Replayed")); // Expose headers if needed
                 config.setAllowCredentials(true); // Allows cookies
                 return config;
             }))
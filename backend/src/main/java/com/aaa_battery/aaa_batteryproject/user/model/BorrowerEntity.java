@@ -7,7 +7,7 @@ import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
 import com.aaa_battery.aaa_batteryproject.fines.model.FineEntity;
 import com.aaa_battery.aaa_batteryproject.requests.model.RequestEntity;
 import com.aaa_battery.aaa_batteryproject.reviews.model.ReviewEntity;
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import jakarta.persistence.CascadeType;
@@ -23,8 +23,10 @@ import jakarta.persistence.Table;
 @PrimaryKeyJoinColumn(name = "id") // Links to the 'id' column in the 'users' table
 public class BorrowerEntity extends UserEntity {
 
-    @OneToMany(mappedBy = "borrower", fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
-    @JsonManagedReference
+    // Lazy so loading a borrower (on every authenticated request) does not pull in the whole
+    // history; read it through BorrowService, which pages it
+    @OneToMany(mappedBy = "borrower", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
     private List<BorrowEntity> borrowedItems = new ArrayList<>();
 
     @OneToMany(mappedBy = "requestor", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
@@ -0,0 +1,122 @@
+package com.aaa_battery.aaa_batteryproject.borrows;
+
+import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
+import com.aaa_battery.aaa_batteryproject.borrows.service.BorrowService;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.service.ItemDescriptionService;
+import com.aaa_battery.aaa_batteryproject.item.model.ItemEntity;
+import com.aaa_battery.aaa_batteryproject.item.repository.ItemRepository;
+import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
+import com.aaa_battery.aaa_batteryproject.util.LibraryFixtures;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Many borrowers racing for the same title, against a database of its own
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:borrowconcurrency;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+public class BorrowConcurrencyTest {
+
+    private static final int BORROWERS = 12;
+    private static final int COPIES = 8;
+
+    @Autowired
+    private LibraryFixtures fixtures;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemDescriptionService itemDescriptionService;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    private BorrowerEntity addBorrower(String name) {
+        return fixtures.addBorrower(name, name.replace(" ", "").toLowerCase() + "@nu.edu.pk");
+    }
+
+    @Test
+    void concurrentBorrowersClaimDistinctCopies() throws Exception {
+        int descriptionId = fixtures.addBook("Release Day Book", COPIES);
+
+        List<BorrowerEntity> borrowers = new ArrayList<>();
+        for (int i = 0; i < BORROWERS; i++) {
+            borrowers.add(addBorrower("Racer " + i));
+        }
+
+        // Release every borrower at once
+        ExecutorService pool = Executors.newFixedThreadPool(BORROWERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<BorrowEntity>>> results = new ArrayList<>();
+        for (BorrowerEntity borrower : borrowers) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return borrowService.createBorrow(borrower, descriptionId);
+            }));
+        }
+        start.countDown();
+
+        Set<Integer> claimedCopies = new HashSet<>();
+        int borrowed = 0;
+        for (Future<Optional<BorrowEntity>> result : results) {
+            Optional<BorrowEntity> borrow = result.get(30, TimeUnit.SECONDS);
+            if (borrow.isPresent()) {
+                borrowed++;
+                claimedCopies.add(borrow.get().getItem().getItemId());
+            }
+        }
+        pool.shutdown();
+
+        assertEquals(COPIES, borrowed, "Expected every copy to be borrowed once, got " + borrowed);
+        assertEquals(COPIES, claimedCopies.size(), "Two borrowers were given the same copy");
+        assertEquals(0, itemDescriptionService.getAvailableCopies(descriptionId));
+        assertTrue(itemRepository.findByDescriptionDescriptionId(descriptionId).stream().noneMatch(ItemEntity::isAvailability));
+
+        // Nothing left to claim
+        assertTrue(borrowService.createBorrow(borrowers.get(0), descriptionId).isEmpty());
+    }
+
+    @Test
+    void batchCheckoutBorrowsWhatIsOnTheShelf() {
+        int popular = fixtures.addBook("Cart Book", 2);
+        int single = fixtures.addBook("Cart Single", 1);
+        BorrowerEntity borrower = addBorrower("Kiosk Borrower");
+
+        // Three copies of a title with two, one of a title with one, and an id that does not exist
+        List<Optional<BorrowEntity>> results = borrowService.createBorrows(borrower,
+            List.of(popular, popular, single, popular, Integer.MAX_VALUE));
+
+        assertEquals(5, results.size());
+        assertTrue(results.get(0).isPresent() && results.get(1).isPresent() && results.get(2).isPresent());
+        assertTrue(results.get(3).isEmpty(), "Only two copies were on the shelf");
+        assertTrue(results.get(4).isEmpty());
+        assertNotEquals(results.get(1).get().getItem().getItemId(), results.get(0).get().getItem().getItemId());
+
+        assertEquals(0, itemDescriptionService.getAvailableCopies(popular));
+        assertEquals(0, itemDescriptionService.getAvailableCopies(single));
+        assertEquals(3, borrowService.findByBorrowerId(borrower.getId().longValue()).size());
+    }
+}
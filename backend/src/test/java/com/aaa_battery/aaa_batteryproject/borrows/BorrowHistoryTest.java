@@ -0,0 +1,82 @@
+package com.aaa_battery.aaa_batteryproject.borrows;
+
+import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
+import com.aaa_battery.aaa_batteryproject.borrows.service.BorrowService;
+import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
+import com.aaa_battery.aaa_batteryproject.user.repositories.BorrowerRepository;
+import com.aaa_battery.aaa_batteryproject.util.LibraryFixtures;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Paged borrow history for a borrower with a few borrows, against a database of its own
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:borrowhistory;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class BorrowHistoryTest {
+
+    @Autowired
+    private LibraryFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void testHistoryIsPagedAndFilteredByStatus() throws Exception {
+        BorrowerEntity borrower = fixtures.addBorrower("Long Time Member", "member@nu.edu.pk");
+
+        BorrowEntity first = borrowService.createBorrow(borrower, fixtures.addBook("History One")).orElseThrow();
+        borrowService.createBorrow(borrower, fixtures.addBook("History Two")).orElseThrow();
+        borrowService.createBorrow(borrower, fixtures.addBook("History Three")).orElseThrow();
+        borrowService.returnBorrows(List.of(first.getId()));
+
+        // Loading the borrower no longer brings the history along
+        BorrowerEntity loaded = borrowerRepository.findById(borrower.getId().longValue()).orElseThrow();
+        assertFalse(Hibernate.isInitialized(loaded.getBorrowedItems()));
+
+        var asBorrower = authentication(new UsernamePasswordAuthenticationToken(borrower, null, borrower.getAuthorities()));
+        mockMvc.perform(get("/api/borrower/my-borrows/history").param("size", "2").with(asBorrower))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.length()").value(2))
+            .andExpect(jsonPath("$.totalElements").value(3))
+            .andExpect(jsonPath("$.totalPages").value(2))
+            .andExpect(jsonPath("$.data[0].type").value("BOOK"));
+
+        mockMvc.perform(get("/api/borrower/my-borrows/history").param("status", "returned").with(asBorrower))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(1))
+            .andExpect(jsonPath("$.data[0].borrowId").value(first.getId()))
+            .andExpect(jsonPath("$.data[0].title").value("History One"))
+            .andExpect(jsonPath("$.data[0].status").value("RETURNED"));
+
+        mockMvc.perform(get("/api/borrower/my-borrows/history").param("status", "BORROWED").with(asBorrower))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(2));
+    }
+}
@@ -1,6 +1,8 @@
 package com.aaa_battery.aaa_batteryproject.borrows;
 
 import com.aaa_battery.aaa_batteryproject.borrows.controller.BorrowController;
+import com.aaa_battery.aaa_batteryproject.borrows.dto.BorrowReceiptDTO;
+import com.aaa_battery.aaa_batteryproject.borrows.dto.CheckoutLineDTO;
 import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
 import com.aaa_battery.aaa_batteryproject.borrows.service.BorrowService;
 import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.AudiobookDescription;
@@ -27,6 +29,7 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 class BorrowControllerTest {
@@ -77,9 +80,15 @@ class BorrowControllerTest {
         testItem.setItemId(30);  // or use Integer.valueOf(30)
         testItem.setAvailability(true);
 
-        // Default mock for finding available item
-        when(itemService.findAvailableItemByDescription(itemDescriptionId))
-            .thenReturn(Optional.of(testItem));
+        // Default: the service claims testItem for the borrower
+        when(borrowService.createBorrow(any(BorrowerEntity.class), eq(itemDescriptionId.intValue()))).thenAnswer(invocation -> {
+            BorrowerEntity borrower = invocation.getArgument(0);
+            testItem.setAvailability(false);
+            BorrowEntity borrow = new BorrowEntity();
+            borrow.setItem(testItem);
+            borrower.addBorrowedItem(borrow);
+            return Optional.of(borrow);
+        });
     }
 
     @Test
@@ -101,8 +110,6 @@ class BorrowControllerTest {
         savedBorrow.setStatus(BorrowEntity.BorrowStatus.BORROWED);
         savedBorrow.setBorrowDate(new Date());
 
-        doNothing().when(borrowService).saveBorrowRequest(any(BorrowEntity.class));
-        
         // Execute
         ResponseEntity<?> response = borrowController.submitBorrowRequest(borrowData);
 
@@ -113,16 +120,14 @@ class BorrowControllerTest {
         @SuppressWarnings("unchecked")
         Map<String, Object> responseMap = (Map<String, Object>) response.getBody();
         
-        @SuppressWarnings({ "unchecked", "null" })
-        Map<String, Object> data = (Map<String, Object>) responseMap.get("data");
+        @SuppressWarnings("null")
+        BorrowReceiptDTO data = (BorrowReceiptDTO) responseMap.get("data");
         assertNotNull(data);
         
-        @SuppressWarnings("unchecked")
-        Map<String, Object> item = (Map<String, Object>) data.get("item");
-        assertEquals(ItemType.BOOK, item.get("type"));
-        assertEquals("Borrow Test Author", item.get("creator"));
+        assertEquals(ItemType.BOOK, data.item().type());
+        assertEquals("Borrow Test Author", data.item().creator());
         
-        verify(borrowService, times(1)).saveBorrowRequest(any(BorrowEntity.class));
+        verify(borrowService, times(1)).createBorrow(testBorrower, itemDescriptionId.intValue());
         assertFalse(testItem.isAvailability());
     }
 
@@ -147,13 +152,11 @@ class BorrowControllerTest {
         @SuppressWarnings("unchecked")
         Map<String, Object> responseMap = (Map<String, Object>) response.getBody();
         
-        @SuppressWarnings({ "unchecked", "null" })
-        Map<String, Object> data = (Map<String, Object>) responseMap.get("data");
+        @SuppressWarnings("null")
+        BorrowReceiptDTO data = (BorrowReceiptDTO) responseMap.get("data");
         
-        @SuppressWarnings("unchecked")
-        Map<String, Object> item = (Map<String, Object>) data.get("item");
-        assertEquals(ItemType.AUDIOBOOK, item.get("type"));
-        assertEquals("Audiobook Narrator", item.get("creator"));
+        assertEquals(ItemType.AUDIOBOOK, data.item().type());
+        assertEquals("Audiobook Narrator", data.item().creator());
     }
 
     @Test
@@ -177,13 +180,11 @@ class BorrowControllerTest {
         @SuppressWarnings("unchecked")
         Map<String, Object> responseMap = (Map<String, Object>) response.getBody();
         
-        @SuppressWarnings({ "unchecked", "null" })
-        Map<String, Object> data = (Map<String, Object>) responseMap.get("data");
+        @SuppressWarnings("null")
+        BorrowReceiptDTO data = (BorrowReceiptDTO) responseMap.get("data");
         
-        @SuppressWarnings("unchecked")
-        Map<String, Object> item = (Map<String, Object>) data.get("item");
-        assertEquals(ItemType.DVD, item.get("type"));
-        assertEquals("DVD Producer", item.get("creator"));
+        assertEquals(ItemType.DVD, data.item().type());
+        assertEquals("DVD Producer", data.item().creator());
     }
 
     @Test
@@ -200,13 +201,13 @@ class BorrowControllerTest {
         // Verify
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertEquals("Borrower not found", response.getBody());
-        verify(borrowService, never()).saveBorrowRequest(any());
+        verify(borrowService, never()).createBorrow(any(), any());
     }
 
     @Test
     void submitBorrowRequest_NoAvailableItem() {
         // Setup
-        when(itemService.findAvailableItemByDescription(itemDescriptionId)).thenReturn(Optional.empty());
+        when(borrowService.createBorrow(any(BorrowerEntity.class), eq(itemDescriptionId.intValue()))).thenReturn(Optional.empty());
 
         Map<String, Object> borrowData = new HashMap<>();
         borrowData.put("itemId", itemDescriptionId);
@@ -217,7 +218,7 @@ class BorrowControllerTest {
         // Verify
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("No available item found for description ID: " + itemDescriptionId, response.getBody());
-        verify(borrowService, never()).saveBorrowRequest(any());
+        assertTrue(testBorrower.getBorrowedItems().isEmpty());
     }
 
     @Test
@@ -242,7 +243,7 @@ class BorrowControllerTest {
     @Test
     void submitBorrowRequest_ExceptionHandling() {
         // Setup
-        doThrow(new RuntimeException("Database error")).when(borrowService).saveBorrowRequest(any());
+        when(borrowService.createBorrow(any(BorrowerEntity.class), any())).thenThrow(new RuntimeException("Database error"));
         
         BookDescription bookDescription = new BookDescription();
         bookDescription.setItemName("Test Book");
@@ -273,28 +274,73 @@ class BorrowControllerTest {
         Map<String, Object> borrowData = new HashMap<>();
         borrowData.put("itemId", itemDescriptionId);
 
-        // Capture the BorrowEntity passed to borrowService
-        doAnswer(invocation -> {
-            BorrowEntity borrow = invocation.getArgument(0);
-            
-            // Verify borrow entity is set up correctly
-            assertEquals(testBorrower, borrow.getBorrower());
-            assertEquals(testItem, borrow.getItem());
-            assertEquals(BorrowEntity.BorrowStatus.BORROWED, borrow.getStatus());
-            assertNotNull(borrow.getBorrowDate());
-            
-            // Return a valid borrow entity
-            borrow.setId((int) 1L);
-            return borrow;
-        }).when(borrowService).saveBorrowRequest(any(BorrowEntity.class));
-
         // Execute
         borrowController.submitBorrowRequest(borrowData);
 
-        // Verify
-        verify(borrowService).saveBorrowRequest(any(BorrowEntity.class));
+        // Verify the borrow handed back by the service is attached to the borrower
+        assertEquals(1, testBorrower.getBorrowedItems().size());
+        BorrowEntity borrow = testBorrower.getBorrowedItems().get(0);
+        assertEquals(testBorrower, borrow.getBorrower());
+        assertEquals(testItem, borrow.getItem());
+        assertEquals(BorrowEntity.BorrowStatus.BORROWED, borrow.getStatus());
+        assertNotNull(borrow.getBorrowDate());
+
+        verify(borrowService).createBorrow(testBorrower, itemDescriptionId.intValue());
         verify(borrowerService).findBorrowerById(borrowerId);
-        verify(itemService).findAvailableItemByDescription(itemDescriptionId);
+    }
+
+    @Test
+    void submitBatchBorrowRequest_ReportsEachLine() {
+        // Setup: the first line gets a copy, the second finds the shelf empty
+        BookDescription bookDescription = new BookDescription();
+        bookDescription.setItemName("Cart Book");
+        bookDescription.setAuthorName("Cart Author");
+        bookDescription.setItemType("BOOK");
+        testItem.setDescription(bookDescription);
+
+        BorrowEntity borrow = new BorrowEntity();
+        borrow.setItem(testItem);
+        borrow.setBorrower(testBorrower);
+        when(borrowService.createBorrows(testBorrower, List.of(20, 21)))
+            .thenReturn(List.of(Optional.of(borrow), Optional.empty()));
+
+        Map<String, Object> borrowData = new HashMap<>();
+        borrowData.put("itemIds", List.of(20, 21));
+
+        // Execute
+        ResponseEntity<?> response = borrowController.submitBatchBorrowRequest(borrowData);
+
+        // Verify
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        @SuppressWarnings("unchecked")
+        List<CheckoutLineDTO> lines = (List<CheckoutLineDTO>) ((Map<String, Object>) response.getBody()).get("data");
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).borrowed());
+        assertEquals("Cart Book", lines.get(0).receipt().item().title());
+        assertFalse(lines.get(1).borrowed());
+        assertEquals(21, lines.get(1).itemId());
+        assertEquals("No available item found for description ID: 21", lines.get(1).message());
+
+        // One service call, and one borrower lookup, for the whole cart
+        verify(borrowService, times(1)).createBorrows(any(), any());
+        verify(borrowerService, times(1)).findBorrowerById(borrowerId);
+    }
+
+    @Test
+    void submitBatchBorrowRequest_RejectsBadCarts() {
+        Map<String, Object> empty = new HashMap<>();
+        empty.put("itemIds", List.of());
+        assertEquals(HttpStatus.BAD_REQUEST, borrowController.submitBatchBorrowRequest(empty).getStatusCode());
+
+        Map<String, Object> oversized = new HashMap<>();
+        oversized.put("itemIds", Collections.nCopies(26, 20));
+        assertEquals(HttpStatus.BAD_REQUEST, borrowController.submitBatchBorrowRequest(oversized).getStatusCode());
+
+        Map<String, Object> malformed = new HashMap<>();
+        malformed.put("itemIds", List.of("twenty"));
+        assertEquals(HttpStatus.BAD_REQUEST, borrowController.submitBatchBorrowRequest(malformed).getStatusCode());
+
+        verify(borrowService, never()).createBorrows(any(), any());
     }
 
     @Test
@@ -307,7 +353,7 @@ class BorrowControllerTest {
         borrow1.setItem(testItem);
         borrowList.add(borrow1);
         
-        testBorrower.setBorrowedItems(borrowList);
+        when(borrowService.findByBorrowerId(borrowerId)).thenReturn(borrowList);
         
         // Execute
         ResponseEntity<?> response = borrowController.getMyBorrows();
@@ -316,6 +362,7 @@ class BorrowControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(borrowList, response.getBody());
         verify(borrowerService).findBorrowerById(borrowerId);
+        verify(borrowService).findByBorrowerId(borrowerId);
     }
 
     @Test
@@ -334,7 +381,7 @@ class BorrowControllerTest {
     @Test
     void getMyBorrows_EmptyList() {
         // Setup
-        testBorrower.setBorrowedItems(Collections.emptyList());
+        when(borrowService.findByBorrowerId(borrowerId)).thenReturn(Collections.emptyList());
         
         // Execute
         ResponseEntity<?> response = borrowController.getMyBorrows();
@@ -358,6 +405,14 @@ class BorrowControllerTest {
         assertEquals("Failed to retrieve borrows: Database error", response.getBody());
     }
 
+    @Test
+    void getMyBorrowHistory_RejectsBadParameters() {
+        assertEquals(HttpStatus.BAD_REQUEST, borrowController.getMyBorrowHistory(0, 20, "LOST").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, borrowController.getMyBorrowHistory(-1, 20, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, borrowController.getMyBorrowHistory(0, 500, null).getStatusCode());
+        verify(borrowService, never()).getBorrowHistory(any(), any(), anyInt(), anyInt());
+    }
+
     @SuppressWarnings("null")
     @Test
     void returnBorrow_Success() {
@@ -0,0 +1,151 @@
+package com.aaa_battery.aaa_batteryproject.borrows;
+
+import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
+import com.aaa_battery.aaa_batteryproject.borrows.repository.BorrowRepository;
+import com.aaa_battery.aaa_batteryproject.borrows.repository.BorrowReturnRepositoryImpl;
+import com.aaa_battery.aaa_batteryproject.borrows.service.BorrowService;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.service.ItemDescriptionService;
+import com.aaa_battery.aaa_batteryproject.item.model.ItemEntity;
+import com.aaa_battery.aaa_batteryproject.item.repository.ItemRepository;
+import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
+import com.aaa_battery.aaa_batteryproject.util.LibraryFixtures;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Drop-box returns through the librarian scan station, against a database of its own
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bulkreturn;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class BulkReturnTest {
+
+    @Autowired
+    private LibraryFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemDescriptionService itemDescriptionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(username = "i220899@nu.edu.pk", roles = {"LIBRARIAN"})
+    void testBulkReturnClosesBorrowsByBorrowAndItemId() throws Exception {
+        int first = fixtures.addBook("Drop Box Book", 2);
+        int second = fixtures.addBook("Drop Box Other", 2);
+
+        BorrowerEntity borrower = fixtures.addBorrower("Drop Box Borrower", "dropbox@nu.edu.pk");
+
+        BorrowEntity byBorrowId = borrowService.createBorrow(borrower, first).orElseThrow();
+        BorrowEntity byItemId = borrowService.createBorrow(borrower, second).orElseThrow();
+        BorrowEntity stillOut = borrowService.createBorrow(borrower, first).orElseThrow();
+        int shelfCopy = itemRepository.findByDescriptionDescriptionId(second).stream()
+            .filter(ItemEntity::isAvailability).findFirst().orElseThrow().getItemId();
+        assertEquals(0, itemDescriptionService.getAvailableCopies(first));
+        assertEquals(1, itemDescriptionService.getAvailableCopies(second));
+
+        String body = "{\"borrowIds\": [%d, %d, 987654], \"itemIds\": [%d, %d]}".formatted(
+            byBorrowId.getId(), byBorrowId.getId(), byItemId.getItem().getItemId(), shelfCopy);
+        mockMvc.perform(post("/api/librarian/returns").contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.returned").value(2))
+            .andExpect(jsonPath("$.borrows.%d".formatted(byBorrowId.getId())).value("RETURNED"))
+            .andExpect(jsonPath("$.borrows.987654").value("NOT_FOUND"))
+            .andExpect(jsonPath("$.items.%d".formatted(byItemId.getItem().getItemId())).value("RETURNED"))
+            .andExpect(jsonPath("$.items.%d".formatted(shelfCopy)).value("NOT_BORROWED"));
+
+        BorrowEntity returned = borrowRepository.findById(byBorrowId.getId()).orElseThrow();
+        assertEquals(BorrowEntity.BorrowStatus.RETURNED, returned.getStatus());
+        assertNotNull(returned.getReturnedOn());
+        assertTrue(returned.getVersion() > byBorrowId.getVersion());
+        assertEquals(BorrowEntity.BorrowStatus.RETURNED, borrowRepository.findById(byItemId.getId()).orElseThrow().getStatus());
+        assertEquals(BorrowEntity.BorrowStatus.BORROWED, borrowRepository.findById(stillOut.getId()).orElseThrow().getStatus());
+        assertTrue(itemRepository.findById((long) byBorrowId.getItem().getItemId()).orElseThrow().isAvailability());
+        assertEquals(1, itemDescriptionService.getAvailableCopies(first));
+        assertEquals(2, itemDescriptionService.getAvailableCopies(second));
+
+        // Scanning the same borrow again changes nothing
+        mockMvc.perform(post("/api/librarian/returns").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"borrowIds\": [%d]}".formatted(byBorrowId.getId())))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.returned").value(0))
+            .andExpect(jsonPath("$.borrows.%d".formatted(byBorrowId.getId())).value("ALREADY_RETURNED"));
+        assertEquals(1, itemDescriptionService.getAvailableCopies(first));
+    }
+
+    @Test
+    @WithMockUser(username = "i220899@nu.edu.pk", roles = {"LIBRARIAN"})
+    void testBulkReturnRejectsMalformedRequests() throws Exception {
+        mockMvc.perform(post("/api/librarian/returns").contentType(MediaType.APPLICATION_JSON).content("{}"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/librarian/returns").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"itemIds\": [\"abc\"]}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testCloseBorrowsReadsBackRowsTheDriverCouldNotCount() {
+        int book = fixtures.addBook("No Info Book", 2);
+        BorrowerEntity borrower = fixtures.addBorrower("No Info Borrower", "noinfo@nu.edu.pk");
+        int out = borrowService.createBorrow(borrower, book).orElseThrow().getId();
+        int alreadyReturned = borrowService.createBorrow(borrower, book).orElseThrow().getId();
+        new BorrowReturnRepositoryImpl(jdbcTemplate).closeBorrows(List.of(alreadyReturned), new Date());
+
+        // A driver that runs the batch but reports SUCCESS_NO_INFO for every row
+        JdbcTemplate noInfo = spy(jdbcTemplate);
+        doAnswer(invocation -> {
+            int[][] counts = (int[][]) invocation.callRealMethod();
+            Arrays.fill(counts[0], Statement.SUCCESS_NO_INFO);
+            return counts;
+        }).when(noInfo).batchUpdate(anyString(), anyList(), anyInt(), any());
+
+        boolean[] closed = new BorrowReturnRepositoryImpl(noInfo).closeBorrows(List.of(out, alreadyReturned), new Date());
+
+        assertArrayEquals(new boolean[] {true, false}, closed);
+        assertEquals(BorrowEntity.BorrowStatus.RETURNED, borrowRepository.findById(out).orElseThrow().getStatus());
+    }
+}
@@ -0,0 +1,190 @@
+package com.aaa_battery.aaa_batteryproject.fines;
+
+import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
+import com.aaa_battery.aaa_batteryproject.borrows.service.BorrowService;
+import com.aaa_battery.aaa_batteryproject.fines.dto.FineBalanceSummary;
+import com.aaa_battery.aaa_batteryproject.fines.model.FineEntity;
+import com.aaa_battery.aaa_batteryproject.fines.model.FineLedgerEntryEntity;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineLedgerRepository;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineRepository;
+import com.aaa_battery.aaa_batteryproject.fines.service.FineLedgerService;
+import com.aaa_battery.aaa_batteryproject.fines.service.FineScheduler;
+import com.aaa_battery.aaa_batteryproject.fines.service.FineService;
+import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
+import com.aaa_battery.aaa_batteryproject.util.LibraryFixtures;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Fine ledger and running balances through accrual, payment and waiver, against a database of its own
+@SpringBootTest(properties = {
+    "fines.accrual.mode=nightly",
+    "spring.datasource.url=jdbc:h2:mem:fineledger;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class FineLedgerTest {
+
+    private static final long DAY_MS = 1000L * 60 * 60 * 24;
+
+    @Autowired
+    private LibraryFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FineLedgerService fineLedgerService;
+
+    @Autowired
+    private FineService fineService;
+
+    @Autowired
+    private FineScheduler fineScheduler;
+
+    @Autowired
+    private FineRepository fineRepository;
+
+    @Autowired
+    private FineLedgerRepository fineLedgerRepository;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    private BorrowerEntity addBorrower(String email) {
+        return fixtures.addBorrower("Ledger Member", email);
+    }
+
+    private void assertBalance(FineBalanceSummary balance, double owed, double accrued, double paid, double waived) {
+        assertEquals(owed, balance.balance(), "Expected Rs" + owed + " owed, got " + balance.balance());
+        assertTrue(balance.accrued() == accrued && balance.paid() == paid && balance.waived() == waived, "Unexpected totals " + balance);
+    }
+
+    @Test
+    void testBalanceFollowsAccrualPaymentAndWaiverAndMatchesTheLedger() {
+        BorrowerEntity borrower = addBorrower("ledger@nu.edu.pk");
+        BorrowEntity first = borrowService.createBorrow(borrower, fixtures.addBook("Ledger One")).orElseThrow();
+        BorrowEntity second = borrowService.createBorrow(borrower, fixtures.addBook("Ledger Two")).orElseThrow();
+
+        // Two days past due: both borrows are fined Rs200
+        Date twoDaysLate = new Date(first.getReturnDate().getTime() + 2 * DAY_MS + 1000);
+        fineScheduler.scanOverdueBorrows(twoDaysLate);
+        assertBalance(fineLedgerService.getBalance(borrower.getId()), 400, 400, 0, 0);
+
+        // A day on, each grows by Rs100 and only the difference is recorded
+        fineScheduler.scanOverdueBorrows(new Date(twoDaysLate.getTime() + DAY_MS));
+        assertBalance(fineLedgerService.getBalance(borrower.getId()), 600, 600, 0, 0);
+        // Rerunning the same day changes nothing
+        fineScheduler.scanOverdueBorrows(new Date(twoDaysLate.getTime() + DAY_MS));
+        assertEquals(4, fineLedgerRepository.count());
+
+        FineEntity paid = fineRepository.findByBorrow_Id(first.getId());
+        fineService.payFine(paid.getId()).orElseThrow();
+        assertBalance(fineLedgerService.getBalance(borrower.getId()), 300, 600, 300, 0);
+
+        FineEntity waived = fineRepository.findByBorrow_Id(second.getId());
+        fineService.waiveFine(waived.getId()).orElseThrow();
+        assertBalance(fineLedgerService.getBalance(borrower.getId()), 0, 600, 300, 300);
+
+        // Settled fines no longer accrue, on the balance or on the fine
+        fineScheduler.scanOverdueBorrows(new Date(twoDaysLate.getTime() + 3 * DAY_MS));
+        assertBalance(fineLedgerService.getBalance(borrower.getId()), 0, 600, 300, 300);
+        assertEquals(300.0, fineRepository.findByBorrow_Id(first.getId()).getAmount());
+
+        FineBalanceSummary replayed = fineLedgerService.replay(borrower.getId());
+        assertEquals(fineLedgerService.getBalance(borrower.getId()), replayed, "Replay gave " + replayed);
+        List<FineLedgerEntryEntity.EntryType> types = fineLedgerRepository.findAll().stream()
+            .map(FineLedgerEntryEntity::getType).toList();
+        assertEquals(4, types.stream().filter(type -> type == FineLedgerEntryEntity.EntryType.ACCRUAL).count());
+        assertTrue(types.contains(FineLedgerEntryEntity.EntryType.PAYMENT) && types.contains(FineLedgerEntryEntity.EntryType.WAIVER));
+
+        // A settled fine is not paid again
+        assertThrows(IllegalStateException.class, () -> fineService.payFine(paid.getId()));
+        assertBalance(fineLedgerService.getBalance(borrower.getId()), 0, 600, 300, 300);
+    }
+
+    @Test
+    void testBalanceOpensFromFinesWrittenBeforeTheLedger() {
+        BorrowerEntity borrower = addBorrower("oldfines@nu.edu.pk");
+        BorrowEntity open = borrowService.createBorrow(borrower, fixtures.addBook("Old Open")).orElseThrow();
+        BorrowEntity closed = borrowService.createBorrow(borrower, fixtures.addBook("Old Paid")).orElseThrow();
+
+        // Rows as the old scan left them, with nothing in the ledger
+        for (Object[] row : new Object[][] {{open, 300.0, false}, {closed, 100.0, true}}) {
+            FineEntity fine = new FineEntity();
+            fine.setBorrower(borrower);
+            fine.setBorrow((BorrowEntity) row[0]);
+            fine.setAmount((Double) row[1]);
+            fine.setPaid((Boolean) row[2]);
+            fine.setIssuedDate(new Date());
+            fineRepository.save(fine);
+        }
+        assertEquals(0, fineLedgerRepository.count());
+
+        assertBalance(fineLedgerService.getBalance(borrower.getId()), 300, 400, 100, 0);
+        assertEquals(3, fineLedgerRepository.count());
+        // Opening happens once
+        assertBalance(fineLedgerService.getBalance(borrower.getId()), 300, 400, 100, 0);
+        assertEquals(3, fineLedgerRepository.count());
+        assertEquals(fineLedgerService.getBalance(borrower.getId()), fineLedgerService.replay(borrower.getId()));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void testBalanceEndpoints() throws Exception {
+        BorrowerEntity borrower = addBorrower("balance@nu.edu.pk");
+        BorrowEntity borrow = borrowService.createBorrow(borrower, fixtures.addBook("Ledger Desk")).orElseThrow();
+        fineScheduler.scanOverdueBorrows(new Date(borrow.getReturnDate().getTime() + 3 * DAY_MS + 1000));
+        FineEntity fine = fineRepository.findByBorrow_Id(borrow.getId());
+
+        mockMvc.perform(get("/api/fines/librarian/balances/" + borrower.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.balance").value(300.0));
+
+        mockMvc.perform(post("/api/fines/librarian/" + fine.getId() + "/waive"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.waived").value(true));
+        mockMvc.perform(post("/api/fines/librarian/" + fine.getId() + "/waive"))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/fines/librarian/balances/" + borrower.getId() + "/replay"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.stored.waived").value(300.0))
+            .andExpect(jsonPath("$.replayed.balance").value(0.0))
+            .andExpect(jsonPath("$.consistent").value(true));
+
+        mockMvc.perform(get("/api/fines/librarian/balances/999999"))
+            .andExpect(status().isNotFound());
+
+        var asBorrower = authentication(new UsernamePasswordAuthenticationToken(borrower, null, borrower.getAuthorities()));
+        mockMvc.perform(get("/api/fines/borrower/balance").with(asBorrower))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.borrowerId").value(borrower.getId()))
+            .andExpect(jsonPath("$.balance").value(0.0))
+            .andExpect(jsonPath("$.accrued").value(300.0));
+    }
+}
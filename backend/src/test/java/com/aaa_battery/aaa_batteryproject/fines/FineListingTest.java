@@ -0,0 +1,122 @@
+package com.aaa_battery.aaa_batteryproject.fines;
+
+import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
+import com.aaa_battery.aaa_batteryproject.borrows.service.BorrowService;
+import com.aaa_battery.aaa_batteryproject.fines.model.FineEntity;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineRepository;
+import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
+import com.aaa_battery.aaa_batteryproject.util.LibraryFixtures;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Librarian fines listing over a few fines, counting statements, against a database of its own
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.datasource.url=jdbc:h2:mem:finelisting;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class FineListingTest {
+
+    @Autowired
+    private LibraryFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private FineRepository fineRepository;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    private FineEntity addFine(BorrowerEntity borrower, BorrowEntity borrow, double amount, boolean paid, LocalDate issued) {
+        FineEntity fine = new FineEntity();
+        fine.setBorrower(borrower);
+        fine.setBorrow(borrow);
+        fine.setAmount(amount);
+        fine.setPaid(paid);
+        fine.setIssuedDate(Date.from(issued.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        return fineRepository.save(fine);
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void testListingIsOneQueryPlusCountAndFilters() throws Exception {
+        BorrowerEntity first = fixtures.addBorrower("First Borrower", "first.fines@nu.edu.pk");
+        BorrowerEntity second = fixtures.addBorrower("Second Borrower", "second.fines@nu.edu.pk");
+
+        addFine(first, borrowService.createBorrow(first, fixtures.addBook("Fined One")).orElseThrow(), 300.0, false,
+            LocalDate.of(2025, 3, 5));
+        addFine(first, borrowService.createBorrow(first, fixtures.addBook("Fined Two")).orElseThrow(), 100.0, true,
+            LocalDate.of(2025, 3, 20));
+        FineEntity newest = addFine(second, borrowService.createBorrow(second, fixtures.addBook("Fined Three")).orElseThrow(),
+            200.0, false, LocalDate.of(2025, 4, 2));
+        // A fine that lost its borrow and borrower still lists
+        addFine(null, null, 50.0, false, LocalDate.of(2025, 1, 1));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/fines/librarian/view-fines").param("size", "3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.length()").value(3))
+            .andExpect(jsonPath("$.totalElements").value(4))
+            .andExpect(jsonPath("$.totalPages").value(2))
+            .andExpect(jsonPath("$.data[0].fineId").value(newest.getId()))
+            .andExpect(jsonPath("$.data[0].borrowerName").value("Second Borrower"))
+            .andExpect(jsonPath("$.data[0].itemName").value("Fined Three"));
+        // The page and its count; no fine, borrow, borrower or item is loaded on the side
+        assertEquals(2, statistics.getPrepareStatementCount(), "Expected two statements, got " + statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount(), "Expected no entity loads, got " + statistics.getEntityLoadCount());
+
+        mockMvc.perform(get("/api/fines/librarian/view-fines").param("page", "1").param("size", "3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data[0].borrowerName").value("Unknown"))
+            .andExpect(jsonPath("$.data[0].itemName").value("Unknown"));
+
+        mockMvc.perform(get("/api/fines/librarian/view-fines").param("paid", "false"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(3));
+
+        mockMvc.perform(get("/api/fines/librarian/view-fines").param("borrowerId", first.getId().toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(2))
+            .andExpect(jsonPath("$.data[0].itemName").value("Fined Two"));
+
+        // Both ends of the range are whole days and included
+        mockMvc.perform(get("/api/fines/librarian/view-fines").param("from", "2025-03-05").param("to", "2025-03-20"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(2));
+
+        mockMvc.perform(get("/api/fines/librarian/view-fines").param("size", "1000"))
+            .andExpect(status().isBadRequest());
+    }
+}
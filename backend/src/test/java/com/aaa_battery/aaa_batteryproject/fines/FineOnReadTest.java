@@ -0,0 +1,124 @@
+package com.aaa_battery.aaa_batteryproject.fines;
+
+import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
+import com.aaa_battery.aaa_batteryproject.borrows.repository.BorrowRepository;
+import com.aaa_battery.aaa_batteryproject.borrows.service.BorrowService;
+import com.aaa_battery.aaa_batteryproject.fines.dto.BorrowerFineDTO;
+import com.aaa_battery.aaa_batteryproject.fines.dto.FineScanSummary;
+import com.aaa_battery.aaa_batteryproject.fines.model.FineEntity;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineRepository;
+import com.aaa_battery.aaa_batteryproject.fines.service.FineScheduler;
+import com.aaa_battery.aaa_batteryproject.fines.service.FineService;
+import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
+import com.aaa_battery.aaa_batteryproject.util.LibraryFixtures;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+// Fines priced when read rather than rewritten every night, against a database of its own
+@SpringBootTest(properties = {
+    "fines.accrual.mode=on-read",
+    "spring.datasource.url=jdbc:h2:mem:fineonread;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+public class FineOnReadTest {
+
+    private static final long DAY_MS = 1000L * 60 * 60 * 24;
+
+    @Autowired
+    private LibraryFixtures fixtures;
+
+    @Autowired
+    private FineScheduler fineScheduler;
+
+    @Autowired
+    private FineService fineService;
+
+    @Autowired
+    private FineRepository fineRepository;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    // Moves the due date back so the borrow has been overdue for the given number of days
+    private BorrowEntity overdueBy(BorrowEntity borrow, int days) {
+        BorrowEntity stored = borrowRepository.findById(borrow.getId()).orElseThrow();
+        stored.setReturnDate(new Date(System.currentTimeMillis() - days * DAY_MS - 60_000));
+        return borrowRepository.save(stored);
+    }
+
+    @Test
+    void testOpenFinesArePricedOnReadAndStoredOnReturn() {
+        BorrowerEntity borrower = fixtures.addBorrower("Late Reader", "onread@nu.edu.pk");
+
+        BorrowEntity borrow = overdueBy(borrowService.createBorrow(borrower, fixtures.addBook("Read Late")).orElseThrow(), 3);
+
+        // The nightly pass records the fine once
+        FineScanSummary first = fineScheduler.scanOverdueBorrows(new Date());
+        assertTrue(first.created() == 1 && fineRepository.count() == 1);
+        double stored = fineRepository.findByBorrow_Id(borrow.getId()).getAmount();
+        assertEquals(300.0, stored, "Expected three days at Rs100, got " + stored);
+
+        // Later passes leave the row alone; the amount shown keeps growing
+        FineScanSummary later = fineScheduler.scanOverdueBorrows(new Date(System.currentTimeMillis() + 2 * DAY_MS));
+        assertTrue(later.created() == 0 && later.updated() == 0);
+        assertEquals(300.0, fineRepository.findByBorrow_Id(borrow.getId()).getAmount());
+
+        overdueBy(borrow, 5);
+        FineEntity fine = fineRepository.findByBorrow_Id(borrow.getId());
+        assertEquals(500.0, fineService.currentAmount(fine, new Date()));
+
+        List<BorrowerFineDTO> shown = fineService.getBorrowerFines(borrower.getId());
+        assertEquals(1, shown.size());
+        assertEquals(500.0, shown.get(0).getAmount(), "Expected the live amount, got " + shown.get(0).getAmount());
+        assertEquals(5, shown.get(0).getDaysLate(), "Days late should match the amount, got " + shown.get(0).getDaysLate());
+
+        // Returning fixes the amount in the table and drops the cached view
+        borrowService.returnBorrows(List.of(borrow.getId()));
+        assertEquals(500.0, fineRepository.findByBorrow_Id(borrow.getId()).getAmount());
+        shown = fineService.getBorrowerFines(borrower.getId());
+        assertTrue(shown.get(0).getAmount() == 500.0 && shown.get(0).getDaysLate() == 5);
+
+        // Paying marks it settled and the borrower sees it straight away
+        fineService.payFine(fine.getId()).orElseThrow();
+        assertTrue(fineRepository.findByBorrow_Id(borrow.getId()).getPaid());
+        assertTrue(fineService.getBorrowerFines(borrower.getId()).get(0).getPaid());
+
+        // A paid fine is not paid twice
+        assertThrows(IllegalStateException.class, () -> fineService.payFine(fine.getId()));
+    }
+
+    @Test
+    void testLateReturnBeforeTheNightlyPassStillRecordsTheFine() {
+        BorrowerEntity borrower = fixtures.addBorrower("Quick Returner", "quickreturn@nu.edu.pk");
+
+        BorrowEntity late = overdueBy(borrowService.createBorrow(borrower, fixtures.addBook("Back Late")).orElseThrow(), 2);
+        BorrowEntity onTime = borrowService.createBorrow(borrower, fixtures.addBook("Back On Time")).orElseThrow();
+
+        borrowService.returnBorrows(List.of(late.getId(), onTime.getId()));
+
+        FineEntity fine = fineRepository.findByBorrow_Id(late.getId());
+        assertTrue(fine != null && fine.getAmount() == 200.0, "Expected two days at Rs100");
+        assertNull(fineRepository.findByBorrow_Id(onTime.getId()));
+    }
+}
@@ -0,0 +1,170 @@
+package com.aaa_battery.aaa_batteryproject.fines;
+
+import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
+import com.aaa_battery.aaa_batteryproject.borrows.service.BorrowService;
+import com.aaa_battery.aaa_batteryproject.fines.dto.FineScanSummary;
+import com.aaa_battery.aaa_batteryproject.fines.model.FineEntity;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineRepository;
+import com.aaa_battery.aaa_batteryproject.fines.service.FineAccrualService;
+import com.aaa_battery.aaa_batteryproject.fines.service.FineScheduler;
+import com.aaa_battery.aaa_batteryproject.jobs.repository.ClusterMemberRepository;
+import com.aaa_battery.aaa_batteryproject.jobs.service.ClusterMembership;
+import com.aaa_battery.aaa_batteryproject.jobs.service.Shard;
+import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
+import com.aaa_battery.aaa_batteryproject.util.LibraryFixtures;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Nightly overdue scan over a few borrows, paged two at a time, against a database of its own
+@SpringBootTest(properties = {
+    "fines.scan.chunk-size=2",
+    "spring.datasource.url=jdbc:h2:mem:finescan;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+public class FineSchedulerTest {
+
+    private static final long DAY_MS = 1000L * 60 * 60 * 24;
+
+    @Autowired
+    private LibraryFixtures fixtures;
+
+    @Autowired
+    private FineScheduler fineScheduler;
+
+    @Autowired
+    private FineAccrualService fineAccrualService;
+
+    @Autowired
+    private FineRepository fineRepository;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClusterMembership clusterMembership;
+
+    @Autowired
+    private ClusterMemberRepository clusterMemberRepository;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void testScanFinesOpenOverdueBorrowsAndOnlyWritesChanges() {
+        BorrowerEntity borrower = fixtures.addBorrower("Late Member", "late@nu.edu.pk");
+
+        BorrowEntity first = borrowService.createBorrow(borrower, fixtures.addBook("Late One")).orElseThrow();
+        borrowService.createBorrow(borrower, fixtures.addBook("Late Two")).orElseThrow();
+        borrowService.createBorrow(borrower, fixtures.addBook("Late Three")).orElseThrow();
+        BorrowEntity returned = borrowService.createBorrow(borrower, fixtures.addBook("Returned In Time")).orElseThrow();
+        borrowService.returnBorrows(List.of(returned.getId()));
+
+        // Borrows are due in 14 days; nothing is overdue yet
+        FineScanSummary early = fineScheduler.scanOverdueBorrows(new Date());
+        assertTrue(early.scanned() == 0 && fineRepository.count() == 0);
+
+        // Six days past due: one fine per open borrow, across two pages
+        Date sixDaysLate = new Date(first.getReturnDate().getTime() + 6 * DAY_MS + 1000);
+        FineScanSummary firstRun = fineScheduler.scanOverdueBorrows(sixDaysLate);
+        assertEquals(3, firstRun.scanned(), "Expected the three open borrows, got " + firstRun.scanned());
+        assertTrue(firstRun.created() == 3 && firstRun.updated() == 0);
+        assertEquals(3, fineRepository.count());
+        assertNull(fineRepository.findByBorrow_Id(returned.getId()));
+
+        FineEntity fine = fineRepository.findByBorrow_Id(first.getId());
+        assertEquals(600.0, fine.getAmount(), "Expected six days at Rs100, got " + fine.getAmount());
+        assertEquals(borrower.getId(), fine.getBorrower().getId());
+        assertFalse(fine.getPaid());
+
+        // Same day again: nothing to write
+        FineScanSummary rerun = fineScheduler.scanOverdueBorrows(sixDaysLate);
+        assertTrue(rerun.scanned() == 3 && rerun.created() == 0 && rerun.updated() == 0);
+
+        // A day later the existing fines grow in place
+        FineScanSummary nextDay = fineScheduler.scanOverdueBorrows(new Date(sixDaysLate.getTime() + DAY_MS));
+        assertTrue(nextDay.created() == 0 && nextDay.updated() == 3);
+        assertEquals(3, fineRepository.count());
+        assertEquals(700.0, fineRepository.findByBorrow_Id(first.getId()).getAmount());
+
+        // Updating fines in place drew no ids: the sequence is still one past the newest fine
+        Long newestId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM fines", Long.class);
+        assertEquals(newestId + 1, jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR fines_seq", Long.class));
+    }
+
+    @Test
+    void testDueDateWheelAccruesEachBorrowAsItFallsDue() {
+        BorrowerEntity borrower = fixtures.addBorrower("Wheel Member", "wheel@nu.edu.pk");
+
+        BorrowEntity kept = borrowService.createBorrow(borrower, fixtures.addBook("Kept Too Long")).orElseThrow();
+        BorrowEntity returned = borrowService.createBorrow(borrower, fixtures.addBook("Brought Back")).orElseThrow();
+        assertTrue(fineAccrualService.isScheduled(kept.getId()));
+        assertTrue(fineAccrualService.isScheduled(returned.getId()));
+
+        // Returning takes the borrow off the wheel
+        borrowService.returnBorrows(List.of(returned.getId()));
+        assertFalse(fineAccrualService.isScheduled(returned.getId()));
+
+        // Nothing is due before the due date
+        Instant due = kept.getReturnDate().toInstant();
+        assertEquals(0, fineAccrualService.advanceTo(due.minusSeconds(3600)));
+        assertNull(fineRepository.findByBorrow_Id(kept.getId()));
+
+        // Three days late: the first deadline fires and the borrow comes back round the next day
+        assertEquals(1, fineAccrualService.advanceTo(due.plusSeconds(3 * 24 * 3600 + 120)));
+        assertEquals(300.0, fineRepository.findByBorrow_Id(kept.getId()).getAmount());
+        assertNull(fineRepository.findByBorrow_Id(returned.getId()));
+        assertTrue(fineAccrualService.isScheduled(kept.getId()));
+
+        assertEquals(1, fineAccrualService.advanceTo(due.plusSeconds(4 * 24 * 3600 + 120)));
+        assertEquals(400.0, fineRepository.findByBorrow_Id(kept.getId()).getAmount());
+    }
+
+    @Test
+    void testWheelKeepsOnlyItsShardWhileAnotherInstanceIsUp() {
+        BorrowerEntity borrower = fixtures.addBorrower("Shard Member", "shard@nu.edu.pk");
+
+        List<Integer> borrowIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            borrowIds.add(borrowService.createBorrow(borrower, fixtures.addBook("Shard Book " + i)).orElseThrow().getId());
+        }
+        assertTrue(borrowIds.stream().allMatch(fineAccrualService::isScheduled));
+
+        // A second instance joins, numbered after this one; each keeps only its own half of the borrows
+        clusterMembership.renew("~second-instance", Instant.now(), Duration.ofMinutes(5));
+        try {
+            fineAccrualService.tick();
+            Shard shard = clusterMembership.renew(Duration.ofMinutes(5));
+            assertEquals(new Shard(0, 2), shard, "Expected the first of two shards, got " + shard);
+            for (Integer borrowId : borrowIds) {
+                assertEquals(shard.owns(borrowId), fineAccrualService.isScheduled(borrowId), "Borrow " + borrowId + " in the wrong wheel");
+            }
+        } finally {
+            clusterMemberRepository.deleteById("~second-instance");
+        }
+
+        // Once it is gone this instance takes every borrow back
+        fineAccrualService.tick();
+        assertTrue(borrowIds.stream().allMatch(fineAccrualService::isScheduled));
+    }
+}
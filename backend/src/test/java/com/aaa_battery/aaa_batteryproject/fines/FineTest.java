@@ -5,17 +5,27 @@ import com.aaa_battery.aaa_batteryproject.fines.dto.BorrowerFineDTO;
 import com.aaa_battery.aaa_batteryproject.fines.dto.FineInfoDTO;
 import com.aaa_battery.aaa_batteryproject.fines.model.FineEntity;
 import com.aaa_battery.aaa_batteryproject.fines.repository.FineRepository;
+import com.aaa_battery.aaa_batteryproject.fines.service.FineLedgerService;
+import com.aaa_battery.aaa_batteryproject.fines.service.FineService;
 import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
 import com.aaa_battery.aaa_batteryproject.user.repositories.BorrowerRepository;
 import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
+import com.aaa_battery.aaa_batteryproject.borrows.repository.BorrowRepository;
 import com.aaa_battery.aaa_batteryproject.item.model.ItemEntity;
 import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
 import org.junit.jupiter.api.*;
 import org.mockito.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,7 +46,12 @@ class FineControllerTest {
     @Mock
     private BorrowerRepository borrowerRepository;
 
-    @InjectMocks
+    @Mock
+    private BorrowRepository borrowRepository;
+
+    @Mock
+    private FineLedgerService fineLedgerService;
+
     private FineController fineController;
 
     @Mock
@@ -45,38 +60,26 @@ class FineControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        fineController = new FineController(fineRepository, borrowerRepository,
+            new FineService(fineRepository, borrowRepository, fineLedgerService, "nightly", Duration.ofSeconds(30)),
+            fineLedgerService);
 
         SecurityContextHolder.clearContext();
         SecurityContextHolder.getContext().setAuthentication(authentication);
     }
 
     @Test
-    void getAllFines_ReturnsFineInfoDTOList() {
-        BorrowerEntity borrower = new BorrowerEntity();
-        borrower.setId(1);
-        borrower.setFullName("John Doe");
+    @SuppressWarnings("unchecked")
+    void getAllFines_ReturnsPageOfFineInfoDTOs() {
+        FineInfoDTO fine = new FineInfoDTO(100, 1, "John Doe", "Book Title", 5.0, false, new Date(), null, null);
+        when(fineRepository.findFineInfo(isNull(), isNull(), isNull(), isNull(), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(List.of(fine), PageRequest.of(0, 50), 1));
 
-        ItemDescriptionEntity itemDescription = new ItemDescriptionEntity();
-        itemDescription.setItemName("Book Title");
-
-        ItemEntity item = new ItemEntity();
-        item.setItemId(10);
-        item.setDescription(itemDescription);
-
-        BorrowEntity borrow = new BorrowEntity();
-        borrow.setItem(item);
-
-        FineEntity fine = new FineEntity();
-        fine.setId((int) 100L);
-        fine.setBorrower(borrower);
-        fine.setBorrow(borrow);
-        fine.setAmount(new BigDecimal("5.00").doubleValue());
-        fine.setPaid(false);
-
-        when(fineRepository.findAll()).thenReturn(Collections.singletonList(fine));
-
-        List<FineInfoDTO> result = fineController.getAllFines();
+        ResponseEntity<?> response = fineController.getAllFines(0, 50, null, null, null, null);
 
+        assertEquals(200, response.getStatusCode().value());
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        List<FineInfoDTO> result = (List<FineInfoDTO>) body.get("data");
         assertEquals(1, result.size());
         FineInfoDTO dto = result.get(0);
         assertEquals(100, dto.getFineId());
@@ -84,51 +87,48 @@ class FineControllerTest {
         assertEquals("Book Title", dto.getItemName());
         assertEquals(5.0, dto.getAmount());
         assertFalse(dto.getPaid());
+        assertEquals(1L, body.get("totalElements"));
 
-        verify(fineRepository).findAll();
+        verify(fineRepository, never()).findAll();
     }
 
     @Test
-    void getAllFines_ReturnsEmptyListWhenNoFines() {
-        when(fineRepository.findAll()).thenReturn(Collections.emptyList());
+    @SuppressWarnings("unchecked")
+    void getAllFines_ReturnsEmptyPageWhenNoFines() {
+        when(fineRepository.findFineInfo(any(), any(), any(), any(), any(Pageable.class)))
+            .thenReturn(Page.empty(PageRequest.of(0, 50)));
 
-        List<FineInfoDTO> result = fineController.getAllFines();
+        ResponseEntity<?> response = fineController.getAllFines(0, 50, null, null, null, null);
 
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
-        verify(fineRepository).findAll();
+        assertEquals(200, response.getStatusCode().value());
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertNotNull(body.get("data"));
+        assertTrue(((List<FineInfoDTO>) body.get("data")).isEmpty());
+        assertEquals(0L, body.get("totalElements"));
     }
 
     @Test
-    void getAllFines_BorrowerOrItemNull_ReturnsUnknown() {
-        FineEntity fine1 = new FineEntity();
-        fine1.setId((int) 1L);
-        fine1.setBorrower(null); // borrower is null
-        fine1.setBorrow(null);   // borrow is null
-        fine1.setAmount(new BigDecimal("2.00").doubleValue());
-        fine1.setPaid(true);
-
-        // borrow exists but item is null
-        BorrowEntity borrow = new BorrowEntity();
-        borrow.setItem(null);
-
-        FineEntity fine2 = new FineEntity();
-        fine2.setId((int) 2L);
-        fine2.setBorrower(new BorrowerEntity());
-        fine2.getBorrower().setFullName("Jane Doe");
-        fine2.setBorrow(borrow);
-        fine2.setAmount(new BigDecimal("3.00").doubleValue());
-        fine2.setPaid(false);
+    void getAllFines_PassesFiltersWithInclusiveDateRange() {
+        when(fineRepository.findFineInfo(any(), any(), any(), any(), any(Pageable.class)))
+            .thenReturn(Page.empty(PageRequest.of(1, 10)));
+        LocalDate from = LocalDate.of(2025, 3, 1);
+        LocalDate to = LocalDate.of(2025, 3, 31);
 
-        when(fineRepository.findAll()).thenReturn(Arrays.asList(fine1, fine2));
+        ResponseEntity<?> response = fineController.getAllFines(1, 10, false, 7, from, to);
 
-        List<FineInfoDTO> result = fineController.getAllFines();
+        assertEquals(200, response.getStatusCode().value());
+        Date start = Date.from(from.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Date end = Date.from(LocalDate.of(2025, 4, 1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        verify(fineRepository).findFineInfo(eq(false), eq(7), eq(start), eq(end), eq(PageRequest.of(1, 10)));
+    }
 
-        assertEquals(2, result.size());
-        assertEquals("Unknown", result.get(0).getBorrowerName());
-        assertEquals("Unknown", result.get(0).getItemName());
-        assertEquals("Jane Doe", result.get(1).getBorrowerName());
-        assertEquals("Unknown", result.get(1).getItemName());
+    @Test
+    void getAllFines_InvalidPageOrRange_ReturnsBadRequest() {
+        assertEquals(400, fineController.getAllFines(0, 0, null, null, null, null).getStatusCode().value());
+        assertEquals(400, fineController.getAllFines(-1, 50, null, null, null, null).getStatusCode().value());
+        assertEquals(400, fineController.getAllFines(0, 50, null, null,
+            LocalDate.of(2025, 4, 2), LocalDate.of(2025, 4, 1)).getStatusCode().value());
+        verify(fineRepository, never()).findFineInfo(any(), any(), any(), any(), any(Pageable.class));
     }
 
     @Test
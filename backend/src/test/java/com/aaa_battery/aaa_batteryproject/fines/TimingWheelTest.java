@@ -0,0 +1,72 @@
+package com.aaa_battery.aaa_batteryproject.fines;
+
+import com.aaa_battery.aaa_batteryproject.fines.service.TimingWheel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    // Minute ticks over levels of an hour, a day and four days, starting at an arbitrary instant
+    private final long start = 1_700_000_000_000L;
+    private final TimingWheel<String> wheel = new TimingWheel<>(MINUTE, new int[] {60, 24, 4}, start);
+
+    @Test
+    void firesEachDeadlineOnTheFirstTickAtOrAfterIt() {
+        wheel.schedule("soon", start + 90_000);           // level 0
+        wheel.schedule("later today", start + 5 * HOUR);  // level 1
+        wheel.schedule("in two days", start + 2 * DAY);   // level 2
+        wheel.schedule("in ten days", start + 10 * DAY);  // past the top level
+        wheel.schedule("already due", start - HOUR);
+        assertEquals(5, wheel.size());
+
+        assertEquals(List.of("already due"), wheel.advance(start));
+        assertTrue(wheel.advance(start + MINUTE).isEmpty());
+        assertEquals(List.of("soon"), wheel.advance(start + 3 * MINUTE));
+
+        assertTrue(wheel.advance(start + 5 * HOUR - MINUTE).isEmpty());
+        assertEquals(List.of("later today"), wheel.advance(start + 5 * HOUR + MINUTE));
+
+        assertTrue(wheel.advance(start + 2 * DAY - MINUTE).isEmpty());
+        assertEquals(List.of("in two days"), wheel.advance(start + 2 * DAY + MINUTE));
+
+        assertTrue(wheel.advance(start + 10 * DAY - MINUTE).isEmpty());
+        assertEquals(List.of("in ten days"), wheel.advance(start + 10 * DAY + MINUTE));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledAndRescheduledKeysFireOnlyAtTheirNewDeadline() {
+        wheel.schedule("returned", start + HOUR);
+        wheel.schedule("extended", start + HOUR);
+        wheel.cancel("returned");
+        wheel.schedule("extended", start + 3 * DAY);
+        assertTrue(!wheel.contains("returned") && wheel.contains("extended"));
+
+        assertTrue(wheel.advance(start + 2 * HOUR).isEmpty());
+        assertEquals(List.of("extended"), wheel.advance(start + 3 * DAY + MINUTE));
+    }
+
+    @Test
+    void manyDeadlinesAllFireOnceAcrossLongJumps() {
+        for (int i = 0; i < 500; i++) {
+            wheel.schedule("borrow-" + i, start + i * 37 * MINUTE);
+        }
+        List<String> fired = new ArrayList<>();
+        for (long now = start; now <= start + 500 * 37 * MINUTE + DAY; now += 7 * HOUR) {
+            fired.addAll(wheel.advance(now));
+        }
+        assertEquals(500, fired.size(), "Expected every key once, got " + fired.size());
+        assertEquals(500, fired.stream().distinct().count());
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,117 @@
+package com.aaa_battery.aaa_batteryproject.idempotency;
+
+import com.aaa_battery.aaa_batteryproject.borrows.repository.BorrowRepository;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.service.ItemDescriptionService;
+import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
+import com.aaa_battery.aaa_batteryproject.util.LibraryFixtures;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Replays of keyed borrow submissions, using the database-backed store on a database of its own
+@SpringBootTest(properties = {
+    "idempotency.store=database",
+    "spring.datasource.url=jdbc:h2:mem:idempotency;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class IdempotencyTest {
+
+    @Autowired
+    private LibraryFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private ItemDescriptionService itemDescriptionService;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    private BorrowerEntity addBorrower() {
+        return fixtures.addBorrower("Retrying Member", "retry@nu.edu.pk");
+    }
+
+    @Test
+    void testRepeatedBorrowWithSameKeyIsReplayed() throws Exception {
+        int descriptionId = fixtures.addBook("Retried Book", 3);
+        BorrowerEntity borrower = addBorrower();
+        var asBorrower = authentication(new UsernamePasswordAuthenticationToken(borrower, null, borrower.getAuthorities()));
+        String body = "{\"itemId\": %d}".formatted(descriptionId);
+
+        MvcResult first = mockMvc.perform(post("/api/borrower/borrows").with(asBorrower)
+                .header(IdempotencyFilter.KEY_HEADER, "checkout-1")
+                .contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+            .andReturn();
+
+        MvcResult replayed = mockMvc.perform(post("/api/borrower/borrows").with(asBorrower)
+                .header(IdempotencyFilter.KEY_HEADER, "checkout-1")
+                .contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+            .andReturn();
+
+        assertEquals(replayed.getResponse().getContentAsString(StandardCharsets.UTF_8), first.getResponse().getContentAsString(StandardCharsets.UTF_8), "Expected the same receipt");
+        assertEquals(1, borrowRepository.findByBorrowerId(borrower.getId().longValue()).size());
+        assertEquals(2, itemDescriptionService.findDetailById(descriptionId).availableCopies());
+
+        // Reusing the key for another request is refused rather than replayed
+        mockMvc.perform(post("/api/borrower/borrows").with(asBorrower)
+                .header(IdempotencyFilter.KEY_HEADER, "checkout-1")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"itemId\": %d}".formatted(descriptionId + 1000)))
+            .andExpect(status().isUnprocessableEntity());
+
+        // A fresh key is a fresh borrow
+        mockMvc.perform(post("/api/borrower/borrows").with(asBorrower)
+                .header(IdempotencyFilter.KEY_HEADER, "checkout-2")
+                .contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, borrowRepository.findByBorrowerId(borrower.getId().longValue()).size());
+        assertEquals(1, itemDescriptionService.findDetailById(descriptionId).availableCopies());
+    }
+
+    @Test
+    void testInMemoryStoreReservesOnceAndReleases() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(Duration.ofHours(1));
+
+        assertTrue(store.reserve("key", "fingerprint").isEmpty());
+        IdempotencyRecord inFlight = store.reserve("key", "fingerprint").orElseThrow();
+        assertFalse(inFlight.completed());
+
+        store.complete("key", "fingerprint", 201, "text/plain", "created".getBytes(StandardCharsets.UTF_8));
+        IdempotencyRecord done = store.reserve("key", "fingerprint").orElseThrow();
+        assertTrue(done.completed() && done.status() == 201);
+        assertEquals("created", new String(done.body(), StandardCharsets.UTF_8));
+
+        store.release("key");
+        assertTrue(store.reserve("key", "fingerprint").isEmpty());
+    }
+}
@@ -0,0 +1,168 @@
+package com.aaa_battery.aaa_batteryproject.item;
+
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.service.ItemDescriptionService;
+import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
+import com.aaa_battery.aaa_batteryproject.item.repository.ItemRepository;
+import com.aaa_battery.aaa_batteryproject.item.service.CatalogService;
+import com.aaa_battery.aaa_batteryproject.item.service.ItemService;
+import com.aaa_battery.aaa_batteryproject.util.LibraryFixtures;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs with the catalog cache switched on, against its own in-memory database
+@SpringBootTest(properties = {
+    "catalog.cache.enabled=true",
+    "spring.datasource.url=jdbc:h2:mem:catalogcache;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class CatalogCacheTest {
+
+    @Autowired
+    private LibraryFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemDescriptionService itemDescriptionService;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    private int availableCopiesInCatalog(int descriptionId) {
+        return catalogService.getCatalog().stream()
+            .filter(entry -> entry.description().descriptionId() == descriptionId)
+            .map(entry -> entry.availableCopies())
+            .findFirst()
+            .orElse(-1);
+    }
+
+    @Test
+    void testCatalogIsServedFromCacheAndDroppedOnWrite() {
+        ItemDescriptionEntity description = fixtures.addBookDescription("Cached Book", 2);
+        int descriptionId = description.getDescriptionId();
+        assertEquals(2, availableCopiesInCatalog(descriptionId));
+
+        double hitsBefore = meterRegistry.get("cache.gets").tags("cache", "catalog", "result", "hit").functionCounter().count();
+
+        // A write that skips the services is not seen: the listing comes from the cache
+        var copy = itemRepository.findByDescriptionDescriptionId(descriptionId).get(0);
+        copy.setAvailability(false);
+        itemRepository.save(copy);
+        assertEquals(2, availableCopiesInCatalog(descriptionId), "Expected the cached listing");
+
+        double hitsAfter = meterRegistry.get("cache.gets").tags("cache", "catalog", "result", "hit").functionCounter().count();
+        assertTrue(hitsAfter > hitsBefore, "Expected a recorded cache hit");
+
+        // Adding copies through the service evicts the listing
+        itemService.addCopies(description, 1);
+        assertEquals(2, availableCopiesInCatalog(descriptionId), "Expected a fresh listing after the write");
+        assertEquals(3, catalogService.getCopies(descriptionId).size());
+    }
+
+    private double descriptionCacheGets(String result) {
+        return meterRegistry.get("cache.gets").tags("cache", "itemDescriptions", "result", result).functionCounter().count();
+    }
+
+    @Test
+    void testItemViewTakesItsDescriptionFromTheDetailCache() throws Exception {
+        int descriptionId = fixtures.addBook("Viewed Book", 2);
+        double missesBefore = descriptionCacheGets("miss");
+
+        mockMvc.perform(get("/api/items/users/view-item").param("descriptionId", String.valueOf(descriptionId)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].description.itemName").value("Viewed Book"));
+        assertEquals(missesBefore + 1, descriptionCacheGets("miss"));
+
+        // The view filled the detail cache, so the next detail read is a hit
+        double hitsBefore = descriptionCacheGets("hit");
+        assertEquals("Viewed Book", itemDescriptionService.findDetailById(descriptionId).itemName());
+        assertEquals(hitsBefore + 1, descriptionCacheGets("hit"));
+    }
+
+    @Test
+    void testBorrowCounterChangeDropsCachedCopies() {
+        ItemDescriptionEntity description = fixtures.addBookDescription("Borrowed Cached Book", 1);
+        int descriptionId = description.getDescriptionId();
+        assertEquals(1, catalogService.getCopies(descriptionId).size());
+        assertTrue(itemService.findAvailableItemByDescription((long) descriptionId).isPresent());
+
+        assertTrue(itemDescriptionService.reserveAvailableCopy(descriptionId));
+        assertEquals(0, itemDescriptionService.findDetailById(descriptionId).availableCopies());
+
+        itemDescriptionService.releaseAvailableCopy(descriptionId);
+        assertEquals(1, itemDescriptionService.findDetailById(descriptionId).availableCopies());
+    }
+
+    @Test
+    void testRepeatedAddGoesThroughCachedLookupToManagedDescription() {
+        int descriptionId = fixtures.addBook("Restocked Book", 1);
+        assertEquals(1, catalogService.getCopies(descriptionId).size());
+
+        // The name lookup is now a cache hit; the copies still attach to a description loaded in the adding transaction
+        ItemDescriptionEntity restocked = fixtures.addBookDescription("Restocked Book", 2);
+        assertEquals(descriptionId, restocked.getDescriptionId());
+        var copies = catalogService.getCopies(descriptionId);
+        assertEquals(3, copies.size());
+        assertTrue(copies.stream().allMatch(copy -> copy.description().descriptionId() == descriptionId));
+        assertTrue(copies.get(0).description().totalCopies() == 3 && copies.get(0).description().availableCopies() == 3);
+        assertEquals(3, availableCopiesInCatalog(descriptionId));
+    }
+
+    @Test
+    @WithMockUser(username = "i220899@nu.edu.pk", roles = {"LIBRARIAN"})
+    void testRenameDropsLookupsUnderOldAndNewName() throws Exception {
+        // Cache a miss for the new name and a hit for the old one
+        assertNull(itemDescriptionService.findIdByNameAndItemType("Renamed Book", ItemType.BOOK));
+        ItemDescriptionEntity description = fixtures.addBookDescription("Original Book", 1);
+        assertNotNull(itemDescriptionService.findIdByNameAndItemType("Original Book", ItemType.BOOK));
+        assertEquals("Original Book", itemDescriptionService.findDetailById(description.getDescriptionId()).itemName());
+
+        mockMvc.perform(
+                    put("/api/items/librarian/edit-item")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"descriptionId\": %d, \"itemName\": \"Renamed Book\"}".formatted(description.getDescriptionId()))
+            )
+            .andExpect(status().isOk());
+
+        assertNull(itemDescriptionService.findIdByNameAndItemType("Original Book", ItemType.BOOK));
+        assertNotNull(itemDescriptionService.findIdByNameAndItemType("Renamed Book", ItemType.BOOK));
+        assertEquals("Renamed Book", itemDescriptionService.findDetailById(description.getDescriptionId()).itemName());
+    }
+}
@@ -0,0 +1,169 @@
+package com.aaa_battery.aaa_batteryproject.item;
+
+import com.aaa_battery.aaa_batteryproject.item.dto.CatalogEntryDTO;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.AudiobookDescription;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.BookDescription;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.DVDDescription;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Opt-in: mvn test -Dtest=CatalogSerializationBenchmarkTest -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class CatalogSerializationBenchmarkTest {
+
+    private static final int DESCRIPTIONS = 500;
+    private static final int WARMUP_ROUNDS = 300;
+    private static final int ROUNDS = 1_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void benchmarkTypedCatalogAgainstMaps() throws Exception {
+        List<ItemDescriptionEntity> descriptions = descriptions();
+        // Same mapper the MVC converter starts from
+        ObjectMapper plain = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper blackbird = Jackson2ObjectMapperBuilder.json().build().registerModule(new BlackbirdModule());
+
+        // Both paths must produce the same JSON
+        TypeReference<List<Map<String, Object>>> listOfMaps = new TypeReference<>() { };
+        assertEquals(plain.readValue(blackbird.writeValueAsBytes(typedCatalog(descriptions)), listOfMaps), plain.readValue(plain.writeValueAsBytes(mapCatalog(descriptions)), listOfMaps));
+
+        run("maps", () -> write(plain, mapCatalog(descriptions)));
+        run("records", () -> write(plain, typedCatalog(descriptions)));
+        run("records + blackbird", () -> write(blackbird, typedCatalog(descriptions)));
+    }
+
+    private void run(String label, Supplier<Integer> request) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            request.get();
+        }
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long written = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            written += request.get();
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        System.out.printf("%-20s %d entries: %.3f ms/request, %.1f KB allocated/request, %d bytes of JSON%n",
+            label, DESCRIPTIONS, nanos / 1e6 / ROUNDS, allocated / 1024.0 / ROUNDS, written / ROUNDS);
+    }
+
+    private static int write(ObjectMapper mapper, Object body) {
+        try {
+            return mapper.writeValueAsBytes(body).length;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<CatalogEntryDTO> typedCatalog(List<ItemDescriptionEntity> descriptions) {
+        List<CatalogEntryDTO> entries = new ArrayList<>(descriptions.size());
+        for (ItemDescriptionEntity desc : descriptions) {
+            entries.add(CatalogEntryDTO.of(desc, 3, 2));
+        }
+        return entries;
+    }
+
+    // The previous approach: a HashMap per entry and per description
+    private static List<Map<String, Object>> mapCatalog(List<ItemDescriptionEntity> descriptions) {
+        List<Map<String, Object>> entries = new ArrayList<>(descriptions.size());
+        for (ItemDescriptionEntity desc : descriptions) {
+            Map<String, Object> itemMap = new HashMap<>();
+            itemMap.put("totalCopies", 3);
+            itemMap.put("availableCopies", 2);
+            Map<String, Object> descMap = new HashMap<>();
+            descMap.put("descriptionId", desc.getDescriptionId());
+            descMap.put("itemName", desc.getItemName());
+            descMap.put("type", desc.getItemType());
+            descMap.put("genre", desc.getGenre());
+            descMap.put("blurb", desc.getBlurb());
+            descMap.put("imageUrl", desc.getImageUrl());
+            descMap.put("averageRating", desc.getAverageRating());
+            descMap.put("reviewsCount", desc.getReviews().size());
+            if (desc instanceof BookDescription) {
+                BookDescription bookDesc = (BookDescription) desc;
+                descMap.put("authorName", bookDesc.getAuthorName());
+                descMap.put("publisher", bookDesc.getPublisher());
+            } else if (desc instanceof DVDDescription) {
+                DVDDescription dvdDesc = (DVDDescription) desc;
+                descMap.put("producer", dvdDesc.getProducer());
+                descMap.put("director", dvdDesc.getDirector());
+                descMap.put("duration", legacyDuration(dvdDesc.getDuration()));
+            } else if (desc instanceof AudiobookDescription) {
+                AudiobookDescription audioDesc = (AudiobookDescription) desc;
+                descMap.put("authorName", audioDesc.getAuthorName());
+                descMap.put("publisher", audioDesc.getPublisher());
+                descMap.put("narratorName", audioDesc.getNarratedBy());
+                descMap.put("duration", legacyDuration(audioDesc.getDuration()));
+            }
+            itemMap.put("description", descMap);
+            entries.add(itemMap);
+        }
+        return entries;
+    }
+
+    private static String legacyDuration(Duration duration) {
+        return duration == null ? null
+            : String.format("%02d:%02d:%02d", duration.toHours(), duration.toMinutesPart(), duration.toSecondsPart());
+    }
+
+    private static List<ItemDescriptionEntity> descriptions() {
+        List<ItemDescriptionEntity> descriptions = new ArrayList<>();
+        for (int i = 0; i < DESCRIPTIONS; i++) {
+            ItemDescriptionEntity desc;
+            switch (i % 3) {
+                case 0 -> {
+                    BookDescription book = new BookDescription();
+                    book.setItemType("book");
+                    book.setAuthorName("Author " + i);
+                    book.setPublisher("Publisher " + i);
+                    desc = book;
+                }
+                case 1 -> {
+                    AudiobookDescription audiobook = new AudiobookDescription();
+                    audiobook.setItemType("audiobook");
+                    audiobook.setAuthorName("Author " + i);
+                    audiobook.setPublisher("Publisher " + i);
+                    audiobook.setNarratedBy("Narrator " + i);
+                    audiobook.setDuration(Duration.ofMinutes(95 + i));
+                    desc = audiobook;
+                }
+                default -> {
+                    DVDDescription dvd = new DVDDescription();
+                    dvd.setItemType("dvd");
+                    dvd.setProducer("Producer " + i);
+                    dvd.setDirector("Director " + i);
+                    dvd.setDuration(Duration.ofMinutes(110 + i));
+                    desc = dvd;
+                }
+            }
+            desc.setDescriptionId(i + 1);
+            desc.setItemName("Title " + i);
+            desc.setGenre("Genre " + (i % 12));
+            desc.setBlurb("A short blurb for title " + i + " that is about as long as the real ones.");
+            desc.setImageUrl("https://example.org/covers/" + i + ".jpg");
+            desc.setAverageRating((i % 50) / 10.0);
+            descriptions.add(desc);
+        }
+        return descriptions;
+    }
+}
@@ -0,0 +1,40 @@
+package com.aaa_battery.aaa_batteryproject.item;
+
+import com.aaa_battery.aaa_batteryproject.item.dto.SuggestionDTO;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.BookDescription;
+import com.aaa_battery.aaa_batteryproject.item.service.CatalogSuggestIndex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CatalogSuggestIndexTest {
+
+    private final CatalogSuggestIndex index = new CatalogSuggestIndex(null);
+
+    private void addBook(int descriptionId, String name, double averageRating) {
+        BookDescription book = new BookDescription();
+        book.setDescriptionId(descriptionId);
+        book.setItemType("BOOK");
+        book.setItemName(name);
+        book.setAverageRating(averageRating);
+        index.index(book);
+    }
+
+    @Test
+    void ranksEveryMatchOfAPrefixNotJustTheFirstFew() {
+        // Many weak matches ahead of the best ones in posting order
+        for (int id = 1; id <= 20_000; id++) {
+            addBook(id, "Common Title " + id, 1.0);
+        }
+        addBook(20_001, "Common Title Favourite", 4.5);
+        addBook(20_002, "Zzz Common Title Best", 5.0);
+
+        List<SuggestionDTO> top = index.suggest("common", 2);
+        assertEquals(2, top.size());
+        assertEquals(20_002, top.get(0).getDescriptionId(), "Expected the best rated match first, got " + top.get(0).getItemName());
+        assertEquals(20_001, top.get(1).getDescriptionId());
+    }
+}
@@ -0,0 +1,73 @@
+package com.aaa_battery.aaa_batteryproject.item;
+
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.aaa_battery.aaa_batteryproject.item.model.ItemEntity;
+import com.aaa_battery.aaa_batteryproject.item.repository.ItemRepository;
+import com.aaa_battery.aaa_batteryproject.item.service.ItemService;
+import com.aaa_battery.aaa_batteryproject.util.LibraryFixtures;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Opt-in: mvn test -Dtest=CopyCreationBenchmarkTest -Dbenchmark=true
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:copybenchmark;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class CopyCreationBenchmarkTest {
+
+    private static final int COPIES = 500;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private LibraryFixtures fixtures;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Test
+    void benchmarkBatchedCopyCreationAgainstSaveLoop() {
+        ItemDescriptionEntity description = fixtures.addBookDescription("Benchmark Textbook", 1);
+
+        // Warm up both paths once
+        saveLoop(description);
+        itemService.addCopies(description, COPIES);
+
+        long loopNanos = 0;
+        long batchNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            saveLoop(description);
+            loopNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            itemService.addCopies(description, COPIES);
+            batchNanos += System.nanoTime() - start;
+        }
+
+        System.out.printf("%d copies x %d rounds: save loop %.1f ms/round, batched saveAll %.1f ms/round%n",
+            COPIES, ROUNDS, loopNanos / 1e6 / ROUNDS, batchNanos / 1e6 / ROUNDS);
+
+        int expected = 1 + (ROUNDS + 1) * COPIES * 2;
+        assertEquals(expected, itemRepository.findByDescriptionDescriptionId(description.getDescriptionId()).size());
+
+        itemRepository.deleteAll();
+    }
+
+    // The previous approach: one save, and one transaction, per copy
+    private void saveLoop(ItemDescriptionEntity description) {
+        for (int i = 0; i < COPIES; i++) {
+            ItemEntity item = new ItemEntity();
+            item.setAvailability(true);
+            item.setDescription(description);
+            itemService.addItem(item);
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.aaa_battery.aaa_batteryproject.item;
 
 import com.aaa_battery.aaa_batteryproject.item.repository.ItemRepository;
+import com.aaa_battery.aaa_batteryproject.item.service.CatalogCountersScheduler;
 import com.aaa_battery.aaa_batteryproject.item.service.ItemService;
 import com.aaa_battery.aaa_batteryproject.item.util.ItemUtil;
 import com.aaa_battery.aaa_batteryproject.item.model.ItemEntity;
+import com.aaa_battery.aaa_batteryproject.item.model.ItemType;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.repository.ItemDescriptionRepository;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.service.ItemDescriptionService;
+import com.aaa_battery.aaa_batteryproject.reviews.service.ReviewCountersInitializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -11,11 +18,23 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -37,6 +56,21 @@ public class ItemTest {
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private ItemDescriptionRepository itemDescriptionRepository;
+
+    @Autowired
+    private ItemDescriptionService itemDescriptionService;
+
+    @Autowired
+    private CatalogCountersScheduler catalogCountersScheduler;
+
+    @Autowired
+    private ReviewCountersInitializer reviewCountersInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     @WithMockUser(username = "i220899@nu.edu.pk", roles = {"LIBRARIAN"})
     void testLoginLibrarianAndAddBook() throws Exception {
@@ -195,6 +229,344 @@ public class ItemTest {
             });
     }
 
+    @Test
+    @WithMockUser(username = "i220899@nu.edu.pk", roles = {"LIBRARIAN"})
+    void testCopyCountsAreAggregatedPerDescription() throws Exception {
+        itemRepository.deleteAll();
+        testLoginLibrarianAndAddDVD(); // 4 copies
+
+        // Check one copy out directly
+        ItemEntity borrowed = itemRepository.findAll().get(0);
+        borrowed.setAvailability(false);
+        itemRepository.save(borrowed);
+        Integer descriptionId = borrowed.getDescription().getDescriptionId();
+
+        var counts = itemService.getCopyCounts();
+        assertEquals(1, counts.size(), "Expected one row per description, got " + counts.size());
+        assertEquals(descriptionId, counts.get(0).getDescriptionId());
+        assertEquals(4, counts.get(0).getTotalCopies(), "Expected 4 total copies, got " + counts.get(0).getTotalCopies());
+        assertEquals(3, counts.get(0).getAvailableCopies(), "Expected 3 available copies, got " + counts.get(0).getAvailableCopies());
+
+        mockMvc.perform(
+                get("/api/items/users/view-items")
+            )
+            .andExpect(status().isOk())
+            .andExpect(result -> {
+                String json = result.getResponse().getContentAsString();
+                assertTrue(json.contains("\"totalCopies\":4"));
+                assertTrue(json.contains("\"availableCopies\":3"));
+            });
+
+        itemRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(username = "i220899@nu.edu.pk", roles = {"LIBRARIAN"})
+    void testCopyCountersFollowCopyChangesAndRepairDrift() throws Exception {
+        itemRepository.deleteAll();
+        catalogCountersScheduler.reconcileCopyCounters();
+        testLoginLibrarianAndAddDVD(); // 4 copies
+
+        Integer descriptionId = itemRepository.findAll().get(0).getDescription().getDescriptionId();
+        var description = itemDescriptionRepository.findById(descriptionId).orElseThrow();
+        assertEquals(4, description.getTotalCopies(), "Expected total counter 4, got " + description.getTotalCopies());
+        assertEquals(4, description.getAvailableCopies(), "Expected available counter 4, got " + description.getAvailableCopies());
+
+        // Shrinking the copies moves both counters down
+        mockMvc.perform(
+                    put("/api/items/librarian/edit-item")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"descriptionId\": %d, \"totalCopies\": 2}".formatted(descriptionId))
+            )
+            .andExpect(status().isOk());
+        description = itemDescriptionRepository.findById(descriptionId).orElseThrow();
+        assertEquals(2, description.getTotalCopies(), "Expected total counter 2, got " + description.getTotalCopies());
+        assertEquals(2, description.getAvailableCopies(), "Expected available counter 2, got " + description.getAvailableCopies());
+
+        // Saving the entity never overwrites the counters
+        description.setTotalCopies(99);
+        itemDescriptionRepository.save(description);
+        assertEquals(2, itemDescriptionRepository.findById(descriptionId).orElseThrow().getTotalCopies());
+
+        // Knock the counters out of line and let the check repair them
+        itemDescriptionService.adjustCopyCounters(descriptionId, 3, -1);
+        catalogCountersScheduler.reconcileCopyCounters();
+        description = itemDescriptionRepository.findById(descriptionId).orElseThrow();
+        assertEquals(2, description.getTotalCopies(), "Expected repaired total 2, got " + description.getTotalCopies());
+        assertEquals(2, description.getAvailableCopies(), "Expected repaired available 2, got " + description.getAvailableCopies());
+
+        // Borrow admission reads the counter
+        itemDescriptionService.adjustCopyCounters(descriptionId, 0, -2);
+        assertTrue(itemService.findAvailableItemByDescription(descriptionId.longValue()).isEmpty());
+        catalogCountersScheduler.reconcileCopyCounters();
+        assertTrue(itemService.findAvailableItemByDescription(descriptionId.longValue()).isPresent());
+
+        itemRepository.deleteAll();
+    }
+
+    @ParameterizedTest
+    @org.junit.jupiter.params.provider.ValueSource(strings = {"name", "date", "rating"})
+    @WithMockUser(username = "student@nu.edu.pk", roles = {"BORROWER"})
+    void testViewItemsPageWalksWholeCatalogWithoutDuplicates(String sort) throws Exception {
+        // A few descriptions, one of them without a date so the null-key tail is exercised
+        List<Integer> added = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("itemName", "Paged Book " + i);
+            data.put("type", "book");
+            data.put("genre", "Fiction");
+            data.put("blurb", "Paging test");
+            data.put("authorName", "Author " + i);
+            data.put("publisher", "Publisher");
+            if (i != 2) {
+                data.put("date", "2024-01-0" + (i + 1) + "T00:00:00");
+            }
+            data.put("totalCopies", 1);
+            added.add(itemService.addItemFromRequest(data).getDescriptionId());
+        }
+        int expected = itemDescriptionRepository.findAll().size();
+
+        ObjectMapper mapper = new ObjectMapper();
+        Set<Integer> seen = new LinkedHashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/items/users/view-items/page").param("limit", "2").param("sort", sort);
+            if (cursor != null) {
+                request.param("after", cursor);
+            }
+            String json = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+            JsonNode page = mapper.readTree(json);
+            assertTrue(page.get("items").size() <= 2);
+            for (JsonNode entry : page.get("items")) {
+                int id = entry.get("description").get("descriptionId").asInt();
+                assertTrue(seen.add(id), "Description " + id + " returned twice for sort " + sort);
+            }
+            cursor = page.get("hasMore").asBoolean() ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null && pages < 1000);
+
+        assertEquals(expected, seen.size(), "Expected " + expected + " descriptions, got " + seen.size());
+        if (sort.equals("rating")) {
+            // All unrated, so the tie-breaker alone orders them, running the same way as the rating
+            List<Integer> served = seen.stream().filter(added::contains).toList();
+            List<Integer> newestFirst = new ArrayList<>(added);
+            Collections.reverse(newestFirst);
+            assertEquals(newestFirst, served, "Ties out of order: " + served);
+        }
+
+        itemRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(username = "student@nu.edu.pk", roles = {"BORROWER"})
+    void testSearchMatchesTitlesBlurbsGenresAndCreators() throws Exception {
+        Map<String, Object> book = new HashMap<>();
+        book.put("itemName", "Half of a Yellow Sun");
+        book.put("type", "book");
+        book.put("genre", "Historical");
+        book.put("blurb", "Nigeria in the sixties");
+        book.put("authorName", "Chimamanda Adichie");
+        book.put("publisher", "Knopf");
+        book.put("totalCopies", 2);
+        itemService.addItemFromRequest(book);
+
+        Map<String, Object> dvd = new HashMap<>();
+        dvd.put("itemName", "Little Women");
+        dvd.put("type", "dvd");
+        dvd.put("genre", "Drama");
+        dvd.put("blurb", "Four sisters in Concord");
+        dvd.put("producer", "Amy Pascal");
+        dvd.put("director", "Greta Gerwig");
+        dvd.put("duration", "02:15:00");
+        dvd.put("totalCopies", 1);
+        itemService.addItemFromRequest(dvd);
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, String> expectations = Map.of(
+            "adichie", "Half of a Yellow Sun",   // book creator
+            "Gerwig", "Little Women",            // dvd creator, any case
+            "concord sisters", "Little Women",   // blurb terms in any order
+            "historical", "Half of a Yellow Sun" // genre
+        );
+        for (Map.Entry<String, String> expectation : expectations.entrySet()) {
+            String json = mockMvc.perform(get("/api/items/users/search").param("q", expectation.getKey()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+            JsonNode results = mapper.readTree(json);
+            assertEquals(1, results.size(), "Expected one match for '" + expectation.getKey() + "', got " + json);
+            assertEquals(expectation.getValue(), results.get(0).get("description").get("itemName").asText());
+        }
+
+        mockMvc.perform(get("/api/items/users/search").param("q", "zzzznotinthecatalog"))
+            .andExpect(status().isOk())
+            .andExpect(result -> {
+                assertEquals("[]", result.getResponse().getContentAsString());
+            });
+        mockMvc.perform(get("/api/items/users/search").param("q", "  "))
+            .andExpect(status().isBadRequest());
+
+        itemRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(username = "i220899@nu.edu.pk", roles = {"LIBRARIAN"})
+    void testSuggestCompletesPrefixesRankedByRating() throws Exception {
+        for (String title : new String[] {"Xenodune", "Xenodune Messiah"}) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("itemName", title);
+            data.put("type", "book");
+            data.put("genre", "Science Fiction");
+            data.put("blurb", "Suggest test");
+            data.put("authorName", "Frankly Herbertson");
+            data.put("publisher", "Chilton");
+            data.put("totalCopies", 1);
+            itemService.addItemFromRequest(data);
+        }
+        // The sequel is rated higher, so it should come first
+        var sequel = itemDescriptionRepository.findByItemNameAndItemType("Xenodune Messiah", ItemType.BOOK);
+        // The average is only ever written by the review counters' own update; saving publishes the change
+        jdbcTemplate.update("UPDATE item_description SET average_rating = 4.5 WHERE description_id = ?", sequel.getDescriptionId());
+        itemDescriptionService.saveDescription(sequel);
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode byTitle = mapper.readTree(mockMvc.perform(get("/api/items/users/suggest").param("q", "xenod"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString());
+        assertEquals(2, byTitle.size(), "Expected both titles, got " + byTitle);
+        assertEquals("Xenodune Messiah", byTitle.get(0).get("itemName").asText());
+        assertEquals("itemName", byTitle.get(0).get("matchedField").asText());
+
+        // Earlier words must match whole, the last one is a prefix
+        JsonNode byAuthor = mapper.readTree(mockMvc.perform(get("/api/items/users/suggest").param("q", "Frankly herbertso"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString());
+        assertEquals(2, byAuthor.size());
+        assertEquals("authorName", byAuthor.get(0).get("matchedField").asText());
+
+        // Renaming through edit-item updates the index
+        String editJson = "{\"descriptionId\": %d, \"itemName\": \"Quorlith Messiah\"}".formatted(sequel.getDescriptionId());
+        mockMvc.perform(put("/api/items/librarian/edit-item").contentType(MediaType.APPLICATION_JSON).content(editJson))
+            .andExpect(status().isOk());
+        JsonNode renamed = mapper.readTree(mockMvc.perform(get("/api/items/users/suggest").param("q", "quorl"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString());
+        assertTrue(renamed.size() == 1 && renamed.get(0).get("itemName").asText().equals("Quorlith Messiah"));
+        JsonNode oldTitle = mapper.readTree(mockMvc.perform(get("/api/items/users/suggest").param("q", "xenod"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString());
+        assertEquals(1, oldTitle.size(), "Expected only the unrenamed title, got " + oldTitle);
+
+        mockMvc.perform(get("/api/items/users/suggest").param("q", ""))
+            .andExpect(status().isBadRequest());
+
+        itemRepository.deleteAll();
+    }
+
+    @Test
+    void testCatalogFiltersAndFacetCounts() throws Exception {
+        for (String title : new String[] {"Facet Book One", "Facet Book Two", "Facet Film"}) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("itemName", title);
+            data.put("type", title.endsWith("Film") ? "dvd" : "book");
+            data.put("genre", title.endsWith("Film") ? "zorbfacet" : "Zorbfacet");
+            data.put("blurb", "Facet test");
+            data.put("authorName", "Author");
+            data.put("publisher", "Publisher");
+            data.put("director", "Director");
+            data.put("producer", "Producer");
+            data.put("totalCopies", 1);
+            itemService.addItemFromRequest(data);
+        }
+        // Book One is checked out, Book Two is rated 4.5
+        var bookOne = itemDescriptionRepository.findByItemNameAndItemType("Facet Book One", ItemType.BOOK);
+        assertTrue(itemDescriptionService.reserveAvailableCopy(bookOne.getDescriptionId()));
+        var bookTwo = itemDescriptionRepository.findByItemNameAndItemType("Facet Book Two", ItemType.BOOK);
+        // The average is only ever written by the review counters' own update; saving publishes the change
+        jdbcTemplate.update("UPDATE item_description SET average_rating = 4.5 WHERE description_id = ?", bookTwo.getDescriptionId());
+        itemDescriptionService.saveDescription(bookTwo);
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode byGenre = mapper.readTree(mockMvc.perform(get("/api/items/users/view-items/page").param("genre", "ZORBFACET"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString());
+        assertEquals(3, byGenre.get("items").size(), "Expected genre to match case-insensitively, got " + byGenre);
+        JsonNode facets = byGenre.get("facets");
+        assertEquals(3, facets.get("total").asInt());
+        assertEquals(2, facets.get("type").get("book").asInt());
+        assertEquals(1, facets.get("type").get("dvd").asInt());
+        assertEquals(0, facets.get("type").get("audiobook").asInt());
+        assertEquals(2, facets.get("availability").get("available").asInt(), facets.toString());
+        assertEquals(3, facets.get("availability").get("all").asInt());
+        assertEquals(1, facets.get("rating").get("4").asInt());
+        assertEquals(0, facets.get("rating").get("5").asInt());
+
+        // A dimension's own filter does not narrow its own counts
+        JsonNode narrowed = mapper.readTree(mockMvc.perform(get("/api/items/users/view-items/page")
+                .param("genre", "zorbfacet").param("type", "book").param("availableOnly", "true"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString());
+        assertEquals(1, narrowed.get("items").size());
+        assertEquals("Facet Book Two", narrowed.get("items").get(0).get("description").get("itemName").asText());
+        assertEquals(1, narrowed.get("facets").get("total").asInt());
+        assertEquals(1, narrowed.get("facets").get("type").get("dvd").asInt());
+        assertEquals(2, narrowed.get("facets").get("availability").get("all").asInt());
+
+        JsonNode rated = mapper.readTree(mockMvc.perform(get("/api/items/users/view-items/page")
+                .param("genre", "zorbfacet").param("minRating", "4"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString());
+        assertTrue(rated.get("items").size() == 1 && rated.get("facets").get("total").asInt() == 1);
+
+        mockMvc.perform(get("/api/items/users/view-items/page").param("type", "vinyl"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/items/users/view-items/page").param("minRating", "6"))
+            .andExpect(status().isBadRequest());
+
+        itemDescriptionService.releaseAvailableCopy(bookOne.getDescriptionId());
+        itemRepository.deleteAll();
+    }
+
+    @Test
+    void testReviewCountersAreBackfilledForOlderRows() throws Exception {
+        Map<String, Object> data = new HashMap<>();
+        data.put("itemName", "Counterless Book");
+        data.put("type", "book");
+        data.put("genre", "Qwertcounter");
+        data.put("blurb", "Review counter test");
+        data.put("authorName", "Author");
+        data.put("publisher", "Publisher");
+        data.put("totalCopies", 1);
+        int descriptionId = itemService.addItemFromRequest(data).getDescriptionId();
+        assertEquals(0, itemDescriptionRepository.findById(descriptionId).get().getReviewCount());
+
+        // Simulate a row saved before the counters existed
+        jdbcTemplate.update("UPDATE item_description SET review_count = NULL, rating_count = NULL, rating_sum = NULL WHERE description_id = ?", descriptionId);
+        assertTrue(itemDescriptionRepository.findIdsWithoutReviewCounters(PageRequest.of(0, 10)).contains(descriptionId));
+
+        reviewCountersInitializer.backfillReviewCounters();
+        assertTrue(itemDescriptionRepository.findIdsWithoutReviewCounters(PageRequest.of(0, 10)).isEmpty());
+        assertEquals(0, itemDescriptionRepository.findById(descriptionId).get().getReviewCount());
+
+        JsonNode page = new ObjectMapper().readTree(mockMvc.perform(get("/api/items/users/view-items/page").param("genre", "qwertcounter"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString());
+        assertEquals(0, page.get("items").get(0).get("description").get("reviewsCount").asInt());
+
+        itemRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(username = "student@nu.edu.pk", roles = {"BORROWER"})
+    void testViewItemsPageRejectsBadSortAndCursor() throws Exception {
+        mockMvc.perform(get("/api/items/users/view-items/page").param("sort", "popularity"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/items/users/view-items/page").param("after", "not-a-cursor"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(username = "i220899@nu.edu.pk", roles = {"LIBRARIAN"})
     void testViewItemsEmptyList() throws Exception {
@@ -0,0 +1,172 @@
+package com.aaa_battery.aaa_batteryproject.jobs;
+
+import com.aaa_battery.aaa_batteryproject.jobs.model.JobPartitionEntity;
+import com.aaa_battery.aaa_batteryproject.jobs.model.JobPartitionEntity.PartitionStatus;
+import com.aaa_battery.aaa_batteryproject.jobs.model.JobRunEntity;
+import com.aaa_battery.aaa_batteryproject.jobs.model.JobRunEntity.JobRunStatus;
+import com.aaa_battery.aaa_batteryproject.jobs.repository.ClusterMemberRepository;
+import com.aaa_battery.aaa_batteryproject.jobs.repository.JobPartitionRepository;
+import com.aaa_battery.aaa_batteryproject.jobs.repository.JobRunRepository;
+import com.aaa_battery.aaa_batteryproject.jobs.service.ClusterMembership;
+import com.aaa_battery.aaa_batteryproject.jobs.service.IdRange;
+import com.aaa_battery.aaa_batteryproject.jobs.service.JobCoordinator;
+import com.aaa_battery.aaa_batteryproject.jobs.service.Shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Several callers standing in for cluster instances, all firing the same job, against a database of its own
+@SpringBootTest(properties = {
+    "jobs.partition-max-attempts=2",
+    "spring.datasource.url=jdbc:h2:mem:jobcoordination;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+public class JobCoordinatorTest {
+
+    @Autowired
+    private JobCoordinator jobCoordinator;
+
+    @Autowired
+    private JobRunRepository jobRunRepository;
+
+    @Autowired
+    private JobPartitionRepository jobPartitionRepository;
+
+    @Autowired
+    private ClusterMembership clusterMembership;
+
+    @Autowired
+    private ClusterMemberRepository clusterMemberRepository;
+
+    @AfterEach
+    void cleanUp() {
+        jobPartitionRepository.deleteAll();
+        jobRunRepository.deleteAll();
+    }
+
+    @Test
+    void testJobRunsOncePerRunKey() {
+        AtomicInteger executions = new AtomicInteger();
+
+        JobRunEntity first = jobCoordinator.run("nightly", "2026-10-17", () -> "run " + executions.incrementAndGet());
+        JobRunEntity again = jobCoordinator.run("nightly", "2026-10-17", () -> "run " + executions.incrementAndGet());
+        assertEquals(1, executions.get(), "Expected one execution, got " + executions.get());
+        assertEquals(again.getId(), first.getId());
+        assertEquals(JobRunStatus.SUCCEEDED, again.getStatus());
+
+        // The next night is a new run
+        jobCoordinator.run("nightly", "2026-10-18", () -> "run " + executions.incrementAndGet());
+        assertEquals(2, executions.get());
+        assertEquals(2, jobCoordinator.getRecentRuns("nightly").size());
+    }
+
+    @Test
+    void testPartitionsAreSharedOutAcrossInstances() throws Exception {
+        int instances = 3;
+        List<IdRange> worked = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger planned = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(instances);
+        try {
+            List<Future<JobRunEntity>> runs = new ArrayList<>();
+            for (int i = 0; i < instances; i++) {
+                runs.add(pool.submit(() -> {
+                    start.await();
+                    return jobCoordinator.runPartitioned("partitioned", "run-1", 8,
+                        () -> {
+                            planned.incrementAndGet();
+                            return new IdRange(1, 100);
+                        },
+                        (startedAt, range) -> {
+                            worked.add(range);
+                            return "ok";
+                        });
+                }));
+            }
+            start.countDown();
+            for (Future<JobRunEntity> run : runs) {
+                run.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, planned.get(), "Expected a single planner, got " + planned.get());
+        assertEquals(8, worked.size(), "Expected each partition once, got " + worked.size());
+        long covered = worked.stream().mapToLong(range -> range.high() - range.low() + 1).sum();
+        assertEquals(100, covered);
+
+        JobRunEntity run = jobRunRepository.findByJobNameAndRunKey("partitioned", "run-1").orElseThrow();
+        assertEquals(JobRunStatus.SUCCEEDED, run.getStatus());
+        assertEquals(8, run.getPartitionCount());
+        assertTrue(jobPartitionRepository.findByRunIdOrderByPartitionNo(run.getId()).stream()
+            .allMatch(partition -> partition.getStatus() == PartitionStatus.DONE));
+    }
+
+    @Test
+    void testFailingPartitionIsRetriedThenFailsTheRun() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        JobRunEntity run = jobCoordinator.runPartitioned("flaky", "run-1", 2, () -> new IdRange(1, 10),
+            (startedAt, range) -> {
+                if (range.low() == 1) {
+                    attempts.incrementAndGet();
+                    throw new IllegalStateException("boom");
+                }
+                return "ok";
+            });
+
+        assertEquals(2, attempts.get(), "Expected the configured two attempts, got " + attempts.get());
+        assertEquals(JobRunStatus.FAILED, run.getStatus());
+        List<JobPartitionEntity> partitions = jobPartitionRepository.findByRunIdOrderByPartitionNo(run.getId());
+        assertEquals(PartitionStatus.FAILED, partitions.get(0).getStatus());
+        assertTrue(partitions.get(0).getResult().contains("boom"));
+        assertEquals(PartitionStatus.DONE, partitions.get(1).getStatus());
+    }
+
+    @Test
+    void testMembersAreNumberedByLiveLease() {
+        // Far enough ahead that only the leases taken here are live
+        Instant now = Instant.now().plus(Duration.ofDays(1));
+        Duration lease = Duration.ofMinutes(5);
+        try {
+            assertEquals(new Shard(0, 1), clusterMembership.renew("member-a", now, lease));
+            assertEquals(new Shard(1, 2), clusterMembership.renew("member-b", now, lease));
+            assertEquals(new Shard(0, 2), clusterMembership.renew("member-a", now, lease));
+
+            // member-a stops renewing; once its lease runs out member-b has every id
+            Instant later = now.plus(lease).plusSeconds(1);
+            Shard alone = clusterMembership.renew("member-b", later, lease);
+            assertEquals(new Shard(0, 1), alone);
+            assertTrue(alone.owns(7) && alone.owns(8));
+            assertTrue(new Shard(1, 2).owns(7) && !new Shard(1, 2).owns(8));
+        } finally {
+            clusterMemberRepository.deleteAllById(List.of("member-a", "member-b"));
+        }
+    }
+
+    @Test
+    void testIdRangeSplitCoversRangeWithoutOverlap() {
+        List<IdRange> slices = new IdRange(5, 14).split(3);
+        assertEquals(List.of(new IdRange(5, 8), new IdRange(9, 11), new IdRange(12, 14)), slices);
+        assertEquals(2, new IdRange(1, 2).split(5).size());
+        assertEquals(List.of(IdRange.ALL), IdRange.ALL.split(4));
+    }
+}
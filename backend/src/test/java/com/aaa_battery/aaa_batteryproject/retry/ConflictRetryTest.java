@@ -0,0 +1,113 @@
+package com.aaa_battery.aaa_batteryproject.retry;
+
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.repository.ItemDescriptionRepository;
+import com.aaa_battery.aaa_batteryproject.util.LibraryFixtures;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:conflictretry;DB_CLOSE_DELAY=-1",
+    "conflict.retry.max-attempts=3",
+    "conflict.retry.base-delay-ms=1"
+})
+@ActiveProfiles("test")
+public class ConflictRetryTest {
+
+    @Autowired
+    private LibraryFixtures fixtures;
+
+    @Autowired
+    private ConflictRetryExecutor conflictRetryExecutor;
+
+    @Autowired
+    private ItemDescriptionRepository itemDescriptionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    private double count(String name, String operation) {
+        var counter = meterRegistry.find(name).tag("operation", operation).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    @Test
+    void testStaleSaveIsRetriedFromFreshRead() {
+        int descriptionId = fixtures.addBook("Contended Book");
+        ItemDescriptionEntity stale = itemDescriptionRepository.findById(descriptionId).orElseThrow();
+
+        // Someone else edits the description first
+        ItemDescriptionEntity other = itemDescriptionRepository.findById(descriptionId).orElseThrow();
+        other.setBlurb("Edited elsewhere");
+        itemDescriptionRepository.save(other);
+
+        AtomicInteger attempts = new AtomicInteger();
+        String genre = conflictRetryExecutor.inTransaction("test-edit", descriptionId, () -> {
+            ItemDescriptionEntity description = attempts.incrementAndGet() == 1
+                ? stale
+                : itemDescriptionRepository.findById(descriptionId).orElseThrow();
+            description.setGenre("Mystery");
+            return itemDescriptionRepository.save(description).getGenre();
+        });
+
+        assertEquals("Mystery", genre);
+        assertEquals(2, attempts.get(), "Expected one retry, got " + attempts.get() + " attempts");
+
+        // Both edits survive: the retry started from the other writer's version
+        ItemDescriptionEntity stored = itemDescriptionRepository.findById(descriptionId).orElseThrow();
+        assertEquals("Mystery", stored.getGenre());
+        assertEquals("Edited elsewhere", stored.getBlurb());
+        assertEquals(2, stored.getVersion());
+
+        assertEquals(1, count("conflict.retry.conflicts", "test-edit"));
+        assertEquals(1, count("conflict.retry.retries", "test-edit"));
+        DescriptionContentionDTO contention = conflictRetryExecutor.getContention(10).stream()
+            .filter(entry -> entry.getDescriptionId() == descriptionId)
+            .findFirst()
+            .orElseThrow();
+        assertTrue(contention.getConflicts() == 1 && contention.getRetries() == 1 && contention.getExhausted() == 0);
+    }
+
+    @Test
+    void testConflictIsRethrownOnceAttemptsRunOut() {
+        int descriptionId = fixtures.addBook("Always Stale Book");
+        ItemDescriptionEntity stale = itemDescriptionRepository.findById(descriptionId).orElseThrow();
+        ItemDescriptionEntity other = itemDescriptionRepository.findById(descriptionId).orElseThrow();
+        other.setBlurb("Edited elsewhere");
+        itemDescriptionRepository.save(other);
+
+        // No description id given: the conflict is attributed from the failing row
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(OptimisticLockingFailureException.class, () ->
+            conflictRetryExecutor.inTransaction("test-exhaust", null, () -> {
+                attempts.incrementAndGet();
+                stale.setGenre("Never Saved");
+                return itemDescriptionRepository.save(stale);
+            }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1, count("conflict.retry.exhausted", "test-exhaust"));
+        assertEquals("Fiction", itemDescriptionRepository.findById(descriptionId).orElseThrow().getGenre());
+        assertTrue(conflictRetryExecutor.getContention(10).stream()
+            .anyMatch(entry -> entry.getDescriptionId() == descriptionId && entry.getExhausted() == 1));
+    }
+}
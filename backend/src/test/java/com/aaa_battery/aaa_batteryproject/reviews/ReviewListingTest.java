@@ -0,0 +1,162 @@
+package com.aaa_battery.aaa_batteryproject.reviews;
+
+import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
+import com.aaa_battery.aaa_batteryproject.borrows.service.BorrowService;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.repository.ItemDescriptionRepository;
+import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewCursor;
+import com.aaa_battery.aaa_batteryproject.reviews.model.ReviewEntity;
+import com.aaa_battery.aaa_batteryproject.reviews.model.ReviewSort;
+import com.aaa_battery.aaa_batteryproject.reviews.repository.ReviewRepository;
+import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
+import com.aaa_battery.aaa_batteryproject.util.LibraryFixtures;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Paged review listing of one item in each sort order, counting statements, against a database of its own
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.datasource.url=jdbc:h2:mem:reviewlisting;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class ReviewListingTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private LibraryFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ItemDescriptionRepository itemDescriptionRepository;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    // Walks every page of the listing and returns the review ids in the order they were served
+    private List<Long> walk(int descriptionId, String sort, int limit) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        do {
+            var request = get("/api/reviews/users/all-reviews/" + descriptionId + "/page")
+                .param("sort", sort)
+                .param("limit", String.valueOf(limit));
+            if (after != null) {
+                request.param("after", after);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+            page.get("reviews").forEach(review -> ids.add(review.get("reviewId").asLong()));
+            after = page.get("hasMore").asBoolean() ? page.get("nextCursor").asText() : null;
+        } while (after != null);
+        return ids;
+    }
+
+    @Test
+    void testPagesWalkEachSortInOrderWithOneQueryPerPage() throws Exception {
+        BorrowerEntity borrower = fixtures.addBorrower("Prolific Reviewer", "prolific@nu.edu.pk");
+
+        int descriptionId = fixtures.addBook("Much Reviewed");
+        int otherId = fixtures.addBook("Other Book");
+        BorrowEntity borrow = borrowService.createBorrow(borrower, descriptionId).orElseThrow();
+        ItemDescriptionEntity description = itemDescriptionRepository.findById(descriptionId).orElseThrow();
+
+        // Seven reviews with tied ratings and tied timestamps, plus one without a rating
+        long base = System.currentTimeMillis() - 100_000;
+        Integer[] ratings = {5, 3, 5, 1, 3, 4, 2, null};
+        long[] offsets = {0, 1000, 1000, 2000, 3000, 3000, 4000, 5000};
+        List<ReviewEntity> saved = new ArrayList<>();
+        for (int i = 0; i < ratings.length; i++) {
+            ReviewEntity review = new ReviewEntity(borrower, description, borrow, ratings[i], "Review " + i);
+            review.setCreatedAt(new Date(base + offsets[i]));
+            saved.add(reviewRepository.save(review));
+        }
+        // Another item's review never shows up
+        ItemDescriptionEntity other = itemDescriptionRepository.findById(otherId).orElseThrow();
+        reviewRepository.save(new ReviewEntity(borrower, other, borrow, 5, "Elsewhere"));
+
+        List<Long> newest = saved.stream()
+            .sorted((a, b) -> a.getCreatedAt().equals(b.getCreatedAt())
+                ? b.getId().compareTo(a.getId())
+                : b.getCreatedAt().compareTo(a.getCreatedAt()))
+            .map(ReviewEntity::getId).toList();
+        List<Long> highest = saved.stream()
+            .sorted((a, b) -> a.getRating() == null || b.getRating() == null
+                ? Boolean.compare(a.getRating() == null, b.getRating() == null)
+                : a.getRating().equals(b.getRating()) ? b.getId().compareTo(a.getId()) : b.getRating().compareTo(a.getRating()))
+            .map(ReviewEntity::getId).toList();
+        List<Long> lowest = saved.stream()
+            .sorted((a, b) -> a.getRating() == null || b.getRating() == null
+                ? Boolean.compare(a.getRating() == null, b.getRating() == null)
+                : a.getRating().equals(b.getRating()) ? a.getId().compareTo(b.getId()) : a.getRating().compareTo(b.getRating()))
+            .map(ReviewEntity::getId).toList();
+
+        for (int limit : new int[] {1, 3, 20}) {
+            assertEquals(newest, walk(descriptionId, "newest", limit), "Newest out of order at limit " + limit);
+            assertEquals(highest, walk(descriptionId, "highest", limit), "Highest out of order at limit " + limit);
+            assertEquals(lowest, walk(descriptionId, "lowest", limit), "Lowest out of order at limit " + limit);
+        }
+
+        // A page is one query; reviewer, borrow and item come with it rather than loaded per review
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        JsonNode page = objectMapper.readTree(mockMvc.perform(get("/api/reviews/users/all-reviews/" + descriptionId + "/page")
+                .param("limit", "3"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString());
+        assertEquals(1, statistics.getPrepareStatementCount(), "Expected one statement, got " + statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount(), "Expected no entity loads, got " + statistics.getEntityLoadCount());
+        JsonNode first = page.get("reviews").get(0);
+        assertEquals("Prolific Reviewer", first.get("reviewerName").asText());
+        assertEquals("Much Reviewed", first.get("itemName").asText());
+        assertEquals(borrow.getId(), first.get("borrowId").asInt());
+    }
+
+    @Test
+    void testPageRejectsBadSortAndCursor() throws Exception {
+        String path = "/api/reviews/users/all-reviews/1/page";
+        mockMvc.perform(get(path).param("sort", "helpful"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get(path).param("after", "not-a-cursor"))
+            .andExpect(status().isBadRequest());
+        // A cursor from one order can't continue another
+        String highestCursor = new ReviewCursor(ReviewSort.HIGHEST, 5L, 4).encode();
+        mockMvc.perform(get(path).param("sort", "newest").param("after", highestCursor))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,258 @@
+package com.aaa_battery.aaa_batteryproject.reviews;
+
+import com.aaa_battery.aaa_batteryproject.borrows.model.BorrowEntity;
+import com.aaa_battery.aaa_batteryproject.borrows.service.BorrowService;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.repository.ItemDescriptionRepository;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.service.ItemDescriptionService;
+import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewCreateRequestDTO;
+import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewResponseDTO;
+import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewUpdateRequestDTO;
+import com.aaa_battery.aaa_batteryproject.reviews.service.ReviewCountersInitializer;
+import com.aaa_battery.aaa_batteryproject.reviews.service.ReviewService;
+import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
+import com.aaa_battery.aaa_batteryproject.user.repositories.BorrowerRepository;
+import com.aaa_battery.aaa_batteryproject.util.LibraryFixtures;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Review counters, average and star histogram kept up by deltas as reviews come and go, against a database of its own
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:reviewrating;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class ReviewRatingTest {
+
+    @Autowired
+    private LibraryFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReviewCountersInitializer reviewCountersInitializer;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ItemDescriptionRepository itemDescriptionRepository;
+
+    @Autowired
+    private ItemDescriptionService itemDescriptionService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        fixtures.deleteAll();
+    }
+
+    // Borrows and returns a copy of the book, then reviews it
+    private ReviewResponseDTO review(String email, int descriptionId, Integer rating) {
+        BorrowerEntity borrower = fixtures.addBorrower("Reviewer " + email, email);
+
+        BorrowEntity borrow = borrowService.createBorrow(borrower, descriptionId).orElseThrow();
+        borrowService.returnBorrows(List.of(borrow.getId()));
+
+        ReviewCreateRequestDTO request = new ReviewCreateRequestDTO();
+        request.setBorrowId(borrow.getId().longValue());
+        request.setRating(rating);
+        request.setComment("Rated " + rating);
+        return as(email, reviewer -> reviewService.createReview(reviewer, request));
+    }
+
+    // The reviewer is loaded in the same session as the review work, as it is for a request
+    private <T> T as(String email, Function<BorrowerEntity, T> work) {
+        return new TransactionTemplate(transactionManager)
+            .execute(status -> work.apply(borrowerRepository.findByEmail(email).orElseThrow()));
+    }
+
+    private boolean deleteAs(String email, Long reviewId) {
+        return as(email, reviewer -> reviewService.deleteReview(reviewer, reviewId));
+    }
+
+    // Stars are the review counts for one to five stars; together they are the rating count
+    private void assertRating(int descriptionId, int count, long sum, double average, Integer... stars) {
+        ItemDescriptionEntity description = itemDescriptionRepository.findById(descriptionId).orElseThrow();
+        assertTrue(description.getReviewCount() == count && description.getRatingSum() == sum, "Expected " + count + " reviews summing to " + sum + ", got " + description.getReviewCount() + "/" + description.getRatingSum());
+        int rated = Arrays.stream(stars).mapToInt(Integer::intValue).sum();
+        assertEquals(rated, description.getRatingCount(), "Expected " + rated + " ratings, got " + description.getRatingCount());
+        assertEquals(average, description.getAverageRating(), "Expected an average of " + average + ", got " + description.getAverageRating());
+        assertEquals(ItemDescriptionEntity.ratingHistogram(stars), description.getRatingHistogram(), "Unexpected histogram " + description.getRatingHistogram());
+    }
+
+    @Test
+    void testCountersAndAverageFollowCreateUpdateAndDelete() {
+        int descriptionId = fixtures.addBook("Rated Book", 2);
+
+        ReviewResponseDTO first = review("first.rater@nu.edu.pk", descriptionId, 4);
+        assertRating(descriptionId, 1, 4, 4.0, 0, 0, 0, 1, 0);
+        ReviewResponseDTO second = review("second.rater@nu.edu.pk", descriptionId, 2);
+        assertRating(descriptionId, 2, 6, 3.0, 0, 1, 0, 1, 0);
+
+        ReviewUpdateRequestDTO update = new ReviewUpdateRequestDTO();
+        update.setRating(5);
+        update.setComment("Better on a second read");
+        as("second.rater@nu.edu.pk", reviewer -> reviewService.updateReview(reviewer, second.getReviewId(), update));
+        assertRating(descriptionId, 2, 9, 4.5, 0, 0, 0, 1, 1);
+
+        assertTrue(deleteAs("first.rater@nu.edu.pk", first.getReviewId()));
+        assertRating(descriptionId, 1, 5, 5.0, 0, 0, 0, 0, 1);
+        // A second delete of the same review changes nothing
+        assertFalse(deleteAs("first.rater@nu.edu.pk", first.getReviewId()));
+        assertRating(descriptionId, 1, 5, 5.0, 0, 0, 0, 0, 1);
+
+        assertTrue(deleteAs("second.rater@nu.edu.pk", second.getReviewId()));
+        assertRating(descriptionId, 0, 0, 0.0, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    void testEditSavedAfterAReviewKeepsTheNewAverage() throws Exception {
+        int descriptionId = fixtures.addBook("Edited While Rated", 1);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            ItemDescriptionEntity loaded = itemDescriptionService.findByIdForUpdate(descriptionId);
+            // A review commits on its own while the edit holds the description as it was loaded
+            CompletableFuture.runAsync(() -> review("midedit@nu.edu.pk", descriptionId, 4)).join();
+            loaded.setBlurb("Edited after the review landed");
+            itemDescriptionService.saveDescription(loaded);
+        });
+
+        assertRating(descriptionId, 1, 4, 4.0, 0, 0, 0, 1, 0);
+        assertEquals("Edited after the review landed", itemDescriptionRepository.findById(descriptionId).orElseThrow().getBlurb());
+    }
+
+    @Test
+    void testReviewWithoutRatingCountsAsAReviewButNotARating() {
+        int descriptionId = fixtures.addBook("Unrated Book", 2);
+        review("rated@nu.edu.pk", descriptionId, 4);
+        ReviewResponseDTO unrated = review("unrated@nu.edu.pk", descriptionId, null);
+        assertRating(descriptionId, 2, 4, 4.0, 0, 0, 0, 1, 0);
+
+        // Giving a rating later counts it; taking it away again leaves it out of the average once more
+        ReviewUpdateRequestDTO update = new ReviewUpdateRequestDTO();
+        update.setRating(2);
+        update.setComment("Rated after all");
+        as("unrated@nu.edu.pk", reviewer -> reviewService.updateReview(reviewer, unrated.getReviewId(), update));
+        assertRating(descriptionId, 2, 6, 3.0, 0, 1, 0, 1, 0);
+        update.setRating(null);
+        as("unrated@nu.edu.pk", reviewer -> reviewService.updateReview(reviewer, unrated.getReviewId(), update));
+        assertRating(descriptionId, 2, 4, 4.0, 0, 0, 0, 1, 0);
+
+        // The backfill counts the same way, including a row from before the rating count
+        jdbcTemplate.update("UPDATE item_description SET review_count = NULL, rating_count = NULL WHERE description_id = ?", descriptionId);
+        reviewCountersInitializer.backfillReviewCounters();
+        assertRating(descriptionId, 2, 4, 4.0, 0, 0, 0, 1, 0);
+
+        assertTrue(deleteAs("unrated@nu.edu.pk", unrated.getReviewId()));
+        assertRating(descriptionId, 1, 4, 4.0, 0, 0, 0, 1, 0);
+    }
+
+    @Test
+    void testRatingOutsideOneToFiveIsNeitherAcceptedNorCounted() {
+        int descriptionId = fixtures.addBook("Off The Scale", 1);
+        assertThrows(IllegalArgumentException.class, () -> review("eleven@nu.edu.pk", descriptionId, 11));
+        assertRating(descriptionId, 0, 0, 0.0, 0, 0, 0, 0, 0);
+
+        // A row written before ratings were checked counts as a review without a rating
+        ReviewResponseDTO legacy = review("legacy@nu.edu.pk", descriptionId, 4);
+        jdbcTemplate.update("UPDATE reviews SET rating = 9 WHERE id = ?", legacy.getReviewId());
+        jdbcTemplate.update("UPDATE item_description SET review_count = NULL WHERE description_id = ?", descriptionId);
+        reviewCountersInitializer.backfillReviewCounters();
+        assertRating(descriptionId, 1, 0, 0.0, 0, 0, 0, 0, 0);
+
+        assertTrue(deleteAs("legacy@nu.edu.pk", legacy.getReviewId()));
+        assertRating(descriptionId, 0, 0, 0.0, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    void testSuggestionsReorderOnceAReviewCommits() throws Exception {
+        fixtures.addBook("Quillfeather Almanac", 1);
+        int second = fixtures.addBook("Quillfeather Bestiary", 1);
+        mockMvc.perform(get("/api/items/users/suggest").param("q", "quillf"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].itemName").value("Quillfeather Almanac"))
+            .andExpect(jsonPath("$[1].itemName").value("Quillfeather Bestiary"));
+
+        // The index re-reads the description after the review commits and ranks by the new average
+        review("suggest.rater@nu.edu.pk", second, 5);
+        mockMvc.perform(get("/api/items/users/suggest").param("q", "quillf"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].itemName").value("Quillfeather Bestiary"))
+            .andExpect(jsonPath("$[0].averageRating").value(5.0))
+            .andExpect(jsonPath("$[1].itemName").value("Quillfeather Almanac"));
+    }
+
+    @Test
+    void testHistogramIsBackfilledAndServedInBatchesAndOnItemDetail() throws Exception {
+        int rated = fixtures.addBook("Histogram Book", 3);
+        int unrated = fixtures.addBook("Quiet Book", 1);
+        review("one@nu.edu.pk", rated, 5);
+        review("two@nu.edu.pk", rated, 5);
+        review("three@nu.edu.pk", rated, 2);
+
+        // A row from before the histogram: counters kept, star counts missing
+        jdbcTemplate.update("UPDATE item_description SET one_star_count = NULL, two_star_count = NULL, " +
+            "three_star_count = NULL, four_star_count = NULL, five_star_count = NULL WHERE description_id = ?", rated);
+        reviewCountersInitializer.backfillReviewCounters();
+        assertRating(rated, 3, 12, 4.0, 0, 1, 0, 0, 2);
+
+        mockMvc.perform(get("/api/reviews/users/ratings-summary")
+                .param("descriptionIds", rated + "," + unrated + ",999999"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].descriptionId").value(rated))
+            .andExpect(jsonPath("$[0].reviewCount").value(3))
+            .andExpect(jsonPath("$[0].averageRating").value(4.0))
+            .andExpect(jsonPath("$[0].ratingHistogram.5").value(2))
+            .andExpect(jsonPath("$[0].ratingHistogram.2").value(1))
+            .andExpect(jsonPath("$[0].ratingHistogram.1").value(0))
+            .andExpect(jsonPath("$[1].reviewCount").value(0))
+            .andExpect(jsonPath("$[1].ratingHistogram.5").value(0));
+
+        mockMvc.perform(get("/api/reviews/users/ratings-summary")
+                .param("descriptionIds", IntStream.rangeClosed(1, 201)
+                    .mapToObj(String::valueOf).toArray(String[]::new)))
+            .andExpect(status().isBadRequest());
+
+        // The item detail carries the histogram on its description
+        mockMvc.perform(get("/api/items/users/view-item").param("descriptionId", String.valueOf(rated)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].description.ratingHistogram.5").value(2))
+            .andExpect(jsonPath("$[0].description.ratingHistogram.3").value(0));
+    }
+}
@@ -217,6 +217,18 @@ public class ReviewCTest {
         });
     }
 
+    @Test
+    void testUpdateReview_RatingOutOfRange() {
+        ReviewUpdateRequestDTO updateDTO = new ReviewUpdateRequestDTO();
+        updateDTO.setRating(7);
+        updateDTO.setComment("Off the scale");
+
+        ResponseEntity<ReviewResponseDTO> response = reviewController.updateReview(1L, updateDTO);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(reviewService, never()).updateReview(any(), any(), any());
+    }
+
     @Test
     void testDeleteReview_Success() {
         when(authentication.isAuthenticated()).thenReturn(true);
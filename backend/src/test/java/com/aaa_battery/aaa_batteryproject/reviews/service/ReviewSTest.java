@@ -5,9 +5,12 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -26,6 +29,7 @@ import com.aaa_battery.aaa_batteryproject.reviews.dto.ReviewUpdateRequestDTO;
 import com.aaa_battery.aaa_batteryproject.reviews.model.ReviewEntity;
 import com.aaa_battery.aaa_batteryproject.reviews.repository.ReviewRepository;
 import com.aaa_battery.aaa_batteryproject.reviews.service.ReviewService;
+import com.aaa_battery.aaa_batteryproject.retry.ConflictRetryExecutor;
 import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
 import com.aaa_battery.aaa_batteryproject.user.services.UserService;
 import jakarta.persistence.EntityNotFoundException;
@@ -35,6 +39,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 public class ReviewSTest {
     
@@ -50,6 +55,12 @@ public class ReviewSTest {
     @Mock
     private UserService userService;
     
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private ConflictRetryExecutor conflictRetryExecutor;
+    
     @Mock
     private SecurityContext securityContext;
     
@@ -72,6 +83,10 @@ public class ReviewSTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         
+        // Run the work straight through, as a single conflict-free attempt
+        when(conflictRetryExecutor.inTransaction(anyString(), any(), any()))
+            .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(2)).get());
+        
         // Setup SecurityContext mock
         when(securityContext.getAuthentication()).thenReturn(authentication);
         SecurityContextHolder.setContext(securityContext);
@@ -132,10 +147,12 @@ public class ReviewSTest {
         assertEquals(1L, result.getReviewId());
         assertEquals(4, result.getRating());
         
-        // Verify repository interactions
+        // Verify repository interactions: one save, one counter update, no reviews reloaded
         verify(borrowRepository).findById(200L);
-        verify(reviewRepository, times(2)).save(any(ReviewEntity.class));
-        verify(itemDescriptionRepository).save(any(ItemDescriptionEntity.class));
+        verify(reviewRepository, times(1)).save(any(ReviewEntity.class));
+        verify(itemDescriptionRepository).adjustReviewCounters(100, 1, 1, 4L, 0, 4);
+        verify(itemDescriptionRepository, never()).save(any(ItemDescriptionEntity.class));
+        verify(reviewRepository, never()).findByItemDescription(any());
     }
     
     @Test
@@ -170,6 +187,28 @@ public class ReviewSTest {
         });
     }
     
+    @Test
+    void testCreateReview_RatingOutOfRange() {
+        reviewDTO.setRating(6);
+
+        assertThrows(IllegalArgumentException.class, () -> reviewService.createReview(borrower, reviewDTO));
+
+        verify(reviewRepository, never()).save(any(ReviewEntity.class));
+        verify(itemDescriptionRepository, never()).adjustReviewCounters(anyInt(), anyInt(), anyInt(), anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testUpdateReview_RatingOutOfRange() {
+        ReviewUpdateRequestDTO updateDTO = new ReviewUpdateRequestDTO();
+        updateDTO.setRating(0);
+        updateDTO.setComment("No stars at all");
+
+        assertThrows(IllegalArgumentException.class, () -> reviewService.updateReview(borrower, 1L, updateDTO));
+
+        verify(reviewRepository, never()).save(any(ReviewEntity.class));
+        verify(itemDescriptionRepository, never()).adjustReviewCounters(anyInt(), anyInt(), anyInt(), anyLong(), anyInt(), anyInt());
+    }
+
     @Test
     void testCreateReview_NotBorrower() {
         BorrowerEntity differentBorrower = new BorrowerEntity();
@@ -256,8 +295,6 @@ public class ReviewSTest {
 
         when(reviewRepository.findById(1L)).thenReturn(Optional.of(review));
         when(reviewRepository.save(any(ReviewEntity.class))).thenReturn(review);
-        when(reviewRepository.findByItemDescription(itemDescription)).thenReturn(Collections.singletonList(review));
-        when(itemDescriptionRepository.save(any(ItemDescriptionEntity.class))).thenReturn(itemDescription);
 
         ReviewResponseDTO result = reviewService.updateReview(borrower, 1L, updateDTO);
 
@@ -265,6 +302,30 @@ public class ReviewSTest {
         assertEquals(1L, result.getReviewId());
         assertEquals(5, result.getRating());
         assertEquals("Updated comment", result.getComment());
+        // 4 -> 5 moves the sum by one and leaves the count alone
+        verify(itemDescriptionRepository).adjustReviewCounters(100, 0, 0, 1L, 4, 5);
+        verify(reviewRepository, never()).findByItemDescription(any());
+    }
+
+    @Test
+    void testUpdateReview_CommentOnlyLeavesCountersAlone() {
+        ReviewUpdateRequestDTO updateDTO = new ReviewUpdateRequestDTO();
+        updateDTO.setRating(4);
+        updateDTO.setComment("Reworded");
+
+        ReviewEntity review = new ReviewEntity();
+        review.setId(1L);
+        review.setReviewer(borrower);
+        review.setItemDescription(itemDescription);
+        review.setBorrow(borrow);
+        review.setRating(4);
+
+        when(reviewRepository.findById(1L)).thenReturn(Optional.of(review));
+        when(reviewRepository.save(any(ReviewEntity.class))).thenReturn(review);
+
+        reviewService.updateReview(borrower, 1L, updateDTO);
+
+        verify(itemDescriptionRepository, never()).adjustReviewCounters(anyInt(), anyInt(), anyInt(), anyLong(), anyInt(), anyInt());
     }
 
     @Test
@@ -309,6 +370,42 @@ public class ReviewSTest {
         verify(reviewRepository).delete(review);
     }
 
+    @Test
+    void testDeleteReview_TakesReviewOffCounters() {
+        ReviewEntity review = new ReviewEntity();
+        review.setId(1L);
+        review.setReviewer(borrower);
+        review.setItemDescription(itemDescription);
+        review.setRating(3);
+
+        when(reviewRepository.findById(1L)).thenReturn(Optional.of(review));
+
+        assertTrue(reviewService.deleteReview(borrower, 1L));
+
+        verify(itemDescriptionRepository).adjustReviewCounters(100, -1, -1, -3L, 3, 0);
+        verify(itemDescriptionRepository, never()).backfillReviewCounters(any());
+    }
+
+    @Test
+    void testBackfillReviewCounters_LocksBatchBeforeCounting() {
+        when(itemDescriptionRepository.findIdsWithoutReviewCounters(any())).thenReturn(Arrays.asList(100, 101));
+
+        assertEquals(2, reviewService.backfillReviewCounters(500));
+
+        InOrder inOrder = inOrder(itemDescriptionRepository);
+        inOrder.verify(itemDescriptionRepository).lockForReviewCounters(Arrays.asList(100, 101));
+        inOrder.verify(itemDescriptionRepository).backfillReviewCounters(Arrays.asList(100, 101));
+    }
+
+    @Test
+    void testBackfillReviewCounters_NothingLeft() {
+        when(itemDescriptionRepository.findIdsWithoutReviewCounters(any())).thenReturn(Collections.emptyList());
+
+        assertEquals(0, reviewService.backfillReviewCounters(500));
+
+        verify(itemDescriptionRepository, never()).lockForReviewCounters(any());
+    }
+
     @Test
     void testDeleteReview_ReviewNotFound() {
         when(reviewRepository.findById(1L)).thenReturn(Optional.empty());
@@ -349,6 +446,22 @@ public class ReviewSTest {
         assertFalse(result);
     }
 
+    @Test
+    void testDeleteReview_StillConflictingAfterRetries() {
+        doThrow(new OptimisticLockingFailureException("conflict"))
+            .when(conflictRetryExecutor).inTransaction(anyString(), any(), any());
+
+        assertFalse(reviewService.deleteReview(borrower, 1L));
+    }
+
+    @Test
+    void testDeleteReview_OtherFailuresPropagate() {
+        doThrow(new IllegalStateException("database down"))
+            .when(conflictRetryExecutor).inTransaction(anyString(), any(), any());
+
+        assertThrows(IllegalStateException.class, () -> reviewService.deleteReview(borrower, 1L));
+    }
+
     @Test
     void testGetReviewsForItem_ReturnsList() {
         int itemDescriptionId = 100;
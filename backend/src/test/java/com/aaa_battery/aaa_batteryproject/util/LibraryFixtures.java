@@ -0,0 +1,98 @@
+package com.aaa_battery.aaa_batteryproject.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.aaa_battery.aaa_batteryproject.borrows.repository.BorrowRepository;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineBalanceRepository;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineLedgerRepository;
+import com.aaa_battery.aaa_batteryproject.fines.repository.FineRepository;
+import com.aaa_battery.aaa_batteryproject.idempotency.repository.IdempotencyRecordRepository;
+import com.aaa_battery.aaa_batteryproject.item.itemdescriptions.models.ItemDescriptionEntity;
+import com.aaa_battery.aaa_batteryproject.item.repository.ItemRepository;
+import com.aaa_battery.aaa_batteryproject.item.service.ItemService;
+import com.aaa_battery.aaa_batteryproject.reviews.repository.ReviewRepository;
+import com.aaa_battery.aaa_batteryproject.user.model.BorrowerEntity;
+import com.aaa_battery.aaa_batteryproject.user.repositories.BorrowerRepository;
+import com.aaa_battery.aaa_batteryproject.user.roles.Role;
+
+// Books and borrowers for tests that run against a database of their own, and the cleanup after them
+@Component
+public class LibraryFixtures {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private FineRepository fineRepository;
+
+    @Autowired
+    private FineLedgerRepository fineLedgerRepository;
+
+    @Autowired
+    private FineBalanceRepository fineBalanceRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    // Request body for a fiction book, as the librarian add-item endpoint takes it
+    public static Map<String, Object> bookRequest(String name, int copies) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("itemName", name);
+        data.put("type", "book");
+        data.put("genre", "Fiction");
+        data.put("blurb", "Test book");
+        data.put("authorName", "Author");
+        data.put("publisher", "Publisher");
+        data.put("totalCopies", copies);
+        return data;
+    }
+
+    public ItemDescriptionEntity addBookDescription(String name, int copies) {
+        return itemService.addItemFromRequest(bookRequest(name, copies));
+    }
+
+    public int addBook(String name, int copies) {
+        return addBookDescription(name, copies).getDescriptionId();
+    }
+
+    public int addBook(String name) {
+        return addBook(name, 1);
+    }
+
+    public BorrowerEntity addBorrower(String fullName, String email) {
+        BorrowerEntity borrower = new BorrowerEntity();
+        borrower.setFullName(fullName);
+        borrower.setEmail(email);
+        borrower.setPassword("password");
+        borrower.setRole(Role.BORROWER);
+        return borrowerRepository.save(borrower);
+    }
+
+    // Children first, so no delete trips over a foreign key
+    public void deleteAll() {
+        reviewRepository.deleteAll();
+        fineLedgerRepository.deleteAll();
+        fineBalanceRepository.deleteAll();
+        fineRepository.deleteAll();
+        idempotencyRecordRepository.deleteAll();
+        borrowRepository.deleteAll();
+        borrowerRepository.deleteAll();
+        itemRepository.deleteAll();
+    }
+}
@@ -34,7 +34,8 @@ export default function FinesManagementPage() {
   useEffect(() => {
     const fetchFines = async () => {
       try {
-        const data = await finesAPI.getAllFines()
+        // The listing is paged now; the newest fines fill this view
+        const data = await finesAPI.getAllFines({ size: 200 })
         apiToast(
           "Data Loaded",
           "Fines have been fetched successfully.",
@@ -42,7 +43,7 @@ export default function FinesManagementPage() {
           "/api/fines/librarian/view-fines",
           "info"
         )
-        setFines(data || [])
+        setFines(data?.data || [])
       } catch (err) {
         console.error(err)
         apiToast(
@@ -4,6 +4,9 @@
 import api from "./axios-instance"
 import { API_BASE_URL } from "./axios-instance"
 
+// Fresh key per user action; a retried fetch reuses it so the server replays instead of repeating
+const newIdempotencyKey = () => crypto.randomUUID()
+
 // API endpoints for borrow operations
 export const borrowAPI = {
   // Get all borrow requests - librarian only
@@ -20,6 +23,7 @@ export const borrowAPI = {
         method: "POST",
         headers: {
           "Content-Type": "application/json",
+          "Idempotency-Key": newIdempotencyKey(),
         },
         credentials: "include",
         body: JSON.stringify(borrowData),
@@ -57,6 +61,27 @@ export const borrowAPI = {
   },    
   
 
+  // Check out a whole cart in one request - borrower only; each line reports whether it was borrowed
+  submitBatchBorrowRequest: async (itemIds: number[]) => {
+    const response = await fetch(`${API_BASE_URL}/borrower/borrows/batch`, {
+      method: "POST",
+      headers: { "Content-Type": "application/json", "Idempotency-Key": newIdempotencyKey() },
+      credentials: "include",
+      body: JSON.stringify({ itemIds }),
+    })
+
+    if (!response.ok) {
+      throw new Error("Failed to check out items")
+    }
+    const result = await response.json()
+    return result.data as {
+      itemId: number
+      borrowed: boolean
+      receipt: any | null
+      message: string | null
+    }[]
+  },
+
   // Approve borrow request - librarian only
   approveBorrowRequest: async (requestId: number) => {
     return api.put(`/borrows/${requestId}/approve`)
@@ -80,10 +105,29 @@ export const borrowAPI = {
     return await response.json()
   },
 
+  // One page of the borrower's own history, newest first; status is BORROWED or RETURNED
+  getMyBorrowHistory: async (options: { page?: number; size?: number; status?: "BORROWED" | "RETURNED" } = {}) => {
+    const params = new URLSearchParams()
+    params.set("page", String(options.page ?? 0))
+    params.set("size", String(options.size ?? 20))
+    if (options.status) params.set("status", options.status)
+
+    const response = await fetch(`${API_BASE_URL}/borrower/my-borrows/history?${params}`, {
+      method: "GET",
+      credentials: "include",
+    })
+
+    if (!response.ok) {
+      throw new Error("Failed to fetch borrow history")
+    }
+    return await response.json()
+  },
+
   // Return item - borrower only
   returnItem: async (borrowId: number) => {
     const response = await fetch(`${API_BASE_URL}/borrower/return?id=${borrowId}`, {
       method: "POST",
+      headers: { "Idempotency-Key": newIdempotencyKey() },
       credentials: "include",
     })
 
@@ -94,6 +138,25 @@ export const borrowAPI = {
     return await response.json()
   },
 
+  // Close many returns at once from the scan station - librarian only
+  bulkReturn: async (ids: { borrowIds?: number[]; itemIds?: number[] }) => {
+    const response = await fetch(`${API_BASE_URL}/librarian/returns`, {
+      method: "POST",
+      headers: { "Content-Type": "application/json" },
+      credentials: "include",
+      body: JSON.stringify(ids),
+    })
+
+    if (!response.ok) {
+      throw new Error("Failed to process returns")
+    }
+    return (await response.json()) as {
+      returned: number
+      borrows: Record<string, "RETURNED" | "ALREADY_RETURNED" | "NOT_FOUND">
+      items: Record<string, "RETURNED" | "NOT_BORROWED">
+    }
+  },
+
   // Get borrow history - librarian only
   getBorrowHistory: async (filters?: any) => {
     return api.get("/borrows/history", { params: filters })
@@ -120,7 +183,7 @@ export const borrowAPI = {
   ) => {
     const res = await fetch(`${API_BASE_URL}/reviews/borrower/new-review`, {
       method: "POST",
-      headers: { "Content-Type": "application/json" },
+      headers: { "Content-Type": "application/json", "Idempotency-Key": newIdempotencyKey() },
       credentials: "include",
       body: JSON.stringify({ borrowId, itemId, rating, comment }),
     });
@@ -171,6 +234,25 @@ export const borrowAPI = {
     console.log("Reviews Data:", result);
     return result;
   },
+
+  // Keyset-paged reviews of one item: pass the previous page's nextCursor as `after` to load the next page
+  getReviewsPage: async (
+    bookId: number,
+    options: { limit?: number; after?: string | null; sort?: "newest" | "highest" | "lowest" } = {}
+  ) => {
+    const params = new URLSearchParams()
+    params.set("limit", String(options.limit ?? 20))
+    params.set("sort", options.sort ?? "newest")
+    if (options.after) {
+      params.set("after", options.after)
+    }
+    const res = await fetch(
+      `${API_BASE_URL}/reviews/users/all-reviews/${bookId}/page?${params.toString()}`,
+      { method: "GET", credentials: "include" }
+    )
+    if (!res.ok) throw new Error("Failed to fetch reviews")
+    return res.json() // { reviews, nextCursor, hasMore }
+  },
   
   
 
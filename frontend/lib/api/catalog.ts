@@ -30,14 +30,85 @@ export const catalogAPI = {
     })
   },
 
-  searchItems: async (query: string) => {
-    const response = await fetch(`${API_BASE_URL}/items/users/view-items`)
+  // Keyset-paged catalog: pass the previous page's nextCursor as `after` to load the next page.
+  // Filters narrow the page; facets report how many items each filter value would match.
+  getItemsPage: async (
+    options: {
+      limit?: number
+      after?: string | null
+      sort?: "name" | "date" | "rating"
+      type?: "book" | "audiobook" | "dvd"
+      genre?: string
+      availableOnly?: boolean
+      minRating?: number
+    } = {}
+  ) => {
+    const params = new URLSearchParams()
+    params.set("limit", String(options.limit ?? 20))
+    params.set("sort", options.sort ?? "name")
+    if (options.after) {
+      params.set("after", options.after)
+    }
+    if (options.type) {
+      params.set("type", options.type)
+    }
+    if (options.genre) {
+      params.set("genre", options.genre)
+    }
+    if (options.availableOnly) {
+      params.set("availableOnly", "true")
+    }
+    if (options.minRating) {
+      params.set("minRating", String(options.minRating))
+    }
+    const response = await fetch(`${API_BASE_URL}/items/users/view-items/page?${params.toString()}`)
+    if (!response.ok) {
+      throw new Error("Failed to fetch catalog page")
+    }
+    const data = await response.json()
+
+    return {
+      items: data.items.map((item: any) => {
+        const desc = item.description
+        return {
+          id: desc.descriptionId,
+          title: desc.itemName,
+          creator: desc.authorName || desc.director || desc.narratorName || "Unknown",
+          genre: desc.genre,
+          publisher: desc.publisher || desc.producer || "Unknown",
+          type: desc.type,
+          coverUrl: desc.imageUrl,
+          description: desc.blurb,
+          available: item.availableCopies > 0,
+          totalCopies: item.totalCopies,
+          availableCopies: item.availableCopies,
+          duration: desc.duration || null,
+        }
+      }),
+      nextCursor: data.nextCursor as string | null,
+      hasMore: data.hasMore as boolean,
+      facets: data.facets as {
+        total: number
+        type: Record<string, number>
+        genre: Record<string, number>
+        availability: { available: number; all: number }
+        rating: Record<string, number>
+      },
+    }
+  },
+
+  // Server-side search over titles, blurbs, genres and creators
+  searchItems: async (query: string, limit = 20) => {
+    const params = new URLSearchParams()
+    params.set("q", query)
+    params.set("limit", String(limit))
+    const response = await fetch(`${API_BASE_URL}/items/users/search?${params.toString()}`)
     if (!response.ok) {
       throw new Error("Failed to fetch catalog search items")
     }
     const data = await response.json()
 
-    const mapped = data.map((item: any) => {
+    return data.map((item: any) => {
       const desc = item.description
       return {
         id: desc.descriptionId,
@@ -46,21 +117,33 @@ export const catalogAPI = {
         genre: desc.genre,
         publisher: desc.publisher || desc.producer || "Unknown",
         type: desc.type,
-        year: desc.date ? desc.date[0] : "Unknown",
         coverUrl: desc.imageUrl,
         description: desc.blurb,
-        available: item.availability,
-        totalCopies: desc.totalCopies,
-        availableCopies: undefined,
+        available: item.availableCopies > 0,
+        totalCopies: item.totalCopies,
+        availableCopies: item.availableCopies,
         duration: desc.duration || null,
       }
     })
+  },
 
-    return mapped.filter((item: any) =>
-      item.title.toLowerCase().includes(query.toLowerCase()) ||
-      item.creator.toLowerCase().includes(query.toLowerCase()) ||
-      item.description.toLowerCase().includes(query.toLowerCase())
-    )
+  // Typeahead completions for the search box; answered from the server's in-memory index
+  suggest: async (query: string, limit = 8) => {
+    const params = new URLSearchParams()
+    params.set("q", query)
+    params.set("limit", String(limit))
+    const response = await fetch(`${API_BASE_URL}/items/users/suggest?${params.toString()}`)
+    if (!response.ok) {
+      throw new Error("Failed to fetch suggestions")
+    }
+    return (await response.json()) as {
+      descriptionId: number
+      itemName: string
+      type: string
+      matchedField: string
+      matchedText: string
+      averageRating: number
+    }[]
   },
 
   // ✅ Correct individual item fetch + availableCopies counting
@@ -96,7 +179,27 @@ export const catalogAPI = {
       totalCopies: totalCopies,
       availableCopies: availableCopies,
       duration: desc.duration || null,
+      averageRating: desc.averageRating ?? 0,
+      ratingHistogram: desc.ratingHistogram ?? { 1: 0, 2: 0, 3: 0, 4: 0, 5: 0 }, // reviews per star, 1 to 5
+    }
+  },
+
+  // Average, review count and star histogram for many items in one request (at most 200 ids)
+  getRatingSummaries: async (descriptionIds: number[]) => {
+    if (descriptionIds.length === 0) {
+      return []
+    }
+    const params = new URLSearchParams({ descriptionIds: descriptionIds.join(",") })
+    const response = await fetch(`${API_BASE_URL}/reviews/users/ratings-summary?${params.toString()}`)
+    if (!response.ok) {
+      throw new Error("Failed to fetch rating summaries")
     }
+    return (await response.json()) as {
+      descriptionId: number
+      averageRating: number
+      reviewCount: number
+      ratingHistogram: Record<number, number>
+    }[]
   },
 addItem: async (formData: any) => {
     const payload: any = {
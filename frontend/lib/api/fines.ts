@@ -16,7 +16,9 @@ export const finesAPI = {
     return await res.json()  // returns array of { fineId, amount, paid, issuedDate, itemId, itemName, borrowDate, returnDate, daysLate }
   },
 
-  getAllFines: async (params: any) => {
+  // One page of fines: { data, page, size, totalElements, totalPages }.
+  // Accepts page, size, paid, borrowerId and from/to (YYYY-MM-DD, inclusive).
+  getAllFines: async (params: any = {}) => {
     // Convert params object to query string
     const queryString = new URLSearchParams(params).toString();
   
@@ -59,6 +61,31 @@ export const finesAPI = {
     return await res.json()
   },
 
+  /** What the current borrower owes: { borrowerId, balance, accrued, paid, waived } */
+  getMyBalance: async () => {
+    const res = await fetch(`${API_BASE_URL}/fines/borrower/balance`, {
+      method: "GET",
+      credentials: "include",
+    })
+    if (!res.ok) {
+      throw new Error("Failed to fetch fine balance")
+    }
+    return await res.json()
+  },
+
+  /** Close a fine without payment - librarian only */
+  waiveFine: async (fineId: number) => {
+    const res = await fetch(`${API_BASE_URL}/fines/librarian/${fineId}/waive`, {
+      method: "POST",
+      credentials: "include",
+    })
+    if (!res.ok) {
+      const text = await res.text()
+      throw new Error(`Failed to waive fine: ${text}`)
+    }
+    return await res.json()
+  },
+
   /** Existing: fetch payment history */
   getPaymentHistory: async (params: any) => {
     // your existing implementation...